@@ -1,13 +1,21 @@
 package com.library.library_management;
 
+import com.library.library_management.startup.StartupTimingReport;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class LibraryManagementApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(LibraryManagementApplication.class, args);
+		StartupTimingReport.markMainStarted();
+		SpringApplication application = new SpringApplication(LibraryManagementApplication.class);
+		// Records how long each startup step takes — StartupTimingReport prints the breakdown
+		application.setApplicationStartup(new BufferingApplicationStartup(4096));
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,10 @@
+package com.library.library_management.analytics;
+
+import java.time.LocalDate;
+
+/**
+ * One archived_circulation summary row, loaded for the circulation snapshot (like CirculationRow).
+ */
+public record ArchivedCirculationRow(LocalDate borrowDate, String author, int pubYear, int borrows, int returnedLate,
+                                     long loanDays) {
+}
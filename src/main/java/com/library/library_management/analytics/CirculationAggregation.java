@@ -0,0 +1,131 @@
+package com.library.library_management.analytics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Every report figure in ONE pass over a CirculationSnapshot, split across cores with fork/join.
+ *
+ * The row range is halved until a chunk is small enough. Each THREAD fills one Totals (plain arrays,
+ * no sharing, no locks) for every chunk it runs, and the few per-thread Totals are summed at the end.
+ * Why not one Totals per chunk? → perAuthor has one slot per author, so a big catalogue would allocate
+ * (and sum) an author-sized array for every 16k rows; per thread it's one per core.
+ */
+public final class CirculationAggregation {
+
+    private static final int CHUNK_SIZE = 16_384;
+
+    private CirculationAggregation() {
+    }
+
+    /**
+     * @param fromDay first borrow day to include (epoch day, inclusive)
+     * @param toDay   last borrow day to include (epoch day, inclusive)
+     */
+    public static Totals run(CirculationSnapshot snapshot, int fromDay, int toDay) {
+        if (snapshot.size <= CHUNK_SIZE) {
+            Totals totals = new Totals(snapshot);
+            scan(snapshot, fromDay, toDay, 0, snapshot.size, totals);
+            return totals;
+        }
+        Map<Thread, Totals> perThread = new ConcurrentHashMap<>();
+        ForkJoinPool.commonPool().invoke(new Chunk(snapshot, fromDay, toDay, 0, snapshot.size, perThread));
+        Totals result = null;
+        for (Totals totals : perThread.values()) {
+            if (result == null) {
+                result = totals;
+            } else {
+                result.add(totals);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Raw sums — CirculationAnalyticsService turns these into the report.
+     * Index arrays are offsets from snapshot.minMonth / snapshot.minDecade / author id.
+     */
+    public static final class Totals {
+        public final long[] perMonth;
+        public final long[] perDecade;
+        public final long[] perAuthor;
+        public long borrows;
+        public long returned;
+        public long returnedLate;
+        public long loanDays;
+
+        Totals(CirculationSnapshot snapshot) {
+            this.perMonth = new long[Math.max(0, snapshot.maxMonth - snapshot.minMonth + 1)];
+            this.perDecade = new long[Math.max(0, (snapshot.maxDecade - snapshot.minDecade) / 10 + 1)];
+            this.perAuthor = new long[snapshot.authorNames.length];
+        }
+
+        void add(Totals other) {
+            for (int i = 0; i < perMonth.length; i++) {
+                perMonth[i] += other.perMonth[i];
+            }
+            for (int i = 0; i < perDecade.length; i++) {
+                perDecade[i] += other.perDecade[i];
+            }
+            for (int i = 0; i < perAuthor.length; i++) {
+                perAuthor[i] += other.perAuthor[i];
+            }
+            borrows += other.borrows;
+            returned += other.returned;
+            returnedLate += other.returnedLate;
+            loanDays += other.loanDays;
+        }
+    }
+
+    // Adds rows [start, end) to the totals
+    private static void scan(CirculationSnapshot s, int fromDay, int toDay, int start, int end, Totals totals) {
+        for (int i = start; i < end; i++) {
+            int day = s.borrowDay[i];
+            if (day < fromDay || day > toDay) {
+                continue;
+            }
+            int borrows = s.borrows[i]; // 1, or how many archived loans a summary row stands for
+            totals.borrows += borrows;
+            totals.perMonth[s.borrowMonth[i] - s.minMonth] += borrows;
+            totals.perDecade[(s.pubDecade[i] - s.minDecade) / 10] += borrows;
+            totals.perAuthor[s.authorId[i]] += borrows;
+            totals.returned += s.returned[i];
+            totals.returnedLate += s.returnedLate[i];
+            totals.loanDays += s.loanDays[i];
+        }
+    }
+
+    private static final class Chunk extends RecursiveAction {
+
+        private final CirculationSnapshot snapshot;
+        private final int fromDay;
+        private final int toDay;
+        private final int start;
+        private final int end;
+        private final Map<Thread, Totals> perThread;
+
+        Chunk(CirculationSnapshot snapshot, int fromDay, int toDay, int start, int end, Map<Thread, Totals> perThread) {
+            this.snapshot = snapshot;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.start = start;
+            this.end = end;
+            this.perThread = perThread;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > CHUNK_SIZE) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new Chunk(snapshot, fromDay, toDay, start, middle, perThread),
+                        new Chunk(snapshot, fromDay, toDay, middle, end, perThread));
+                return;
+            }
+            // A thread runs one chunk at a time (scan never waits on another task), so its Totals is never shared
+            Totals totals = perThread.computeIfAbsent(Thread.currentThread(), thread -> new Totals(snapshot));
+            scan(snapshot, fromDay, toDay, start, end, totals);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.library.library_management.analytics;
+
+import com.library.library_management.model.BorrowStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Just the columns the circulation snapshot needs — loaded instead of full Borrow/Book/User entities.
+ */
+public record CirculationRow(LocalDate borrowDate, LocalDate dueDate, LocalDate returnDate, BorrowStatus status,
+                             String author, int pubYear) {
+}
@@ -0,0 +1,92 @@
+package com.library.library_management.analytics;
+
+import java.time.Instant;
+
+/**
+ * Read-only, column-oriented copy of the borrows table (joined with the book columns reports need)
+ * plus the archived loans' summary rows (archived_circulation).
+ *
+ * One array per column, one index per row — so an aggregation is a tight loop over primitive
+ * arrays instead of a walk over millions of Borrow/Book objects. Authors are dictionary-encoded:
+ * authorId[i] points into authorNames.
+ *
+ * A row is either one live loan (borrows = 1) or one summary row standing for every archived loan
+ * with the same borrow date, author and publication year — the counters say how many loans it is,
+ * how many of them were returned / returned late, and their loan days added up.
+ *
+ * Dates are stored as epoch days (LocalDate.toEpochDay), months as year * 12 + (month - 1).
+ *
+ * Never modified after construction — a refresh builds a new snapshot and swaps the reference.
+ */
+public final class CirculationSnapshot {
+
+    final int size;
+    final int[] borrowDay;
+    final int[] borrowMonth;
+    final int[] authorId;
+    final int[] pubDecade;
+    final int[] borrows;
+    final int[] returned;
+    final int[] returnedLate;
+    final long[] loanDays;
+
+    final String[] authorNames;
+    final int minMonth;
+    final int maxMonth;
+    final int minDecade;
+    final int maxDecade;
+    final Instant takenAt;
+
+    CirculationSnapshot(int size, int[] borrowDay, int[] borrowMonth, int[] authorId, int[] pubDecade,
+                        int[] borrows, int[] returned, int[] returnedLate, long[] loanDays,
+                        String[] authorNames, Instant takenAt) {
+        this.size = size;
+        this.borrowDay = borrowDay;
+        this.borrowMonth = borrowMonth;
+        this.authorId = authorId;
+        this.pubDecade = pubDecade;
+        this.borrows = borrows;
+        this.returned = returned;
+        this.returnedLate = returnedLate;
+        this.loanDays = loanDays;
+        this.authorNames = authorNames;
+        this.takenAt = takenAt;
+
+        int minM = Integer.MAX_VALUE, maxM = Integer.MIN_VALUE, minD = Integer.MAX_VALUE, maxD = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            minM = Math.min(minM, borrowMonth[i]);
+            maxM = Math.max(maxM, borrowMonth[i]);
+            minD = Math.min(minD, pubDecade[i]);
+            maxD = Math.max(maxD, pubDecade[i]);
+        }
+        this.minMonth = size == 0 ? 0 : minM;
+        this.maxMonth = size == 0 ? -1 : maxM;
+        this.minDecade = size == 0 ? 0 : minD;
+        this.maxDecade = size == 0 ? -10 : maxD;
+    }
+
+    public static CirculationSnapshot empty() {
+        return new CirculationSnapshot(0, new int[0], new int[0], new int[0], new int[0],
+                new int[0], new int[0], new int[0], new long[0], new String[0], Instant.EPOCH);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Instant takenAt() {
+        return takenAt;
+    }
+
+    public int minMonth() {
+        return minMonth;
+    }
+
+    public int minDecade() {
+        return minDecade;
+    }
+
+    public String authorName(int id) {
+        return authorNames[id];
+    }
+}
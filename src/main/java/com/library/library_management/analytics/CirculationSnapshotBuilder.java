@@ -0,0 +1,91 @@
+package com.library.library_management.analytics;
+
+import com.library.library_management.model.BorrowStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulates rows into growable primitive columns, then freezes them into a CirculationSnapshot.
+ * Not thread-safe — one builder per refresh.
+ */
+public final class CirculationSnapshotBuilder {
+
+    private int size;
+    private int[] borrowDay = new int[1024];
+    private int[] borrowMonth = new int[1024];
+    private int[] authorId = new int[1024];
+    private int[] pubDecade = new int[1024];
+    private int[] borrows = new int[1024];
+    private int[] returned = new int[1024];
+    private int[] returnedLate = new int[1024];
+    private long[] loanDays = new long[1024];
+
+    private final Map<String, Integer> authorIds = new HashMap<>();
+    private final List<String> authorNames = new ArrayList<>();
+
+    /**
+     * Adds one borrow from the borrows table.
+     *
+     * @param returnDate null while the loan is open
+     */
+    public void add(LocalDate borrowDate, LocalDate dueDate, LocalDate returnDate, BorrowStatus status,
+                    String author, int pubYear) {
+        boolean isReturned = returnDate != null && status == BorrowStatus.RETURNED;
+        long days = isReturned ? returnDate.toEpochDay() - borrowDate.toEpochDay() : 0;
+        append(borrowDate, author, pubYear, 1, isReturned ? 1 : 0,
+                isReturned && returnDate.isAfter(dueDate) ? 1 : 0, days);
+    }
+
+    /**
+     * Adds a summary row of archived loans (all returned) — see ArchivedCirculation.
+     */
+    public void addArchived(LocalDate borrowDate, String author, int pubYear, int count, int late, long days) {
+        append(borrowDate, author, pubYear, count, count, late, days);
+    }
+
+    public CirculationSnapshot build() {
+        return new CirculationSnapshot(size,
+                Arrays.copyOf(borrowDay, size), Arrays.copyOf(borrowMonth, size),
+                Arrays.copyOf(authorId, size), Arrays.copyOf(pubDecade, size),
+                Arrays.copyOf(borrows, size), Arrays.copyOf(returned, size),
+                Arrays.copyOf(returnedLate, size), Arrays.copyOf(loanDays, size),
+                authorNames.toArray(new String[0]), Instant.now());
+    }
+
+    private void append(LocalDate borrowDate, String author, int pubYear, int count, int returnedCount, int late,
+                        long days) {
+        if (size == borrowDay.length) {
+            grow();
+        }
+        borrowDay[size] = (int) borrowDate.toEpochDay();
+        borrowMonth[size] = borrowDate.getYear() * 12 + borrowDate.getMonthValue() - 1;
+        authorId[size] = authorIds.computeIfAbsent(author, name -> {
+            authorNames.add(name);
+            return authorNames.size() - 1;
+        });
+        pubDecade[size] = Math.floorDiv(pubYear, 10) * 10;
+        borrows[size] = count;
+        returned[size] = returnedCount;
+        returnedLate[size] = late;
+        loanDays[size] = days;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = borrowDay.length * 2;
+        borrowDay = Arrays.copyOf(borrowDay, capacity);
+        borrowMonth = Arrays.copyOf(borrowMonth, capacity);
+        authorId = Arrays.copyOf(authorId, capacity);
+        pubDecade = Arrays.copyOf(pubDecade, capacity);
+        borrows = Arrays.copyOf(borrows, capacity);
+        returned = Arrays.copyOf(returned, capacity);
+        returnedLate = Arrays.copyOf(returnedLate, capacity);
+        loanDays = Arrays.copyOf(loanDays, capacity);
+    }
+}
@@ -0,0 +1,11 @@
+package com.library.library_management.archive;
+
+import java.time.LocalDate;
+
+/**
+ * A RETURNED loan that was moved out of the borrows table into an archive file.
+ * The book title is copied in, so history still reads well after the book is deleted.
+ */
+public record ArchivedBorrow(long id, long userId, long bookId, String bookTitle,
+                             LocalDate borrowDate, LocalDate dueDate, LocalDate returnDate) {
+}
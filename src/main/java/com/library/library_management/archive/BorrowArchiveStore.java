@@ -0,0 +1,329 @@
+package com.library.library_management.archive;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for old RETURNED loans — gzip'd binary files in library.borrows.archive-dir.
+ *
+ * That directory must be the SAME shared directory (a volume mounted on every replica) on every node:
+ * archiving runs on whichever node gets there first, and the rows it moves are gone from the database
+ * for all of them. A node that can't see the files would leave archived loans out of history and answer
+ * 404 for returning one — BorrowArchiveService refuses to start such a node. Files written by another
+ * node are picked up on the next lookup after they appear (the directory's modification time changes).
+ *
+ * One file per archive batch, named borrows-{firstId}-{lastId}.lba.gz:
+ *   header  → magic, version, the sorted distinct user ids in this file
+ *   records → id, userId, bookId, bookTitle, borrow/due/return dates (as epoch days)
+ *
+ * Why user ids in the header? → History is always asked for ONE user. The headers are read once at
+ * startup and kept in memory, so a history lookup only opens the files that actually contain that
+ * user instead of decompressing the whole archive.
+ *
+ * Files are written to a temp name, fsync'd, then renamed — a crash never leaves a half file behind.
+ * If we crash AFTER writing a file but BEFORE deleting its rows, the next run archives the same rows
+ * again; readers drop duplicate ids, so history never shows a loan twice.
+ */
+@Component
+public class BorrowArchiveStore {
+
+    private static final Logger log = LoggerFactory.getLogger(BorrowArchiveStore.class);
+
+    private static final int MAGIC = 0x4C424131; // "LBA1"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".lba.gz";
+
+    private final Path directory;
+    // One entry per archive file; appended by the archiver or a rescan, read by history requests
+    private final List<ArchiveFile> files = new CopyOnWriteArrayList<>();
+    // The directory's modification time at the last scan, and when that scan ran (see refresh())
+    private FileTime scannedVersion;
+    private long scannedAtMillis;
+
+    public BorrowArchiveStore(@Value("${library.borrows.archive-dir:./data/archive}") String directory) {
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Loads every archive file's user index. Unreadable files are logged and skipped.
+     */
+    @PostConstruct
+    void loadIndex() {
+        refresh();
+        log.info("Borrow archive: {} files in {}", files.size(), directory);
+    }
+
+    /**
+     * Writes one batch of loans to a new archive file. Returns only once the file is durable on disk —
+     * the caller deletes the rows from the database after this.
+     *
+     * @param batch loans ordered by id (not empty)
+     */
+    public void write(List<ArchivedBorrow> batch) {
+        long[] userIds = batch.stream().mapToLong(ArchivedBorrow::userId).sorted().distinct().toArray();
+        long[] idRange = {batch.get(0).id(), batch.get(batch.size() - 1).id()};
+        Path target = directory.resolve("borrows-" + idRange[0] + "-" + idRange[1] + SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, ".archive-", ".tmp");
+            try {
+                try (OutputStream fileOut = Files.newOutputStream(temp);
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(fileOut, 64 * 1024)))) {
+                    writeHeader(out, userIds);
+                    out.writeInt(batch.size());
+                    for (ArchivedBorrow borrow : batch) {
+                        writeRecord(out, borrow);
+                    }
+                }
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write borrow archive " + target.getFileName(), e);
+        }
+        index(new ArchiveFile(target, idRange, userIds, batch.size()));
+    }
+
+    /**
+     * @return every archived loan of this user, oldest first, without duplicates
+     */
+    public List<ArchivedBorrow> findByUser(long userId) {
+        refresh();
+        List<ArchivedBorrow> result = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (ArchiveFile file : files) {
+            if (Arrays.binarySearch(file.userIds(), userId) < 0) {
+                continue; // header says this user isn't in here — don't decompress it
+            }
+            try (DataInputStream in = open(file.path())) {
+                readHeader(in);
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    ArchivedBorrow borrow = readRecord(in);
+                    if (borrow.userId() == userId && seen.add(borrow.id())) {
+                        result.add(borrow);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read borrow archive " + file.path().getFileName(), e);
+            }
+        }
+        result.sort((a, b) -> Long.compare(a.id(), b.id()));
+        return result;
+    }
+
+    /**
+     * @return whether this loan id was archived — only files whose id range (from the name) covers it are read
+     */
+    public boolean contains(long borrowId) {
+        refresh();
+        for (ArchiveFile file : files) {
+            if (borrowId < file.idRange()[0] || borrowId > file.idRange()[1]) {
+                continue;
+            }
+            try (DataInputStream in = open(file.path())) {
+                readHeader(in);
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    if (readRecord(in).id() == borrowId) {
+                        return true;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read borrow archive " + file.path().getFileName(), e);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads every archived loan, file by file — for rebuilding derived data (e.g. recommendations).
+     */
+    public void forEach(Consumer<ArchivedBorrow> consumer) {
+        forEachExcept(Set.of(), consumer);
+    }
+
+    /**
+     * Like forEach(), but skips the files in {@code done}. Pass back what an earlier call returned to read
+     * only the files archived since — loans that left the table in between are in those.
+     *
+     * @return the files read by this call and the ones in {@code done}
+     */
+    public Set<Path> forEachExcept(Set<Path> done, Consumer<ArchivedBorrow> consumer) {
+        refresh();
+        Set<Path> read = new HashSet<>(done);
+        for (ArchiveFile file : files) {
+            if (!read.add(file.path())) {
+                continue;
+            }
+            try (DataInputStream in = open(file.path())) {
+                readHeader(in);
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    consumer.accept(readRecord(in));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read borrow archive " + file.path().getFileName(), e);
+            }
+        }
+        return read;
+    }
+
+    public int fileCount() {
+        refresh();
+        return files.size();
+    }
+
+    /**
+     * @return loans in all archive files — a loan archived twice after a crash counts twice, so this is
+     *         never less than the number of distinct archived loans
+     */
+    public long recordCount() {
+        refresh();
+        long total = 0;
+        for (ArchiveFile file : files) {
+            total += file.count();
+        }
+        return total;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Indexes archive files that appeared since the last scan — written by the archiver on another node.
+     * Costs one stat() of the directory when nothing changed. Some filesystems keep whole seconds only,
+     * so a scan that ran within a second of the directory's last change is repeated next time.
+     */
+    synchronized void refresh() {
+        FileTime version;
+        try {
+            version = Files.getLastModifiedTime(directory);
+        } catch (IOException e) {
+            return; // no directory yet — nothing was archived
+        }
+        if (version.equals(scannedVersion) && scannedAtMillis - version.toMillis() > 1000) {
+            return;
+        }
+        scannedAtMillis = System.currentTimeMillis();
+        scannedVersion = version;
+        Set<Path> known = new HashSet<>();
+        for (ArchiveFile file : files) {
+            known.add(file.path());
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                if (known.contains(file)) {
+                    continue;
+                }
+                try (DataInputStream in = open(file)) {
+                    long[] userIds = readHeader(in);
+                    index(new ArchiveFile(file, idRange(file), userIds, in.readInt()));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable borrow archive {}: {}", file.getFileName(), e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list borrow archives in " + directory, e);
+        }
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    // Re-archived after a crash (or by a second archiver) → same name: replace, don't double-index
+    private synchronized void index(ArchiveFile file) {
+        files.removeIf(indexed -> indexed.path().equals(file.path()));
+        files.add(file);
+    }
+
+    // "borrows-{firstId}-{lastId}.lba.gz" → {firstId, lastId}
+    private static long[] idRange(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        String[] parts = name.substring(0, name.length() - SUFFIX.length()).split("-");
+        try {
+            return new long[]{Long.parseLong(parts[1]), Long.parseLong(parts[2])};
+        } catch (RuntimeException e) {
+            throw new IOException("unexpected archive file name " + name);
+        }
+    }
+
+    private static DataInputStream open(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 64 * 1024)));
+    }
+
+    private static void writeHeader(DataOutputStream out, long[] userIds) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(userIds.length);
+        for (long userId : userIds) {
+            out.writeLong(userId);
+        }
+    }
+
+    private static long[] readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("not a borrow archive (bad magic/version)");
+        }
+        long[] userIds = new long[in.readInt()];
+        for (int i = 0; i < userIds.length; i++) {
+            userIds[i] = in.readLong();
+        }
+        return userIds;
+    }
+
+    private static void writeRecord(DataOutputStream out, ArchivedBorrow borrow) throws IOException {
+        out.writeLong(borrow.id());
+        out.writeLong(borrow.userId());
+        out.writeLong(borrow.bookId());
+        out.writeUTF(borrow.bookTitle() == null ? "" : borrow.bookTitle());
+        out.writeInt((int) borrow.borrowDate().toEpochDay());
+        out.writeInt((int) borrow.dueDate().toEpochDay());
+        out.writeInt((int) borrow.returnDate().toEpochDay());
+    }
+
+    private static ArchivedBorrow readRecord(DataInputStream in) throws IOException {
+        return new ArchivedBorrow(in.readLong(), in.readLong(), in.readLong(), in.readUTF(),
+                LocalDate.ofEpochDay(in.readInt()), LocalDate.ofEpochDay(in.readInt()), LocalDate.ofEpochDay(in.readInt()));
+    }
+
+    private record ArchiveFile(Path path, long[] idRange, long[] userIds, int count) {
+    }
+}
@@ -0,0 +1,234 @@
+package com.library.library_management.archive;
+
+import com.library.library_management.repository.BorrowRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keeps the borrows table range-partitioned by borrow_date, one partition per month (Postgres only).
+ *
+ *   borrows                 ← partitioned parent, what JPA reads and writes
+ *     ├── borrows_p2026_09  ← [2026-09-01, 2026-10-01)
+ *     ├── borrows_p2026_10
+ *     ├── ...               ← always library.borrows.partitions-ahead months ahead
+ *     └── borrows_default   ← safety net, should stay empty
+ *
+ * Why? → New loans always land in the newest partition, and active loans are all recent. Queries
+ * that carry "borrowDate >= activeHorizon()" let Postgres skip every older partition (partition
+ * pruning), so active-loan lookups and their indexes stay small however much history piles up.
+ * Old partitions only hold RETURNED loans; once BorrowArchiveService has moved them to disk,
+ * dropEmptyPartitionsBefore() drops the whole partition — no DELETE bloat, no VACUUM.
+ *
+ * Hibernate (ddl-auto=update) creates borrows as a plain table. On startup, if it isn't partitioned
+ * yet, it is converted in ONE transaction: rename, create the partitioned table, copy, drop the old one.
+ * With library.borrows.partitioning.on-startup=false (fast-start profile) startup runs no DDL at all —
+ * the daily maintain() creates upcoming partitions instead.
+ */
+@Component
+public class BorrowPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(BorrowPartitionManager.class);
+
+    private static final String PARENT = "borrows";
+    private static final String LEGACY = "borrows_unpartitioned";
+    private static final String DEFAULT_PARTITION = "borrows_default";
+    private static final String SEQUENCE = "borrows_partitioned_id_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final BorrowRepository borrowRepository;
+    private final boolean enabled;
+    private final boolean onStartup;
+    private final int monthsAhead;
+    private boolean postgres;
+
+    // Oldest borrow_date of any ACTIVE loan (a lower bound — it can only be too old, never too new)
+    private volatile LocalDate activeHorizon = LocalDate.EPOCH;
+
+    /**
+     * EntityManagerFactory is injected only so this runs AFTER Hibernate has created/updated the schema.
+     */
+    public BorrowPartitionManager(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  BorrowRepository borrowRepository, EntityManagerFactory entityManagerFactory,
+                                  @Value("${library.borrows.partitioning.enabled:true}") boolean enabled,
+                                  @Value("${library.borrows.partitioning.on-startup:true}") boolean onStartup,
+                                  @Value("${library.borrows.partitions-ahead-months:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.borrowRepository = borrowRepository;
+        this.enabled = enabled;
+        this.onStartup = onStartup;
+        this.monthsAhead = Math.max(1, monthsAhead);
+    }
+
+    @PostConstruct
+    void start() {
+        postgres = detectPostgres();
+        if (enabled && postgres && onStartup) {
+            transaction.executeWithoutResult(status -> {
+                if (!isPartitioned()) {
+                    convertToPartitioned();
+                }
+            });
+            createUpcomingPartitions();
+        }
+        refreshActiveHorizon();
+    }
+
+    /**
+     * Lower bound for borrow_date of every ACTIVE loan — add it to active-loan queries so
+     * Postgres only scans the partitions that can contain them.
+     */
+    public LocalDate activeHorizon() {
+        return activeHorizon;
+    }
+
+    /**
+     * Daily upkeep: next months' partitions exist before they're needed, horizon moves forward
+     * as old loans get returned.
+     */
+    @Scheduled(initialDelayString = "${library.borrows.maintenance-initial-delay-ms:3600000}",
+            fixedDelayString = "${library.borrows.maintenance-ms:86400000}")
+    public void maintain() {
+        try {
+            if (enabled && postgres && isPartitioned()) {
+                createUpcomingPartitions();
+            }
+            refreshActiveHorizon();
+        } catch (RuntimeException e) {
+            log.warn("Borrow partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drops monthly partitions that end on or before the cutoff and have no rows left.
+     *
+     * @return how many partitions were dropped
+     */
+    public int dropEmptyPartitionsBefore(LocalDate cutoff) {
+        if (!enabled || !postgres || !isPartitioned()) {
+            return 0;
+        }
+        int dropped = 0;
+        for (String partition : monthlyPartitions()) {
+            YearMonth month = monthOf(partition);
+            if (month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                continue;
+            }
+            Boolean hasRows = jdbcTemplate.queryForObject("select exists (select 1 from " + partition + ")", Boolean.class);
+            if (Boolean.FALSE.equals(hasRows)) {
+                jdbcTemplate.execute("drop table if exists " + partition);
+                log.info("Dropped empty borrow partition {}", partition);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private void refreshActiveHorizon() {
+        LocalDate oldest = borrowRepository.findOldestActiveBorrowDate();
+        activeHorizon = oldest != null ? oldest : LocalDate.now();
+    }
+
+    private boolean detectPostgres() {
+        Boolean isPostgres = jdbcTemplate.execute((Connection connection) ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgres"));
+        return Boolean.TRUE.equals(isPostgres);
+    }
+
+    private boolean isPartitioned() {
+        String kind = jdbcTemplate.query("select relkind from pg_class where relname = ? and relnamespace = current_schema()::regnamespace",
+                rs -> rs.next() ? rs.getString(1) : null, PARENT);
+        return "p".equals(kind);
+    }
+
+    private void convertToPartitioned() {
+        log.info("Converting {} to a table partitioned by borrow_date", PARENT);
+        jdbcTemplate.execute("lock table " + PARENT + " in access exclusive mode");
+        jdbcTemplate.execute("alter table " + PARENT + " rename to " + LEGACY);
+        jdbcTemplate.execute("alter index if exists borrows_pkey rename to " + LEGACY + "_pkey");
+
+        jdbcTemplate.execute("create sequence if not exists " + SEQUENCE);
+        // The partition key must be part of the primary key; ids stay unique through the sequence
+        jdbcTemplate.execute("create table " + PARENT + " ("
+                + " id bigint not null default nextval('" + SEQUENCE + "'),"
+                + " user_id bigint references users (id),"
+                + " book_id bigint references books (id),"
+                + " branch_id bigint references branches (id),"
+                + " borrow_date date not null,"
+                + " due_date date not null,"
+                + " return_date date,"
+                + " status varchar(255) not null,"
+                + " primary key (id, borrow_date)"
+                + ") partition by range (borrow_date)");
+        jdbcTemplate.execute("alter sequence " + SEQUENCE + " owned by " + PARENT + ".id");
+
+        LocalDate oldest = jdbcTemplate.queryForObject("select min(borrow_date) from " + LEGACY, LocalDate.class);
+        YearMonth first = oldest != null ? YearMonth.from(oldest) : YearMonth.now();
+        for (YearMonth month = first; !month.isAfter(YearMonth.now().plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            createPartition(month);
+        }
+        jdbcTemplate.execute("create table if not exists " + DEFAULT_PARTITION + " partition of " + PARENT + " default");
+
+        int copied = jdbcTemplate.update("insert into " + PARENT
+                + " (id, user_id, book_id, branch_id, borrow_date, due_date, return_date, status)"
+                + " select id, user_id, book_id, branch_id, borrow_date, due_date, return_date, status from " + LEGACY);
+        jdbcTemplate.execute("select setval('" + SEQUENCE + "', coalesce((select max(id) from " + PARENT + "), 0) + 1, false)");
+        jdbcTemplate.execute("drop table " + LEGACY);
+
+        // Created on the parent → every partition gets its own copy automatically
+        jdbcTemplate.execute("create index if not exists borrows_user_idx on " + PARENT + " (user_id, borrow_date)");
+        jdbcTemplate.execute("create index if not exists borrows_book_idx on " + PARENT + " (book_id)");
+        jdbcTemplate.execute("create index if not exists borrows_active_idx on " + PARENT + " (borrow_date) where status = 'ACTIVE'");
+        log.info("Borrows partitioned: {} rows copied, monthly partitions from {}", copied, first);
+    }
+
+    private void createUpcomingPartitions() {
+        YearMonth now = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            try {
+                createPartition(now.plusMonths(i));
+            } catch (RuntimeException e) {
+                // Usually rows for that month already sit in the default partition (upkeep didn't run for months)
+                log.warn("Could not create borrow partition for {}: {}", now.plusMonths(i), e.getMessage());
+            }
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        jdbcTemplate.execute("create table if not exists " + partitionName(month) + " partition of " + PARENT
+                + " for values from ('" + month.atDay(1) + "') to ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    private List<String> monthlyPartitions() {
+        return jdbcTemplate.queryForList("select c.relname from pg_inherits i"
+                + " join pg_class c on c.oid = i.inhrelid"
+                + " join pg_class p on p.oid = i.inhparent"
+                + " where p.relname = ? and c.relname like 'borrows\\_p%' order by c.relname", String.class, PARENT);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("borrows_p%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+
+    // borrows_p2026_10 → 2026-10
+    private static YearMonth monthOf(String partition) {
+        return YearMonth.of(Integer.parseInt(partition.substring(9, 13)), Integer.parseInt(partition.substring(14, 16)));
+    }
+}
@@ -0,0 +1,48 @@
+package com.library.library_management.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of small byte arrays, bounded by TOTAL BYTES (not entry count).
+ *
+ * Used for hot thumbnails: the same few covers are requested over and over, so keeping their
+ * bytes in memory saves a disk read per request. Entries larger than maxEntryBytes are never cached.
+ *
+ * A LinkedHashMap in access order does the LRU bookkeeping; one lock guards it. Every operation is
+ * a hash lookup plus a pointer move, so the lock is held for nanoseconds.
+ */
+public class ByteLruCache {
+
+    private final long maxTotalBytes;
+    private final int maxEntryBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    public ByteLruCache(long maxTotalBytes, int maxEntryBytes) {
+        this.maxTotalBytes = maxTotalBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public synchronized byte[] get(String key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(String key, byte[] value) {
+        if (value.length > maxEntryBytes || value.length > maxTotalBytes) {
+            return;
+        }
+        byte[] previous = entries.put(key, value);
+        totalBytes += value.length - (previous == null ? 0 : previous.length);
+        Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxTotalBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+}
@@ -0,0 +1,101 @@
+package com.library.library_management.cache;
+
+import com.library.library_management.invalidation.InvalidationListener;
+import com.library.library_management.invalidation.InvalidationMessage;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Remembers, for a few seconds, which ids we already know DON'T exist.
+ *
+ * Bots hammering /books/{random id} would otherwise hit the database for every single request.
+ * With this, repeated misses for the same id are answered from memory.
+ *
+ * Fixed-size and direct-mapped: each id hashes to exactly one slot, a new miss simply overwrites
+ * whatever was there. Memory is bounded no matter how many ids get probed, and lookups allocate nothing.
+ *
+ * Must be told when an id starts existing (create) — otherwise a fresh book would 404 until the
+ * entry expires. Registered on the InvalidationBus so creates on other nodes clear it too.
+ *
+ * A lookup that missed can race with a create: miss in the DB → create commits, forget(id) → markMissing(id)
+ * would now cache a miss for a book that exists. So every forget bumps a counter, callers read it (stamp())
+ * BEFORE their lookup, and markMissing drops its entry if any forget happened in between.
+ */
+public class NegativeLookupCache implements InvalidationListener {
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int shift;
+    private final long ttlMillis;
+    private final AtomicLong forgets = new AtomicLong();
+
+    /**
+     * @param capacity  number of slots, rounded up to a power of two
+     * @param ttlMillis how long a miss is remembered
+     */
+    public NegativeLookupCache(int capacity, long ttlMillis) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.shift = 64 - Integer.numberOfTrailingZeros(size);
+        this.ttlMillis = ttlMillis;
+    }
+
+    public boolean isKnownMissing(long id) {
+        Entry entry = slots.get(index(id));
+        return entry != null && entry.id == id && entry.expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * @return the value to pass to markMissing — read it before the database lookup
+     */
+    public long stamp() {
+        return forgets.get();
+    }
+
+    /**
+     * Remembers a miss, unless some id was forgotten since the stamp was taken (the miss may be outdated).
+     * Written first and checked after — a forget that comes in between either bumps the counter before
+     * the check or clears the entry itself.
+     */
+    public void markMissing(long id, long stamp) {
+        if (ttlMillis <= 0) {
+            return;
+        }
+        int index = index(id);
+        Entry entry = new Entry(id, System.currentTimeMillis() + ttlMillis);
+        slots.set(index, entry);
+        if (forgets.get() != stamp) {
+            slots.compareAndSet(index, entry, null);
+        }
+    }
+
+    public void forget(long id) {
+        forgets.incrementAndGet(); // before clearing — see markMissing
+        int index = index(id);
+        Entry entry = slots.get(index);
+        if (entry != null && entry.id == id) {
+            slots.compareAndSet(index, entry, null);
+        }
+    }
+
+    @Override
+    public void invalidate(InvalidationMessage message) {
+        forget(Long.parseLong(message.id()));
+    }
+
+    @Override
+    public void invalidateAll() {
+        forgets.incrementAndGet();
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    // Fibonacci hashing — sequential ids (what bots usually probe) spread across all slots
+    private int index(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private record Entry(long id, long expiresAt) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.library.library_management.capture;
+
+import com.library.library_management.model.Role;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * One sampled API request, as written to the capture files — enough to send it again.
+ *
+ * No headers are kept: the Authorization header is replaced by the caller's role (replay logs in with
+ * its own account per role), and the body has already been through TrafficScrubber.
+ *
+ * @param startMicros    when it arrived, epoch microseconds — replay keeps the gaps between requests
+ * @param durationMicros how long this node took to answer it
+ * @param method         GET, POST, ...
+ * @param uri            path + query string
+ * @param role           the caller's role, null if anonymous
+ * @param status         the response status
+ * @param contentType    the request's Content-Type, null if none
+ * @param body           the scrubbed request body (empty if none)
+ * @param bodyComplete   false if the body was too big, binary or never read — then body is empty, replay skips those
+ */
+public record CapturedRequest(long startMicros, int durationMicros, String method, String uri, Role role,
+                              int status, String contentType, byte[] body, boolean bodyComplete) {
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(startMicros);
+        out.writeInt(durationMicros);
+        out.writeUTF(method);
+        out.writeUTF(uri);
+        out.writeByte(role == null ? 0 : role.ordinal() + 1);
+        out.writeShort(status);
+        out.writeUTF(contentType == null ? "" : contentType);
+        out.writeBoolean(bodyComplete);
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    static CapturedRequest readFrom(DataInputStream in) throws IOException {
+        long startMicros = in.readLong();
+        int durationMicros = in.readInt();
+        String method = in.readUTF();
+        String uri = in.readUTF();
+        int role = in.readByte();
+        int status = in.readUnsignedShort();
+        String contentType = in.readUTF();
+        boolean bodyComplete = in.readBoolean();
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return new CapturedRequest(startMicros, durationMicros, method, uri, role == 0 ? null : Role.values()[role - 1],
+                status, contentType.isEmpty() ? null : contentType, body, bodyComplete);
+    }
+}
@@ -0,0 +1,133 @@
+package com.library.library_management.capture;
+
+import com.library.library_management.model.Role;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Records a sample of real API traffic (library.capture.sample-rate) so it can be replayed against a
+ * test instance — see TrafficReplayBenchmark. Off unless library.capture.enabled=true.
+ *
+ * Per sampled request: arrival time, duration, method, URI, caller's role, status and the request body
+ * (up to library.capture.max-body-bytes, text bodies only), scrubbed by TrafficScrubber. A body that
+ * was cut off or only partly read is not kept at all — the scrubber can only recognise complete fields.
+ * No headers, no responses — tokens never leave the request.
+ *
+ * Cost for a request that isn't sampled: one random number. A sampled one gets its body copied as the
+ * endpoint reads it (ContentCachingRequestWrapper) and one queue offer; the file is written by
+ * TrafficRecorder's own thread.
+ *
+ * Runs first in the security chain (see SecurityConfig), so shed requests (503) are recorded too and
+ * the caller's role is still known when the chain returns. Streams (change feed, hold long-polls)
+ * are skipped — they'd only replay as open connections.
+ */
+@Component
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+
+    private final TrafficRecorder recorder;
+    private final boolean enabled;
+    private final double sampleRate;
+    private final int maxBodyBytes;
+
+    public TrafficCaptureFilter(TrafficRecorder recorder,
+                                @Value("${library.capture.enabled:false}") boolean enabled,
+                                @Value("${library.capture.sample-rate:0.05}") double sampleRate,
+                                @Value("${library.capture.max-body-bytes:16384}") int maxBodyBytes) {
+        this.recorder = recorder;
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !enabled
+                || !uri.startsWith("/api/")
+                || uri.equals("/api/v1/books/changes")
+                || (uri.startsWith("/api/v1/holds/") && uri.endsWith("/wait"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean textBody = TrafficScrubber.isScrubbable(request.getContentType());
+        ContentCachingRequestWrapper cached = textBody ? new ContentCachingRequestWrapper(request, maxBodyBytes) : null;
+        Instant arrived = Instant.now();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(cached != null ? cached : request, response);
+            failed = false;
+        } finally {
+            int durationMicros = (int) Math.min(Integer.MAX_VALUE, (System.nanoTime() - start) / 1000);
+            byte[] body = cached != null ? cached.getContentAsByteArray() : new byte[0];
+            boolean complete = isComplete(request, body, textBody);
+            recorder.record(new CapturedRequest(
+                    ChronoUnit.MICROS.between(Instant.EPOCH, arrived),
+                    durationMicros,
+                    request.getMethod(),
+                    TrafficScrubber.scrubUri(pathAndQuery(request)),
+                    currentRole(),
+                    failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(),
+                    request.getContentType(),
+                    // A cut-off body may end inside a secret the scrubber can't recognise any more
+                    // ({"password":"hunt…) — and replay skips incomplete bodies anyway, so none is kept
+                    complete ? TrafficScrubber.scrubBody(body) : new byte[0],
+                    complete
+            ));
+        }
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private boolean isComplete(HttpServletRequest request, byte[] body, boolean textBody) {
+        long declared = request.getContentLengthLong();
+        if (declared == 0 || (declared < 0 && request.getContentType() == null)) {
+            return true; // no body at all
+        }
+        // Binary bodies aren't kept; a text body is complete if the endpoint read all of it and it fit
+        return textBody && (declared > 0 ? body.length == declared : body.length < maxBodyBytes);
+    }
+
+    private static String pathAndQuery(HttpServletRequest request) {
+        String query = request.getQueryString();
+        return query == null ? request.getRequestURI() : request.getRequestURI() + "?" + query;
+    }
+
+    private static Role currentRole() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+        Role role = null; // stays null for ROLE_ANONYMOUS
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if ("ROLE_ADMIN".equals(authority.getAuthority())) {
+                return Role.ADMIN;
+            }
+            if ("ROLE_USER".equals(authority.getAuthority())) {
+                role = Role.USER;
+            }
+        }
+        return role;
+    }
+}
@@ -0,0 +1,207 @@
+package com.library.library_management.capture;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes captured requests (TrafficCaptureFilter) to rotating files under library.capture.dir.
+ *
+ * Request threads only offer the record to a bounded queue — if the queue is full the record is
+ * dropped (and counted), capture never slows a request down. ONE writer thread drains the queue.
+ *
+ * Layout — gzip'd files named after the time they were started (traffic-1760000000000.gz):
+ *   header  → magic
+ *   records → marker byte, then CapturedRequest's fields
+ * Each batch is gzip-flushed, so a crash loses at most the batch being written; read() stops at a torn
+ * record. A file is closed after library.capture.file-bytes (uncompressed) and only the newest
+ * library.capture.max-files are kept. Records are in completion order — sort by startMicros to replay.
+ *
+ * Metrics: library.capture.written / library.capture.dropped (records, since startup).
+ */
+@Component
+public class TrafficRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficRecorder.class);
+    private static final int MAGIC = 0x4C544331; // "LTC1"
+    private static final int RECORD = 1;
+    private static final String PREFIX = "traffic-";
+    private static final String SUFFIX = ".gz";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long fileBytes;
+    private final int maxFiles;
+    private final BlockingQueue<CapturedRequest> queue;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writer;
+    // Writer thread only
+    private DataOutputStream out;
+    private long lastFileMillis;
+
+    public TrafficRecorder(MeterRegistry meterRegistry,
+                           @Value("${library.capture.enabled:false}") boolean enabled,
+                           @Value("${library.capture.dir:./data/capture}") String directory,
+                           @Value("${library.capture.file-bytes:67108864}") long fileBytes,
+                           @Value("${library.capture.max-files:10}") int maxFiles,
+                           @Value("${library.capture.queue-size:10000}") int queueSize) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.fileBytes = Math.min(fileBytes, Integer.MAX_VALUE); // DataOutputStream counts in an int
+        this.maxFiles = Math.max(1, maxFiles);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        FunctionCounter.builder("library.capture.written", written, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("library.capture.dropped", dropped, AtomicLong::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        running = true;
+        writer = new Thread(this::runWriter, "traffic-capture-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Traffic capture: writing sampled requests to {}", directory);
+    }
+
+    /**
+     * Lets the writer finish what's queued, then closes the current file.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Queues a record for the writer. Never blocks.
+     */
+    public void record(CapturedRequest request) {
+        if (!running || !queue.offer(request)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Reads every capture file in the directory, oldest first.
+     */
+    public static void read(Path directory, Consumer<CapturedRequest> consumer) throws IOException {
+        for (Path file : files(directory)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new GZIPInputStream(Files.newInputStream(file), 1 << 16)))) {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException(file + " is not a traffic capture file");
+                }
+                while (in.read() == RECORD) {
+                    consumer.accept(CapturedRequest.readFrom(in));
+                }
+            } catch (EOFException e) {
+                // torn last record (crash or file still being written) — everything before it was read
+            }
+        }
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private void runWriter() {
+        List<CapturedRequest> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                CapturedRequest first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch);
+            try {
+                write(batch);
+            } catch (IOException e) {
+                log.warn("Traffic capture: could not write {} records: {}", batch.size(), e.getMessage());
+                closeQuietly(); // next batch starts a new file
+            }
+            batch.clear();
+        }
+        closeQuietly();
+    }
+
+    private void write(List<CapturedRequest> batch) throws IOException {
+        for (CapturedRequest request : batch) {
+            if (out == null || out.size() >= fileBytes) {
+                rotate();
+            }
+            out.writeByte(RECORD);
+            request.writeTo(out);
+        }
+        out.flush(); // sync-flushes the gzip stream, so the batch is readable from now on
+        written.addAndGet(batch.size());
+    }
+
+    private void rotate() throws IOException {
+        closeQuietly();
+        lastFileMillis = Math.max(System.currentTimeMillis(), lastFileMillis + 1); // never reuse a name
+        Path file = directory.resolve(String.format("%s%013d%s", PREFIX, lastFileMillis, SUFFIX));
+        out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file), 1 << 16, true)));
+        out.writeInt(MAGIC);
+        List<Path> files = files(directory);
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private void closeQuietly() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Traffic capture: could not close file: {}", e.getMessage());
+        }
+        out = null;
+    }
+
+    // Oldest first — names sort by start time
+    private static List<Path> files(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+}
@@ -0,0 +1,55 @@
+package com.library.library_management.capture;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * Removes secrets from captured requests before they reach the disk:
+ *   - anything that looks like a JWT (eyJ....eyJ....sig), in the URI or the body
+ *   - the value of every JSON field / form parameter whose name contains "password"
+ * Both are replaced with REDACTED.
+ *
+ * Only text bodies (JSON, form, text/*) can be scrubbed — binary bodies are not captured at all.
+ */
+public final class TrafficScrubber {
+
+    public static final String REDACTED = "***";
+
+    private static final Pattern JWT = Pattern.compile("eyJ[\\w-]+\\.[\\w-]+\\.[\\w-]*");
+    private static final Pattern JSON_PASSWORD =
+            Pattern.compile("(\"[^\"\\\\]*(?i:password)[^\"\\\\]*\"\\s*:\\s*)\"(?:[^\"\\\\]|\\\\.)*\"");
+    private static final Pattern FORM_PASSWORD = Pattern.compile("((?:^|&)[^=&]*(?i:password)[^=&]*=)[^&]*");
+
+    private TrafficScrubber() {
+    }
+
+    /**
+     * @return whether a body of this Content-Type is text we know how to scrub
+     */
+    public static boolean isScrubbable(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        return type.startsWith("application/json") || type.startsWith("text/")
+                || type.startsWith("application/x-www-form-urlencoded");
+    }
+
+    public static String scrubUri(String uri) {
+        return JWT.matcher(uri).replaceAll(REDACTED);
+    }
+
+    /**
+     * @param body a body whose Content-Type passed isScrubbable()
+     */
+    public static byte[] scrubBody(byte[] body) {
+        if (body.length == 0) {
+            return body;
+        }
+        String text = new String(body, StandardCharsets.UTF_8);
+        text = JWT.matcher(text).replaceAll(REDACTED);
+        text = JSON_PASSWORD.matcher(text).replaceAll("$1\"" + REDACTED + "\"");
+        text = FORM_PASSWORD.matcher(text).replaceAll("$1" + REDACTED);
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
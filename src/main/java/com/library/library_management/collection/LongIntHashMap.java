@@ -0,0 +1,156 @@
+package com.library.library_management.collection;
+
+import java.util.Arrays;
+
+/**
+ * long → int hash map without boxing: two parallel arrays, open addressing, linear probing.
+ *
+ * Why not HashMap<Long, Integer>? → Every entry there is a node plus two boxed objects (~64 bytes)
+ * and a pointer chase per lookup. Here an entry is 12 bytes in flat arrays. Matters when there are
+ * millions of small counters (e.g. the co-borrow matrix).
+ *
+ * Key 0 marks an empty slot, so 0 can't be used as a key (database ids start at 1).
+ * Not thread-safe.
+ */
+public final class LongIntHashMap {
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int shift;
+
+    public LongIntHashMap() {
+        this(8);
+    }
+
+    /**
+     * @param expectedSize entries it should hold without growing
+     */
+    public LongIntHashMap(int expectedSize) {
+        allocate(Math.max(4, Integer.highestOneBit(Math.max(1, expectedSize * 2 - 1)) << 1));
+    }
+
+    /**
+     * @return the value, or 0 if the key isn't there
+     */
+    public int get(long key) {
+        int slot = find(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    /**
+     * Adds delta to the key's value (missing keys start at 0).
+     *
+     * @return the new value
+     */
+    public int addTo(long key, int delta) {
+        checkKey(key);
+        int slot = find(key);
+        if (keys[slot] == key) {
+            return values[slot] += delta;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return delta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(LongIntConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Keeps only the {@code limit} entries with the highest values (ties: arbitrary) and shrinks.
+     */
+    public void retainTop(int limit) {
+        if (size <= limit) {
+            return;
+        }
+        int[] sorted = new int[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                sorted[n++] = values[i];
+            }
+        }
+        Arrays.sort(sorted);
+        int threshold = sorted[size - limit];
+        int aboveThreshold = 0; // entries strictly above always stay; ties fill what's left
+        for (int value : sorted) {
+            if (value > threshold) {
+                aboveThreshold++;
+            }
+        }
+        int tiesLeft = limit - aboveThreshold;
+
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(Math.max(4, Integer.highestOneBit(Math.max(1, limit * 2 - 1)) << 1));
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) {
+                continue;
+            }
+            if (oldValues[i] > threshold || (oldValues[i] == threshold && tiesLeft-- > 0)) {
+                insertNew(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface LongIntConsumer {
+        void accept(long key, int value);
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    // Slot holding the key, or the empty slot where it would go
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insertNew(long key, int value) {
+        int slot = find(key);
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                insertNew(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        size = 0;
+    }
+
+    static void checkKey(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("0 can't be used as a key");
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.library.library_management.collection;
+
+import java.util.function.LongFunction;
+
+/**
+ * long → V hash map that doesn't box its keys. Same layout and rules as LongIntHashMap
+ * (open addressing, key 0 reserved, not thread-safe).
+ */
+public final class LongObjectHashMap<V> {
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int shift;
+
+    public LongObjectHashMap() {
+        this(8);
+    }
+
+    public LongObjectHashMap(int expectedSize) {
+        allocate(Math.max(4, Integer.highestOneBit(Math.max(1, expectedSize * 2 - 1)) << 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = find(key);
+        return keys[slot] == key ? (V) values[slot] : null;
+    }
+
+    /**
+     * @return the value for the key, created with the factory if it wasn't there
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long key, LongFunction<V> factory) {
+        LongIntHashMap.checkKey(key);
+        int slot = find(key);
+        if (keys[slot] == key) {
+            return (V) values[slot];
+        }
+        V value = factory.apply(key);
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(LongObjectConsumer<V> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface LongObjectConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        size = 0;
+    }
+}
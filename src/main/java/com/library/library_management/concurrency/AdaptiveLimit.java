@@ -0,0 +1,109 @@
+package com.library.library_management.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A concurrency limit that finds its own value by watching latency (gradient algorithm).
+ *
+ * Idea: as long as requests finish about as fast as they do on an idle system, the database has
+ * spare capacity — let more requests in. When recent latency climbs well above that baseline,
+ * requests are queueing somewhere — shrink the limit, proportionally to how much slower things got.
+ *
+ *   gradient = clamp(TOLERANCE * baselineRtt / recentRtt, 0.5, 1.0)  // 1.0 = healthy, < 1 = queueing
+ *   newLimit = limit * gradient + sqrt(limit)                          // sqrt(limit) = headroom to probe upwards
+ *   limit    = limit * (1 - smoothing) + newLimit * smoothing
+ *
+ * baselineRtt is the fastest recent request, allowed to creep up slowly so a permanent change
+ * (new index, bigger pages) doesn't keep the limit pinned down forever.
+ *
+ * The limit only grows while it's actually being used (in-flight ≥ half the limit) — otherwise an
+ * idle night would ratchet it up to max and we'd have no protection at the next spike.
+ *
+ * acquire/release are lock-free; the limit update takes a lock but only runs once per request.
+ */
+public class AdaptiveLimit {
+
+    private static final double RECENT_WEIGHT = 0.1;       // EMA over roughly the last 10 samples
+    private static final double TOLERANCE = 2.0;           // latency may double before we back off
+    private static final double BASELINE_DRIFT = 0.0005;   // how fast the baseline follows slower samples
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile int limit;
+    private double exactLimit;
+    private double recentRttNanos;
+    private double baselineRttNanos;
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.exactLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * @return true if the request may run — the caller MUST then call release(...)
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rttNanos how long the request took
+     * @param sample   false to release without learning from it (e.g. long-lived streaming requests)
+     */
+    public void release(long rttNanos, boolean sample) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (sample && rttNanos > 0) {
+            update(rttNanos, inFlightBefore);
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtRelease) {
+        if (baselineRttNanos == 0) {
+            baselineRttNanos = rttNanos;
+            recentRttNanos = rttNanos;
+            return;
+        }
+        recentRttNanos += (rttNanos - recentRttNanos) * RECENT_WEIGHT;
+        baselineRttNanos = rttNanos < baselineRttNanos
+                ? rttNanos
+                : baselineRttNanos + (rttNanos - baselineRttNanos) * BASELINE_DRIFT;
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineRttNanos / recentRttNanos));
+        double newLimit = exactLimit * gradient + Math.sqrt(exactLimit);
+
+        if (newLimit > exactLimit && inFlightAtRelease < exactLimit / 2) {
+            return; // app-limited: we have no evidence more concurrency would be fine
+        }
+        exactLimit = Math.max(minLimit, Math.min(maxLimit, exactLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+        limit = (int) exactLimit;
+    }
+}
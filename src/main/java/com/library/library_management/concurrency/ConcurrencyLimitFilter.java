@@ -0,0 +1,100 @@
+package com.library.library_management.concurrency;
+
+import com.library.library_management.exception.ErrorBodyEncoder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Load shedding: caps how many API requests run at once, per TrafficClass, and answers the rest
+ * with an immediate 503 instead of letting them pile up on the connection pool.
+ *
+ * The caps are not hand-tuned — each one is an AdaptiveLimit that follows latency: it grows while
+ * requests stay fast and shrinks as soon as they slow down (the database is saturating).
+ *
+ * Runs FIRST in the security chain (see SecurityConfig) — a rejected request costs no token
+ * parsing and no user lookup.
+ *
+ * Metrics (Micrometer, under /actuator/metrics):
+ *   library.concurrency.limit{class}     current limit
+ *   library.concurrency.inflight{class}  requests running now
+ *   library.concurrency.rejected{class}  total 503s
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Map<TrafficClass, AdaptiveLimit> limits = new EnumMap<>(TrafficClass.class);
+    private final boolean enabled;
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  @Value("${library.concurrency.enabled:true}") boolean enabled,
+                                  @Value("${library.concurrency.browse-max:200}") int browseMax,
+                                  @Value("${library.concurrency.auth-max:50}") int authMax,
+                                  @Value("${library.concurrency.write-max:40}") int writeMax) {
+        this.enabled = enabled;
+        limits.put(TrafficClass.BROWSE, new AdaptiveLimit(Math.min(20, browseMax), Math.min(5, browseMax), browseMax));
+        limits.put(TrafficClass.AUTH, new AdaptiveLimit(Math.min(10, authMax), Math.min(2, authMax), authMax));
+        limits.put(TrafficClass.WRITE, new AdaptiveLimit(Math.min(10, writeMax), Math.min(2, writeMax), writeMax));
+
+        limits.forEach((trafficClass, limit) -> {
+            String tag = trafficClass.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("library.concurrency.limit", limit, AdaptiveLimit::getLimit)
+                    .tag("class", tag).register(meterRegistry);
+            Gauge.builder("library.concurrency.inflight", limit, AdaptiveLimit::getInFlight)
+                    .tag("class", tag).register(meterRegistry);
+            FunctionCounter.builder("library.concurrency.rejected", limit, AdaptiveLimit::getRejected)
+                    .tag("class", tag).register(meterRegistry);
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdaptiveLimit limit = limits.get(TrafficClass.of(request));
+        if (!limit.tryAcquire()) {
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean sample = true;
+        try {
+            filterChain.doFilter(request, response);
+            // Streaming/async responses live for minutes — their duration says nothing about load
+            sample = !request.isAsyncStarted();
+        } finally {
+            limit.release(System.nanoTime() - start, sample);
+        }
+    }
+
+    public Map<TrafficClass, AdaptiveLimit> getLimits() {
+        return limits;
+    }
+
+    private static void reject(HttpServletResponse response) throws IOException {
+        byte[] body = ErrorBodyEncoder.encode(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Server is busy, please retry");
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
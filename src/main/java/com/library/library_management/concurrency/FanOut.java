@@ -0,0 +1,215 @@
+package com.library.library_management.concurrency;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a few independent lookups at once, each on its own virtual thread, each with its own deadline.
+ *
+ *   try (FanOut fanOut = new FanOut(executor)) {
+ *       FanOut.Part<Book> book = fanOut.fork(() -> loadBook(id), Duration.ofSeconds(1));
+ *       FanOut.Part<Stats> stats = fanOut.forkOptional(() -> loadStats(id), Duration.ofMillis(200));
+ *       Book b = book.join();          // the task's own exception, or TimeoutException
+ *       Stats s = stats.joinOrNull();  // null if it failed or missed its deadline
+ *   }                                  // whatever is still running gets cancelled
+ *
+ * Deadlines count from fork(), and everything is forked before anything is joined — so the block takes
+ * about as long as its slowest part that made its deadline, not the sum of all parts.
+ *
+ * Why not StructuredTaskScope? → Still a preview API in Java 21 (needs --enable-preview everywhere).
+ * This keeps its shape: forks belong to the block, and leaving it (normally or by exception) cancels
+ * the ones still running. One difference on purpose: close() interrupts but does NOT wait for them.
+ * A JDBC call ignores interrupts, and waiting for it would defeat the deadline. The price: an abandoned
+ * task (missed its deadline, still running) keeps its pool connection until the call returns.
+ *
+ * Pass an AbandonLimit to bound that. Tasks that finish in time cost nothing and are never limited —
+ * only abandoned ones count, until they REALLY end. While the limit is reached, forkOptional() doesn't
+ * start its task at all (it fails at once with TimeoutException): the resource is already slow, and an
+ * optional part must not take the connection a required one needs. fork() always starts.
+ *
+ * Not thread-safe: fork, join and close from the thread that opened the block.
+ */
+public final class FanOut implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final AbandonLimit limit;
+    private final List<Part<?>> forked = new ArrayList<>(4);
+
+    /**
+     * @param executor where tasks run — meant to be Executors.newVirtualThreadPerTaskExecutor()
+     */
+    public FanOut(ExecutorService executor) {
+        this(executor, null);
+    }
+
+    /**
+     * @param executor where tasks run — meant to be Executors.newVirtualThreadPerTaskExecutor()
+     * @param limit    shared by every FanOut that uses the same resource (e.g. the connection pool)
+     */
+    public FanOut(ExecutorService executor, AbandonLimit limit) {
+        this.executor = executor;
+        this.limit = limit;
+    }
+
+    /**
+     * Starts a required task now — always, whatever the limit says.
+     *
+     * @param deadline how long join() waits for it, counted from now
+     */
+    public <T> Part<T> fork(Callable<T> task, Duration deadline) {
+        Part<T> part = new Part<>(System.nanoTime() + deadline.toNanos(), limit);
+        part.future = executor.submit(() -> part.run(task));
+        forked.add(part);
+        return part;
+    }
+
+    /**
+     * Starts an optional task now — unless the AbandonLimit is reached, then its join() throws
+     * TimeoutException right away.
+     *
+     * @param deadline how long join() waits for it, counted from now
+     */
+    public <T> Part<T> forkOptional(Callable<T> task, Duration deadline) {
+        if (limit != null && limit.reached()) {
+            Part<T> skipped = new Part<>(System.nanoTime(), null);
+            skipped.future = CompletableFuture.failedFuture(new TimeoutException("Too many abandoned lookups"));
+            return skipped;
+        }
+        return fork(task, deadline);
+    }
+
+    /**
+     * Cancels (interrupts) every task that hasn't finished yet.
+     */
+    @Override
+    public void close() {
+        for (Part<?> part : forked) {
+            part.abandon();
+        }
+    }
+
+    /**
+     * How many abandoned tasks — missed their deadline, still running — a group of FanOuts tolerates
+     * before forkOptional() stops starting new ones. Thread-safe; share one per resource.
+     */
+    public static final class AbandonLimit {
+
+        private final int max;
+        private final AtomicInteger abandoned = new AtomicInteger();
+
+        public AbandonLimit(int max) {
+            this.max = Math.max(1, max);
+        }
+
+        /**
+         * @return tasks abandoned and still running right now
+         */
+        public int abandoned() {
+            return abandoned.get();
+        }
+
+        boolean reached() {
+            return abandoned.get() >= max;
+        }
+    }
+
+    /**
+     * One forked task.
+     */
+    public static final class Part<T> {
+
+        private static final int NEW = 0;
+        private static final int RUNNING = 1;
+        private static final int ABANDONED = 2;
+        private static final int DONE = 3;
+
+        private final long deadlineNanos;
+        private final AbandonLimit limit;
+        private final AtomicInteger state = new AtomicInteger(NEW);
+        private Future<T> future;
+
+        private Part(long deadlineNanos, AbandonLimit limit) {
+            this.deadlineNanos = deadlineNanos;
+            this.limit = limit;
+        }
+
+        /**
+         * Waits until the task finishes or its deadline passes (then cancels it).
+         *
+         * @return the task's result
+         * @throws TimeoutException if the deadline passed first (or forkOptional() didn't start it)
+         * @throws RuntimeException the task's own unchecked exception, as is (a ResourceNotFoundException
+         *                          stays a 404); checked ones come wrapped in an IllegalStateException
+         */
+        public T join() throws TimeoutException {
+            try {
+                return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                abandon();
+                throw e;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TimeoutException timeout) {
+                    throw timeout;
+                }
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abandon();
+                throw new IllegalStateException("Interrupted while waiting for a forked task", e);
+            }
+        }
+
+        /**
+         * Like join(), for optional parts.
+         *
+         * @return the task's result, or null if it failed or missed its deadline
+         */
+        public T joinOrNull() {
+            try {
+                return join();
+            } catch (TimeoutException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        private T run(Callable<T> task) throws Exception {
+            if (!state.compareAndSet(NEW, RUNNING)) {
+                throw new CancellationException(); // abandoned before it started — never runs
+            }
+            try {
+                return task.call();
+            } finally {
+                if (state.getAndSet(DONE) == ABANDONED) {
+                    limit.abandoned.decrementAndGet(); // only now does it give its connection back
+                }
+            }
+        }
+
+        // Cancels the task; one that is already running keeps counting against the limit until it ends
+        private void abandon() {
+            if (!state.compareAndSet(NEW, DONE) && limit != null) {
+                limit.abandoned.incrementAndGet();
+                if (!state.compareAndSet(RUNNING, ABANDONED)) {
+                    limit.abandoned.decrementAndGet(); // it had already finished (or was abandoned before)
+                }
+            }
+            future.cancel(true);
+        }
+    }
+}
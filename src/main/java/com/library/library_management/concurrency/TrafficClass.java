@@ -0,0 +1,21 @@
+package com.library.library_management.concurrency;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Requests are limited per class, so a flood of one kind can't starve the others —
+ * e.g. bots browsing the catalogue must not stop admins from saving changes.
+ */
+public enum TrafficClass {
+    BROWSE,  // GET requests — catalogue browsing, mostly anonymous
+    AUTH,    // /api/v1/auth/** — login/register (BCrypt is deliberately slow)
+    WRITE;   // everything else — POST/PUT/DELETE, mostly admin
+
+    public static TrafficClass of(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith("/api/v1/auth/")) {
+            return AUTH;
+        }
+        String method = request.getMethod();
+        return method.equals("GET") || method.equals("HEAD") ? BROWSE : WRITE;
+    }
+}
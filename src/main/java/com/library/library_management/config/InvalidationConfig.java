@@ -0,0 +1,31 @@
+package com.library.library_management.config;
+
+import com.library.library_management.invalidation.InMemoryInvalidationTransport;
+import com.library.library_management.invalidation.InvalidationTransport;
+import com.library.library_management.invalidation.PostgresInvalidationTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Picks how cache invalidations travel between nodes.
+ *
+ * library.invalidation.transport:
+ *   - postgres (default) → NOTIFY / LISTEN on the app database, reaches every replica
+ *   - memory             → stays inside this JVM, for local runs and tests without a database
+ */
+@Configuration
+public class InvalidationConfig {
+
+    @Bean(destroyMethod = "close")
+    public InvalidationTransport invalidationTransport(
+            @Value("${library.invalidation.transport:postgres}") String transport,
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password) {
+        if ("memory".equalsIgnoreCase(transport)) {
+            return new InMemoryInvalidationTransport();
+        }
+        return new PostgresInvalidationTransport(url, username, password);
+    }
+}
@@ -1,6 +1,10 @@
 package com.library.library_management.config;
 
+import com.library.library_management.capture.TrafficCaptureFilter;
+import com.library.library_management.concurrency.ConcurrencyLimitFilter;
+import com.library.library_management.idempotency.IdempotencyFilter;
 import com.library.library_management.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -31,13 +35,23 @@ public class SecurityConfig {
 
     // Our custom JWT filter — injected here so we can plug it into the filter chain
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    // Replays stored responses for retried writes that carry an Idempotency-Key
+    private final IdempotencyFilter idempotencyFilter;
+    // Sheds load with a fast 503 when the adaptive in-flight limit is reached
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+    // Records a sample of requests for replay in performance tests (off unless library.capture.enabled)
+    private final TrafficCaptureFilter trafficCaptureFilter;
 
     /**
      * Constructor injection — Spring gives us the JwtAuthenticationFilter bean.
      * No @Autowired needed because there's only one constructor.
      */
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, IdempotencyFilter idempotencyFilter,
+                          ConcurrencyLimitFilter concurrencyLimitFilter, TrafficCaptureFilter trafficCaptureFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.idempotencyFilter = idempotencyFilter;
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
+        this.trafficCaptureFilter = trafficCaptureFilter;
     }
 
     /**
@@ -50,10 +64,17 @@ public class SecurityConfig {
      * 3. Authorization rules:
      * - /api/v1/auth/** → OPEN (login/register don't need a token, obviously)
      * - GET /api/v1/books/** → OPEN (anyone can browse books without logging in)
+     * - GET /api/v1/covers/** → OPEN (cover images shown on those pages)
      * - Everything else → AUTHENTICATED (must send a valid JWT in the Authorization header)
      * 4. JWT filter runs BEFORE Spring's default UsernamePasswordAuthenticationFilter,
      * so by the time Spring checks "is this request authenticated?", our filter
      * has already parsed the token and set the user in SecurityContext.
+     * 5. IdempotencyFilter runs right AFTER the JWT filter — it needs to know the user
+     * (keys are scoped per user) and must wrap the controller call to capture its response.
+     * 6. ConcurrencyLimitFilter runs BEFORE the JWT filter — when we're overloaded, a request
+     * should be turned away before we spend a token parse and a DB lookup on it.
+     * 7. TrafficCaptureFilter runs before all of them — a sampled request is timed end to end,
+     * 503s from load shedding included, and the SecurityContext still holds the caller's role when it returns.
      *
      * @param http Spring's HttpSecurity builder — fluent API to configure security rules
      * @return the built SecurityFilterChain that Spring applies to every request
@@ -76,13 +97,22 @@ public class SecurityConfig {
                         // Public — no token needed
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/v1/books/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/v1/covers/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/v1/branches/**").permitAll()
                         .requestMatchers("/error").permitAll()//to allow for other 403 mappings to pass through
+                        // Resumed long-polls (DeferredResult) — the original request was already checked
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // Everything else requires a valid token
                         .anyRequest().authenticated()
                 )
 
                 // Run our JWT filter before Spring's default authentication filter
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(concurrencyLimitFilter, JwtAuthenticationFilter.class)
+                .addFilterAfter(idempotencyFilter, JwtAuthenticationFilter.class)
+                .addFilterBefore(trafficCaptureFilter, ConcurrencyLimitFilter.class);
 
         return http.build();
     }
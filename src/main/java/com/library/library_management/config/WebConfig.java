@@ -0,0 +1,155 @@
+package com.library.library_management.config;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.jackson.autoconfigure.JacksonProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.PropertyNamingStrategy;
+import tools.jackson.databind.cfg.ConstructorDetector;
+import tools.jackson.databind.cfg.DateTimeFeature;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Binary encodings for internal consumers, picked with the Accept / Content-Type header:
+ *   - application/cbor           → CBOR
+ *   - application/x-jackson-smile → Smile
+ *   - anything else (or nothing)  → JSON, as before
+ *
+ * Same DTOs, same field names — only the wire format changes. Binary formats skip number/text
+ * conversion and are noticeably smaller for big lists (see BookEncodingBenchmark).
+ *
+ * JSON stays the default because its converter comes first: Accept: * / * or no Accept header
+ * always resolves to JSON. Applies to every @RestController endpoint, books and borrows included.
+ *
+ * Spring Boot auto-configures JSON and CBOR mappers but not a Smile one, so smileMapper() applies
+ * the same spring.jackson.* settings and the same JacksonModule beans by hand. Otherwise a DTO
+ * could encode differently in Smile (e.g. dates as timestamps) than in JSON or CBOR.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    // Spring Boot's auto-configured CBOR mapper (same date handling etc. as the JSON one)
+    private final CBORMapper cborMapper;
+    private final SmileMapper smileMapper;
+
+    public WebConfig(CBORMapper cborMapper,
+                     JacksonProperties jacksonProperties,
+                     ObjectProvider<JacksonModule> modules) {
+        this.cborMapper = cborMapper;
+        this.smileMapper = smileMapper(jacksonProperties, modules.orderedStream().toList());
+    }
+
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        builder.withCborConverter(new JacksonCborHttpMessageConverter(cborMapper))
+                .withSmileConverter(new JacksonSmileHttpMessageConverter(smileMapper));
+    }
+
+    /**
+     * Builds a Smile mapper configured like Boot's JSON / CBOR mappers: same defaults, features,
+     * date format, time zone, naming strategy and modules. Follows JacksonAutoConfiguration's
+     * standard customizer step by step; the JSON-only read/write features don't apply to Smile.
+     */
+    static SmileMapper smileMapper(JacksonProperties properties, List<JacksonModule> modules) {
+        SmileMapper.Builder builder = SmileMapper.builder();
+        if (properties.isUseJackson2Defaults()) {
+            builder.configureForJackson2()
+                    .disable(DateTimeFeature.WRITE_DATES_AS_TIMESTAMPS, DateTimeFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+        }
+        if (properties.isFindAndAddModules()) {
+            builder.findAndAddModules(WebConfig.class.getClassLoader());
+        }
+        if (properties.getDefaultPropertyInclusion() != null) {
+            builder.changeDefaultPropertyInclusion(
+                    inclusion -> inclusion.withValueInclusion(properties.getDefaultPropertyInclusion()));
+        }
+        if (properties.getTimeZone() != null) {
+            builder.defaultTimeZone(properties.getTimeZone());
+        }
+        properties.getVisibility().forEach((accessor, visibility) ->
+                builder.changeDefaultVisibility(checker -> checker.withVisibility(accessor, visibility)));
+
+        configureFeatures(properties.getDeserialization(), builder::configure);
+        configureFeatures(properties.getSerialization(), builder::configure);
+        configureFeatures(properties.getMapper(), builder::configure);
+        configureFeatures(properties.getDatatype().getDatetime(), builder::configure);
+        configureFeatures(properties.getDatatype().getEnum(), builder::configure);
+        configureFeatures(properties.getDatatype().getJsonNode(), builder::configure);
+
+        if (properties.getDateFormat() != null) {
+            builder.defaultDateFormat(dateFormat(properties));
+        }
+        if (properties.getPropertyNamingStrategy() != null) {
+            builder.propertyNamingStrategy(namingStrategy(properties.getPropertyNamingStrategy()));
+        }
+        builder.addModules(modules);
+        if (properties.getLocale() != null) {
+            builder.defaultLocale(properties.getLocale());
+        }
+        if (properties.getDefaultLeniency() != null) {
+            builder.defaultLeniency(properties.getDefaultLeniency());
+        }
+        if (properties.getConstructorDetector() != null) {
+            builder.constructorDetector(switch (properties.getConstructorDetector()) {
+                case USE_PROPERTIES_BASED -> ConstructorDetector.USE_PROPERTIES_BASED;
+                case USE_DELEGATING -> ConstructorDetector.USE_DELEGATING;
+                case EXPLICIT_ONLY -> ConstructorDetector.EXPLICIT_ONLY;
+                default -> ConstructorDetector.DEFAULT;
+            });
+        }
+        return builder.build();
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private static <T> void configureFeatures(Map<T, Boolean> features, BiConsumer<T, Boolean> configure) {
+        features.forEach((feature, enabled) -> {
+            if (enabled != null) {
+                configure.accept(feature, enabled);
+            }
+        });
+    }
+
+    // spring.jackson.date-format is either a DateFormat class name or a SimpleDateFormat pattern
+    private static DateFormat dateFormat(JacksonProperties properties) {
+        String dateFormat = properties.getDateFormat();
+        try {
+            Class<?> dateFormatClass = ClassUtils.forName(dateFormat, null);
+            return (DateFormat) BeanUtils.instantiateClass(dateFormatClass);
+        } catch (ClassNotFoundException ex) {
+            SimpleDateFormat simpleDateFormat = new SimpleDateFormat(dateFormat);
+            if (properties.getTimeZone() != null) {
+                simpleDateFormat.setTimeZone(properties.getTimeZone());
+            }
+            return simpleDateFormat;
+        }
+    }
+
+    // spring.jackson.property-naming-strategy is a PropertyNamingStrategies constant or a class name
+    private static PropertyNamingStrategy namingStrategy(String strategy) {
+        var field = ReflectionUtils.findField(PropertyNamingStrategies.class, strategy, PropertyNamingStrategy.class);
+        if (field != null) {
+            return (PropertyNamingStrategy) ReflectionUtils.getField(field, null);
+        }
+        try {
+            return (PropertyNamingStrategy) BeanUtils.instantiateClass(ClassUtils.forName(strategy, null));
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalArgumentException("Unknown property naming strategy: " + strategy, ex);
+        }
+    }
+}
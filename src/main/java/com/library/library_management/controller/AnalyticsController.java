@@ -0,0 +1,75 @@
+package com.library.library_management.controller;
+
+import com.library.library_management.dto.analytics.CirculationReportDTO;
+import com.library.library_management.dto.event.BookCirculationDTO;
+import com.library.library_management.dto.event.CirculationEventDTO;
+import com.library.library_management.service.CirculationAnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/analytics")
+public class AnalyticsController {
+
+    private final CirculationAnalyticsService circulationAnalyticsService;
+
+    public AnalyticsController(CirculationAnalyticsService circulationAnalyticsService) {
+        this.circulationAnalyticsService = circulationAnalyticsService;
+    }
+
+    /**
+     * Circulation report, computed from the in-memory snapshot.
+     * GET /api/v1/analytics/circulation?from=2026-01-01&to=2026-06-30&topAuthors=10
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/circulation")
+    public ResponseEntity<CirculationReportDTO> getCirculationReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int topAuthors) {
+        return ResponseEntity.ok(circulationAnalyticsService.getReport(from, to, topAuthors));
+    }
+
+    /**
+     * Forces a snapshot rebuild now instead of waiting for the next scheduled one.
+     * POST /api/v1/analytics/circulation/refresh → 204
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/circulation/refresh")
+    public ResponseEntity<Void> refreshCirculationSnapshot() {
+        circulationAnalyticsService.refreshSnapshot();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Raw circulation events, oldest first — page with from = last sequence + 1.
+     * GET /api/v1/analytics/events?from=1&limit=500
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/events")
+    public ResponseEntity<List<CirculationEventDTO>> getCirculationEvents(
+            @RequestParam(defaultValue = "1") long from,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(circulationAnalyticsService.getEvents(from, limit));
+    }
+
+    /**
+     * Circulation counters of one book, from this node's event log — an estimate (see BookCirculationCounters).
+     * GET /api/v1/analytics/books/{bookId}
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/books/{bookId}")
+    public ResponseEntity<BookCirculationDTO> getBookCirculation(@PathVariable long bookId) {
+        return ResponseEntity.ok(circulationAnalyticsService.getBookCirculation(bookId));
+    }
+}
@@ -3,12 +3,16 @@ package com.library.library_management.controller;
 import com.library.library_management.dto.auth.AuthResponseDTO;
 import com.library.library_management.dto.auth.LoginDTO;
 import com.library.library_management.dto.auth.RegisterDTO;
+import com.library.library_management.exception.BusinessException;
 import com.library.library_management.service.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -32,4 +36,26 @@ public class AuthController {
         AuthResponseDTO user = authService.login(dto);
         return ResponseEntity.ok(user);
     }
+
+    /**
+     * POST /api/v1/auth/logout → revokes the token sent in the Authorization header, returns 204.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new BusinessException("Missing bearer token");
+        }
+        authService.logout(authHeader.substring(7));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * POST /api/v1/auth/users/{userId}/revoke → admin kills all of a user's current tokens, returns 204.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/users/{userId}/revoke")
+    public ResponseEntity<Void> revokeUserTokens(@PathVariable Long userId) {
+        authService.revokeAllTokens(userId);
+        return ResponseEntity.noContent().build();
+    }
 }
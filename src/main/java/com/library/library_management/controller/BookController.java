@@ -1,43 +1,148 @@
 package com.library.library_management.controller;
 
 import com.library.library_management.dto.book.BookCreateDTO;
+import com.library.library_management.dto.book.BookDetailDTO;
 import com.library.library_management.dto.book.BookResponseDTO;
 import com.library.library_management.dto.book.BookUpdateDTO;
+import com.library.library_management.dto.book.RecommendationDTO;
+import com.library.library_management.dto.branch.BranchStockDTO;
+import com.library.library_management.dto.branch.BranchStockUpdateDTO;
+import com.library.library_management.projection.BookProjection;
+import com.library.library_management.service.BookChangeFeed;
+import com.library.library_management.service.BookDetailService;
 import com.library.library_management.service.BookService;
+import com.library.library_management.service.CoverImageService;
+import com.library.library_management.service.InventoryService;
+import com.library.library_management.service.RecommendationService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/books")
 public class BookController {
 
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
     private final BookService bookService;
+    private final CoverImageService coverImageService;
+    private final BookChangeFeed bookChangeFeed;
+    private final RecommendationService recommendationService;
+    private final InventoryService inventoryService;
+    private final BookDetailService bookDetailService;
 
-    public BookController(BookService bookService) { //constructor injection
+    public BookController(BookService bookService, CoverImageService coverImageService, BookChangeFeed bookChangeFeed,
+                          RecommendationService recommendationService, InventoryService inventoryService,
+                          BookDetailService bookDetailService) { //constructor injection
         this.bookService = bookService;
+        this.coverImageService = coverImageService;
+        this.bookChangeFeed = bookChangeFeed;
+        this.recommendationService = recommendationService;
+        this.inventoryService = inventoryService;
+        this.bookDetailService = bookDetailService;
     }
 
     /**
      * Retrieves all books.
      * GET /api/v1/books → returns 200 OK with a list of BookResponseDTO.
+     * GET /api/v1/books?fields=id,title,author → same list, only those properties (narrower SQL too).
      */
     @GetMapping
-    public ResponseEntity<List<BookResponseDTO>> getBooks() {
+    public ResponseEntity<?> getBooks(@RequestParam(required = false) String fields,
+                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (fields != null) {
+            BookProjection projection = BookProjection.parse(fields);
+            if (!prefersJson(accept)) {
+                return ResponseEntity.ok(bookService.getAllBooksAsMaps(projection));
+            }
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(bookService.getAllBooks(projection));
+        }
         List<BookResponseDTO> books = bookService.getAllBooks();
         return ResponseEntity.ok(books);
     }
 
+    /**
+     * Live stream of catalog / availability changes (Server-Sent Events) — use it instead of polling.
+     * GET /api/v1/books/changes → "book" events ({id, change: UPDATED|DELETED, book}),
+     * "reset" when the client must reload the list. Browsers resume with Last-Event-ID on their own.
+     * 503 if this node already has library.books.changes.max-subscribers streams open.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = bookChangeFeed.subscribe(lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<BookResponseDTO> getBookById(@PathVariable Long id) {
+    public ResponseEntity<?> getBookById(@PathVariable Long id, @RequestParam(required = false) String fields,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (fields != null) {
+            BookProjection projection = BookProjection.parse(fields);
+            if (!prefersJson(accept)) {
+                return ResponseEntity.ok(bookService.getBookByIdAsMap(id, projection));
+            }
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(bookService.getBookById(id, projection));
+        }
         BookResponseDTO book = bookService.getBookById(id);
         return ResponseEntity.ok(book);
     }
 
+    /**
+     * The whole book page in one round trip: book, stock per branch, borrow count, related titles.
+     * GET /api/v1/books/{id}/detail → 200 OK; parts that didn't load in time are null and named in "missing".
+     * 404 if the book doesn't exist, 503 if it couldn't be loaded in time.
+     */
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<BookDetailDTO> getBookDetail(@PathVariable Long id) {
+        return ResponseEntity.ok(bookDetailService.getDetail(id));
+    }
+
+    /**
+     * "Patrons who borrowed this also borrowed" — answered from memory, no database query.
+     * GET /api/v1/books/{id}/recommendations?limit=10 → [{bookId, sharedBorrowers}], strongest first.
+     * Unknown books (or no borrows yet) → empty list.
+     */
+    @GetMapping("/{id}/recommendations")
+    public ResponseEntity<List<RecommendationDTO>> getRecommendations(@PathVariable Long id,
+                                                                      @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(recommendationService.getRecommendations(id, limit));
+    }
+
+    /**
+     * Copies on the shelf per branch (copiesAvailable on the book is their total).
+     * GET /api/v1/books/{id}/branches → [{branchId, branchName, copiesAvailable}]
+     */
+    @GetMapping("/{id}/branches")
+    public ResponseEntity<List<BranchStockDTO>> getStock(@PathVariable Long id) {
+        return ResponseEntity.ok(inventoryService.getStock(id));
+    }
+
+    /**
+     * Sets one branch's copy count for a book (stock-taking, new copies, transfers).
+     * PUT /api/v1/books/{id}/branches/{branchId} {"copiesAvailable": 3} → 200 OK with the branch's stock.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/{id}/branches/{branchId}")
+    public ResponseEntity<BranchStockDTO> setStock(@PathVariable Long id, @PathVariable Long branchId,
+                                                   @RequestBody @Valid BranchStockUpdateDTO dto) {
+        return ResponseEntity.ok(bookService.setStock(id, branchId, dto.getCopiesAvailable()));
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
     public ResponseEntity<BookResponseDTO> createBook(@RequestBody @Valid BookCreateDTO dto) {
@@ -52,10 +157,48 @@ public class BookController {
         return ResponseEntity.ok(book);
     }
 
+    /**
+     * Uploads a cover image (multipart field "file").
+     * POST /api/v1/books/{id}/cover → 200 OK with the book, coverImageUrl now points at /api/v1/covers/...
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/{id}/cover", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BookResponseDTO> uploadCover(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+        BookResponseDTO book = coverImageService.uploadCover(id, file);
+        return ResponseEntity.ok(book);
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBook(@PathVariable Long id) {
         bookService.deleteBook(id);
         return ResponseEntity.noContent().build();
     }
+
+    // ======================== HELPER METHODS ========================
+
+    // ?fields= JSON is written straight to bytes (BookProjection). Whether the client would rather have CBOR or
+    // Smile: the Accept types by quality (ties keep their order) — the first that takes JSON or a binary format
+    // decides. No header, */* or anything unparseable → JSON, like every other endpoint.
+    private static boolean prefersJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        List<MediaType> types;
+        try {
+            types = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return true;
+        }
+        types.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : types) {
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+            if (type.includes(MediaType.APPLICATION_CBOR) || type.includes(SMILE)) {
+                return false;
+            }
+        }
+        return false; // nothing we write — the converters answer 406, as for any other endpoint
+    }
 }
@@ -0,0 +1,73 @@
+package com.library.library_management.controller;
+
+import com.library.library_management.dto.borrow.BorrowResponseDTO;
+import com.library.library_management.service.BorrowService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/borrows")
+public class BorrowController {
+
+    private final BorrowService borrowService;
+
+    public BorrowController(BorrowService borrowService) { //constructor injection
+        this.borrowService = borrowService;
+    }
+
+    /**
+     * Borrows a copy of a book for the logged-in user.
+     * POST /api/v1/borrows/{bookId}/borrow → 201 Created with the loan, 400 if no copy is available.
+     * POST /api/v1/borrows/{bookId}/borrow?branchId=2 → only a copy from that branch.
+     */
+    @PostMapping("/{bookId}/borrow")
+    public ResponseEntity<BorrowResponseDTO> borrowBook(@PathVariable Long bookId,
+                                                        @RequestParam(required = false) Long branchId,
+                                                        Authentication authentication) {
+        BorrowResponseDTO borrow = borrowService.borrowBook(bookId, branchId, authentication.getName());
+        return ResponseEntity.status(HttpStatus.CREATED).body(borrow);
+    }
+
+    /**
+     * Returns a loan (your own, or anyone's if you're an admin).
+     * PUT /api/v1/borrows/{id}/return → 200 OK with the closed loan.
+     */
+    @PutMapping("/{id}/return")
+    public ResponseEntity<BorrowResponseDTO> returnBook(@PathVariable Long id, Authentication authentication) {
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        BorrowResponseDTO borrow = borrowService.returnBook(id, authentication.getName(), admin);
+        return ResponseEntity.ok(borrow);
+    }
+
+    /**
+     * The logged-in user's loan history, newest first — includes archived loans.
+     */
+    @GetMapping("/my")
+    public ResponseEntity<List<BorrowResponseDTO>> getMyBorrows(Authentication authentication) {
+        return ResponseEntity.ok(borrowService.getMyHistory(authentication.getName()));
+    }
+
+    /**
+     * All active loans (admin).
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    public ResponseEntity<List<BorrowResponseDTO>> getActiveBorrows() {
+        return ResponseEntity.ok(borrowService.getActiveBorrows());
+    }
+
+    /**
+     * Any user's loan history, newest first — includes archived loans (admin).
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<List<BorrowResponseDTO>> getUserHistory(@PathVariable Long userId) {
+        return ResponseEntity.ok(borrowService.getUserHistory(userId));
+    }
+}
@@ -0,0 +1,41 @@
+package com.library.library_management.controller;
+
+import com.library.library_management.dto.branch.BranchCreateDTO;
+import com.library.library_management.dto.branch.BranchResponseDTO;
+import com.library.library_management.service.InventoryService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/branches")
+public class BranchController {
+
+    private final InventoryService inventoryService;
+
+    public BranchController(InventoryService inventoryService) { //constructor injection
+        this.inventoryService = inventoryService;
+    }
+
+    /**
+     * All library branches — the main one is flagged.
+     */
+    @GetMapping
+    public ResponseEntity<List<BranchResponseDTO>> getBranches() {
+        return ResponseEntity.ok(inventoryService.getBranches());
+    }
+
+    /**
+     * Opens a new branch (admin). It starts with no stock — set it per book with PUT /books/{id}/branches/{branchId}.
+     * POST /api/v1/branches {"name": "Riverside"} → 201 Created, 400 if the name is taken.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    public ResponseEntity<BranchResponseDTO> createBranch(@RequestBody @Valid BranchCreateDTO dto) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(inventoryService.createBranch(dto));
+    }
+}
@@ -0,0 +1,46 @@
+package com.library.library_management.controller;
+
+import com.library.library_management.service.CoverImageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Serves cover images we host. Public, like book browsing.
+ *
+ * Methods write straight to the HttpServletResponse (no ResponseEntity) so files can be
+ * handed to Tomcat's sendfile instead of being copied through the JVM.
+ */
+@RestController
+@RequestMapping("/api/v1/covers")
+public class CoverController {
+
+    private final CoverImageService coverImageService;
+
+    public CoverController(CoverImageService coverImageService) {
+        this.coverImageService = coverImageService;
+    }
+
+    /**
+     * GET /api/v1/covers/{hash}.{ext} → the original upload.
+     */
+    @GetMapping("/{fileName}")
+    public void getOriginal(@PathVariable String fileName, HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        coverImageService.serveOriginal(fileName, request, response);
+    }
+
+    /**
+     * GET /api/v1/covers/{hash}/{size} → a JPEG thumbnail, size is small | medium | large.
+     */
+    @GetMapping("/{hash}/{size}")
+    public void getThumbnail(@PathVariable String hash, @PathVariable String size, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        coverImageService.serveThumbnail(hash, size, request, response);
+    }
+}
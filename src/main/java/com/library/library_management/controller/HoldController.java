@@ -0,0 +1,66 @@
+package com.library.library_management.controller;
+
+import com.library.library_management.dto.hold.HoldResponseDTO;
+import com.library.library_management.service.HoldNotifier;
+import com.library.library_management.service.HoldService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/holds")
+public class HoldController {
+
+    private static final long MAX_WAIT_SECONDS = 60;
+
+    private final HoldService holdService;
+    private final HoldNotifier holdNotifier;
+
+    public HoldController(HoldService holdService, HoldNotifier holdNotifier) { //constructor injection
+        this.holdService = holdService;
+        this.holdNotifier = holdNotifier;
+    }
+
+    /**
+     * Joins the waitlist for a book that has no copies left.
+     * POST /api/v1/holds/{bookId} → 201 Created with the hold and its position in line.
+     */
+    @PostMapping("/{bookId}")
+    public ResponseEntity<HoldResponseDTO> placeHold(@PathVariable Long bookId, Authentication authentication) {
+        HoldResponseDTO hold = holdService.placeHold(bookId, authentication.getName());
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+
+    /**
+     * The logged-in user's open holds (WAITING / READY).
+     */
+    @GetMapping("/my")
+    public ResponseEntity<List<HoldResponseDTO>> getMyHolds(Authentication authentication) {
+        return ResponseEntity.ok(holdService.getMyHolds(authentication.getName()));
+    }
+
+    /**
+     * Long-poll instead of refreshing the book page: answers as soon as the hold becomes READY
+     * (or is closed), otherwise with its current state after timeoutSeconds (max 60).
+     * GET /api/v1/holds/{id}/wait?timeoutSeconds=30
+     */
+    @GetMapping("/{id}/wait")
+    public DeferredResult<ResponseEntity<HoldResponseDTO>> waitForHold(@PathVariable Long id,
+                                                                       @RequestParam(defaultValue = "30") long timeoutSeconds,
+                                                                       Authentication authentication) {
+        long seconds = Math.clamp(timeoutSeconds, 1, MAX_WAIT_SECONDS);
+        return holdNotifier.await(id, authentication.getName(), seconds * 1000);
+    }
+
+    /**
+     * Leaves the waitlist. A copy set aside for this hold goes to the next patron.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<HoldResponseDTO> cancelHold(@PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(holdService.cancelHold(id, authentication.getName()));
+    }
+}
@@ -0,0 +1,13 @@
+package com.library.library_management.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuthorBorrowCountDTO {
+    private String author;
+    private long borrows;
+}
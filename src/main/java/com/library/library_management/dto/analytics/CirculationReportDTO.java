@@ -0,0 +1,36 @@
+package com.library.library_management.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CirculationReportDTO {
+
+    // when the data behind this report was read from the database (reports can be up to one refresh old)
+    private Instant snapshotTakenAt;
+
+    private long totalBorrows;
+
+    private long returnedBorrows;
+
+    // over returned loans only — open loans have no length yet
+    private double averageLoanDays;
+
+    // returned after the due date / returned
+    private double returnLateRatio;
+
+    // "2026-01" → count, oldest first
+    private Map<String, Long> borrowsPerMonth;
+
+    // "1990s" → count, by the book's publication decade
+    private Map<String, Long> borrowsPerDecade;
+
+    private List<AuthorBorrowCountDTO> topAuthors;
+}
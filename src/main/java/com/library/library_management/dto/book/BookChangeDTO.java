@@ -0,0 +1,23 @@
+package com.library.library_management.dto.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of the GET /api/v1/books/changes stream.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookChangeDTO {
+
+    public static final String UPDATED = "UPDATED"; // created or changed — replace your copy with "book"
+    public static final String DELETED = "DELETED"; // gone — drop your copy
+
+    private Long id;
+
+    private String change;
+
+    private BookResponseDTO book; // current state, null when DELETED
+}
@@ -0,0 +1,26 @@
+package com.library.library_management.dto.book;
+
+import com.library.library_management.dto.branch.BranchStockDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookDetailDTO {
+    //everything the book page needs in one response — the optional parts are null when they didn't make it
+
+    private BookResponseDTO book;
+
+    private List<BranchStockDTO> branches; // copies on the shelf per branch
+
+    private Long borrowCount; // loans ever
+
+    private List<BookResponseDTO> related; // "also borrowed", strongest first
+
+    //names of the parts left out ("branches", "related") — empty when complete
+    private List<String> missing;
+}
@@ -0,0 +1,15 @@
+package com.library.library_management.dto.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecommendationDTO {
+
+    private Long bookId;
+
+    private int sharedBorrowers; // patrons who borrowed both books
+}
@@ -0,0 +1,36 @@
+package com.library.library_management.dto.borrow;
+
+import com.library.library_management.model.BorrowStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BorrowResponseDTO {
+    //id, userId, bookId, bookTitle, branchId, borrowDate, dueDate, returnDate, status, archived
+
+    private Long id;
+
+    private Long userId;
+
+    private Long bookId;
+
+    private String bookTitle;
+
+    private Long branchId; // where the copy was picked up — null for loans from before branches, and archived ones
+
+    private LocalDate borrowDate;
+
+    private LocalDate dueDate;
+
+    private LocalDate returnDate; // null while the book is still out
+
+    private BorrowStatus status;
+
+    //true → served from the on-disk archive (old RETURNED loans), not the borrows table
+    private boolean archived;
+}
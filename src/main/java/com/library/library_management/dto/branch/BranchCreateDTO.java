@@ -0,0 +1,17 @@
+package com.library.library_management.dto.branch;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BranchCreateDTO {
+
+    @NotBlank(message = "Name is required")
+    @Size(min = 1, max = 50)
+    private String name;
+}
@@ -0,0 +1,21 @@
+package com.library.library_management.dto.branch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BranchResponseDTO {
+
+    private Long id;
+
+    private String name;
+
+    private boolean main; // books created without a branch are stocked here
+
+    private LocalDateTime createdAt;
+}
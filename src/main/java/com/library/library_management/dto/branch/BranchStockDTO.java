@@ -0,0 +1,18 @@
+package com.library.library_management.dto.branch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BranchStockDTO {
+    //one book at one branch
+
+    private Long branchId;
+
+    private String branchName;
+
+    private int copiesAvailable; // on the shelf there right now (set-aside hold copies not included)
+}
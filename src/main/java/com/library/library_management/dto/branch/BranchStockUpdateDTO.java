@@ -0,0 +1,17 @@
+package com.library.library_management.dto.branch;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BranchStockUpdateDTO {
+
+    @NotNull(message = "Copies available is required")
+    @Min(value = 0, message = "Copies available cannot be negative")
+    private Integer copiesAvailable;
+}
@@ -0,0 +1,21 @@
+package com.library.library_management.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookCirculationDTO {
+
+    private long bookId;
+
+    private long borrows; // loans ever
+
+    private long onLoan; // loans out right now
+
+    private long overdue; // loans that went overdue, ever
+
+    private Integer copiesAvailable; // last value seen in the log, null if none
+}
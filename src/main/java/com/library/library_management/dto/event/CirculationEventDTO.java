@@ -0,0 +1,28 @@
+package com.library.library_management.dto.event;
+
+import com.library.library_management.eventlog.CirculationEventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CirculationEventDTO {
+
+    private long sequence;
+
+    private Instant timestamp;
+
+    private CirculationEventType type;
+
+    private long bookId;
+
+    private Long userId; // null for COPIES_ADJUSTED
+
+    private Long borrowId; // null for COPIES_ADJUSTED
+
+    private Integer copiesAvailable; // after the event, null if not recorded (only stock changes record it)
+}
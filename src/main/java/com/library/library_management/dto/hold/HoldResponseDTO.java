@@ -0,0 +1,34 @@
+package com.library.library_management.dto.hold;
+
+import com.library.library_management.model.HoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HoldResponseDTO {
+    //id, bookId, bookTitle, status, position, createdAt, expiresAt, branchId
+
+    private Long id;
+
+    private Long bookId;
+
+    private String bookTitle;
+
+    private HoldStatus status;
+
+    //1 = next in line; 0 once the hold is no longer WAITING
+    private long position;
+
+    private LocalDateTime createdAt;
+
+    //pickup deadline — only set while READY
+    private LocalDateTime expiresAt;
+
+    //where the copy is waiting — only set while READY
+    private Long branchId;
+}
@@ -0,0 +1,85 @@
+package com.library.library_management.eventlog;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-book circulation counters (loans ever, loans out right now, copiesAvailable after
+ * the last stock change),
+ * built purely from the circulation event log.
+ *
+ * Why from the log? → On startup the whole log is replayed into memory, then every new event is
+ * applied as it is appended. No COUNT(*) over borrows, ever.
+ *
+ * ESTIMATES, per node: the log only holds what THIS replica served since its log began, and loses an
+ * event if the node crashes between commit and append (see CirculationEventLog). So with several
+ * replicas, or a log younger than the data, the counts are low. onLoan is floored at 0 because a
+ * return of a loan the log never saw borrowed would take it below — which is exactly that undercount
+ * showing, not a bug being hidden. Anything that must be exact reads the tables (e.g. the loans
+ * table plus archived_circulation).
+ *
+ * Only the log's writer thread updates the counters, so volatile fields are enough for readers.
+ */
+@Component
+public class BookCirculationCounters implements CirculationEventListener {
+
+    private final CirculationEventLog eventLog;
+    private final Map<Long, Counts> books = new ConcurrentHashMap<>();
+
+    public BookCirculationCounters(CirculationEventLog eventLog) {
+        this.eventLog = eventLog;
+    }
+
+    @PostConstruct
+    void rebuild() {
+        eventLog.subscribe(1, this);
+    }
+
+    @Override
+    public void onEvent(CirculationEvent event) {
+        Counts counts = books.computeIfAbsent(event.bookId(), id -> new Counts());
+        switch (event.type()) {
+            case BORROWED -> {
+                counts.borrows++;
+                counts.onLoan++;
+            }
+            case RETURNED -> counts.onLoan = Math.max(0, counts.onLoan - 1);
+            case OVERDUE -> counts.overdue++;
+            case COPIES_ADJUSTED -> { }
+        }
+        if (event.copiesAvailable() >= 0) {
+            counts.copiesAvailable = event.copiesAvailable();
+        }
+    }
+
+    /**
+     * @return how many times this book was ever borrowed (0 if unknown)
+     */
+    public long borrowCount(long bookId) {
+        Counts counts = books.get(bookId);
+        return counts == null ? 0 : counts.borrows;
+    }
+
+    /**
+     * @return a point-in-time copy of this book's counters (all zero / copiesAvailable -1 if unknown)
+     */
+    public Snapshot get(long bookId) {
+        Counts counts = books.get(bookId);
+        return counts == null
+                ? new Snapshot(bookId, 0, 0, 0, -1)
+                : new Snapshot(bookId, counts.borrows, counts.onLoan, counts.overdue, counts.copiesAvailable);
+    }
+
+    public record Snapshot(long bookId, long borrows, long onLoan, long overdue, int copiesAvailable) {
+    }
+
+    private static final class Counts {
+        volatile long borrows;
+        volatile long onLoan;
+        volatile long overdue;
+        volatile int copiesAvailable = -1;
+    }
+}
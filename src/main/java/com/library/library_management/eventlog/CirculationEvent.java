@@ -0,0 +1,16 @@
+package com.library.library_management.eventlog;
+
+/**
+ * One entry of the circulation event log.
+ *
+ * @param sequence        position in the log, starts at 1, no gaps
+ * @param timestampMillis when it was appended
+ * @param bookId          the book concerned
+ * @param userId          the patron (0 for COPIES_ADJUSTED)
+ * @param borrowId        the loan (0 for COPIES_ADJUSTED)
+ * @param copiesAvailable the book's copiesAvailable right after the event (-1 if not recorded — only
+ *                        stock changes by an admin record it; borrows, returns, hold releases and OVERDUE don't)
+ */
+public record CirculationEvent(long sequence, long timestampMillis, CirculationEventType type,
+                               long bookId, long userId, long borrowId, int copiesAvailable) {
+}
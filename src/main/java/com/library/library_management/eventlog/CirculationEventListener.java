@@ -0,0 +1,11 @@
+package com.library.library_management.eventlog;
+
+/**
+ * Receives circulation events in log order — first the replayed history, then live appends.
+ * Called from the log's writer thread: keep it quick and never block.
+ */
+@FunctionalInterface
+public interface CirculationEventListener {
+
+    void onEvent(CirculationEvent event);
+}
@@ -0,0 +1,496 @@
+package com.library.library_management.eventlog;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of circulation events (borrowed, returned, overdue, copies adjusted) on local disk
+ * (library.events.dir). The tables keep only the CURRENT state; this keeps how we got there.
+ *
+ * Layout — memory-mapped segment files of library.events.segment-bytes each, named after their
+ * first sequence number (00000000000000000001.log, ...):
+ *   segment header → magic, version
+ *   records        → length | CRC32C of the body | body (sequence, timestamp, type, bookId, userId, borrowId, copies)
+ *   then zeros     → files are pre-sized, a zero length marks the end
+ * Every record has the same size, so replay can jump straight to a sequence number inside a segment.
+ * When a segment is full the writer forces it and starts the next one.
+ *
+ * Group commit: callers only queue their event. ONE writer thread takes everything queued, writes it
+ * into the mapping, forces it to disk ONCE and then completes every caller's future. Twenty concurrent
+ * borrows cost one disk flush, not twenty — throughput grows with load instead of collapsing.
+ *
+ * Crash safety: on startup the last segment is scanned; the first record with a wrong length or CRC
+ * (a write torn by the crash) and everything after it is zeroed, and appending resumes there.
+ *
+ * Consumers call subscribe(fromSequence, listener): they get the history from the log, then every new
+ * event, in order, with no gap and no duplicate in between.
+ *
+ * Events are appended AFTER the database commit (appendAfterCommit), so the log never contains a
+ * loan that was rolled back. The price: a crash between commit and append, or a failed write, loses
+ * that event. And the log is per NODE — each replica logs only the requests it served. So it is an
+ * audit trail and a source of per-node estimates (BookCirculationCounters), not a source of truth:
+ * the circulation reports (CirculationAnalyticsService) are still computed from the tables, not
+ * rebuilt from here.
+ *
+ * A batch that fails to write is rolled back in the file: its records are zeroed and its sequence
+ * numbers are given to the next batch, so the log never has a gap or a sequence number used twice.
+ * Failures are logged and counted (library.events.failed).
+ */
+@Component
+public class CirculationEventLog {
+
+    private static final Logger log = LoggerFactory.getLogger(CirculationEventLog.class);
+
+    private static final int MAGIC = 0x4C454C31; // "LEL1"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".log";
+    private static final int SEGMENT_HEADER = 8;
+    private static final int BODY_SIZE = 8 + 8 + 1 + 8 + 8 + 8 + 4;
+    private static final int RECORD_SIZE = 4 + 4 + BODY_SIZE;
+    private static final int MAX_BATCH = 4096;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean fsync;
+    private final AtomicLong failed = new AtomicLong();
+
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>(64 * 1024);
+    private final List<CirculationEventListener> listeners = new CopyOnWriteArrayList<>();
+    // first sequence → segment file
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    // Held by the writer while it writes + dispatches a batch, and by subscribe() while it replays
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final CRC32C writerCrc = new CRC32C();
+
+    // Writer thread only (and startup)
+    private MappedByteBuffer active;
+    private int position;
+    private long nextSequence;
+
+    // Highest sequence that is on disk — readers never look past it
+    private volatile long durableSequence;
+    private volatile boolean running;
+    private Thread writer;
+
+    public CirculationEventLog(MeterRegistry meterRegistry,
+                               @Value("${library.events.dir:./data/events}") String directory,
+                               @Value("${library.events.segment-bytes:67108864}") int segmentBytes,
+                               @Value("${library.events.fsync:true}") boolean fsync) {
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.segmentBytes = Math.max(64 * 1024, segmentBytes);
+        this.fsync = fsync;
+        FunctionCounter.builder("library.events.failed", failed, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * Finds the segments, repairs a torn tail and starts the writer thread.
+     */
+    @PostConstruct
+    void open() {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path file : stream) {
+                    String name = file.getFileName().toString();
+                    segments.put(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), file);
+                }
+            }
+            if (segments.isEmpty()) {
+                startSegment(1);
+                nextSequence = 1;
+            } else {
+                recoverLastSegment();
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalStateException("Could not open circulation event log in " + directory, e);
+        }
+        durableSequence = nextSequence - 1;
+        running = true;
+        writer = new Thread(this::runWriter, "circulation-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Circulation event log: {} segments in {}, next sequence {}", segments.size(), directory, nextSequence);
+    }
+
+    /**
+     * Lets the writer finish what's queued, then flushes.
+     */
+    @PreDestroy
+    void close() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        writeLock.lock();
+        try {
+            if (active != null) {
+                active.force();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Queues an event. The future completes with its sequence number once it is on disk.
+     *
+     * @param copiesAvailable the book's copiesAvailable after the event, -1 if not known
+     */
+    public CompletableFuture<Long> append(CirculationEventType type, long bookId, long userId, long borrowId,
+                                          int copiesAvailable) {
+        PendingAppend pending = new PendingAppend(type, bookId, userId, borrowId, copiesAvailable, new CompletableFuture<>());
+        if (!running) {
+            failed.incrementAndGet();
+            pending.result().completeExceptionally(new IllegalStateException("Circulation event log is closed"));
+        } else if (!queue.offer(pending)) {
+            failed.incrementAndGet();
+            pending.result().completeExceptionally(new IllegalStateException("Circulation event log queue is full"));
+        }
+        return pending.result();
+    }
+
+    /**
+     * Queues the event once the current transaction commits (right away if there is none). Never waits
+     * for the disk — the request thread is done as soon as the event is queued. A failed append is
+     * logged, never thrown: the loan itself is already committed.
+     */
+    public void appendAfterCommit(CirculationEventType type, long bookId, long userId, long borrowId,
+                                  int copiesAvailable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    appendQuietly(type, bookId, userId, borrowId, copiesAvailable);
+                }
+            });
+        } else {
+            appendQuietly(type, bookId, userId, borrowId, copiesAvailable);
+        }
+    }
+
+    /**
+     * Replays the log from a sequence number, then keeps delivering every new event.
+     * The listener is called from the writer thread — appends wait while the history is replayed.
+     *
+     * @param fromSequence first event to deliver (1 = everything)
+     */
+    public void subscribe(long fromSequence, CirculationEventListener listener) {
+        writeLock.lock();
+        try {
+            scan(fromSequence, event -> {
+                deliver(listener, event);
+                return true;
+            });
+            listeners.add(listener);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Reads up to {@code limit} events starting at a sequence number (only events already on disk).
+     */
+    public List<CirculationEvent> read(long fromSequence, int limit) {
+        List<CirculationEvent> events = new ArrayList<>(Math.min(limit, 1024));
+        if (limit > 0) {
+            scan(fromSequence, event -> {
+                events.add(event);
+                return events.size() < limit;
+            });
+        }
+        return events;
+    }
+
+    /**
+     * @return the sequence number of the newest event on disk (0 = empty log)
+     */
+    public long lastSequence() {
+        return durableSequence;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return events that could not be logged since startup (queue full, write failed, log closed)
+     */
+    public long failedCount() {
+        return failed.get();
+    }
+
+    // ======================== WRITER ========================
+
+    private void runWriter() {
+        List<PendingAppend> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1); // everything that queued up while we were flushing
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingAppend> batch) {
+        List<CirculationEvent> written = new ArrayList<>(batch.size());
+        writeLock.lock();
+        try {
+            long batchSegmentFirst = segments.lastKey();
+            MappedByteBuffer batchSegment = active;
+            int batchPosition = position;
+            long batchSequence = nextSequence;
+            try {
+                int flushFrom = position;
+                for (PendingAppend pending : batch) {
+                    if (position + RECORD_SIZE > active.capacity()) {
+                        force(flushFrom);
+                        startSegment(nextSequence);
+                        flushFrom = position;
+                    }
+                    written.add(writeRecord(pending));
+                }
+                force(flushFrom); // the one flush for the whole batch
+            } catch (IOException | RuntimeException e) {
+                log.error("Circulation event log write failed, dropping {} events (sequence {} on): {}",
+                        batch.size(), batchSequence, e.getMessage());
+                rollBack(batchSegmentFirst, batchSegment, batchPosition, batchSequence);
+                failed.addAndGet(batch.size());
+                for (PendingAppend pending : batch) {
+                    pending.result().completeExceptionally(e);
+                }
+                return;
+            }
+            durableSequence = nextSequence - 1;
+            // Listeners before the futures: whoever waits on append() sees derived state that includes it
+            for (CirculationEvent event : written) {
+                for (CirculationEventListener listener : listeners) {
+                    deliver(listener, event);
+                }
+            }
+            for (int i = 0; i < written.size(); i++) {
+                batch.get(i).result().complete(written.get(i).sequence());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private CirculationEvent writeRecord(PendingAppend pending) {
+        CirculationEvent event = new CirculationEvent(nextSequence, System.currentTimeMillis(), pending.type(),
+                pending.bookId(), pending.userId(), pending.borrowId(), pending.copiesAvailable());
+        int body = position + 8;
+        active.putLong(body, event.sequence());
+        active.putLong(body + 8, event.timestampMillis());
+        active.put(body + 16, event.type().code());
+        active.putLong(body + 17, event.bookId());
+        active.putLong(body + 25, event.userId());
+        active.putLong(body + 33, event.borrowId());
+        active.putInt(body + 41, event.copiesAvailable());
+        writerCrc.reset();
+        writerCrc.update(active.slice(body, BODY_SIZE));
+        active.putInt(position + 4, (int) writerCrc.getValue());
+        active.putInt(position, BODY_SIZE); // length last — a non-zero length means the record is complete
+        position += RECORD_SIZE;
+        nextSequence++;
+        return event;
+    }
+
+    /**
+     * Undoes a failed batch: drops any segment it started, zeroes its records (a zero length is the end
+     * of the log for readers and for recovery) and hands its sequence numbers to the next batch.
+     * Readers never saw any of it — durableSequence wasn't advanced.
+     */
+    private void rollBack(long batchSegmentFirst, MappedByteBuffer batchSegment, int batchPosition, long batchSequence) {
+        for (Long first : List.copyOf(segments.tailMap(batchSegmentFirst, false).keySet())) {
+            Path file = segments.remove(first);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Circulation event log: could not delete {}: {}", file.getFileName(), e.getMessage());
+            }
+        }
+        int end = active == batchSegment ? position : batchSegment.capacity();
+        for (int i = batchPosition; i < end; i++) {
+            batchSegment.put(i, (byte) 0);
+        }
+        active = batchSegment;
+        position = batchPosition;
+        nextSequence = batchSequence;
+    }
+
+    private void force(int from) {
+        if (fsync && position > from) {
+            active.force(from, position - from);
+        }
+    }
+
+    private void startSegment(long firstSequence) throws IOException {
+        if (active != null) {
+            active.force();
+        }
+        Path file = directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(segmentBytes);
+            active = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        active.putInt(0, MAGIC);
+        active.putInt(4, VERSION);
+        active.force(0, SEGMENT_HEADER);
+        position = SEGMENT_HEADER;
+        segments.put(firstSequence, file);
+    }
+
+    private void recoverLastSegment() throws IOException {
+        Map.Entry<Long, Path> last = segments.lastEntry();
+        try (FileChannel channel = FileChannel.open(last.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            active = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        if (active.getInt(0) == 0) {
+            // Crashed right after creating the file
+            active.putInt(0, MAGIC);
+            active.putInt(4, VERSION);
+        } else if (active.getInt(0) != MAGIC || active.getInt(4) != VERSION) {
+            throw new IOException("not a circulation event log segment: " + last.getValue().getFileName());
+        }
+        CRC32C crc = new CRC32C();
+        long expected = last.getKey();
+        int offset = SEGMENT_HEADER;
+        CirculationEvent event;
+        while ((event = readRecord(active, offset, crc)) != null && event.sequence() == expected) {
+            offset += RECORD_SIZE;
+            expected++;
+        }
+        if (offset + 4 <= active.capacity() && active.getInt(offset) != 0) {
+            log.warn("Circulation event log: torn record at sequence {} in {}, truncating", expected,
+                    last.getValue().getFileName());
+            for (int i = offset; i < active.capacity(); i++) {
+                active.put(i, (byte) 0);
+            }
+        }
+        active.force();
+        position = offset;
+        nextSequence = expected;
+    }
+
+    // ======================== READING ========================
+
+    /**
+     * Visits events from fromSequence up to durableSequence, in order, until the visitor returns false.
+     */
+    private void scan(long fromSequence, Predicate<CirculationEvent> visitor) {
+        long from = Math.max(1, fromSequence);
+        long upTo = durableSequence;
+        Long start = segments.floorKey(from);
+        CRC32C crc = new CRC32C();
+        for (Map.Entry<Long, Path> segment : segments.tailMap(start != null ? start : segments.firstKey(), true).entrySet()) {
+            long first = segment.getKey();
+            if (first > upTo) {
+                return;
+            }
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read circulation event log " + segment.getValue().getFileName(), e);
+            }
+            // Fixed-size records → jump straight to the first wanted one
+            long skip = Math.max(0, from - first);
+            long offset = SEGMENT_HEADER + skip * RECORD_SIZE;
+            CirculationEvent event;
+            while (offset + RECORD_SIZE <= buffer.capacity()
+                    && (event = readRecord(buffer, (int) offset, crc)) != null) {
+                if (event.sequence() > upTo) {
+                    return;
+                }
+                if (event.sequence() >= from && !visitor.test(event)) {
+                    return;
+                }
+                offset += RECORD_SIZE;
+            }
+        }
+    }
+
+    // null = no (valid) record here
+    private static CirculationEvent readRecord(MappedByteBuffer buffer, int offset, CRC32C crc) {
+        if (offset + RECORD_SIZE > buffer.capacity() || buffer.getInt(offset) != BODY_SIZE) {
+            return null;
+        }
+        int body = offset + 8;
+        crc.reset();
+        crc.update(buffer.slice(body, BODY_SIZE));
+        if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+            return null;
+        }
+        return new CirculationEvent(
+                buffer.getLong(body),
+                buffer.getLong(body + 8),
+                CirculationEventType.fromCode(buffer.get(body + 16)),
+                buffer.getLong(body + 17),
+                buffer.getLong(body + 25),
+                buffer.getLong(body + 33),
+                buffer.getInt(body + 41));
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private void appendQuietly(CirculationEventType type, long bookId, long userId, long borrowId, int copiesAvailable) {
+        append(type, bookId, userId, borrowId, copiesAvailable).whenComplete((sequence, e) -> {
+            if (e != null) {
+                log.error("Could not log {} of book {} (borrow {}): {}", type, bookId, borrowId, e.getMessage());
+            }
+        });
+    }
+
+    private static void deliver(CirculationEventListener listener, CirculationEvent event) {
+        try {
+            listener.onEvent(event);
+        } catch (RuntimeException e) {
+            log.warn("Circulation event listener failed on sequence {}: {}", event.sequence(), e.getMessage());
+        }
+    }
+
+    private record PendingAppend(CirculationEventType type, long bookId, long userId, long borrowId,
+                                 int copiesAvailable, CompletableFuture<Long> result) {
+    }
+}
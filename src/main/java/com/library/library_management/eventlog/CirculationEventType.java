@@ -0,0 +1,30 @@
+package com.library.library_management.eventlog;
+
+/**
+ * What happened. The code is what's stored on disk — never renumber, only add.
+ */
+public enum CirculationEventType {
+    BORROWED(1),        // a loan started
+    RETURNED(2),        // a loan ended
+    OVERDUE(3),         // a loan passed its due date without being returned
+    COPIES_ADJUSTED(4); // an admin created a book or changed its copy count
+
+    private final byte code;
+
+    CirculationEventType(int code) {
+        this.code = (byte) code;
+    }
+
+    byte code() {
+        return code;
+    }
+
+    static CirculationEventType fromCode(byte code) {
+        for (CirculationEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown circulation event code: " + code);
+    }
+}
@@ -1,8 +1,12 @@
 package com.library.library_management.exception;
 
 
+/**
+ * A broken business rule (400). Expected, not a bug — so no stack trace is captured:
+ * filling one in is the most expensive part of throwing, and nobody ever reads it.
+ */
 public class BusinessException extends RuntimeException {
     public BusinessException(String message) {
-        super(message);
+        super(message, null, false, false); // no suppression, no stack trace
     }
 }
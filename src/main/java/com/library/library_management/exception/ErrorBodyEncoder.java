@@ -0,0 +1,193 @@
+package com.library.library_management.exception;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes error bodies straight to JSON bytes, reusing every piece that doesn't change between requests.
+ *
+ * Output is the same shape the API has always returned:
+ *   {"status":404,"message":"Book not found with id: 5","timestamp":"2026-02-21T10:30:00"}
+ *
+ * What gets reused:
+ *   - "{"status":NNN,"message":"" prefix → one copy per status code
+ *   - encoded message text → cached per message string (validation/business messages are constants)
+ *   - "Book not found with id: " → cached per resource name, the id digits are written directly
+ *   - the timestamp → formatted once per second, not once per request
+ *
+ * So a typical error response costs ONE byte[] allocation (the body itself).
+ */
+public final class ErrorBodyEncoder {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final byte[] TIMESTAMP_OPEN = ascii("\",\"timestamp\":\"");
+    private static final byte[] CLOSE = ascii("\"}");
+    private static final byte[] NOT_FOUND_SUFFIX = ascii(" not found with id: ");
+
+    // Stops caching new messages past this size — protects against messages that embed user input
+    private static final int MAX_CACHED_MESSAGES = 1024;
+
+    // Indexed by status code (array, not a map — boxing 404 into an Integer would allocate every time)
+    private static final byte[][] STATUS_PREFIXES = new byte[600][];
+    private static final ConcurrentHashMap<String, byte[]> MESSAGES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, byte[]> NOT_FOUND_PREFIXES = new ConcurrentHashMap<>();
+
+    private static volatile Timestamp timestamp = new Timestamp(Long.MIN_VALUE, new byte[0]);
+
+    private ErrorBodyEncoder() {
+    }
+
+    /**
+     * Encodes a body with an arbitrary message.
+     */
+    public static byte[] encode(int status, String message) {
+        byte[] prefix = statusPrefix(status);
+        byte[] text = encodedMessage(message == null ? "" : message);
+        byte[] stamp = currentTimestamp();
+
+        byte[] body = new byte[prefix.length + text.length + TIMESTAMP_OPEN.length + stamp.length + CLOSE.length];
+        int pos = put(body, 0, prefix);
+        pos = put(body, pos, text);
+        finish(body, pos, stamp);
+        return body;
+    }
+
+    /**
+     * Encodes a 404 for "{resource} not found with id: {id}" without building the message string.
+     */
+    public static byte[] encodeNotFound(String resource, long id) {
+        byte[] prefix = NOT_FOUND_PREFIXES.computeIfAbsent(resource, ErrorBodyEncoder::notFoundPrefix);
+        byte[] stamp = currentTimestamp();
+        int digits = digitCount(id);
+
+        byte[] body = new byte[prefix.length + digits + TIMESTAMP_OPEN.length + stamp.length + CLOSE.length];
+        int pos = put(body, 0, prefix);
+        pos = putLong(body, pos, id, digits);
+        finish(body, pos, stamp);
+        return body;
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private static byte[] notFoundPrefix(String resource) {
+        byte[] status = statusPrefix(404);
+        byte[] name = escape(resource);
+        byte[] prefix = new byte[status.length + name.length + NOT_FOUND_SUFFIX.length];
+        int pos = put(prefix, 0, status);
+        pos = put(prefix, pos, name);
+        put(prefix, pos, NOT_FOUND_SUFFIX);
+        return prefix;
+    }
+
+    // Racing threads may both build the same prefix, which is harmless
+    private static byte[] statusPrefix(int status) {
+        byte[] prefix = STATUS_PREFIXES[status];
+        if (prefix == null) {
+            prefix = ascii("{\"status\":" + status + ",\"message\":\"");
+            STATUS_PREFIXES[status] = prefix;
+        }
+        return prefix;
+    }
+
+    private static byte[] encodedMessage(String message) {
+        byte[] cached = MESSAGES.get(message);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] encoded = escape(message);
+        if (MESSAGES.size() < MAX_CACHED_MESSAGES) {
+            MESSAGES.putIfAbsent(message, encoded);
+        }
+        return encoded;
+    }
+
+    // Re-formats only when the second changes; racing threads may both format, which is harmless
+    private static byte[] currentTimestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        Timestamp current = timestamp;
+        if (current.second != second) {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDateTime now = LocalDateTime.ofEpochSecond(second, 0, zone.getRules().getOffset(Instant.ofEpochSecond(second)));
+            current = new Timestamp(second, ascii(TIMESTAMP_FORMAT.format(now)));
+            timestamp = current;
+        }
+        return current.bytes;
+    }
+
+    private static void finish(byte[] body, int pos, byte[] stamp) {
+        pos = put(body, pos, TIMESTAMP_OPEN);
+        pos = put(body, pos, stamp);
+        put(body, pos, CLOSE);
+    }
+
+    private static int put(byte[] target, int pos, byte[] source) {
+        System.arraycopy(source, 0, target, pos, source.length);
+        return pos + source.length;
+    }
+
+    private static int putLong(byte[] target, int pos, long value, int digits) {
+        if (value == Long.MIN_VALUE) {
+            return put(target, pos, ascii(Long.toString(value)));
+        }
+        int end = pos + digits;
+        long remaining = value;
+        if (remaining < 0) {
+            target[pos] = '-';
+            remaining = -remaining;
+        }
+        int i = end;
+        do {
+            target[--i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        return end;
+    }
+
+    private static int digitCount(long value) {
+        if (value == Long.MIN_VALUE) {
+            return 20;
+        }
+        int count = value < 0 ? 2 : 1;
+        long remaining = Math.abs(value);
+        while (remaining >= 10) {
+            remaining /= 10;
+            count++;
+        }
+        return count;
+    }
+
+    // JSON string escaping — quotes, backslashes and control characters; everything else is plain UTF-8
+    private static byte[] escape(String text) {
+        StringBuilder sb = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                if (sb == null) {
+                    sb = new StringBuilder(text.length() + 8).append(text, 0, i);
+                }
+                switch (c) {
+                    case '"' -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    default -> sb.append(String.format("\\u%04x", (int) c));
+                }
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return (sb == null ? text : sb.toString()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private record Timestamp(long second, byte[] bytes) {
+    }
+}
@@ -1,50 +1,69 @@
 package com.library.library_management.exception;
 
 
-import com.library.library_management.dto.ErrorResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
-import java.time.LocalDateTime;
-
+/**
+ * Turns exceptions into the API's JSON error shape:
+ *   {"status": 404, "message": "...", "timestamp": "2026-02-21T10:30:00"}
+ *
+ * Bodies are written as ready-made JSON bytes by ErrorBodyEncoder instead of building a response
+ * object and running it through Jackson — 404s and validation failures are our highest-volume
+ * responses (bots probing ids), so they should cost as little as possible.
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    // Shared, read-only — no fresh headers object per error
+    private static final HttpHeaders JSON_HEADERS = jsonHeaders();
+
     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleResourceNotFound(ResourceNotFoundException ex) {
-        ErrorResponse error = new ErrorResponse(
-                HttpStatus.NOT_FOUND.value(),//404 error message
-                ex.getMessage(),
-                LocalDateTime.now()
-        );
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    public ResponseEntity<byte[]> handleResourceNotFound(ResourceNotFoundException ex) {
+        byte[] body = ex.getResource() != null
+                ? ErrorBodyEncoder.encodeNotFound(ex.getResource(), ex.getResourceId())
+                : ErrorBodyEncoder.encode(HttpStatus.NOT_FOUND.value(), ex.getMessage());//404 error message
+        return new ResponseEntity<>(body, JSON_HEADERS, HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler(BusinessException.class)
-    public ResponseEntity<ErrorResponse> handleBusinessException(BusinessException ex) {
-        ErrorResponse error = new ErrorResponse(
-                HttpStatus.BAD_REQUEST.value(),//400 error message
-                ex.getMessage(),
-                LocalDateTime.now()
-        );
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    public ResponseEntity<byte[]> handleBusinessException(BusinessException ex) {
+        byte[] body = ErrorBodyEncoder.encode(HttpStatus.BAD_REQUEST.value(), ex.getMessage());//400 error message
+        return new ResponseEntity<>(body, JSON_HEADERS, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<byte[]> handleServiceUnavailable(ServiceUnavailableException ex) {
+        byte[] body = ErrorBodyEncoder.encode(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage());//503 error message
+        return new ResponseEntity<>(body, JSON_HEADERS, HttpStatus.SERVICE_UNAVAILABLE);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ErrorResponse> handleValidationException(MethodArgumentNotValidException ex) {
-        String message = ex.getBindingResult()
-                .getFieldErrors()
-                .get(0)
-                .getDefaultMessage();
-
-        ErrorResponse error = new ErrorResponse(
-                HttpStatus.BAD_REQUEST.value(),
-                message,
-                LocalDateTime.now()
-        );
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    public ResponseEntity<byte[]> handleValidationException(MethodArgumentNotValidException ex) {
+        // getFieldError() returns the first one directly — getFieldErrors().get(0) copies the whole list first
+        FieldError fieldError = ex.getBindingResult().getFieldError();
+        String message = fieldError != null ? fieldError.getDefaultMessage() : "Validation failed";
+
+        byte[] body = ErrorBodyEncoder.encode(HttpStatus.BAD_REQUEST.value(), message);
+        return new ResponseEntity<>(body, JSON_HEADERS, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<byte[]> handleMaxUploadSize(MaxUploadSizeExceededException ex) {
+        byte[] body = ErrorBodyEncoder.encode(HttpStatus.CONTENT_TOO_LARGE.value(), "Uploaded file is too large");//413
+        return new ResponseEntity<>(body, JSON_HEADERS, HttpStatus.CONTENT_TOO_LARGE);
+    }
+
+    private static HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
     }
 }
@@ -1,10 +1,48 @@
 package com.library.library_management.exception;
 
 
+/**
+ * Thrown when an entity doesn't exist (404).
+ *
+ * Stackless — a 404 is an expected outcome, and bots probing random ids can trigger thousands
+ * per second. The (resource, id) constructor also skips building the message string unless
+ * someone actually asks for it; GlobalExceptionHandler writes the body from the parts directly.
+ */
 public class ResourceNotFoundException extends RuntimeException{
 
+    private final String resource;
+    private final long resourceId;
+
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false); // no suppression, no stack trace
+        this.resource = null;
+        this.resourceId = 0;
+    }
+
+    /**
+     * @param resource   entity name used in the message, e.g. "Book"
+     * @param resourceId the id that wasn't found
+     */
+    public ResourceNotFoundException(String resource, long resourceId) {
+        super(null, null, false, false);
+        this.resource = resource;
+        this.resourceId = resourceId;
+    }
+
+    @Override
+    public String getMessage() {
+        if (resource != null) {
+            return resource + " not found with id: " + resourceId;
+        }
+        return super.getMessage();
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    public long getResourceId() {
+        return resourceId;
     }
 
 }
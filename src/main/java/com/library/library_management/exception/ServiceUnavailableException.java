@@ -0,0 +1,12 @@
+package com.library.library_management.exception;
+
+
+/**
+ * Something we depend on didn't answer in time (503) — the client may simply retry.
+ * Stackless, like the other expected outcomes.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message, null, false, false); // no suppression, no stack trace
+    }
+}
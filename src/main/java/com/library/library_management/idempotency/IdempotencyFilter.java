@@ -0,0 +1,294 @@
+package com.library.library_management.idempotency;
+
+import com.library.library_management.exception.ErrorBodyEncoder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes POST / PUT / PATCH / DELETE safe to retry when the client sends an Idempotency-Key header.
+ *
+ * First request with a key → runs normally, its response is stored (IdempotencyStore).
+ * Retry with the same key   → gets the stored response back (header Idempotent-Replayed: true),
+ *                              the endpoint does NOT run again — no duplicate books/borrows.
+ * Retry while the first one is still running → waits for it and gets its response.
+ * Same key, different request (method/path/query/Accept/body) → 422, the key was reused by mistake.
+ *   Accept counts because the stored body is in the format negotiated from it (JSON/CBOR/Smile) — a
+ *   replay must not hand CBOR to a client asking for JSON, and running the write again is what we prevent.
+ *
+ * Not stored: 5xx (we don't know if the work happened) and 401/403 (the caller wasn't allowed — once their
+ * token or role is fixed, the same key must be able to run the request for real).
+ * Bodies over library.idempotency.max-request-bytes are refused with 413 — they are held in memory here.
+ *
+ * Keys are scoped per user, so two users picking the same key can't see each other's responses.
+ * The scoped key is stored as a SHA-256 hex digest: email (up to 254) + Idempotency-Key (up to 255)
+ * would not fit a fixed-width column, the digest always does (64 chars).
+ * Requests without the header are untouched. Runs after JwtAuthenticationFilter (see SecurityConfig)
+ * so the user is already known.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final long waitMillis;
+    private final int maxStoredBodyBytes;
+    private final int maxRequestBytes;
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             @Value("${library.idempotency.wait-ms:30000}") long waitMillis,
+                             @Value("${library.idempotency.max-body-bytes:65536}") int maxStoredBodyBytes,
+                             @Value("${library.idempotency.max-request-bytes:1048576}") int maxRequestBytes) {
+        this.store = store;
+        this.waitMillis = waitMillis;
+        this.maxStoredBodyBytes = maxStoredBodyBytes;
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        boolean mutating = method.equals("POST") || method.equals("PUT") || method.equals("PATCH") || method.equals("DELETE");
+        String contentType = request.getContentType();
+        return !mutating
+                || request.getHeader(HEADER) == null
+                || request.getRequestURI().startsWith("/api/v1/auth/") // never keep tokens around
+                || (contentType != null && contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)); // uploads are content-addressed already
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Idempotency-Key must be 1-255 characters");
+            return;
+        }
+
+        // Read the body once: we need it for the fingerprint AND the endpoint still needs to read it
+        byte[] body = request.getContentLengthLong() > maxRequestBytes
+                ? null
+                : request.getInputStream().readNBytes(maxRequestBytes + 1);
+        if (body == null || body.length > maxRequestBytes) {
+            writeError(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                    "Request body is too large for an Idempotency-Key request");
+            return;
+        }
+        HttpServletRequest replayable = new CachedBodyRequest(request, body);
+        String fingerprint = fingerprint(request, body);
+        String scopedKey = scopedKey(currentUser(), key);
+
+        while (true) {
+            IdempotencyStore.Claim claim = store.claim(scopedKey);
+            switch (claim.kind()) {
+                case REPLAY -> {
+                    replay(claim.response(), fingerprint, response);
+                    return;
+                }
+                case WAIT -> {
+                    StoredResponse finished;
+                    try {
+                        finished = claim.result().get(waitMillis, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        writeError(response, HttpServletResponse.SC_CONFLICT,
+                                "A request with this Idempotency-Key is still in progress");
+                        return;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ServletException(e);
+                    } catch (ExecutionException e) {
+                        throw new ServletException(e.getCause());
+                    }
+                    if (finished != null) {
+                        replay(finished, fingerprint, response);
+                        return;
+                    }
+                    // the first attempt failed and was abandoned — loop and try to become the owner
+                }
+                case OWNER -> {
+                    execute(replayable, response, filterChain, scopedKey, fingerprint);
+                    return;
+                }
+            }
+        }
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String scopedKey, String fingerprint) throws ServletException, IOException {
+        ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, captured);
+            int status = captured.getStatus();
+            // 5xx = we don't know if the work happened; 401/403 = it didn't, and shouldn't stick to the key
+            if (status < 500 && status != HttpServletResponse.SC_UNAUTHORIZED && status != HttpServletResponse.SC_FORBIDDEN
+                    && captured.getContentSize() <= maxStoredBodyBytes) {
+                store.complete(scopedKey, new StoredResponse(fingerprint, status, captured.getContentType(),
+                        captured.getHeader("Location"), captured.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                store.abandon(scopedKey);
+            }
+            captured.copyBodyToResponse();
+        }
+    }
+
+    private void replay(StoredResponse stored, String fingerprint, HttpServletResponse response) throws IOException {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            writeError(response, 422, "Idempotency-Key was already used for a different request");
+            return;
+        }
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.location() != null) {
+            response.setHeader("Location", stored.location());
+        }
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        byte[] body = ErrorBodyEncoder.encode(status, message);
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : "anonymous";
+    }
+
+    // user + key, hashed so the stored key has a fixed length whatever the email and header lengths are
+    static String scopedKey(String user, String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(user.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n'); // can't appear in an email or a header value
+            digest.update(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            String query = request.getQueryString();
+            if (query != null) {
+                digest.update((byte) '?');
+                digest.update(query.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            String accept = request.getHeader("Accept");
+            if (accept != null) {
+                digest.update(accept.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JVM ships SHA-256
+        }
+    }
+
+    /**
+     * Request whose body was already read — hands out fresh streams over the saved bytes.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException("Async reads are not supported");
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
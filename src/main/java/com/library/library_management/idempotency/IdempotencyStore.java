@@ -0,0 +1,190 @@
+package com.library.library_management.idempotency;
+
+import com.library.library_management.model.IdempotencyRecord;
+import com.library.library_management.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Remembers responses by Idempotency-Key.
+ *
+ * Tier 1 — memory: bounded (library.idempotency.max-entries), every entry expires after
+ *          library.idempotency.ttl-ms. A retry costs one map lookup.
+ * Tier 2 — database (optional, library.idempotency.db-tier=true): completed responses are also
+ *          written to idempotency_keys, so retries still replay after a restart or on another replica.
+ *
+ * In-flight requests are tracked too: a duplicate that arrives while the first one is still running
+ * gets the first one's future and waits for it, instead of executing the endpoint a second time.
+ * (This coordination is per node — two duplicates landing on DIFFERENT replicas at the same
+ * instant can both run; the DB tier only covers completed responses.)
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+    // Keys in insertion order — TTL is the same for everyone, so oldest-inserted = soonest to expire
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final boolean dbTier;
+
+    public IdempotencyStore(IdempotencyRecordRepository recordRepository,
+                            @Value("${library.idempotency.ttl-ms:86400000}") long ttlMillis,
+                            @Value("${library.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${library.idempotency.db-tier:false}") boolean dbTier) {
+        this.recordRepository = recordRepository;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.dbTier = dbTier;
+    }
+
+    /**
+     * Looks the key up, and if nobody owns it yet, makes the caller the owner.
+     *
+     * @return REPLAY (response known), WAIT (someone else is running it) or OWNER (caller must run it)
+     */
+    public Claim claim(String key) {
+        while (true) {
+            Slot slot = slots.get(key);
+            if (slot instanceof Done done) {
+                if (done.expiresAt > System.currentTimeMillis()) {
+                    return new Claim(Claim.Kind.REPLAY, done.response, null);
+                }
+                slots.remove(key, done);
+                continue;
+            }
+            if (slot instanceof InFlight inFlight) {
+                return new Claim(Claim.Kind.WAIT, null, inFlight.result);
+            }
+
+            StoredResponse fromDb = loadFromDb(key);
+            if (fromDb != null) {
+                if (slots.putIfAbsent(key, new Done(fromDb, System.currentTimeMillis() + ttlMillis)) == null) {
+                    insertionOrder.add(key); // counts towards max-entries like any other entry
+                    evictIfFull();
+                }
+                continue; // re-read — another thread may have won the race meanwhile
+            }
+
+            InFlight mine = new InFlight(new CompletableFuture<>());
+            if (slots.putIfAbsent(key, mine) == null) {
+                insertionOrder.add(key);
+                evictIfFull();
+                return new Claim(Claim.Kind.OWNER, null, mine.result);
+            }
+        }
+    }
+
+    /**
+     * Owner finished: store the response and wake up everyone waiting on it.
+     */
+    public void complete(String key, StoredResponse response) {
+        Slot previous = slots.put(key, new Done(response, System.currentTimeMillis() + ttlMillis));
+        if (previous instanceof InFlight inFlight) {
+            inFlight.result.complete(response);
+        }
+        if (dbTier) {
+            try {
+                recordRepository.save(new IdempotencyRecord(key, response.fingerprint(), response.status(),
+                        response.contentType(), response.location(), response.body(), null));
+            } catch (RuntimeException e) {
+                log.warn("Could not persist idempotency key: {}", e.getMessage()); // memory tier still has it
+            }
+        }
+    }
+
+    /**
+     * Owner failed (5xx, exception, response too big to keep): forget the key so a retry runs again.
+     * Waiters get null and race to become the new owner.
+     */
+    public void abandon(String key) {
+        Slot previous = slots.remove(key);
+        if (previous instanceof InFlight inFlight) {
+            inFlight.result.complete(null);
+        }
+    }
+
+    /**
+     * Drops expired entries (memory every run, DB when the tier is on).
+     */
+    @Scheduled(fixedDelayString = "${library.idempotency.cleanup-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        slots.values().removeIf(slot -> slot instanceof Done done && done.expiresAt <= now);
+        insertionOrder.removeIf(key -> !slots.containsKey(key));
+        if (dbTier) {
+            try {
+                recordRepository.deleteOlderThan(LocalDateTime.now().minusNanos(ttlMillis * 1_000_000));
+            } catch (RuntimeException e) {
+                log.warn("Could not purge idempotency keys: {}", e.getMessage());
+            }
+        }
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    // Oldest completed entries go first; in-flight ones are never evicted (someone is waiting on them)
+    private void evictIfFull() {
+        int attempts = slots.size();
+        while (slots.size() > maxEntries && attempts-- > 0) {
+            String oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            Slot slot = slots.get(oldest);
+            if (slot instanceof InFlight) {
+                insertionOrder.add(oldest);
+            } else if (slot != null) {
+                slots.remove(oldest, slot);
+            }
+        }
+    }
+
+    private StoredResponse loadFromDb(String key) {
+        if (!dbTier) {
+            return null;
+        }
+        try {
+            return recordRepository.findById(key)
+                    .filter(record -> record.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant()
+                            .toEpochMilli() + ttlMillis > System.currentTimeMillis())
+                    .map(record -> new StoredResponse(record.getFingerprint(), record.getStatus(),
+                            record.getContentType(), record.getLocation(), record.getBody()))
+                    .orElse(null);
+        } catch (RuntimeException e) {
+            log.warn("Idempotency DB tier unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private sealed interface Slot permits InFlight, Done {
+    }
+
+    private record InFlight(CompletableFuture<StoredResponse> result) implements Slot {
+    }
+
+    private record Done(StoredResponse response, long expiresAt) implements Slot {
+    }
+
+    /**
+     * Result of claim(): what the caller should do with this key.
+     */
+    public record Claim(Kind kind, StoredResponse response, CompletableFuture<StoredResponse> result) {
+
+        public enum Kind { REPLAY, WAIT, OWNER }
+    }
+}
@@ -0,0 +1,10 @@
+package com.library.library_management.idempotency;
+
+/**
+ * The response of a completed request, kept so a retry with the same Idempotency-Key gets the
+ * exact same answer without running the endpoint again.
+ *
+ * @param fingerprint SHA-256 of method + path + body — a key reused with a DIFFERENT request is rejected
+ */
+public record StoredResponse(String fingerprint, int status, String contentType, String location, byte[] body) {
+}
@@ -0,0 +1,32 @@
+package com.library.library_management.invalidation;
+
+/**
+ * What kind of thing changed. Each type has a one-character code so messages stay tiny on the wire.
+ */
+public enum EntityType {
+    BOOK('B'),         // id = book id
+    USER('U'),         // id = user id
+    USER_TOKENS('R'),  // id = user email — every token of this user was force-revoked, version = the cutoff
+    TOKEN('T'),        // id = jti — one token was revoked (logout), version = its expiry
+    HOLD('H'),         // id = hold id — its status changed (e.g. a copy is ready for pickup)
+    LOANS('L');        // id = user id — they borrowed or returned a book (loan-limit counters)
+
+    private final char code;
+
+    EntityType(char code) {
+        this.code = code;
+    }
+
+    public char getCode() {
+        return code;
+    }
+
+    public static EntityType fromCode(char code) {
+        for (EntityType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown entity type code: " + code);
+    }
+}
@@ -0,0 +1,34 @@
+package com.library.library_management.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transport that never leaves the JVM.
+ *
+ * Several InvalidationBus instances can share ONE of these to simulate several nodes in a test:
+ * every publish is handed to every subscribed sink, just like NOTIFY reaches every LISTENing node.
+ */
+public class InMemoryInvalidationTransport implements InvalidationTransport {
+
+    private final List<Consumer<String>> sinks = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String payload) {
+        for (Consumer<String> sink : sinks) {
+            sink.accept(payload);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> sink, Runnable onGap) {
+        // nothing can get lost in memory, so onGap is never called
+        sinks.add(sink);
+    }
+
+    @Override
+    public void close() {
+        sinks.clear();
+    }
+}
@@ -0,0 +1,187 @@
+package com.library.library_management.invalidation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cross-node change notifications for anything we cache in memory.
+ *
+ * Write paths call publish(...) after they change data. Every node (this one included) receives the
+ * message and hands it to the listeners registered for that EntityType.
+ *
+ * Received messages go into a bounded inbox and are applied by ONE background thread in batches.
+ * Within a batch, messages about the same entity are coalesced — if a book was updated 50 times in
+ * a burst, listeners hear about it once (with the newest version).
+ *
+ * If the inbox overflows or the transport reports a gap, listeners get invalidateAll() instead —
+ * dropping a cache is always safe, missing an invalidation is not.
+ */
+@Component
+public class InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+    private static final int INBOX_CAPACITY = 10_000;
+
+    private final InvalidationTransport transport;
+    private final Map<EntityType, List<InvalidationListener>> listeners = new EnumMap<>(EntityType.class);
+    private final BlockingQueue<String> inbox = new LinkedBlockingQueue<>(INBOX_CAPACITY);
+
+    private volatile boolean gap;
+    private volatile boolean running;
+    private Thread applierThread;
+
+    public InvalidationBus(InvalidationTransport transport) {
+        this.transport = transport;
+        for (EntityType type : EntityType.values()) {
+            listeners.put(type, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        applierThread = new Thread(this::applyLoop, "invalidation-applier");
+        applierThread.setDaemon(true);
+        applierThread.start();
+        transport.subscribe(this::receive, this::markGap);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        transport.close();
+        applierThread.interrupt();
+    }
+
+    /**
+     * Registers a listener for one entity type. Usually called from the listener's constructor.
+     */
+    public void subscribe(EntityType type, InvalidationListener listener) {
+        listeners.get(type).add(listener);
+    }
+
+    /**
+     * Tells every node that this entity changed. Never throws — a failed publish must not fail the
+     * write that already happened; worst case other nodes serve a stale copy until it expires.
+     * Goes out right away, also inside a transaction (it is never part of it) — see publishAfterCommit.
+     *
+     * @param type what changed
+     * @param id   which one
+     */
+    public void publish(EntityType type, Object id) {
+        publish(type, id, System.currentTimeMillis());
+    }
+
+    /**
+     * Same as publish(type, id), with an explicit version (e.g. a token's expiry time).
+     */
+    public void publish(EntityType type, Object id, long version) {
+        try {
+            transport.publish(new InvalidationMessage(type, String.valueOf(id), version).encode());
+        } catch (RuntimeException e) {
+            log.warn("Could not publish invalidation for {} {}: {}", type, id, e.getMessage());
+        }
+    }
+
+    /**
+     * Same as publish(type, id), but only once the current transaction commits (right away if there
+     * is none). Use it when listeners re-read the entity — before the commit they'd read the old row.
+     */
+    public void publishAfterCommit(EntityType type, Object id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(type, id);
+                }
+            });
+        } else {
+            publish(type, id);
+        }
+    }
+
+    // Called by the transport when the stream may have lost messages
+    private void markGap() {
+        gap = true;
+    }
+
+    private void receive(String payload) {
+        if (!inbox.offer(payload)) {
+            gap = true; // inbox full — we'd rather flush everything than block the transport thread
+        }
+    }
+
+    private void applyLoop() {
+        List<String> batch = new ArrayList<>();
+        while (running) {
+            try {
+                String first = inbox.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    inbox.drainTo(batch);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (gap) {
+                gap = false;
+                batch.clear(); // everything is being flushed anyway
+                listeners.values().forEach(list -> list.forEach(this::safeInvalidateAll));
+                continue;
+            }
+            if (!batch.isEmpty()) {
+                dispatch(coalesce(batch));
+                batch.clear();
+            }
+        }
+    }
+
+    // Keeps only the newest message per entity, in arrival order
+    private Map<String, InvalidationMessage> coalesce(List<String> batch) {
+        Map<String, InvalidationMessage> latest = new LinkedHashMap<>();
+        for (String payload : batch) {
+            try {
+                InvalidationMessage message = InvalidationMessage.decode(payload);
+                latest.merge(message.key(), message, (a, b) -> b.version() >= a.version() ? b : a);
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring invalidation payload: {}", e.getMessage());
+            }
+        }
+        return latest;
+    }
+
+    private void dispatch(Map<String, InvalidationMessage> messages) {
+        for (InvalidationMessage message : messages.values()) {
+            for (InvalidationListener listener : listeners.get(message.type())) {
+                try {
+                    listener.invalidate(message);
+                } catch (RuntimeException e) {
+                    log.warn("Invalidation listener failed for {}: {}", message, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void safeInvalidateAll(InvalidationListener listener) {
+        try {
+            listener.invalidateAll();
+        } catch (RuntimeException e) {
+            log.warn("Invalidation listener failed to flush: {}", e.getMessage());
+        }
+    }
+}
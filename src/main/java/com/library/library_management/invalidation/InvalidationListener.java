@@ -0,0 +1,18 @@
+package com.library.library_management.invalidation;
+
+/**
+ * Something that holds a copy of data and must drop it when another node (or this one) changes it.
+ *
+ * Called from the single invalidation thread, never from a request thread.
+ * Must be idempotent — the same message can arrive more than once.
+ */
+public interface InvalidationListener {
+
+    void invalidate(InvalidationMessage message);
+
+    /**
+     * Messages may have been lost (listener reconnected, inbox overflowed) — drop everything.
+     */
+    default void invalidateAll() {
+    }
+}
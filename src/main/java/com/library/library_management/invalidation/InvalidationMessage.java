@@ -0,0 +1,43 @@
+package com.library.library_management.invalidation;
+
+/**
+ * One "this changed, drop your copy" message.
+ *
+ * Wire format is a short string — "B|42|1760000000000" — because Postgres NOTIFY payloads
+ * are limited to 8000 bytes and we want many of them to fit through cheaply.
+ *
+ * @param type    what kind of entity changed
+ * @param id      which one (book/user id, or a token's jti)
+ * @param version when it changed (epoch millis) — newer versions win when coalescing
+ */
+public record InvalidationMessage(EntityType type, String id, long version) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        return type.getCode() + String.valueOf(SEPARATOR) + id + SEPARATOR + version;
+    }
+
+    /**
+     * Parses a payload produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the payload is malformed
+     */
+    public static InvalidationMessage decode(String payload) {
+        int first = payload.indexOf(SEPARATOR);
+        int last = payload.lastIndexOf(SEPARATOR);
+        if (first != 1 || last <= first) {
+            throw new IllegalArgumentException("Malformed invalidation payload: " + payload);
+        }
+        return new InvalidationMessage(
+                EntityType.fromCode(payload.charAt(0)),
+                payload.substring(first + 1, last),
+                Long.parseLong(payload.substring(last + 1))
+        );
+    }
+
+    // Key used to coalesce several messages about the same entity into one
+    String key() {
+        return type.getCode() + id;
+    }
+}
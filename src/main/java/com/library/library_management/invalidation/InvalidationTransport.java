@@ -0,0 +1,30 @@
+package com.library.library_management.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * How invalidation payloads travel between nodes.
+ *
+ * Implementations:
+ *   - PostgresInvalidationTransport → NOTIFY / LISTEN, for real multi-node deployments
+ *   - InMemoryInvalidationTransport → same JVM only, for local runs and tests without a database
+ *
+ * A node always receives its own messages too — listeners must be idempotent.
+ */
+public interface InvalidationTransport extends AutoCloseable {
+
+    /**
+     * Sends an encoded payload to every node (including this one).
+     */
+    void publish(String payload);
+
+    /**
+     * Starts delivering received payloads to the sink. Called once, at startup.
+     *
+     * @param onGap called when messages may have been lost (e.g. after a reconnect)
+     */
+    void subscribe(Consumer<String> sink, Runnable onGap);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,169 @@
+package com.library.library_management.invalidation;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Transport over Postgres NOTIFY / LISTEN — the database we already run doubles as the message bus.
+ *
+ * Publishing → publish() only queues the payload; a daemon thread sends what's queued in one
+ * "SELECT pg_notify(channel, p) FROM unnest(?) p" over its OWN connection (autocommit, not from the pool).
+ * Why not JdbcTemplate? → That would run NOTIFY inside the caller's transaction: a failed NOTIFY aborts
+ * the whole transaction (Postgres doesn't let you carry on after an error), and a request would have to
+ * wait for it. Callers that need delivery only after their commit use InvalidationBus.publishAfterCommit.
+ * If the connection drops, the batch is retried after a reconnect; if the queue is full, the payload is
+ * dropped and publish() throws (InvalidationBus logs it).
+ *
+ * Listening → one dedicated connection per node (NOT borrowed from the pool — it's held forever),
+ * polled by a daemon thread. If the connection drops we reconnect with backoff and report a "gap",
+ * because anything published while we were disconnected is lost.
+ */
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    static final String CHANNEL = "library_invalidation";
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresInvalidationTransport.class);
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long MAX_BACKOFF_MS = 30_000;
+    private static final int OUTBOX_CAPACITY = 10_000;
+    private static final int MAX_BATCH = 500;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final BlockingQueue<String> outbox = new LinkedBlockingQueue<>(OUTBOX_CAPACITY);
+
+    private volatile boolean running = true;
+    private final Thread publisherThread;
+    private Thread listenerThread;
+
+    public PostgresInvalidationTransport(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        publisherThread = new Thread(this::publishLoop, "invalidation-publisher");
+        publisherThread.setDaemon(true);
+        publisherThread.start();
+    }
+
+    @Override
+    public void publish(String payload) {
+        if (!outbox.offer(payload)) {
+            throw new IllegalStateException("invalidation outbox is full");
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<String> sink, Runnable onGap) {
+        if (listenerThread != null) {
+            throw new IllegalStateException("Already subscribed");
+        }
+        listenerThread = new Thread(() -> listenLoop(sink, onGap), "invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        publisherThread.interrupt();
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread = null;
+        }
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private void publishLoop() {
+        List<String> batch = new ArrayList<>();
+        long backoff = POLL_TIMEOUT_MS;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password);
+                 PreparedStatement notify = connection.prepareStatement("SELECT pg_notify(?, p) FROM unnest(?) AS p")) {
+                backoff = POLL_TIMEOUT_MS;
+                while (running) {
+                    if (batch.isEmpty()) {
+                        String first = outbox.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                        if (first == null) {
+                            continue;
+                        }
+                        batch.add(first);
+                        outbox.drainTo(batch, MAX_BATCH - 1);
+                    }
+                    notify.setString(1, CHANNEL);
+                    notify.setArray(2, connection.createArrayOf("text", batch.toArray()));
+                    notify.execute();
+                    batch.clear(); // only once sent — a failed batch is retried on the next connection
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation publisher lost its connection ({} payloads waiting), retrying in {} ms: {}",
+                        batch.size() + outbox.size(), backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void listenLoop(Consumer<String> sink, Runnable onGap) {
+        long backoff = POLL_TIMEOUT_MS;
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                if (reconnecting) {
+                    onGap.run();
+                }
+                backoff = POLL_TIMEOUT_MS;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        sink.accept(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation listener lost its connection, retrying in {} ms: {}", backoff, e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.library.library_management.inventory;
+
+import com.library.library_management.invalidation.EntityType;
+import com.library.library_management.invalidation.InvalidationBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps books.copies_available = SUM(branch_inventory.copies_available) without touching the book row
+ * on the borrow path.
+ *
+ *   borrow / return / stock change → commit → markChanged(bookId) → dirty set
+ *   every flush-ms                 → ONE UPDATE recomputes the total of every dirty book,
+ *                                    then a BOOK invalidation per book (caches, change feed)
+ *
+ * Why recompute instead of adding deltas? → The recompute reads committed branch rows, so it can't drift:
+ * a lost flush, two replicas flushing the same book or a crash between commit and flush are all fixed by
+ * the next recompute of that book. reconcile() runs the same recompute over every book, rarely,
+ * to catch the crash case.
+ *
+ * Listing endpoints just read books.copies_available — no SUM per request. The total lags the branches
+ * by up to flush-ms; borrowing decides on the branch rows, never on it.
+ */
+@Component
+public class BookAvailabilityAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(BookAvailabilityAggregator.class);
+    private static final int BATCH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvalidationBus invalidationBus;
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public BookAvailabilityAggregator(JdbcTemplate jdbcTemplate, InvalidationBus invalidationBus) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidationBus = invalidationBus;
+    }
+
+    /**
+     * This book's branch counts changed — refresh its total once the current transaction commits
+     * (right away if there is none).
+     */
+    public void markChanged(long bookId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirty.add(bookId);
+                }
+            });
+        } else {
+            dirty.add(bookId);
+        }
+    }
+
+    /**
+     * Recomputes the totals of every book changed since the last flush.
+     */
+    @Scheduled(fixedDelayString = "${library.inventory.aggregate-flush-ms:200}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            ids.add(it.next());
+            it.remove(); // marked again meanwhile → stays for the next flush, which is what we want
+        }
+        for (int from = 0; from < ids.size(); from += BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + BATCH));
+            try {
+                jdbcTemplate.update("update books b set copies_available ="
+                        + " (select coalesce(sum(i.copies_available), 0) from branch_inventory i where i.book_id = b.id)"
+                        + " where b.id in (" + String.join(",", Collections.nCopies(batch.size(), "?")) + ")",
+                        batch.toArray());
+                for (Long id : batch) {
+                    invalidationBus.publish(EntityType.BOOK, id);
+                }
+            } catch (RuntimeException e) {
+                dirty.addAll(batch); // retried on the next flush
+                log.warn("Book availability flush failed for {} books: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Safety net: fixes any book whose total disagrees with its branches (e.g. the app died between
+     * a commit and the next flush).
+     */
+    @Scheduled(initialDelayString = "${library.inventory.reconcile-ms:3600000}",
+            fixedDelayString = "${library.inventory.reconcile-ms:3600000}")
+    public void reconcile() {
+        try {
+            List<Long> fixed = jdbcTemplate.queryForList("update books b set copies_available = s.total"
+                    + " from (select book_id, sum(copies_available) as total from branch_inventory group by book_id) s"
+                    + " where b.id = s.book_id and b.copies_available <> s.total returning b.id", Long.class);
+            for (Long id : fixed) {
+                invalidationBus.publish(EntityType.BOOK, id);
+            }
+            if (!fixed.isEmpty()) {
+                log.info("Book availability reconciled: {} totals corrected", fixed.size());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Book availability reconcile failed: {}", e.getMessage());
+        }
+    }
+}
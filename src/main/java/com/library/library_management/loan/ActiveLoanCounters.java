@@ -0,0 +1,205 @@
+package com.library.library_management.loan;
+
+import com.library.library_management.collection.LongIntHashMap;
+
+/**
+ * Active loans per user, in memory — thread-safe, no boxing.
+ *
+ * Why not ConcurrentHashMap<Long, AtomicInteger>? → That's a node, a boxed key and an AtomicInteger
+ * per user, and "check the limit, then take one" would need a CAS loop on top. Here users are spread
+ * over STRIPES LongIntHashMaps, each behind its own lock: check-and-take is one short critical section,
+ * and two users only contend if they hash to the same stripe.
+ *
+ * Per user, a stripe keeps:
+ *   active     committed loans (what the database says)
+ *   borrowing  borrows taken by tryBorrow() whose transaction hasn't finished yet — they count against the limit
+ *   returning  returns whose transaction hasn't finished yet
+ *   touched    the stripe's version when this user last changed
+ *
+ * reconcile() overwrites counters with database counts, but only for users that didn't change since
+ * the caller took stamp() and have nothing in flight — for anyone else the database read may already be
+ * stale, and the next reconcile gets them. So a reconcile never races a borrow or return.
+ */
+public final class ActiveLoanCounters {
+
+    private static final int STRIPES = 64; // power of two
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public ActiveLoanCounters() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Takes one loan for the user if they're below the limit. Must be followed by exactly one
+     * borrowCompleted() for the same user.
+     *
+     * @param limit max active loans, 0 or less for no limit
+     * @return false if the user already has limit loans (counting borrows still in flight)
+     */
+    public boolean tryBorrow(long userId, int limit) {
+        return stripe(userId).tryBorrow(userId, limit);
+    }
+
+    /**
+     * The borrow's transaction finished — committed: it's an active loan now; rolled back: gone.
+     */
+    public void borrowCompleted(long userId, boolean committed) {
+        stripe(userId).borrowCompleted(userId, committed);
+    }
+
+    /**
+     * A return started. Must be followed by exactly one returnCompleted() for the same user.
+     */
+    public void returnStarted(long userId) {
+        stripe(userId).returnStarted(userId);
+    }
+
+    /**
+     * The return's transaction finished — committed: one active loan less.
+     */
+    public void returnCompleted(long userId, boolean committed) {
+        stripe(userId).returnCompleted(userId, committed);
+    }
+
+    /**
+     * @return the user's committed active loans (0 if unknown)
+     */
+    public int active(long userId) {
+        return stripe(userId).active(userId);
+    }
+
+    /**
+     * Take this BEFORE reading counts from the database, then pass it to reconcile()/reconcileUser().
+     */
+    public int[] stamp() {
+        int[] versions = new int[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            versions[i] = stripes[i].version();
+        }
+        return versions;
+    }
+
+    /**
+     * Sets every counter to the database's count (users missing from actual have 0 loans).
+     *
+     * @param actual active loans per user, read after stamp was taken
+     * @return how many users were corrected
+     */
+    public int reconcile(LongIntHashMap actual, int[] stamp) {
+        int corrected = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            corrected += stripes[i].reconcile(actual, stamp[i], i);
+        }
+        return corrected;
+    }
+
+    /**
+     * Same as reconcile(), for one user.
+     *
+     * @return whether the counter was corrected
+     */
+    public boolean reconcileUser(long userId, int actual, int[] stamp) {
+        int index = index(userId);
+        return stripes[index].reset(userId, actual, stamp[index]);
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private Stripe stripe(long userId) {
+        return stripes[index(userId)];
+    }
+
+    private static int index(long userId) {
+        return (int) ((userId * 0x9E3779B97F4A7C15L) >>> 58); // top 6 bits = 64 stripes
+    }
+
+    private static final class Stripe {
+
+        private final LongIntHashMap active = new LongIntHashMap(64);
+        private final LongIntHashMap borrowing = new LongIntHashMap();
+        private final LongIntHashMap returning = new LongIntHashMap();
+        private final LongIntHashMap touched = new LongIntHashMap(64);
+        private int version;
+
+        synchronized boolean tryBorrow(long userId, int limit) {
+            if (limit > 0 && active.get(userId) + borrowing.get(userId) >= limit) {
+                return false;
+            }
+            borrowing.addTo(userId, 1);
+            touch(userId);
+            return true;
+        }
+
+        synchronized void borrowCompleted(long userId, boolean committed) {
+            borrowing.addTo(userId, -1);
+            if (committed) {
+                active.addTo(userId, 1);
+            }
+            touch(userId);
+        }
+
+        synchronized void returnStarted(long userId) {
+            returning.addTo(userId, 1);
+            touch(userId);
+        }
+
+        synchronized void returnCompleted(long userId, boolean committed) {
+            returning.addTo(userId, -1);
+            if (committed && active.get(userId) > 0) {
+                active.addTo(userId, -1);
+            }
+            touch(userId);
+        }
+
+        synchronized int active(long userId) {
+            return active.get(userId);
+        }
+
+        synchronized int version() {
+            return version;
+        }
+
+        synchronized int reconcile(LongIntHashMap actual, int stamp, int index) {
+            int[] corrected = {0};
+            actual.forEach((userId, count) -> {
+                if (index(userId) == index && reset(userId, count, stamp)) {
+                    corrected[0]++;
+                }
+            });
+            // Users we count loans for that the database has none for
+            long[] gone = new long[active.size()];
+            int[] n = {0};
+            active.forEach((userId, count) -> {
+                if (count != 0 && actual.get(userId) == 0) {
+                    gone[n[0]++] = userId;
+                }
+            });
+            for (int i = 0; i < n[0]; i++) {
+                if (reset(gone[i], 0, stamp)) {
+                    corrected[0]++;
+                }
+            }
+            return corrected[0];
+        }
+
+        // Overwrites the user's count — unless it changed after stamp or has a borrow/return in flight
+        synchronized boolean reset(long userId, int count, int stamp) {
+            if (touched.get(userId) > stamp || borrowing.get(userId) != 0 || returning.get(userId) != 0) {
+                return false;
+            }
+            int delta = count - active.get(userId);
+            if (delta == 0) {
+                return false;
+            }
+            active.addTo(userId, delta);
+            return true;
+        }
+
+        private void touch(long userId) {
+            touched.addTo(userId, ++version - touched.get(userId));
+        }
+    }
+}
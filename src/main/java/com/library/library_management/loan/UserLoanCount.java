@@ -0,0 +1,7 @@
+package com.library.library_management.loan;
+
+/**
+ * How many active loans one user has — a row of the grouped count that seeds ActiveLoanCounters.
+ */
+public record UserLoanCount(Long userId, Long count) {
+}
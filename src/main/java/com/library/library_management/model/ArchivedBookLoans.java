@@ -0,0 +1,27 @@
+package com.library.library_management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How many of a book's loans were archived (moved out of the borrows table, see BorrowArchiveService).
+ *
+ * Why a separate table? → archived_circulation is per day + author + year, with no book id. This one is
+ * updated in the same transaction that deletes the archived rows, so loans-ever for a book is
+ * COUNT(borrows) + this, read in one snapshot — each loan counted exactly once.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "archived_book_loans")
+public class ArchivedBookLoans {
+
+    @Id
+    private Long bookId;
+
+    @Column(nullable = false)
+    private long borrows;
+}
@@ -0,0 +1,49 @@
+package com.library.library_management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * What circulation reports still need from archived loans, once the rows themselves have left the
+ * borrows table (see BorrowArchiveService): one row per borrow date + author + publication year.
+ *
+ * Why not read the archive files? → They live on the archiving node's disk and hold no author/year;
+ * this table is shared by every replica, and it's updated in the SAME transaction that deletes the
+ * archived rows — a report snapshot sees each loan exactly once, either here or in borrows.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "archived_circulation",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"borrow_date", "author", "pub_year"}))
+public class ArchivedCirculation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate borrowDate;
+
+    @Column(nullable = false, length = 50)
+    private String author;
+
+    @Column(nullable = false)
+    private int pubYear;
+
+    // every archived loan is RETURNED, so these are also the returned counts
+    @Column(nullable = false)
+    private int borrows;
+
+    @Column(nullable = false)
+    private int returnedLate;
+
+    // sum of (return date - borrow date) over those loans
+    @Column(nullable = false)
+    private long loanDays;
+}
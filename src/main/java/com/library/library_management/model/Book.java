@@ -29,7 +29,9 @@ public class Book {
     @Column(nullable = false)
     private int pubYear;
 
-    @Column(nullable = false)
+    // Total over all branches (BranchInventory). Written only on insert and by BookAvailabilityAggregator,
+    // never by a JPA update — so saving a book can't overwrite a fresher total with a stale one
+    @Column(nullable = false, updatable = false)
     private int copiesAvailable;
 
     @Column
@@ -26,6 +26,10 @@ public class Borrow {
     @JoinColumn(name = "book_id")
     private Book book;
 
+    @ManyToOne
+    @JoinColumn(name = "branch_id")
+    private Branch branch; // where the copy came from — null for loans made before branches existed
+
 
     @Column(nullable = false)
     private LocalDate borrowDate;
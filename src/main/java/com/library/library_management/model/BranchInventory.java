@@ -0,0 +1,47 @@
+package com.library.library_management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Copies of one book on the shelf at one branch — the row a borrow or return actually locks.
+ *
+ * Why one row per branch? → With a single books.copies_available, every borrow of a popular title
+ * queued on the same row lock. Now concurrent borrows take copies from different branches' rows
+ * (SELECT ... FOR UPDATE SKIP LOCKED), and books.copies_available is only a total, refreshed
+ * after commit (BookAvailabilityAggregator).
+ *
+ * book and branch are LAZY: the borrow path only needs their ids, not two extra selects per row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "branch_inventory",
+        uniqueConstraints = @UniqueConstraint(name = "branch_inventory_book_branch_uk", columnNames = {"book_id", "branch_id"}),
+        indexes = @Index(name = "branch_inventory_stock_idx", columnList = "book_id, copies_available"))
+public class BranchInventory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "book_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Book book;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "branch_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Branch branch;
+
+    @Column(nullable = false)
+    private int copiesAvailable;
+}
@@ -0,0 +1,56 @@
+package com.library.library_management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A patron's place in the waitlist for a book with no copies left.
+ * Line order = id order (ids only go up), so "next in line" is the lowest WAITING id for the book.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "holds", indexes = {
+        @Index(name = "holds_book_status_idx", columnList = "book_id, status, id"),
+        @Index(name = "holds_user_idx", columnList = "user_id")
+})
+public class Hold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "book_id")
+    private Book book;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private HoldStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime readyAt;   // when a copy was set aside
+
+    private LocalDateTime expiresAt; // pickup deadline while READY
+
+    @ManyToOne
+    @JoinColumn(name = "branch_id")
+    private Branch branch;           // where the copy is set aside while READY
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        this.status = HoldStatus.WAITING;
+    }
+}
@@ -0,0 +1,9 @@
+package com.library.library_management.model;
+
+public enum HoldStatus {
+    WAITING,   // in line for the book
+    READY,     // a returned copy is set aside for this patron until expiresAt
+    FULFILLED, // the patron borrowed the book
+    EXPIRED,   // not picked up in time — the copy went to the next in line
+    CANCELLED  // the patron left the line
+}
@@ -0,0 +1,45 @@
+package com.library.library_management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional database copy of a stored idempotent response — survives restarts and is visible
+ * to every replica. Only used when library.idempotency.db-tier=true.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+
+    // SHA-256 hex of user + Idempotency-Key, see IdempotencyFilter.scopedKey
+    @Id
+    @Column(length = 64)
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private int status;
+
+    private String contentType;
+
+    private String location;
+
+    private byte[] body;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,29 @@
+package com.library.library_management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A logged-out token, kept until it would have expired anyway.
+ *
+ * The revocation check itself never reads this table (see TokenRevocationService, it works from memory) —
+ * the rows are what a node reloads at startup or after it may have missed TOKEN messages.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+
+    // the token's jti
+    @Id
+    @Column(length = 64)
+    private String jti;
+
+    // epoch millis, same as the token's "exp" — the row can go after this
+    @Column(nullable = false)
+    private long expiresAt;
+}
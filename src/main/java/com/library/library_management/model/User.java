@@ -37,6 +37,9 @@ public class User {
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    // Admin force-revoke: tokens issued at or before this time (epoch millis) are rejected, null = never revoked
+    private Long tokensRevokedAt;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
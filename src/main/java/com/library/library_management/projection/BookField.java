@@ -0,0 +1,55 @@
+package com.library.library_management.projection;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The BookResponseDTO properties a client can ask for with ?fields=.
+ *
+ * Declaration order = output order, so "fields=title,id" and "fields=id,title" produce the same
+ * JSON and share one cached BookProjection.
+ */
+public enum BookField {
+
+    ID("id"),
+    TITLE("title"),
+    AUTHOR("author"),
+    ISBN("isbn"),
+    PUB_YEAR("pubYear"),
+    COPIES_AVAILABLE("copiesAvailable"),
+    COVER_IMAGE_URL("coverImageUrl"),
+    CREATED_AT("createdAt");
+
+    // JSON property name = Book entity attribute name, so it doubles as the JPQL path (b.pubYear)
+    private final String property;
+    // "title": — written as-is in front of every value
+    private final byte[] jsonKey;
+
+    BookField(String property) {
+        this.property = property;
+        this.jsonKey = ("\"" + property + "\":").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    int bit() {
+        return 1 << ordinal();
+    }
+
+    byte[] jsonKey() {
+        return jsonKey;
+    }
+
+    /**
+     * @return the field with this JSON name, or null if there isn't one
+     */
+    public static BookField fromProperty(String property) {
+        for (BookField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
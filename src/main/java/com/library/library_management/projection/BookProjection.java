@@ -0,0 +1,271 @@
+package com.library.library_management.projection;
+
+import com.library.library_management.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * One combination of book fields (?fields=id,title,author) — everything needed to serve it,
+ * worked out ONCE and reused by every request asking for the same combination.
+ *
+ * Per combination we keep:
+ *   - the field list in output order
+ *   - the JPQL that selects only those columns (list + by-id)
+ *   - the JSON writer: keys are pre-encoded bytes, values are written straight from the row
+ *
+ * Why not Jackson + @JsonFilter? → Jackson would still build the full DTO, introspect it and
+ * filter properties on every call. Here the database only returns the asked-for columns and the
+ * writer never looks at a class — it just walks a fixed array.
+ *
+ * 8 fields → at most 255 combinations, so the cache is a plain array indexed by the field bitmask.
+ */
+public final class BookProjection {
+
+    private static final int MAX_FIELDS_PARAM_LENGTH = 256;
+    private static final AtomicReferenceArray<BookProjection> CACHE =
+            new AtomicReferenceArray<>(1 << BookField.values().length);
+
+    private static final byte[] NULL = ascii("null");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME; // same as Jackson's default
+
+    private final BookField[] fields;
+    private final String selectAllJpql;
+    private final String selectByIdJpql;
+
+    private BookProjection(int mask) {
+        BookField[] all = BookField.values();
+        this.fields = new BookField[Integer.bitCount(mask)];
+        int n = 0;
+        for (BookField field : all) {
+            if ((mask & field.bit()) != 0) {
+                fields[n++] = field;
+            }
+        }
+
+        StringBuilder select = new StringBuilder("select ");
+        for (int i = 0; i < fields.length; i++) {
+            select.append(i == 0 ? "" : ", ").append("b.").append(fields[i].getProperty());
+        }
+        select.append(" from Book b");
+        this.selectAllJpql = select.toString();
+        this.selectByIdJpql = select.append(" where b.id = :id").toString();
+    }
+
+    /**
+     * Parses a ?fields= value ("id,title,author") into its (cached) projection.
+     *
+     * @throws BusinessException if the value is empty or names a field books don't have
+     */
+    public static BookProjection parse(String fieldsParam) {
+        if (fieldsParam.length() > MAX_FIELDS_PARAM_LENGTH) {
+            throw new BusinessException("fields parameter is too long");
+        }
+        int mask = 0;
+        int start = 0;
+        while (start <= fieldsParam.length()) {
+            int comma = fieldsParam.indexOf(',', start);
+            int end = comma < 0 ? fieldsParam.length() : comma;
+            String name = fieldsParam.substring(start, end).trim();
+            if (!name.isEmpty()) {
+                BookField field = BookField.fromProperty(name);
+                if (field == null) {
+                    throw new BusinessException("Unknown book field: " + name);
+                }
+                mask |= field.bit();
+            }
+            start = end + 1;
+        }
+        if (mask == 0) {
+            throw new BusinessException("fields parameter must name at least one field");
+        }
+        return forMask(mask);
+    }
+
+    public String selectAllJpql() {
+        return selectAllJpql;
+    }
+
+    public String selectByIdJpql() {
+        return selectByIdJpql;
+    }
+
+    /**
+     * Writes rows (one Object[] per book, columns in the same order as the select) as a JSON array.
+     */
+    public byte[] writeList(List<Object[]> rows) {
+        JsonBuffer out = new JsonBuffer(2 + rows.size() * 24 * fields.length);
+        out.put((byte) '[');
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                out.put((byte) ',');
+            }
+            writeRow(out, rows.get(i));
+        }
+        out.put((byte) ']');
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes one row as a JSON object.
+     */
+    public byte[] writeOne(Object[] row) {
+        JsonBuffer out = new JsonBuffer(24 * fields.length);
+        writeRow(out, row);
+        return out.toByteArray();
+    }
+
+    /**
+     * The same rows as maps (field name → value, in field order), for clients that asked for CBOR or Smile —
+     * the negotiated converter encodes them. JSON clients get writeList(), which builds no maps.
+     */
+    public List<Map<String, Object>> toMaps(List<Object[]> rows) {
+        List<Map<String, Object>> maps = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            maps.add(toMap(row));
+        }
+        return maps;
+    }
+
+    /**
+     * One row as a map, like toMaps().
+     */
+    public Map<String, Object> toMap(Object[] row) {
+        Map<String, Object> map = new LinkedHashMap<>(fields.length * 2);
+        for (int i = 0; i < fields.length; i++) {
+            map.put(fields[i].getProperty(), row[i]);
+        }
+        return map;
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    // Racing threads may both build the same projection, which is harmless
+    private static BookProjection forMask(int mask) {
+        BookProjection projection = CACHE.get(mask);
+        if (projection == null) {
+            projection = new BookProjection(mask);
+            CACHE.set(mask, projection);
+        }
+        return projection;
+    }
+
+    private void writeRow(JsonBuffer out, Object[] row) {
+        out.put((byte) '{');
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.put((byte) ',');
+            }
+            out.put(fields[i].jsonKey());
+            writeValue(out, row[i]);
+        }
+        out.put((byte) '}');
+    }
+
+    private static void writeValue(JsonBuffer out, Object value) {
+        switch (value) {
+            case null -> out.put(NULL);
+            case Long number -> out.putLong(number);
+            case Integer number -> out.putLong(number);
+            case LocalDateTime dateTime -> writeString(out, DATE_TIME.format(dateTime));
+            default -> writeString(out, value.toString());
+        }
+    }
+
+    // JSON string escaping — quotes, backslashes and control characters; ASCII is copied char by char,
+    // anything else goes through the UTF-8 encoder
+    private static void writeString(JsonBuffer out, String text) {
+        out.put((byte) '"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.put((byte) '\\');
+                out.put((byte) c);
+            } else if (c < 0x20) {
+                out.put(ascii(switch (c) {
+                    case '\n' -> "\\n";
+                    case '\r' -> "\\r";
+                    case '\t' -> "\\t";
+                    default -> String.format("\\u%04x", (int) c);
+                }));
+            } else if (c < 0x80) {
+                out.put((byte) c);
+            } else {
+                int end = i + 1;
+                while (end < text.length() && text.charAt(end) >= 0x80) {
+                    end++;
+                }
+                out.put(text.substring(i, end).getBytes(StandardCharsets.UTF_8));
+                i = end - 1;
+            }
+        }
+        out.put((byte) '"');
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Growable byte array — like ByteArrayOutputStream, minus the synchronized methods.
+     */
+    private static final class JsonBuffer {
+
+        private byte[] bytes;
+        private int size;
+
+        private JsonBuffer(int initialCapacity) {
+            this.bytes = new byte[Math.max(16, initialCapacity)];
+        }
+
+        private void put(byte b) {
+            ensure(1);
+            bytes[size++] = b;
+        }
+
+        private void put(byte[] source) {
+            ensure(source.length);
+            System.arraycopy(source, 0, bytes, size, source.length);
+            size += source.length;
+        }
+
+        private void putLong(long value) {
+            if (value == Long.MIN_VALUE) {
+                put(ascii(Long.toString(value)));
+                return;
+            }
+            ensure(20);
+            if (value < 0) {
+                bytes[size++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (long rest = value; rest >= 10; rest /= 10) {
+                digits++;
+            }
+            int i = size + digits;
+            size = i;
+            do {
+                bytes[--i] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.library.library_management.recommendation;
+
+/**
+ * Who borrowed what — the only two columns the co-occurrence index needs.
+ */
+public record BorrowPair(Long userId, Long bookId) {
+}
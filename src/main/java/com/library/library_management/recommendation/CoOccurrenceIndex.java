@@ -0,0 +1,200 @@
+package com.library.library_management.recommendation;
+
+import com.library.library_management.collection.LongIntHashMap;
+import com.library.library_management.collection.LongObjectHashMap;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "Patrons who borrowed this also borrowed" — a sparse book × book matrix of co-borrow counts.
+ *
+ *   row(A)[B] = number of patrons who borrowed both A and B (each patron counts once per pair)
+ *
+ * Stored as one LongIntHashMap per book, holding only non-zero cells, so memory follows the number
+ * of real pairs, not books². Each row is pruned to its maxCandidates strongest cells, and every book's
+ * top-N list (Neighbours) is kept ready — a lookup is one map get, no computation.
+ *
+ * Two ways in:
+ *   load() + countLoadedPairs()  bulk build from the full borrow history (startup)
+ *   addBorrow()                  one new borrow: only pairs with that patron's earlier books change
+ *
+ * Both are idempotent per (patron, book): the index remembers each patron's distinct books, so seeing
+ * the same borrow twice (history + a LOANS message about it) changes nothing.
+ *
+ * Not thread-safe for writers — exactly one thread may call load/countLoadedPairs/addBorrow.
+ * neighbours() can be called from any thread at any time.
+ */
+public final class CoOccurrenceIndex {
+
+    private final int topN;
+    private final int maxCandidates;
+    private final int maxBooksPerUser;
+
+    private final LongObjectHashMap<BookSet> users = new LongObjectHashMap<>(1024);
+    private final LongObjectHashMap<LongIntHashMap> rows = new LongObjectHashMap<>(1024);
+    // What readers see — replaced per book, never mutated
+    private final Map<Long, Neighbours> top = new ConcurrentHashMap<>();
+
+    /**
+     * @param topN            neighbours kept ready per book
+     * @param maxCandidates   cells kept per row (≥ topN); weaker ones are pruned
+     * @param maxBooksPerUser books per patron that count towards pairs (k books → k² pairs)
+     */
+    public CoOccurrenceIndex(int topN, int maxCandidates, int maxBooksPerUser) {
+        this.topN = Math.max(1, topN);
+        this.maxCandidates = Math.max(this.topN, maxCandidates);
+        this.maxBooksPerUser = Math.max(2, maxBooksPerUser);
+    }
+
+    /**
+     * Bulk build, step 1: remembers that this patron borrowed this book (no counting yet).
+     */
+    public void load(long userId, long bookId) {
+        users.computeIfAbsent(userId, id -> new BookSet()).add(bookId);
+    }
+
+    /**
+     * Bulk build, step 2: counts every pair of every patron's books, prunes the rows and
+     * computes all top-N lists.
+     */
+    public void countLoadedPairs() {
+        int buildLimit = maxCandidates * 4; // rows may grow past maxCandidates while counting, then get cut back
+        users.forEach((userId, books) -> {
+            int n = Math.min(books.size, maxBooksPerUser);
+            for (int i = 0; i < n; i++) {
+                LongIntHashMap row = row(books.ids[i]);
+                for (int j = i + 1; j < n; j++) {
+                    row.addTo(books.ids[j], 1);
+                    LongIntHashMap other = row(books.ids[j]);
+                    other.addTo(books.ids[i], 1);
+                    if (other.size() > buildLimit) {
+                        other.retainTop(maxCandidates);
+                    }
+                }
+                if (row.size() > buildLimit) {
+                    row.retainTop(maxCandidates);
+                }
+            }
+        });
+        rows.forEach((bookId, row) -> {
+            row.retainTop(maxCandidates);
+            top.put(bookId, topOf(row));
+        });
+    }
+
+    /**
+     * A patron borrowed a book: bumps the pairs with their earlier books and refreshes the affected top-N lists.
+     *
+     * @return false if this patron had already borrowed this book (nothing changed)
+     */
+    public boolean addBorrow(long userId, long bookId) {
+        BookSet books = users.computeIfAbsent(userId, id -> new BookSet());
+        if (books.contains(bookId)) {
+            return false;
+        }
+        int n = Math.min(books.size, maxBooksPerUser);
+        if (n < maxBooksPerUser) {
+            LongIntHashMap row = row(bookId);
+            Neighbours mine = top.getOrDefault(bookId, Neighbours.EMPTY);
+            for (int i = 0; i < n; i++) {
+                long other = books.ids[i];
+                int count = row.addTo(other, 1);
+                mine = mine.with(other, count, topN);
+
+                LongIntHashMap otherRow = row(other);
+                int otherCount = otherRow.addTo(bookId, 1);
+                top.put(other, top.getOrDefault(other, Neighbours.EMPTY).with(bookId, otherCount, topN));
+                if (otherRow.size() > maxCandidates * 2) {
+                    otherRow.retainTop(maxCandidates);
+                }
+            }
+            if (row.size() > maxCandidates * 2) {
+                row.retainTop(maxCandidates);
+            }
+            top.put(bookId, mine);
+        }
+        books.add(bookId);
+        return true;
+    }
+
+    /**
+     * @return the book's strongest co-borrowed books, best first (empty if none)
+     */
+    public Neighbours neighbours(long bookId) {
+        return top.getOrDefault(bookId, Neighbours.EMPTY);
+    }
+
+    public int bookCount() {
+        return top.size();
+    }
+
+    public int userCount() {
+        return users.size();
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private LongIntHashMap row(long bookId) {
+        return rows.computeIfAbsent(bookId, id -> new LongIntHashMap());
+    }
+
+    // Insertion into a small sorted buffer — rows are at most a few hundred cells
+    private Neighbours topOf(LongIntHashMap row) {
+        long[] ids = new long[Math.min(topN, row.size())];
+        int[] counts = new int[ids.length];
+        int[] size = {0};
+        row.forEach((other, count) -> {
+            int n = size[0];
+            if (n == ids.length && !ranksBefore(other, count, ids[n - 1], counts[n - 1])) {
+                return;
+            }
+            int i = n == ids.length ? n - 1 : n;
+            while (i > 0 && ranksBefore(other, count, ids[i - 1], counts[i - 1])) {
+                ids[i] = ids[i - 1];
+                counts[i] = counts[i - 1];
+                i--;
+            }
+            ids[i] = other;
+            counts[i] = count;
+            size[0] = Math.min(ids.length, n + 1);
+        });
+        return new Neighbours(ids, counts);
+    }
+
+    private static boolean ranksBefore(long id, int count, long otherId, int otherCount) {
+        return count > otherCount || (count == otherCount && id < otherId);
+    }
+
+    /**
+     * One patron's distinct books, in the order they were first seen (the first maxBooksPerUser
+     * are the ones that count), plus a sorted copy for the duplicate check.
+     */
+    private static final class BookSet {
+
+        long[] ids = new long[4];
+        long[] sorted = new long[4];
+        int size;
+
+        boolean contains(long bookId) {
+            return Arrays.binarySearch(sorted, 0, size, bookId) >= 0;
+        }
+
+        void add(long bookId) {
+            int position = Arrays.binarySearch(sorted, 0, size, bookId);
+            if (position >= 0) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                sorted = Arrays.copyOf(sorted, size * 2);
+            }
+            ids[size] = bookId;
+            int insertAt = -position - 1;
+            System.arraycopy(sorted, insertAt, sorted, insertAt + 1, size - insertAt);
+            sorted[insertAt] = bookId;
+            size++;
+        }
+    }
+}
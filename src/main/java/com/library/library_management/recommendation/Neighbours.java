@@ -0,0 +1,79 @@
+package com.library.library_management.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * A book's top co-borrowed books, best first (most shared patrons, then lowest id). Immutable —
+ * readers get a consistent list while the index keeps changing.
+ *
+ * @param bookIds the other books
+ * @param counts  how many patrons borrowed both, same order
+ */
+public record Neighbours(long[] bookIds, int[] counts) {
+
+    public static final Neighbours EMPTY = new Neighbours(new long[0], new int[0]);
+
+    public int size() {
+        return bookIds.length;
+    }
+
+    /**
+     * @return a copy where bookId now has this count (inserted, moved or dropped as needed), at most limit entries
+     */
+    Neighbours with(long bookId, int count, int limit) {
+        int existing = -1;
+        for (int i = 0; i < bookIds.length; i++) {
+            if (bookIds[i] == bookId) {
+                existing = i;
+                break;
+            }
+        }
+        if (existing < 0 && bookIds.length >= limit && !ranksBefore(bookId, count, bookIds.length - 1)) {
+            return this; // not good enough to get in
+        }
+        int size = existing >= 0 ? bookIds.length : Math.min(limit, bookIds.length + 1);
+        long[] ids = new long[size];
+        int[] values = new int[size];
+        int out = 0;
+        boolean placed = false;
+        for (int i = 0; i < bookIds.length && out < size; i++) {
+            if (i == existing) {
+                continue;
+            }
+            if (!placed && ranksBefore(bookId, count, i)) {
+                ids[out] = bookId;
+                values[out++] = count;
+                placed = true;
+                if (out == size) {
+                    break;
+                }
+            }
+            ids[out] = bookIds[i];
+            values[out++] = counts[i];
+        }
+        if (!placed && out < size) {
+            ids[out] = bookId;
+            values[out] = count;
+        }
+        return new Neighbours(ids, values);
+    }
+
+    private boolean ranksBefore(long bookId, int count, int index) {
+        return count > counts[index] || (count == counts[index] && bookId < bookIds[index]);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Neighbours that && Arrays.equals(bookIds, that.bookIds) && Arrays.equals(counts, that.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(bookIds) + Arrays.hashCode(counts);
+    }
+
+    @Override
+    public String toString() {
+        return "Neighbours" + Arrays.toString(bookIds) + Arrays.toString(counts);
+    }
+}
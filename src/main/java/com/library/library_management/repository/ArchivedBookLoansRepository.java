@@ -0,0 +1,25 @@
+package com.library.library_management.repository;
+
+import com.library.library_management.model.ArchivedBookLoans;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface ArchivedBookLoansRepository extends JpaRepository<ArchivedBookLoans, Long> {
+
+    /**
+     * Adds these borrows to their books' archived counts — call in the transaction that deletes them.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into archived_book_loans (book_id, borrows)"
+            + " select b.book_id, count(*) from borrows b where b.id in (:ids) group by b.book_id"
+            + " on conflict (book_id) do update set borrows = archived_book_loans.borrows + excluded.borrows")
+    int addLoans(@Param("ids") Collection<Long> ids);
+
+    // Loans archived so far, over all books — the archive files must hold at least this many
+    @Query("select coalesce(sum(a.borrows), 0) from ArchivedBookLoans a")
+    long sumBorrows();
+}
@@ -0,0 +1,41 @@
+package com.library.library_management.repository;
+
+import com.library.library_management.analytics.ArchivedCirculationRow;
+import com.library.library_management.model.ArchivedCirculation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+public interface ArchivedCirculationRepository extends JpaRepository<ArchivedCirculation, Long> {
+
+    /**
+     * Folds these borrows into the summary rows — call in the transaction that deletes them.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into archived_circulation"
+            + " (borrow_date, author, pub_year, borrows, returned_late, loan_days)"
+            + " select b.borrow_date, bk.author, bk.pub_year, count(*),"
+            + " count(*) filter (where b.return_date > b.due_date), sum(b.return_date - b.borrow_date)"
+            + " from borrows b join books bk on bk.id = b.book_id where b.id in (:ids)"
+            + " group by b.borrow_date, bk.author, bk.pub_year"
+            + " on conflict (borrow_date, author, pub_year) do update set"
+            + " borrows = archived_circulation.borrows + excluded.borrows,"
+            + " returned_late = archived_circulation.returned_late + excluded.returned_late,"
+            + " loan_days = archived_circulation.loan_days + excluded.loan_days")
+    int addLoans(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.library.library_management.analytics.ArchivedCirculationRow("
+            + "a.borrowDate, a.author, a.pubYear, a.borrows, a.returnedLate, a.loanDays) from ArchivedCirculation a")
+    Stream<ArchivedCirculationRow> streamCirculationRows();
+}
@@ -0,0 +1,22 @@
+package com.library.library_management.repository;
+
+import com.library.library_management.projection.BookProjection;
+
+import java.util.List;
+
+/**
+ * Custom queries for ?fields= requests — only the asked-for columns come back from the database.
+ * Implemented in BookProjectionRepositoryImpl (Spring Data picks it up by the "Impl" suffix).
+ */
+public interface BookProjectionRepository {
+
+    /**
+     * @return one Object[] per book, columns in the projection's field order
+     */
+    List<Object[]> findAllProjected(BookProjection projection);
+
+    /**
+     * @return the book's columns in the projection's field order, or null if it doesn't exist
+     */
+    Object[] findProjectedById(BookProjection projection, long id);
+}
@@ -0,0 +1,41 @@
+package com.library.library_management.repository;
+
+import com.library.library_management.projection.BookProjection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.List;
+
+/**
+ * Runs the JPQL each BookProjection built for its field combination.
+ *
+ * Results are Tuples, not entities → nothing enters the persistence context, no dirty checking,
+ * and Hibernate only reads the selected columns from the JDBC result set.
+ */
+class BookProjectionRepositoryImpl implements BookProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    BookProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Object[]> findAllProjected(BookProjection projection) {
+        return entityManager.createQuery(projection.selectAllJpql(), Tuple.class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(Tuple::toArray)
+                .toList();
+    }
+
+    @Override
+    public Object[] findProjectedById(BookProjection projection, long id) {
+        List<Tuple> rows = entityManager.createQuery(projection.selectByIdJpql(), Tuple.class)
+                .setParameter("id", id)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+        return rows.isEmpty() ? null : rows.get(0).toArray();
+    }
+}
@@ -1,9 +1,15 @@
 package com.library.library_management.repository;
 
 import com.library.library_management.model.Book;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+import java.util.Optional;
+
+public interface BookRepository extends JpaRepository<Book, Long>, BookProjectionRepository {
     // JpaRepository provides methods like save(), findById(), findAll(), delete(), etc.
     /**Given by JpaRepository
      * findAll()                  → JpaRepository gives you this free
@@ -11,5 +17,16 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * save(book)                 → JpaRepository gives you this free (insert + update)
      * deleteById(id)             → JpaRepository gives you this free
      * existsById(id)             → JpaRepository gives you this free
+     *
+     * findAllProjected / findProjectedById → BookProjectionRepository, only the ?fields= columns
+     */
+
+    /**
+     * SELECT ... FOR UPDATE — the row stays locked until the transaction ends. Serializes everything
+     * that decides who in a book's waitlist gets a copy (HoldService). Plain borrows lock a branch row
+     * instead (BranchInventoryRepository, see decisions.md #3).
      */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Book b where b.id = :id")
+    Optional<Book> findByIdForUpdate(@Param("id") Long id);
 }
@@ -1,11 +1,119 @@
 package com.library.library_management.repository;
 
+import com.library.library_management.analytics.CirculationRow;
+import com.library.library_management.archive.ArchivedBorrow;
+import com.library.library_management.loan.UserLoanCount;
 import com.library.library_management.model.Borrow;
+import com.library.library_management.recommendation.BorrowPair;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BorrowRepository extends JpaRepository<Borrow, Long> {
 
     //here we get some sql queries for free
 
+    /*
+     * Active-loan queries take "since" = BorrowPartitionManager.activeHorizon(). No active loan is older,
+     * so the result is the same — but Postgres can now skip every partition before that date.
+     */
+
+    @Query("select b from Borrow b join fetch b.book where b.id = :id"
+            + " and b.status = com.library.library_management.model.BorrowStatus.ACTIVE and b.borrowDate >= :since")
+    Optional<Borrow> findActiveById(@Param("id") Long id, @Param("since") LocalDate since);
+
+    @Query("select b from Borrow b join fetch b.book where b.status = com.library.library_management.model.BorrowStatus.ACTIVE"
+            + " and b.borrowDate >= :since order by b.borrowDate, b.id")
+    List<Borrow> findAllActive(@Param("since") LocalDate since);
+
+    /**
+     * Active loans whose due date is in [from, to) — the ones that just became overdue.
+     */
+    @Query("select b from Borrow b where b.status = com.library.library_management.model.BorrowStatus.ACTIVE"
+            + " and b.dueDate >= :from and b.dueDate < :to and b.borrowDate >= :since order by b.id")
+    List<Borrow> findActiveDueBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                      @Param("since") LocalDate since);
+
+    /**
+     * Active loans per user (users without any are left out) — seeds and reconciles the loan-limit counters.
+     */
+    @Query("select new com.library.library_management.loan.UserLoanCount(b.user.id, count(b)) from Borrow b"
+            + " where b.status = com.library.library_management.model.BorrowStatus.ACTIVE and b.borrowDate >= :since"
+            + " group by b.user.id")
+    List<UserLoanCount> countActiveByUser(@Param("since") LocalDate since);
+
+    // Loans of a book still in the table (uses borrows_book_idx) — archived ones are in archived_book_loans
+    long countByBookId(Long bookId);
+
+    @Query("select count(b) from Borrow b where b.user.id = :userId"
+            + " and b.status = com.library.library_management.model.BorrowStatus.ACTIVE and b.borrowDate >= :since")
+    long countActiveByUserId(@Param("userId") Long userId, @Param("since") LocalDate since);
+
+    @Query("select min(b.borrowDate) from Borrow b where b.status = com.library.library_management.model.BorrowStatus.ACTIVE")
+    LocalDate findOldestActiveBorrowDate();
+
+    /**
+     * A user's loans still in the table (all partitions) — the archive holds the rest.
+     */
+    @Query("select b from Borrow b join fetch b.book where b.user.id = :userId order by b.id")
+    List<Borrow> findAllByUserId(@Param("userId") Long userId);
+
+    /**
+     * Next batch of loans the archiver may move to disk: RETURNED before the cutoff, oldest first.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select new com.library.library_management.archive.ArchivedBorrow("
+            + "b.id, b.user.id, bk.id, bk.title, b.borrowDate, b.dueDate, b.returnDate) "
+            + "from Borrow b join b.book bk "
+            + "where b.status = com.library.library_management.model.BorrowStatus.RETURNED and b.returnDate < :cutoff "
+            + "order by b.id")
+    List<ArchivedBorrow> findArchivable(@Param("cutoff") LocalDate cutoff, Limit limit);
+
+    @Modifying
+    @Query("delete from Borrow b where b.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Streams every borrow with the book columns analytics needs, as plain rows (no entities, no
+     * persistence context growth). Must be called inside a transaction and the stream closed after.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.library.library_management.analytics.CirculationRow("
+            + "b.borrowDate, b.dueDate, b.returnDate, b.status, bk.author, bk.pubYear) "
+            + "from Borrow b join b.book bk")
+    Stream<CirculationRow> streamCirculationRows();
+
+    /**
+     * Streams (user, book) of every borrow, oldest first — for the recommendation index.
+     * Must be called inside a transaction and the stream closed after.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.library.library_management.recommendation.BorrowPair(b.user.id, b.book.id) "
+            + "from Borrow b order by b.id")
+    Stream<BorrowPair> streamBorrowPairs();
+
+    /**
+     * Books a patron borrowed since a day, oldest first — what a LOANS message about them can mean
+     * for the recommendation index.
+     */
+    @Query("select b.book.id from Borrow b where b.user.id = :userId and b.borrowDate >= :since order by b.id")
+    List<Long> findBookIdsBorrowedSince(@Param("userId") Long userId, @Param("since") LocalDate since);
 
 }
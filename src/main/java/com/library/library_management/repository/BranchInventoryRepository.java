@@ -0,0 +1,53 @@
+package com.library.library_management.repository;
+
+import com.library.library_management.model.BranchInventory;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BranchInventoryRepository extends JpaRepository<BranchInventory, Long> {
+
+    /**
+     * The best-stocked branch row of a book that nobody else has locked right now
+     * (SELECT ... FOR UPDATE SKIP LOCKED). Walks branch_inventory_stock_idx from the top and stops at
+     * the first match — concurrent borrows of one book spread over its branches instead of queueing.
+     * Pass Limit.of(1).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2")) // -2 = SKIP LOCKED
+    @Query("select i from BranchInventory i where i.book.id = :bookId and i.copiesAvailable > 0"
+            + " order by i.copiesAvailable desc, i.id")
+    List<BranchInventory> findStockedSkipLocked(@Param("bookId") Long bookId, Limit limit);
+
+    /**
+     * Every branch row of a book, locked in id order (waits for other transactions).
+     * Rows that had stock but were emptied meanwhile come back with their committed count.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from BranchInventory i where i.book.id = :bookId order by i.id")
+    List<BranchInventory> findAllByBookIdForUpdate(@Param("bookId") Long bookId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from BranchInventory i where i.book.id = :bookId and i.branch.id = :branchId")
+    Optional<BranchInventory> findForUpdate(@Param("bookId") Long bookId, @Param("branchId") Long branchId);
+
+    @Query("select i from BranchInventory i join fetch i.branch where i.book.id = :bookId order by i.branch.id")
+    List<BranchInventory> findAllByBookIdWithBranch(@Param("bookId") Long bookId);
+
+    @Query("select coalesce(sum(i.copiesAvailable), 0) from BranchInventory i where i.book.id = :bookId")
+    long sumCopiesAvailable(@Param("bookId") Long bookId);
+
+    @Modifying
+    @Query("delete from BranchInventory i where i.book.id = :bookId")
+    int deleteAllByBookId(@Param("bookId") Long bookId);
+}
@@ -0,0 +1,14 @@
+package com.library.library_management.repository;
+
+import com.library.library_management.model.Branch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface BranchRepository extends JpaRepository<Branch, Long> {
+
+    boolean existsByNameIgnoreCase(String name);
+
+    // The main branch = the oldest one
+    Optional<Branch> findFirstByOrderByIdAsc();
+}
@@ -0,0 +1,83 @@
+package com.library.library_management.repository;
+
+import com.library.library_management.model.Hold;
+import com.library.library_management.model.HoldStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    // Next in line — callers hold the book row lock, so two returns can't pick the same hold
+    Optional<Hold> findFirstByBookIdAndStatusOrderByIdAsc(Long bookId, HoldStatus status);
+
+    // The next `limit` in line, for copies added to a shelf all at once — same lock rule
+    List<Hold> findByBookIdAndStatusOrderByIdAsc(Long bookId, HoldStatus status, Limit limit);
+
+    /**
+     * Which locks a change to this hold needs (its book, its branch while READY) and who owns it.
+     * No entity is loaded, so the locked read that follows (findByIdForUpdate) sees the current state.
+     */
+    @Query("select h.book.id as bookId, br.id as branchId, h.status as status, u.email as email"
+            + " from Hold h join h.user u left join h.branch br where h.id = :id")
+    Optional<HoldKeys> findKeysById(@Param("id") Long id);
+
+    /**
+     * The hold, read and locked once the branch and book rows are locked — whatever it says then is final
+     * until commit. SELECT ... FOR UPDATE.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from Hold h where h.id = :id")
+    Optional<Hold> findByIdForUpdate(@Param("id") Long id);
+
+    // Cheap checks before taking any lock — no entity is loaded, so a later locked read sees fresh state
+    boolean existsByBookIdAndStatus(Long bookId, HoldStatus status);
+
+    boolean existsByUserIdAndBookIdAndStatus(Long userId, Long bookId, HoldStatus status);
+
+    // The user's READY hold on the book — just the id, so fulfillIfReady's result isn't hidden by a loaded copy
+    @Query("select h.id from Hold h where h.user.id = :userId and h.book.id = :bookId"
+            + " and h.status = com.library.library_management.model.HoldStatus.READY")
+    Optional<Long> findReadyId(@Param("userId") Long userId, @Param("bookId") Long bookId);
+
+    /**
+     * READY → FULFILLED in one UPDATE. Waits only for this hold's row (an expiry or cancel holding it) and
+     * locks it only if it is still READY then — a borrow whose hold expired meanwhile leaves holding no lock.
+     *
+     * @return 1 if the hold was fulfilled, 0 if it expired or was cancelled first
+     */
+    @Modifying
+    @Query("update Hold h set h.status = com.library.library_management.model.HoldStatus.FULFILLED, h.expiresAt = null"
+            + " where h.id = :id and h.status = com.library.library_management.model.HoldStatus.READY")
+    int fulfillIfReady(@Param("id") Long id);
+
+    Optional<Hold> findFirstByUserIdAndBookIdAndStatusIn(Long userId, Long bookId, Collection<HoldStatus> statuses);
+
+    // Position in line = WAITING holds ahead of this one + 1
+    long countByBookIdAndStatusAndIdLessThan(Long bookId, HoldStatus status, Long id);
+
+    @Query("select h from Hold h join fetch h.book where h.user.id = :userId and h.status in :statuses order by h.id")
+    List<Hold> findByUserIdAndStatusIn(@Param("userId") Long userId, @Param("statuses") Collection<HoldStatus> statuses);
+
+    @Query("select h.id from Hold h where h.status = com.library.library_management.model.HoldStatus.READY and h.expiresAt < :now")
+    List<Long> findExpiredReadyIds(@Param("now") LocalDateTime now);
+
+    interface HoldKeys {
+        Long getBookId();
+
+        Long getBranchId(); // where a copy was set aside — null while WAITING (and for holds from before branches)
+
+        HoldStatus getStatus();
+
+        String getEmail();
+    }
+}
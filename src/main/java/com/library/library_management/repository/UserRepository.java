@@ -3,6 +3,7 @@ package com.library.library_management.repository;
 import com.library.library_management.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -11,4 +12,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
 
+    // Users force-revoked recently enough that some of their old tokens may still be unexpired
+    List<User> findByTokensRevokedAtGreaterThan(long since);
+
 }
@@ -1,5 +1,6 @@
 package com.library.library_management.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,16 +13,20 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Date;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final CustomUserDetailsService customUserDetailsService;
     private final JwtUtils jwtUtils;
+    private final TokenRevocationService tokenRevocationService;
 
-    public JwtAuthenticationFilter(CustomUserDetailsService customUserDetailsService,  JwtUtils jwtUtils) {
+    public JwtAuthenticationFilter(CustomUserDetailsService customUserDetailsService, JwtUtils jwtUtils,
+                                   TokenRevocationService tokenRevocationService) {
         this.customUserDetailsService = customUserDetailsService;
         this.jwtUtils = jwtUtils;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
 
@@ -49,12 +54,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        // Step 4: Validate the token — checks signature and expiration
-        // If someone sent a fake or expired token, we skip setting auth (they'll get 401 from SecurityConfig)
-        if (jwtUtils.validateToken(token)) {
+        // Step 4: Validate the token — checks signature and expiration, and reads the claims in the same parse
+        // If someone sent a fake, expired or revoked (logged out) token, we skip setting auth (they'll get 401 from SecurityConfig)
+        Claims claims = jwtUtils.parseClaims(token);
+        if (claims != null && !isRevoked(claims)) {
 
             // Step 5: Extract the email from the token's payload
-            String email = jwtUtils.extractEmail(token);
+            String email = claims.getSubject();
             try {
                 // Step 6: Load the full user details from the database using that email
                 // This gives Spring Security the user's password hash and roles
@@ -82,4 +88,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // In-memory check only — no DB hit, so revocation keeps the filter stateless
+    private boolean isRevoked(Claims claims) {
+        Date expiresAt = claims.getExpiration();
+        return tokenRevocationService.isRevoked(
+                claims.getSubject(),
+                claims.getId(),
+                JwtUtils.issuedAtMillis(claims),
+                expiresAt == null ? Long.MAX_VALUE : expiresAt.getTime()
+        );
+    }
+
 }
@@ -1,5 +1,6 @@
 package com.library.library_management.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,10 +8,18 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtils {
 
+    /**
+     * Issue time in epoch MILLIS. The standard "iat" claim only holds whole seconds, which is too coarse to
+     * compare against a force-revoke cutoff: a token from just before the revoke and one from just after the
+     * next login can share the same "iat" second (see TokenRevocationService).
+     */
+    public static final String ISSUED_AT_MILLIS = "iat_ms";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
@@ -22,10 +31,13 @@ public class JwtUtils {
     }
 
     public String generateToken(String email) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .id(UUID.randomUUID().toString()) // jti — lets us revoke this one token on logout
                 .subject(email)
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + expiration))
+                .issuedAt(new Date(now))
+                .claim(ISSUED_AT_MILLIS, now)
+                .expiration(new Date(now + expiration))
                 .signWith(getSigningKey())
                 .compact();
     }
@@ -39,6 +51,38 @@ public class JwtUtils {
                 .getSubject();
     }
 
+    /**
+     * Exact issue time from our own millisecond claim. Tokens issued before the claim existed only have "iat"
+     * (whole seconds, rounded down) — a revoke later in that same second still catches them, which is the safe side.
+     *
+     * @return epoch millis, 0 if the token has no issue time at all
+     */
+    public static long issuedAtMillis(Claims claims) {
+        if (claims.get(ISSUED_AT_MILLIS) instanceof Number millis) {
+            return millis.longValue();
+        }
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt == null ? 0L : issuedAt.getTime();
+    }
+
+    /**
+     * Verifies the token and returns its claims in ONE parse (validate + extract would parse twice).
+     *
+     * @param token the raw JWT
+     * @return the claims, or null if the signature is bad or the token expired
+     */
+    public Claims parseClaims(String token) {
+        try {
+            return Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     public boolean validateToken(String token) {
         try {
             Jwts.parser()
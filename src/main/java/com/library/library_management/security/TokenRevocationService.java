@@ -0,0 +1,215 @@
+package com.library.library_management.security;
+
+import com.library.library_management.invalidation.EntityType;
+import com.library.library_management.invalidation.InvalidationBus;
+import com.library.library_management.invalidation.InvalidationListener;
+import com.library.library_management.invalidation.InvalidationMessage;
+import com.library.library_management.model.RevokedToken;
+import com.library.library_management.model.User;
+import com.library.library_management.repository.RevokedTokenRepository;
+import com.library.library_management.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory revocation list for JWTs — lets us support logout without a DB lookup per request.
+ *
+ * Two structures, both checked by JwtAuthenticationFilter on every authenticated request:
+ *   1. "Tokens issued before" cutoff per user (email → epoch millis).
+ *      Used by the admin force-revoke: one entry kills every token that user holds.
+ *   2. Revoked token ids (jti), grouped into time buckets by the token's EXPIRY.
+ *      Used by logout: only that one token dies.
+ *
+ * Why buckets? → A revoked jti only matters until the token expires anyway (after that the
+ * signature check rejects it). Buckets live in a fixed ring; when the ring wraps around, the old
+ * bucket's tokens have all expired, so the whole bucket is dropped in one go. No cleanup job needed.
+ *
+ * The hot path (isRevoked) only does map/set lookups on objects that already exist — no allocation.
+ *
+ * Logouts and force-revokes are shared with the other replicas through the InvalidationBus (TOKEN and
+ * USER_TOKENS messages), so a revoked token stops working on every node, not just the one that handled it.
+ * Both messages carry everything needed to apply them (jti + expiry, email + cutoff) — no DB lookup on the
+ * invalidation thread, and the cutoff is the revoking node's clock, not the receiver's.
+ *
+ * The messages are best effort, so every revocation is ALSO written to the database first (AuthService):
+ * revoked_tokens for logouts, users.tokens_revoked_at for force-revokes. This node reloads both at startup
+ * and whenever the bus reports a gap (lost messages) — memory is only ever added to, so a reload racing with
+ * live messages is harmless.
+ */
+@Component
+public class TokenRevocationService implements InvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+    private static final int BUCKET_COUNT = 64;
+
+    // user email → tokens issued at or before this time (millis) are revoked
+    private final ConcurrentHashMap<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    // ring of buckets, indexed by (expiry / bucketWidthMillis) % BUCKET_COUNT
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(BUCKET_COUNT);
+
+    private final long tokenLifetimeMillis;
+    private final long bucketWidthMillis;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * The ring must cover the full token lifetime, with 2 spare slots so the bucket
+     * being reused is always one whose tokens are already expired.
+     */
+    public TokenRevocationService(@Value("${jwt.expiration}") long expiration, InvalidationBus invalidationBus,
+                                  RevokedTokenRepository revokedTokenRepository, UserRepository userRepository) {
+        this.tokenLifetimeMillis = expiration;
+        this.bucketWidthMillis = Math.max(1, (expiration + BUCKET_COUNT - 3) / (BUCKET_COUNT - 2));
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.userRepository = userRepository;
+        invalidationBus.subscribe(EntityType.TOKEN, this); // also gets the gap → reload, once
+        // USER_TOKENS message: id = email, version = revoke cutoff
+        invalidationBus.subscribe(EntityType.USER_TOKENS, message -> revokeAllForUser(message.id(), message.version()));
+    }
+
+    /**
+     * Loads the revocations made before this node started (subscribed above first, so nothing falls in between).
+     */
+    @PostConstruct
+    void load() {
+        reload();
+    }
+
+    /**
+     * TOKEN message: id = jti, version = token expiry.
+     */
+    @Override
+    public void invalidate(InvalidationMessage message) {
+        revokeToken(message.id(), message.version());
+    }
+
+    // Messages were lost — some revocation made on another node may be missing here
+    @Override
+    public void invalidateAll() {
+        reload();
+    }
+
+    /**
+     * Revokes a single token (logout). Already-expired tokens are ignored — nothing to revoke.
+     *
+     * @param jti             the token's unique id
+     * @param expiresAtMillis the token's expiration time
+     */
+    public void revokeToken(String jti, long expiresAtMillis) {
+        if (jti == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        long epoch = expiresAtMillis / bucketWidthMillis;
+        int slot = (int) (epoch % BUCKET_COUNT);
+        while (true) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.epoch == epoch) {
+                bucket.jtis.add(jti);
+                return;
+            }
+            // Slot is empty or holds an expired bucket — replace it (CAS so two threads don't both replace)
+            Bucket fresh = new Bucket(epoch);
+            fresh.jtis.add(jti);
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Revokes every token issued to this user up to the cutoff (admin force-revoke).
+     * Tokens issued later — i.e. after the user logs in again — stay valid. An older cutoff never
+     * replaces a newer one, so messages may arrive late or twice.
+     *
+     * @param email        the user's email (the token subject)
+     * @param cutoffMillis tokens issued at or before this time are revoked
+     */
+    public void revokeAllForUser(String email, long cutoffMillis) {
+        purgeExpiredCutoffs();
+        revokedBefore.merge(email, cutoffMillis, Math::max);
+    }
+
+    /**
+     * Checks whether a (signature-valid) token has been revoked.
+     *
+     * @param email           token subject
+     * @param jti             token id — null for tokens issued before jti was added
+     * @param issuedAtMillis  token issue time in millis (JwtUtils.ISSUED_AT_MILLIS) — must have the same
+     *                        precision as the cutoff, an "iat" in whole seconds would compare wrong
+     * @param expiresAtMillis token "exp"
+     * @return true if the token must be rejected
+     */
+    public boolean isRevoked(String email, String jti, long issuedAtMillis, long expiresAtMillis) {
+        Long cutoff = revokedBefore.get(email);
+        if (cutoff != null && issuedAtMillis <= cutoff) {
+            return true;
+        }
+        if (jti == null) {
+            return false;
+        }
+        long epoch = expiresAtMillis / bucketWidthMillis;
+        Bucket bucket = buckets.get((int) (epoch % BUCKET_COUNT));
+        return bucket != null && bucket.epoch == epoch && bucket.jtis.contains(jti);
+    }
+
+    /**
+     * Re-reads every still-relevant revocation from the database. Failures are logged, not thrown — the
+     * revocations already in memory keep working, and the next gap or restart tries again.
+     */
+    public void reload() {
+        try {
+            long now = System.currentTimeMillis();
+            List<RevokedToken> tokens = revokedTokenRepository.findByExpiresAtGreaterThan(now);
+            tokens.forEach(token -> revokeToken(token.getJti(), token.getExpiresAt()));
+            List<User> users = userRepository.findByTokensRevokedAtGreaterThan(now - tokenLifetimeMillis);
+            users.forEach(user -> revokeAllForUser(user.getEmail(), user.getTokensRevokedAt()));
+            log.info("Token revocations reloaded: {} logged-out tokens, {} force-revoked users", tokens.size(), users.size());
+        } catch (RuntimeException e) {
+            log.error("Could not reload token revocations — revocations made on other nodes may be missing here: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes logged-out tokens that have expired by now — they can't be used anymore anyway.
+     */
+    @Scheduled(fixedDelayString = "${library.tokens.cleanup-ms:3600000}")
+    public void deleteExpired() {
+        try {
+            revokedTokenRepository.deleteExpired(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.warn("Revoked token cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    /**
+     * Drops per-user cutoffs older than one token lifetime — every token they covered has expired.
+     * Runs on each force-revoke; the map only holds users an admin has revoked, so it stays tiny.
+     */
+    private void purgeExpiredCutoffs() {
+        long oldestLiveIssue = System.currentTimeMillis() - tokenLifetimeMillis;
+        revokedBefore.values().removeIf(cutoff -> cutoff < oldestLiveIssue);
+    }
+
+    // One time bucket: every jti in here belongs to a token expiring inside [epoch, epoch + 1) * width
+    private static final class Bucket {
+        private final long epoch;
+        private final Set<String> jtis = ConcurrentHashMap.newKeySet();
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+}
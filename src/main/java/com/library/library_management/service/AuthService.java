@@ -5,10 +5,17 @@ import com.library.library_management.dto.auth.AuthResponseDTO;
 import com.library.library_management.dto.auth.LoginDTO;
 import com.library.library_management.dto.auth.RegisterDTO;
 import com.library.library_management.exception.BusinessException;
+import com.library.library_management.exception.ResourceNotFoundException;
+import com.library.library_management.invalidation.EntityType;
+import com.library.library_management.invalidation.InvalidationBus;
+import com.library.library_management.model.RevokedToken;
 import com.library.library_management.model.Role;
 import com.library.library_management.model.User;
+import com.library.library_management.repository.RevokedTokenRepository;
 import com.library.library_management.repository.UserRepository;
 import com.library.library_management.security.JwtUtils;
+import com.library.library_management.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -25,6 +32,9 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
+    private final TokenRevocationService tokenRevocationService;
+    private final InvalidationBus invalidationBus;
+    private final RevokedTokenRepository revokedTokenRepository;
 
 
     /**
@@ -32,10 +42,15 @@ public class AuthService {
      * the BCryptPasswordEncoder we defined in SecurityConfig.
      * No @Autowired needed because there's only one constructor.
      */
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtils jwtUtils) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtils jwtUtils,
+                       TokenRevocationService tokenRevocationService, InvalidationBus invalidationBus,
+                       RevokedTokenRepository revokedTokenRepository) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtils = jwtUtils;
+        this.tokenRevocationService = tokenRevocationService;
+        this.invalidationBus = invalidationBus;
+        this.revokedTokenRepository = revokedTokenRepository;
     }
 
 
@@ -98,4 +113,61 @@ public class AuthService {
 
     }
 
+
+    /**
+     * Logs out by revoking the token the client is currently using.
+     * Only THIS token dies — the user's other devices stay logged in.
+     * Saved first (nodes that miss the message reload it from there), then applied here and on every other node.
+     *
+     * Tokens issued before jti existed can't be revoked one by one. For those the user's "issued before" cutoff
+     * moves up to this token's issue time instead: it and any older token of the user die, tokens issued after
+     * it (every token with a jti) stay valid.
+     *
+     * @param token the raw JWT from the Authorization header
+     * @throws BusinessException if the token is invalid or already expired
+     */
+    public void logout(String token) {
+        Claims claims = jwtUtils.parseClaims(token);
+        if (claims == null) {
+            throw new BusinessException("Invalid or expired token");
+        }
+        if (claims.getId() == null) {
+            User user = userRepository.findByEmail(claims.getSubject())
+                    .orElseThrow(() -> new BusinessException("Invalid or expired token"));
+            revokeIssuedUpTo(user, JwtUtils.issuedAtMillis(claims));
+            return;
+        }
+        long expiresAt = claims.getExpiration().getTime();
+        revokedTokenRepository.save(new RevokedToken(claims.getId(), expiresAt));
+        tokenRevocationService.revokeToken(claims.getId(), expiresAt);
+        invalidationBus.publish(EntityType.TOKEN, claims.getId(), expiresAt); // other nodes too
+    }
+
+    /**
+     * Admin force-revoke: kills every token the user currently holds (e.g. stolen laptop, role change).
+     * The user can log in again afterwards and gets a fresh, valid token.
+     * The cutoff is saved on the user first, then sent to the other nodes as-is (they don't use their own clock).
+     *
+     * @param userId the user's primary key
+     * @throws ResourceNotFoundException if user not found
+     */
+    public void revokeAllTokens(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
+        revokeIssuedUpTo(user, System.currentTimeMillis());
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    // Saved on the user first, then sent to the other nodes as-is (they don't use their own clock).
+    // An older cutoff never replaces a newer one.
+    private void revokeIssuedUpTo(User user, long cutoff) {
+        if (user.getTokensRevokedAt() == null || user.getTokensRevokedAt() < cutoff) {
+            user.setTokensRevokedAt(cutoff);
+            userRepository.save(user);
+        }
+        tokenRevocationService.revokeAllForUser(user.getEmail(), cutoff);
+        invalidationBus.publish(EntityType.USER_TOKENS, user.getEmail(), cutoff); // other nodes too
+    }
+
 }
@@ -0,0 +1,360 @@
+package com.library.library_management.service;
+
+import com.library.library_management.dto.book.BookChangeDTO;
+import com.library.library_management.dto.book.BookResponseDTO;
+import com.library.library_management.invalidation.EntityType;
+import com.library.library_management.invalidation.InvalidationBus;
+import com.library.library_management.invalidation.InvalidationListener;
+import com.library.library_management.invalidation.InvalidationMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events feed of catalog changes — GET /api/v1/books/changes.
+ *
+ * Why? → Front-ends and kiosks used to poll GET /books every few seconds to spot new titles and
+ * availability changes. Now they fetch the list ONCE and keep one idle connection open; we push
+ * only the books that actually changed.
+ *
+ * Where changes come from: BOOK messages on the InvalidationBus. BookService (create/update/delete)
+ * and borrow/return/hold publish them already, on every node — so a borrow on node A shows up on
+ * streams connected to node B.
+ *
+ * Coalescing: changed ids are only collected; every library.books.changes.coalesce-ms the feed
+ * loads all of them in ONE query and sends one event per book. A book borrowed ten times within
+ * the window produces one event with its latest state.
+ *
+ * Resume: each event has an id ("{node epoch}-{sequence}") and the last library.books.changes.buffer-size
+ * events are kept in a ring buffer. A reconnecting EventSource sends Last-Event-ID and gets what it
+ * missed. If that's no longer in the buffer (or came from another node / before a restart) it gets
+ * a "reset" event instead — reload GET /books, then carry on.
+ *
+ * Idle connections cost no thread (SseEmitter is async). Sending runs on virtual threads, one
+ * short-lived task per busy subscriber, so a slow client never holds up anybody else; a client
+ * that falls more than MAX_PENDING events behind is disconnected and resumes from Last-Event-ID.
+ */
+@Component
+public class BookChangeFeed implements InvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BookChangeFeed.class);
+
+    static final String EVENT_BOOK = "book";
+    static final String EVENT_RESET = "reset";
+    private static final int MAX_PENDING = 1000;
+    private static final long RECONNECT_DELAY_MS = 3000;
+
+    private final BookService bookService;
+    private final JsonMapper jsonMapper;
+    private final long coalesceMs;
+    private final long heartbeatMs;
+    private final long timeoutMs;
+    private final int maxSubscribers;
+
+    // Identifies this node's event ids — ids from another node or an earlier run are not resumable
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean resetPending = new AtomicBoolean();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ChangeRing ring;
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private ScheduledExecutorService ticker;
+
+    public BookChangeFeed(BookService bookService, InvalidationBus invalidationBus, JsonMapper jsonMapper,
+                          @Value("${library.books.changes.coalesce-ms:250}") long coalesceMs,
+                          @Value("${library.books.changes.buffer-size:4096}") int bufferSize,
+                          @Value("${library.books.changes.heartbeat-ms:25000}") long heartbeatMs,
+                          @Value("${library.books.changes.timeout-ms:1800000}") long timeoutMs,
+                          @Value("${library.books.changes.max-subscribers:50000}") int maxSubscribers) {
+        this.bookService = bookService;
+        this.jsonMapper = jsonMapper;
+        this.coalesceMs = Math.max(10, coalesceMs);
+        this.heartbeatMs = heartbeatMs;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.ring = new ChangeRing(Math.max(16, bufferSize));
+        invalidationBus.subscribe(EntityType.BOOK, this);
+    }
+
+    @PostConstruct
+    void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "book-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::flush, coalesceMs, coalesceMs, TimeUnit.MILLISECONDS);
+        ticker.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdown();
+    }
+
+    /**
+     * Opens a stream for one client.
+     *
+     * @param lastEventId the Last-Event-ID header of a reconnecting EventSource (null on first connect)
+     * @return the emitter, or null if the node already serves max-subscribers streams
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        subscriber.offer(Outgoing.CONNECTED);
+        // Replay + register under the ring's lock, so no event falls between the two
+        synchronized (ring) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                List<Change> missed = ring.after(parseSequence(lastEventId));
+                if (missed == null) {
+                    subscriber.offer(new Outgoing(id(ring.nextSequence - 1), EVENT_RESET, "{}", null));
+                } else {
+                    missed.forEach(change -> subscriber.offer(outgoing(change)));
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void invalidate(InvalidationMessage message) {
+        try {
+            dirty.add(Long.valueOf(message.id()));
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring book change with a non-numeric id: {}", message.id());
+        }
+    }
+
+    /**
+     * Changes may have been lost — tell every client to reload instead of guessing.
+     */
+    @Override
+    public void invalidateAll() {
+        resetPending.set(true);
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private void flush() {
+        try {
+            if (resetPending.getAndSet(false)) {
+                dirty.clear();
+                publish(List.of(new Pending(EVENT_RESET, "{}")));
+                return;
+            }
+            if (dirty.isEmpty()) {
+                return;
+            }
+            List<Long> ids = new ArrayList<>(dirty);
+            dirty.removeAll(ids);
+            try {
+                publish(load(ids));
+            } catch (RuntimeException e) {
+                dirty.addAll(ids); // try again next tick
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Book change feed flush failed: {}", e.getMessage());
+        }
+    }
+
+    private List<Pending> load(List<Long> ids) {
+        Map<Long, BookResponseDTO> found = new HashMap<>();
+        for (BookResponseDTO book : bookService.getBooksByIds(ids)) {
+            found.put(book.getId(), book);
+        }
+        List<Pending> changes = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            BookResponseDTO book = found.get(id);
+            BookChangeDTO change = new BookChangeDTO(id, book != null ? BookChangeDTO.UPDATED : BookChangeDTO.DELETED, book);
+            // Serialized once here, not once per subscriber
+            changes.add(new Pending(EVENT_BOOK, jsonMapper.writeValueAsString(change)));
+        }
+        return changes;
+    }
+
+    private void publish(List<Pending> pending) {
+        synchronized (ring) {
+            for (Pending item : pending) {
+                Outgoing event = outgoing(ring.add(item.name(), item.json()));
+                subscribers.forEach(subscriber -> subscriber.offer(event));
+            }
+        }
+    }
+
+    private void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.offer(Outgoing.PING)); // keeps proxies from closing idle streams
+    }
+
+    private Outgoing outgoing(Change change) {
+        return new Outgoing(id(change.sequence()), change.name(), change.json(), null);
+    }
+
+    private String id(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    // "{epoch}-{sequence}" → sequence, or -1 if it isn't one of ours
+    private long parseSequence(String lastEventId) {
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash <= 0 || !lastEventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private record Pending(String name, String json) {
+    }
+
+    record Change(long sequence, String name, String json) {
+    }
+
+    /**
+     * What a subscriber still has to send. Kept as plain data — an SseEventBuilder can only be built
+     * once, so each subscriber builds its own.
+     */
+    private record Outgoing(String id, String name, String json, String comment) {
+
+        static final Outgoing CONNECTED = new Outgoing(null, null, null, "connected");
+        static final Outgoing PING = new Outgoing(null, null, null, "ping");
+
+        SseEmitter.SseEventBuilder build() {
+            if (this == CONNECTED) {
+                return SseEmitter.event().reconnectTime(RECONNECT_DELAY_MS).comment(comment);
+            }
+            if (comment != null) {
+                return SseEmitter.event().comment(comment);
+            }
+            return SseEmitter.event().id(id).name(name).data(json);
+        }
+    }
+
+    /**
+     * The last N changes, by sequence number. Guarded by its own monitor (package-private for tests).
+     */
+    static final class ChangeRing {
+
+        private final Change[] slots;
+        private long nextSequence = 1;
+
+        ChangeRing(int capacity) {
+            this.slots = new Change[capacity];
+        }
+
+        Change add(String name, String json) {
+            Change change = new Change(nextSequence, name, json);
+            slots[(int) (nextSequence % slots.length)] = change;
+            nextSequence++;
+            return change;
+        }
+
+        /**
+         * @return every change after this sequence, or null if some of them already fell out of the buffer
+         */
+        List<Change> after(long sequence) {
+            long oldest = Math.max(1, nextSequence - slots.length);
+            if (sequence < oldest - 1 || sequence >= nextSequence) {
+                return null;
+            }
+            List<Change> missed = new ArrayList<>((int) (nextSequence - sequence - 1));
+            for (long seq = sequence + 1; seq < nextSequence; seq++) {
+                missed.add(slots[(int) (seq % slots.length)]);
+            }
+            return missed;
+        }
+    }
+
+    /**
+     * One open stream. Events queue up here; a virtual thread drains the queue while there is
+     * something to send, then goes away — an idle subscriber holds no thread.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Outgoing> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Outgoing event) {
+            if (size.incrementAndGet() > MAX_PENDING) {
+                remove(this);
+                emitter.complete(); // too slow — it reconnects with Last-Event-ID
+                return;
+            }
+            pending.add(event);
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Outgoing event;
+                while ((event = pending.poll()) != null) {
+                    size.decrementAndGet();
+                    try {
+                        emitter.send(event.build());
+                    } catch (IOException | IllegalStateException e) {
+                        remove(this); // client went away
+                        pending.clear();
+                        return;
+                    }
+                }
+                draining.set(false);
+                // Something may have been queued after the last poll but before draining was reset
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.library.library_management.service;
+
+import com.library.library_management.concurrency.FanOut;
+import com.library.library_management.dto.book.BookDetailDTO;
+import com.library.library_management.dto.book.BookResponseDTO;
+import com.library.library_management.dto.book.RecommendationDTO;
+import com.library.library_management.dto.branch.BranchStockDTO;
+import com.library.library_management.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Everything the book page shows, in one call: the book, its stock per branch, how often it was
+ * borrowed and related titles.
+ *
+ * The DB lookups run at the same time on virtual threads (FanOut), so the page costs about as much as
+ * its slowest lookup instead of the sum of four round trips. Each has its own deadline:
+ *   book         required — 404 if it doesn't exist, 503 if it doesn't answer in time
+ *   branches     optional — left out (and listed in "missing") if late or failing
+ *   borrowCount  optional — same; loans table + archived_book_loans (BorrowService.borrowCount), exact
+ *                on every node, unlike the per-node event-log counters
+ *   related      optional — same
+ *
+ * A lookup that missed its deadline is cancelled but a JDBC call can't be interrupted, so it keeps its
+ * pool connection until it returns. Lookups that finish in time are never limited — any number of pages
+ * load at once, as fast as their slowest part. Only abandoned lookups count: while
+ * library.books.detail.max-abandoned-lookups of them are still running, the database is slow and the
+ * optional parts aren't even started (they come back in "missing" at once), so they can't drain the pool
+ * and the required book lookup never waits behind them.
+ */
+@Service
+public class BookDetailService {
+
+    private final BookService bookService;
+    private final InventoryService inventoryService;
+    private final RecommendationService recommendationService;
+    private final BorrowService borrowService;
+    private final Duration bookTimeout;
+    private final Duration branchesTimeout;
+    private final Duration borrowCountTimeout;
+    private final Duration relatedTimeout;
+    private final int relatedLimit;
+
+    // One virtual thread per sub-lookup; nothing to size or tune
+    private final ExecutorService lookups = Executors.newVirtualThreadPerTaskExecutor();
+    // Lookups past their deadline that still hold a pool connection, over all detail requests
+    private final FanOut.AbandonLimit abandonLimit;
+
+    public BookDetailService(BookService bookService, InventoryService inventoryService,
+                             RecommendationService recommendationService, BorrowService borrowService,
+                             @Value("${library.books.detail.book-timeout-ms:2000}") long bookTimeoutMs,
+                             @Value("${library.books.detail.branches-timeout-ms:300}") long branchesTimeoutMs,
+                             @Value("${library.books.detail.borrow-count-timeout-ms:300}") long borrowCountTimeoutMs,
+                             @Value("${library.books.detail.related-timeout-ms:300}") long relatedTimeoutMs,
+                             @Value("${library.books.detail.related-limit:6}") int relatedLimit,
+                             @Value("${library.books.detail.max-abandoned-lookups:4}") int maxAbandonedLookups) {
+        this.bookService = bookService;
+        this.inventoryService = inventoryService;
+        this.recommendationService = recommendationService;
+        this.borrowService = borrowService;
+        this.bookTimeout = Duration.ofMillis(bookTimeoutMs);
+        this.branchesTimeout = Duration.ofMillis(branchesTimeoutMs);
+        this.borrowCountTimeout = Duration.ofMillis(borrowCountTimeoutMs);
+        this.relatedTimeout = Duration.ofMillis(relatedTimeoutMs);
+        this.relatedLimit = relatedLimit;
+        this.abandonLimit = new FanOut.AbandonLimit(maxAbandonedLookups);
+    }
+
+    @PreDestroy
+    void stop() {
+        lookups.shutdownNow();
+    }
+
+    /**
+     * @param id the book's primary key
+     * @return the book plus whichever optional parts made their deadline
+     * @throws com.library.library_management.exception.ResourceNotFoundException if the book doesn't exist
+     * @throws ServiceUnavailableException if the book itself didn't load in time
+     */
+    public BookDetailDTO getDetail(Long id) {
+        try (FanOut fanOut = new FanOut(lookups, abandonLimit)) {
+            FanOut.Part<BookResponseDTO> book = fanOut.fork(() -> bookService.getBookById(id), bookTimeout);
+            FanOut.Part<List<BranchStockDTO>> branches = fanOut.forkOptional(() -> inventoryService.getStock(id), branchesTimeout);
+            FanOut.Part<Long> borrowCount = fanOut.forkOptional(() -> borrowService.borrowCount(id), borrowCountTimeout);
+            FanOut.Part<List<BookResponseDTO>> related = fanOut.forkOptional(() -> loadRelated(id), relatedTimeout);
+
+            BookResponseDTO loaded;
+            try {
+                loaded = book.join(); // a 404 ends it here — closing the scope cancels the rest
+            } catch (TimeoutException e) {
+                throw new ServiceUnavailableException("Book " + id + " could not be loaded in time, please retry");
+            }
+
+            List<String> missing = new ArrayList<>(3);
+            List<BranchStockDTO> stock = branches.joinOrNull();
+            if (stock == null) {
+                missing.add("branches");
+            }
+            Long borrows = borrowCount.joinOrNull();
+            if (borrows == null) {
+                missing.add("borrowCount");
+            }
+            List<BookResponseDTO> relatedBooks = related.joinOrNull();
+            if (relatedBooks == null) {
+                missing.add("related");
+            }
+            return new BookDetailDTO(loaded, stock, borrows, relatedBooks, missing);
+        }
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    // Recommendation ids come from memory; the books behind them in one query, put back in ranking order
+    private List<BookResponseDTO> loadRelated(Long id) {
+        List<RecommendationDTO> recommendations = recommendationService.getRecommendations(id, relatedLimit);
+        if (recommendations.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> rank = new HashMap<>();
+        for (RecommendationDTO recommendation : recommendations) {
+            rank.put(recommendation.getBookId(), rank.size());
+        }
+        List<BookResponseDTO> books = new ArrayList<>(bookService.getBooksByIds(rank.keySet()));
+        books.sort(Comparator.comparing(book -> rank.get(book.getId())));
+        return books;
+    }
+}
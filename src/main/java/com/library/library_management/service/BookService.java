@@ -1,17 +1,29 @@
 package com.library.library_management.service;
 
+import com.library.library_management.cache.NegativeLookupCache;
 import com.library.library_management.dto.book.BookCreateDTO;
 import com.library.library_management.dto.book.BookResponseDTO;
 import com.library.library_management.dto.book.BookUpdateDTO;
+import com.library.library_management.dto.branch.BranchStockDTO;
+import com.library.library_management.eventlog.CirculationEventLog;
+import com.library.library_management.eventlog.CirculationEventType;
 import com.library.library_management.exception.BusinessException;
 import com.library.library_management.exception.ResourceNotFoundException;
+import com.library.library_management.invalidation.EntityType;
+import com.library.library_management.invalidation.InvalidationBus;
 import com.library.library_management.model.Book;
+import com.library.library_management.model.BranchInventory;
+import com.library.library_management.projection.BookProjection;
 import com.library.library_management.repository.BookRepository;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Year;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service layer for Book CRUD operations.
@@ -23,9 +35,27 @@ public class BookService {
 
     // Constructor injection — Spring auto-wires BookRepository here (no need for @Autowired)
     private final BookRepository bookRepository;
+    // Tells every replica a book changed, so in-memory copies get dropped
+    private final InvalidationBus invalidationBus;
+    // Ids recently looked up and NOT found — repeated 404s skip the database
+    private final NegativeLookupCache missingBooks;
+    // Copy-count changes go to the circulation event log (audit + rebuilding counters)
+    private final CirculationEventLog eventLog;
+    // Copies live per branch — copiesAvailable on the book is only their total
+    private final InventoryService inventoryService;
+    // Copies added by an update are owed to the hold line before the shelf
+    private final HoldService holdService;
 
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository, InvalidationBus invalidationBus, CirculationEventLog eventLog,
+                       InventoryService inventoryService, HoldService holdService,
+                       @Value("${library.books.negative-cache-ttl-ms:5000}") long negativeCacheTtlMs) {
         this.bookRepository = bookRepository;
+        this.invalidationBus = invalidationBus;
+        this.eventLog = eventLog;
+        this.inventoryService = inventoryService;
+        this.holdService = holdService;
+        this.missingBooks = new NegativeLookupCache(4096, negativeCacheTtlMs);
+        invalidationBus.subscribe(EntityType.BOOK, missingBooks);
     }
 
     /**
@@ -47,27 +77,89 @@ public class BookService {
      * Fetches a SINGLE book by its ID.
      * Throws ResourceNotFoundException if no book exists with that ID.
      *
+     * Misses are remembered for a few seconds (missingBooks), so the same bad id
+     * requested over and over only reaches the database once per TTL.
+     *
      * @param id the book's primary key
      * @return the matching book as a DTO
      * @throws ResourceNotFoundException if book not found
      */
     public BookResponseDTO getBookById(Long id) {
-        return bookRepository.findById(id)
-                .map(this::mapToDTO)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
+        if (missingBooks.isKnownMissing(id)) {
+            throw new ResourceNotFoundException("Book", id);
+        }
+        long stamp = missingBooks.stamp(); // before the lookup — see markMissing
+        Book book = bookRepository.findById(id).orElse(null);
+        if (book == null) {
+            missingBooks.markMissing(id, stamp);
+            throw new ResourceNotFoundException("Book", id);
+        }
+        return mapToDTO(book);
     }
 
+    /**
+     * Fetches all books, but only the fields in the projection (?fields=id,title,author).
+     * The SELECT itself is narrowed — unused columns never leave the database.
+     *
+     * @param projection the parsed field set
+     * @return the books as a ready-to-send JSON array
+     */
+    public byte[] getAllBooks(BookProjection projection) {
+        return projection.writeList(bookRepository.findAllProjected(projection));
+    }
 
+    /**
+     * Same as getBookById(id), restricted to the projection's fields.
+     *
+     * @param id         the book's primary key
+     * @param projection the parsed field set
+     * @return the book as a ready-to-send JSON object
+     * @throws ResourceNotFoundException if book not found
+     */
+    public byte[] getBookById(Long id, BookProjection projection) {
+        return projection.writeOne(findProjectedRow(id, projection));
+    }
 
+    /**
+     * getAllBooks(projection) for CBOR/Smile clients — the books as maps, for the negotiated converter.
+     */
+    public List<Map<String, Object>> getAllBooksAsMaps(BookProjection projection) {
+        return projection.toMaps(bookRepository.findAllProjected(projection));
+    }
+
+    /**
+     * getBookById(id, projection) for CBOR/Smile clients — the book as a map, for the negotiated converter.
+     *
+     * @throws ResourceNotFoundException if book not found
+     */
+    public Map<String, Object> getBookByIdAsMap(Long id, BookProjection projection) {
+        return projection.toMap(findProjectedRow(id, projection));
+    }
+
+    /**
+     * Fetches several books at once (missing ids are simply left out).
+     * Used by the change feed to load every book that changed in one query.
+     *
+     * @param ids the books' primary keys
+     * @return the books that exist, as DTOs
+     */
+    public List<BookResponseDTO> getBooksByIds(Collection<Long> ids) {
+        return bookRepository.findAllById(ids)
+                .stream()
+                .map(this::mapToDTO)
+                .toList();
+    }
 
     /**
      * Creates a NEW book in the database.
      * Validates the publication year, maps DTO fields → new Book entity, saves it.
+     * All its copies are stocked at the main branch (move them with PUT /books/{id}/branches/{branchId}).
      *
      * @param dto incoming data from the client (title, author, isbn, etc.)
      * @return the saved book as a DTO (now includes generated id and createdAt)
      * @throws BusinessException if pubYear is in the future
      */
+    @Transactional
     public BookResponseDTO createBook(BookCreateDTO dto) {
         validatePubYear(dto.getPubYear());
         Book book = new Book();
@@ -79,6 +171,11 @@ public class BookService {
         book.setCoverImageUrl(dto.getCoverImageUrl());
 
         Book savedBook = bookRepository.save(book);
+        inventoryService.stockNewBook(savedBook, dto.getCopiesAvailable());
+        missingBooks.forget(savedBook.getId()); // right away on this node, the bus handles the others
+        invalidationBus.publishAfterCommit(EntityType.BOOK, savedBook.getId());
+        eventLog.appendAfterCommit(CirculationEventType.COPIES_ADJUSTED, savedBook.getId(), 0, 0,
+                savedBook.getCopiesAvailable());
         return mapToDTO(savedBook);
     }
 
@@ -89,15 +186,19 @@ public class BookService {
      * Why null checks? → This is a PATCH-style update. If the client sends
      * only { "title": "New Title" }, only the title changes — everything else stays.
      *
+     * copiesAvailable is the total over all branches: the main branch absorbs the difference. Copies it
+     * gains go to patrons waiting on holds first (set aside at the main branch), the rest to the shelf.
+     *
      * @param id  the book's primary key
      * @param dto fields to update (null fields are skipped)
      * @return the updated book as a DTO
      * @throws ResourceNotFoundException if book not found
-     * @throws BusinessException if pubYear is in the future
+     * @throws BusinessException if pubYear is in the future, or other branches hold more copies than requested
      */
+    @Transactional
     public BookResponseDTO updateBook(Long id, BookUpdateDTO dto) {
         Book book = bookRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
+                .orElseThrow(() -> new ResourceNotFoundException("Book", id));
 
         if (dto.getTitle() != null) {
             book.setTitle(dto.getTitle());
@@ -112,18 +213,59 @@ public class BookService {
             validatePubYear(dto.getPubYear());
             book.setPubYear(dto.getPubYear());
         }
-        if (dto.getCopiesAvailable() != null) {
-            book.setCopiesAvailable(dto.getCopiesAvailable());
+        boolean copiesChanged = dto.getCopiesAvailable() != null
+                && !dto.getCopiesAvailable().equals(book.getCopiesAvailable());
+        if (copiesChanged) {
+            // Added copies go to the line first, like returned ones
+            holdService.handOutCopies(id, inventoryService.setTotal(book, dto.getCopiesAvailable()));
+            book.setCopiesAvailable(inventoryService.totalAvailable(id)); // for the response only — the column is the aggregator's
         }
         if (dto.getCoverImageUrl() != null) {
             book.setCoverImageUrl(dto.getCoverImageUrl());
         }
 
         Book updatedBook = bookRepository.save(book);
+        invalidationBus.publishAfterCommit(EntityType.BOOK, id);
+        if (copiesChanged) {
+            eventLog.appendAfterCommit(CirculationEventType.COPIES_ADJUSTED, id, 0, 0, updatedBook.getCopiesAvailable());
+        }
 
         return mapToDTO(updatedBook);
     }
 
+    /**
+     * Sets one branch's copy count for a book (stock-taking, new copies, transfers).
+     * Copies the branch gains go to patrons waiting on holds first (set aside at that branch), like
+     * returned ones — only the rest end up on the shelf.
+     *
+     * @return the branch's stock afterwards
+     * @throws ResourceNotFoundException if the book or branch doesn't exist
+     */
+    @Transactional
+    public BranchStockDTO setStock(Long id, Long branchId, int copies) {
+        BranchInventory row = inventoryService.setStock(id, branchId, copies);
+        holdService.handOutCopies(id, row);
+        eventLog.appendAfterCommit(CirculationEventType.COPIES_ADJUSTED, id, 0, 0, inventoryService.totalAvailable(id));
+        return new BranchStockDTO(branchId, row.getBranch().getName(), row.getCopiesAvailable());
+    }
+
+    /**
+     * Points a book's cover at an image we host (set after a cover upload).
+     *
+     * @param id             the book's primary key
+     * @param coverImageUrl  our own /api/v1/covers/... URL
+     * @return the updated book as a DTO
+     * @throws ResourceNotFoundException if book not found
+     */
+    public BookResponseDTO updateCoverImageUrl(Long id, String coverImageUrl) {
+        Book book = bookRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", id));
+        book.setCoverImageUrl(coverImageUrl);
+        Book updatedBook = bookRepository.save(book);
+        invalidationBus.publish(EntityType.BOOK, id);
+        return mapToDTO(updatedBook);
+    }
+
     /**
      * DELETES a book by ID.
      * Checks existence first — throws if not found (avoids silent no-ops).
@@ -131,15 +273,31 @@ public class BookService {
      * @param id the book's primary key
      * @throws ResourceNotFoundException if book not found
      */
+    @Transactional
     public void deleteBook(Long id) {
         if (!bookRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Book not found with id: " + id);
+            throw new ResourceNotFoundException("Book", id);
         }
+        inventoryService.deleteStock(id);
         bookRepository.deleteById(id);
+        invalidationBus.publishAfterCommit(EntityType.BOOK, id);
     }
 
     // ======================== HELPER METHODS ========================
 
+    private Object[] findProjectedRow(Long id, BookProjection projection) {
+        if (missingBooks.isKnownMissing(id)) {
+            throw new ResourceNotFoundException("Book", id);
+        }
+        long stamp = missingBooks.stamp(); // before the lookup — see markMissing
+        Object[] row = bookRepository.findProjectedById(projection, id);
+        if (row == null) {
+            missingBooks.markMissing(id, stamp);
+            throw new ResourceNotFoundException("Book", id);
+        }
+        return row;
+    }
+
     /**
      * Validates that the publication year is not in the future.
      *
@@ -0,0 +1,240 @@
+package com.library.library_management.service;
+
+import com.library.library_management.archive.ArchivedBorrow;
+import com.library.library_management.archive.BorrowArchiveStore;
+import com.library.library_management.archive.BorrowPartitionManager;
+import com.library.library_management.model.ArchivedBookLoans;
+import com.library.library_management.model.ArchivedCirculation;
+import com.library.library_management.model.Book;
+import com.library.library_management.repository.ArchivedBookLoansRepository;
+import com.library.library_management.repository.ArchivedCirculationRepository;
+import com.library.library_management.repository.BookRepository;
+import com.library.library_management.repository.BorrowRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves old RETURNED loans out of the borrows table into compressed files (BorrowArchiveStore).
+ *
+ * A loan is archived once it has been returned for more than library.borrows.archive.retention-days.
+ * Runs nightly, in batches:
+ *   1. read the next batch (oldest ids first)
+ *   2. write it to an archive file and fsync it
+ *   3. fold them into the report summary (archived_circulation) and the per-book counts (archived_book_loans)
+ *      and delete exactly those rows — one transaction
+ * Step 3 only runs after step 2 is safely on disk, so a crash can duplicate a loan in the files (readers drop
+ * duplicates) but never lose one, and the summary counts it exactly once. RETURNED rows are never modified
+ * again, so nothing can change between steps 1 and 3.
+ *
+ * Every node may run it: each step-3 transaction first takes a Postgres advisory lock, so a second archiver
+ * that read the same batch waits, then finds the rows gone (addLoans reads them from the table) and adds
+ * nothing. Its copy of the file just replaces the first one. The archive directory must be shared by all
+ * nodes — checked at startup (checkArchiveDirectory).
+ *
+ * Afterwards, monthly partitions left empty are dropped (BorrowPartitionManager).
+ * Archived loans still show up in the history endpoints and on return (BorrowService), and in the
+ * circulation reports (CirculationAnalyticsService, through the summary), and in a book's loans-ever
+ * count (BorrowService.borrowCount, through archived_book_loans).
+ */
+@Service
+public class BorrowArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(BorrowArchiveService.class);
+    // Advisory lock key for moving loans into the archive — any constant no other code uses ("ARCH")
+    private static final long ARCHIVE_LOCK = 0x41524348L;
+
+    private final BorrowRepository borrowRepository;
+    private final ArchivedCirculationRepository archivedCirculationRepository;
+    private final ArchivedBookLoansRepository archivedBookLoansRepository;
+    private final BookRepository bookRepository;
+    private final BorrowArchiveStore archiveStore;
+    private final BorrowPartitionManager partitionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final int retentionDays;
+    private final int batchSize;
+
+    public BorrowArchiveService(BorrowRepository borrowRepository,
+                                ArchivedCirculationRepository archivedCirculationRepository,
+                                ArchivedBookLoansRepository archivedBookLoansRepository, BookRepository bookRepository,
+                                BorrowArchiveStore archiveStore,
+                                BorrowPartitionManager partitionManager, JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${library.borrows.archive.retention-days:365}") int retentionDays,
+                                @Value("${library.borrows.archive.batch-size:10000}") int batchSize) {
+        this.borrowRepository = borrowRepository;
+        this.archivedCirculationRepository = archivedCirculationRepository;
+        this.archivedBookLoansRepository = archivedBookLoansRepository;
+        this.bookRepository = bookRepository;
+        this.archiveStore = archiveStore;
+        this.partitionManager = partitionManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.retentionDays = retentionDays;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Refuses to start a node whose archive directory is missing loans the database says were archived —
+     * a private directory, or a shared one that isn't mounted. The files are written before the rows are
+     * deleted, so on the right directory they always hold at least as many loans as archived_book_loans.
+     *
+     * @throws IllegalStateException if library.borrows.archive-dir isn't the directory the archive is in
+     */
+    @PostConstruct
+    void checkArchiveDirectory() {
+        long inDatabase = archivedBookLoansRepository.sumBorrows();
+        long inFiles = archiveStore.recordCount();
+        if (inFiles < inDatabase) {
+            throw new IllegalStateException("Borrow archive " + archiveStore.directory() + " holds " + inFiles
+                    + " loans but " + inDatabase + " were archived — library.borrows.archive-dir must be the same"
+                    + " shared directory on every node");
+        }
+    }
+
+    /**
+     * Archives everything past the retention window. Safe to run on several nodes at once (see class
+     * comment); retention-days=0 switches it off.
+     *
+     * @return how many loans were archived
+     */
+    @Scheduled(cron = "${library.borrows.archive.cron:0 30 3 * * *}")
+    public long archive() {
+        if (retentionDays <= 0) {
+            return 0; // archiving switched off
+        }
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        long archived = 0;
+        long start = System.nanoTime();
+        try {
+            backfillSummary();
+            backfillBookCounts();
+            while (true) {
+                List<ArchivedBorrow> batch = borrowRepository.findArchivable(cutoff, Limit.of(batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                archiveStore.write(batch);
+                List<Long> ids = batch.stream().map(ArchivedBorrow::id).toList();
+                transaction.executeWithoutResult(status -> {
+                    lockArchive();
+                    archivedCirculationRepository.addLoans(ids);
+                    archivedBookLoansRepository.addLoans(ids);
+                    borrowRepository.deleteAllByIdIn(ids);
+                });
+                archived += batch.size();
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+            int dropped = partitionManager.dropEmptyPartitionsBefore(cutoff);
+            if (archived > 0 || dropped > 0) {
+                log.info("Archived {} returned loans (before {}) in {} ms, dropped {} empty partitions",
+                        archived, cutoff, (System.nanoTime() - start) / 1_000_000, dropped);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Borrow archiving stopped after {} loans: {}", archived, e.getMessage());
+        }
+        return archived;
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    /**
+     * Loans archived before archived_circulation existed are only in the files — folds them in, once (the
+     * table is empty only until then). Author and year come from the books table; loans of books deleted
+     * since can't be placed and are left out.
+     */
+    private void backfillSummary() {
+        if (archiveStore.fileCount() == 0 || archivedCirculationRepository.count() > 0) {
+            return;
+        }
+        Set<Long> seen = new HashSet<>();
+        Map<BookDay, long[]> perBookDay = new HashMap<>(); // {loans, late, loan days}
+        archiveStore.forEach(borrow -> {
+            if (!seen.add(borrow.id())) {
+                return; // archived twice after a crash
+            }
+            long[] sums = perBookDay.computeIfAbsent(new BookDay(borrow.bookId(), borrow.borrowDate()), key -> new long[3]);
+            sums[0]++;
+            sums[1] += borrow.returnDate().isAfter(borrow.dueDate()) ? 1 : 0;
+            sums[2] += borrow.returnDate().toEpochDay() - borrow.borrowDate().toEpochDay();
+        });
+        Map<Long, Book> books = new HashMap<>();
+        bookRepository.findAllById(perBookDay.keySet().stream().map(BookDay::bookId).distinct().toList())
+                .forEach(book -> books.put(book.getId(), book));
+
+        Map<String, ArchivedCirculation> rows = new HashMap<>();
+        long skipped = 0;
+        for (Map.Entry<BookDay, long[]> entry : perBookDay.entrySet()) {
+            Book book = books.get(entry.getKey().bookId());
+            long[] sums = entry.getValue();
+            if (book == null) {
+                skipped += sums[0];
+                continue;
+            }
+            LocalDate day = entry.getKey().borrowDate();
+            ArchivedCirculation row = rows.computeIfAbsent(day + "|" + book.getAuthor() + "|" + book.getPubYear(),
+                    key -> new ArchivedCirculation(null, day, book.getAuthor(), book.getPubYear(), 0, 0, 0));
+            row.setBorrows(row.getBorrows() + (int) sums[0]);
+            row.setReturnedLate(row.getReturnedLate() + (int) sums[1]);
+            row.setLoanDays(row.getLoanDays() + sums[2]);
+        }
+        transaction.executeWithoutResult(status -> {
+            lockArchive();
+            if (archivedCirculationRepository.count() == 0) { // another node may have just done it
+                archivedCirculationRepository.saveAll(rows.values());
+            }
+        });
+        log.info("Archived loans added to the report summary: {} loans ({} skipped, their books were deleted)",
+                seen.size() - skipped, skipped);
+    }
+
+    /**
+     * Same for archived_book_loans, which came after: counts the files' loans per book, once.
+     */
+    private void backfillBookCounts() {
+        if (archiveStore.fileCount() == 0 || archivedBookLoansRepository.count() > 0) {
+            return;
+        }
+        Set<Long> seen = new HashSet<>();
+        Map<Long, ArchivedBookLoans> perBook = new HashMap<>();
+        archiveStore.forEach(borrow -> {
+            if (!seen.add(borrow.id())) {
+                return; // archived twice after a crash
+            }
+            ArchivedBookLoans row = perBook.computeIfAbsent(borrow.bookId(), id -> new ArchivedBookLoans(id, 0));
+            row.setBorrows(row.getBorrows() + 1);
+        });
+        transaction.executeWithoutResult(status -> {
+            lockArchive();
+            if (archivedBookLoansRepository.count() == 0) {
+                archivedBookLoansRepository.saveAll(perBook.values());
+            }
+        });
+        log.info("Archived loans added to the per-book counts: {} loans of {} books", seen.size(), perBook.size());
+    }
+
+    // Held until the transaction ends — archivers on other nodes wait here (see class comment)
+    private void lockArchive() {
+        jdbcTemplate.execute("select pg_advisory_xact_lock(" + ARCHIVE_LOCK + ")");
+    }
+
+    private record BookDay(long bookId, LocalDate borrowDate) {
+    }
+}
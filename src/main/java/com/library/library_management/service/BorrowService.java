@@ -0,0 +1,283 @@
+package com.library.library_management.service;
+
+import com.library.library_management.archive.ArchivedBorrow;
+import com.library.library_management.archive.BorrowArchiveStore;
+import com.library.library_management.archive.BorrowPartitionManager;
+import com.library.library_management.dto.borrow.BorrowResponseDTO;
+import com.library.library_management.eventlog.CirculationEventLog;
+import com.library.library_management.eventlog.CirculationEventType;
+import com.library.library_management.exception.BusinessException;
+import com.library.library_management.exception.ResourceNotFoundException;
+import com.library.library_management.model.ArchivedBookLoans;
+import com.library.library_management.model.Book;
+import com.library.library_management.model.Borrow;
+import com.library.library_management.model.BorrowStatus;
+import com.library.library_management.model.BranchInventory;
+import com.library.library_management.model.Hold;
+import com.library.library_management.model.User;
+import com.library.library_management.repository.ArchivedBookLoansRepository;
+import com.library.library_management.repository.BookRepository;
+import com.library.library_management.repository.BorrowRepository;
+import com.library.library_management.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Borrowing and returning books, plus loan history.
+ *
+ * Copies are counted per branch. A borrow locks ONE branch row that has a copy (SKIP LOCKED, so
+ * concurrent borrows of a popular book spread over its branches instead of queueing on one row), a
+ * return locks the row of the branch the copy came from — see InventoryService. Two borrows of the
+ * last copy still can't both succeed (decisions.md #3): they meet on the same branch row. The book row
+ * is only locked when a hold is involved. Returned copies go to the book's waitlist first (HoldService).
+ *
+ * Active-loan lookups pass BorrowPartitionManager.activeHorizon() so Postgres only scans recent
+ * partitions. History merges what's still in the table with what BorrowArchiveService moved to disk.
+ *
+ * Every borrow, return and overdue loan is also appended to the circulation event log once committed.
+ *
+ * How many books a user may have out is checked against in-memory counters (LoanLimitService) —
+ * no COUNT over their loans on the borrow path.
+ */
+@Service
+public class BorrowService {
+
+    private static final Logger log = LoggerFactory.getLogger(BorrowService.class);
+
+    private final BorrowRepository borrowRepository;
+    private final ArchivedBookLoansRepository archivedBookLoansRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final BorrowPartitionManager partitionManager;
+    private final BorrowArchiveStore archiveStore;
+    private final HoldService holdService;
+    private final InventoryService inventoryService;
+    private final CirculationEventLog eventLog;
+    private final LoanLimitService loanLimits;
+
+    // Loans due before this day were already logged as OVERDUE. In memory only: starting from today
+    // means a restart never logs a loan twice (a day the app was down at check time is skipped instead)
+    private LocalDate overdueCheckedUntil = LocalDate.now();
+
+    public BorrowService(BorrowRepository borrowRepository, ArchivedBookLoansRepository archivedBookLoansRepository,
+                         BookRepository bookRepository, UserRepository userRepository,
+                         BorrowPartitionManager partitionManager, BorrowArchiveStore archiveStore,
+                         HoldService holdService, InventoryService inventoryService, CirculationEventLog eventLog,
+                         LoanLimitService loanLimits) {
+        this.borrowRepository = borrowRepository;
+        this.archivedBookLoansRepository = archivedBookLoansRepository;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.partitionManager = partitionManager;
+        this.archiveStore = archiveStore;
+        this.holdService = holdService;
+        this.inventoryService = inventoryService;
+        this.eventLog = eventLog;
+        this.loanLimits = loanLimits;
+    }
+
+    /**
+     * Borrows one copy of a book for the current user (due in 14 days, see Borrow.onCreate).
+     *
+     * @param bookId   the book to borrow
+     * @param branchId the branch to pick it up at, or null for whichever has a copy
+     *                 (ignored if a copy is already set aside for this user's hold — it's picked up there)
+     * @param email    the current user's email (token subject)
+     * @return the new loan
+     * @throws ResourceNotFoundException if the book or branch doesn't exist
+     * @throws BusinessException if the user reached their loan limit, or no copy is available
+     *                           (and none is set aside for this user's hold)
+     */
+    @Transactional
+    public BorrowResponseDTO borrowBook(Long bookId, Long branchId, String email) {
+        User user = findUser(email);
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", bookId));
+        loanLimits.reserve(user); // before any lock — a patron at their limit never touches a copy
+
+        Borrow borrow = new Borrow();
+        // A copy set aside for this user's hold isn't on any shelf
+        Hold reserved = holdService.fulfillReadyHold(user, bookId);
+        if (reserved != null) {
+            borrow.setBranch(reserved.getBranch());
+        } else {
+            BranchInventory copy = inventoryService.takeCopy(bookId, branchId);
+            if (copy == null) {
+                throw new BusinessException(branchId == null
+                        ? "No copies available — place a hold to join the waitlist"
+                        : "No copies available at this branch");
+            }
+            holdService.fulfillWaitingHold(user, bookId);
+            borrow.setBranch(copy.getBranch());
+        }
+
+        borrow.setUser(user);
+        borrow.setBook(book);
+        Borrow saved = borrowRepository.save(borrow);
+        // -1: the book's total isn't known here (only the branch row is) and a SUM isn't worth it for the log
+        eventLog.appendAfterCommit(CirculationEventType.BORROWED, bookId, user.getId(), saved.getId(), -1);
+        return mapToDTO(saved);
+    }
+
+    /**
+     * Returns a loan. Users can only return their own loans; admins can return any.
+     *
+     * @param borrowId the loan id
+     * @param email    the current user's email
+     * @param admin    whether the current user is an admin
+     * @return the closed loan
+     * @throws ResourceNotFoundException if the loan doesn't exist (or isn't the user's)
+     * @throws BusinessException if it was already returned
+     */
+    @Transactional
+    public BorrowResponseDTO returnBook(Long borrowId, String email, boolean admin) {
+        Borrow borrow = borrowRepository.findActiveById(borrowId, partitionManager.activeHorizon()).orElse(null);
+        if (borrow == null) {
+            if (borrowRepository.existsById(borrowId) || archiveStore.contains(borrowId)) {
+                throw new BusinessException("Borrow is already returned"); // archived loans were all returned
+            }
+            throw new ResourceNotFoundException("Borrow", borrowId);
+        }
+        if (!admin && !borrow.getUser().getEmail().equals(email)) {
+            throw new ResourceNotFoundException("Borrow", borrowId); // don't reveal other users' loans
+        }
+
+        loanLimits.returning(borrow.getUser().getId());
+        Long bookId = borrow.getBook().getId();
+        BranchInventory slot = inventoryService.lockSlot(bookId,
+                borrow.getBranch() != null ? borrow.getBranch().getId() : null);
+        holdService.releaseCopy(bookId, slot); // next in the waitlist gets it, or it goes back on the branch's shelf
+        borrow.setStatus(BorrowStatus.RETURNED);
+        borrow.setReturnDate(LocalDate.now());
+        eventLog.appendAfterCommit(CirculationEventType.RETURNED, bookId, borrow.getUser().getId(), borrowId, -1);
+        return mapToDTO(borrow);
+    }
+
+    /**
+     * Every active loan, oldest first (admin view). Only reads the partitions that can hold them.
+     */
+    @Transactional(readOnly = true)
+    public List<BorrowResponseDTO> getActiveBorrows() {
+        return borrowRepository.findAllActive(partitionManager.activeHorizon())
+                .stream()
+                .map(this::mapToDTO)
+                .toList();
+    }
+
+    /**
+     * The current user's full history — table + archive, newest first.
+     */
+    @Transactional(readOnly = true)
+    public List<BorrowResponseDTO> getMyHistory(String email) {
+        return getHistory(findUser(email).getId());
+    }
+
+    /**
+     * A user's full history — table + archive, newest first (admin view).
+     *
+     * @throws ResourceNotFoundException if the user doesn't exist
+     */
+    @Transactional(readOnly = true)
+    public List<BorrowResponseDTO> getUserHistory(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", userId);
+        }
+        return getHistory(userId);
+    }
+
+    /**
+     * How many times a book was ever borrowed: loans still in the table + loans archived since.
+     * One repeatable-read snapshot — archiving moves a loan from one to the other in a single
+     * transaction, so it is counted exactly once.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public long borrowCount(Long bookId) {
+        return borrowRepository.countByBookId(bookId)
+                + archivedBookLoansRepository.findById(bookId).map(ArchivedBookLoans::getBorrows).orElse(0L);
+    }
+
+    /**
+     * Logs an OVERDUE event for every active loan that passed its due date since the last run.
+     */
+    @Scheduled(cron = "${library.events.overdue-cron:0 5 0 * * *}")
+    @Transactional(readOnly = true)
+    public void logOverdueLoans() {
+        LocalDate today = LocalDate.now();
+        try {
+            List<Borrow> overdue = borrowRepository.findActiveDueBetween(overdueCheckedUntil, today,
+                    partitionManager.activeHorizon());
+            for (Borrow borrow : overdue) {
+                eventLog.appendAfterCommit(CirculationEventType.OVERDUE, borrow.getBook().getId(),
+                        borrow.getUser().getId(), borrow.getId(), -1);
+            }
+            overdueCheckedUntil = today;
+        } catch (RuntimeException e) {
+            log.warn("Overdue loan check failed: {}", e.getMessage());
+        }
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private List<BorrowResponseDTO> getHistory(long userId) {
+        List<BorrowResponseDTO> history = new ArrayList<>();
+        Set<Long> inTable = new HashSet<>();
+        for (Borrow borrow : borrowRepository.findAllByUserId(userId)) {
+            history.add(mapToDTO(borrow));
+            inTable.add(borrow.getId());
+        }
+        // The archiver (on any node) writes a loan's file before deleting its row — read in between, it's in both
+        for (ArchivedBorrow archived : archiveStore.findByUser(userId)) {
+            if (!inTable.contains(archived.id())) {
+                history.add(mapToDTO(archived));
+            }
+        }
+        history.sort(Comparator.comparing(BorrowResponseDTO::getId).reversed());
+        return history;
+    }
+
+    private User findUser(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new BusinessException("User not found: " + email));
+    }
+
+    private BorrowResponseDTO mapToDTO(Borrow borrow) {
+        return new BorrowResponseDTO(
+                borrow.getId(),
+                borrow.getUser().getId(),
+                borrow.getBook().getId(),
+                borrow.getBook().getTitle(),
+                borrow.getBranch() != null ? borrow.getBranch().getId() : null,
+                borrow.getBorrowDate(),
+                borrow.getDueDate(),
+                borrow.getReturnDate(),
+                borrow.getStatus(),
+                false
+        );
+    }
+
+    private BorrowResponseDTO mapToDTO(ArchivedBorrow borrow) {
+        return new BorrowResponseDTO(
+                borrow.id(),
+                borrow.userId(),
+                borrow.bookId(),
+                borrow.bookTitle(),
+                null,
+                borrow.borrowDate(),
+                borrow.dueDate(),
+                borrow.returnDate(),
+                BorrowStatus.RETURNED,
+                true
+        );
+    }
+}
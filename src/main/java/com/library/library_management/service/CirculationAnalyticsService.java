@@ -0,0 +1,210 @@
+package com.library.library_management.service;
+
+import com.library.library_management.analytics.ArchivedCirculationRow;
+import com.library.library_management.analytics.CirculationAggregation;
+import com.library.library_management.analytics.CirculationRow;
+import com.library.library_management.analytics.CirculationSnapshot;
+import com.library.library_management.analytics.CirculationSnapshotBuilder;
+import com.library.library_management.dto.analytics.AuthorBorrowCountDTO;
+import com.library.library_management.dto.analytics.CirculationReportDTO;
+import com.library.library_management.dto.event.BookCirculationDTO;
+import com.library.library_management.dto.event.CirculationEventDTO;
+import com.library.library_management.eventlog.BookCirculationCounters;
+import com.library.library_management.eventlog.CirculationEvent;
+import com.library.library_management.eventlog.CirculationEventLog;
+import com.library.library_management.eventlog.CirculationEventType;
+import com.library.library_management.exception.BusinessException;
+import com.library.library_management.repository.ArchivedCirculationRepository;
+import com.library.library_management.repository.BorrowRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Circulation reports for librarians (borrows per month / author / decade, loan length, late returns).
+ *
+ * Reports are NEVER computed against the live tables. A background job copies borrows + book columns
+ * into a CirculationSnapshot (primitive arrays) every library.analytics.refresh-ms, together with the
+ * summary rows of archived loans (archived_circulation) — both read in ONE repeatable-read transaction,
+ * so a loan archived mid-refresh is counted once, not zero or two times. Every report
+ * request aggregates that snapshot in memory across all cores. Cost to the database: one sequential
+ * read per refresh, no matter how many reports are requested.
+ *
+ * Trade-off: figures can be up to one refresh interval old — fine for reporting.
+ *
+ * Live per-book figures and the raw event feed come from the circulation event log instead
+ * (BookCirculationCounters / CirculationEventLog) — no query at all, but per-node estimates: each
+ * replica only counts the events it logged itself.
+ */
+@Service
+public class CirculationAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(CirculationAnalyticsService.class);
+
+    private final BorrowRepository borrowRepository;
+    private final ArchivedCirculationRepository archivedCirculationRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CirculationEventLog eventLog;
+    private final BookCirculationCounters bookCounters;
+
+    // Swapped atomically on refresh — readers always see a complete snapshot
+    private volatile CirculationSnapshot snapshot = CirculationSnapshot.empty();
+
+    public CirculationAnalyticsService(BorrowRepository borrowRepository,
+                                       ArchivedCirculationRepository archivedCirculationRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       CirculationEventLog eventLog, BookCirculationCounters bookCounters) {
+        this.borrowRepository = borrowRepository;
+        this.archivedCirculationRepository = archivedCirculationRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.eventLog = eventLog;
+        this.bookCounters = bookCounters;
+    }
+
+    /**
+     * Rebuilds the snapshot. Runs on a schedule; admins can also trigger it.
+     * If the database is unavailable the previous snapshot keeps being served.
+     */
+    @Scheduled(initialDelayString = "${library.analytics.initial-delay-ms:10000}",
+            fixedDelayString = "${library.analytics.refresh-ms:300000}")
+    public void refreshSnapshot() {
+        try {
+            long start = System.nanoTime();
+            CirculationSnapshot fresh = readOnlyTransaction.execute(status -> {
+                CirculationSnapshotBuilder builder = new CirculationSnapshotBuilder();
+                try (Stream<CirculationRow> rows = borrowRepository.streamCirculationRows()) {
+                    rows.forEach(row -> builder.add(row.borrowDate(), row.dueDate(), row.returnDate(),
+                            row.status(), row.author(), row.pubYear()));
+                }
+                try (Stream<ArchivedCirculationRow> rows = archivedCirculationRepository.streamCirculationRows()) {
+                    rows.forEach(row -> builder.addArchived(row.borrowDate(), row.author(), row.pubYear(),
+                            row.borrows(), row.returnedLate(), row.loanDays()));
+                }
+                return builder.build();
+            });
+            snapshot = fresh;
+            log.info("Circulation snapshot refreshed: {} rows in {} ms",
+                    fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Circulation snapshot refresh failed, keeping the previous one: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Builds a report from the current snapshot.
+     *
+     * @param from       first borrow date to include (null = no lower bound)
+     * @param to         last borrow date to include (null = no upper bound)
+     * @param topAuthors how many authors to list
+     * @return the report
+     * @throws BusinessException if from is after to
+     */
+    public CirculationReportDTO getReport(LocalDate from, LocalDate to, int topAuthors) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessException("'from' must not be after 'to'");
+        }
+        CirculationSnapshot current = snapshot;
+        int fromDay = from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+        int toDay = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+
+        CirculationAggregation.Totals totals = CirculationAggregation.run(current, fromDay, toDay);
+
+        return new CirculationReportDTO(
+                current.takenAt(),
+                totals.borrows,
+                totals.returned,
+                totals.returned == 0 ? 0 : (double) totals.loanDays / totals.returned,
+                totals.returned == 0 ? 0 : (double) totals.returnedLate / totals.returned,
+                perMonth(current, totals),
+                perDecade(current, totals),
+                topAuthors(current, totals, Math.max(0, topAuthors))
+        );
+    }
+
+    /**
+     * Reads the circulation event log — lets other services rebuild their own state from it.
+     *
+     * @param fromSequence first event to return (1 = the very first)
+     * @param limit        at most this many events (1..10000)
+     * @throws BusinessException if the limit is out of range
+     */
+    public List<CirculationEventDTO> getEvents(long fromSequence, int limit) {
+        if (limit < 1 || limit > 10_000) {
+            throw new BusinessException("'limit' must be between 1 and 10000");
+        }
+        return eventLog.read(fromSequence, limit).stream().map(this::mapToDTO).toList();
+    }
+
+    /**
+     * Circulation counters of one book, as rebuilt from this node's event log (estimates).
+     */
+    public BookCirculationDTO getBookCirculation(long bookId) {
+        BookCirculationCounters.Snapshot counts = bookCounters.get(bookId);
+        return new BookCirculationDTO(bookId, counts.borrows(), counts.onLoan(), counts.overdue(),
+                counts.copiesAvailable() < 0 ? null : counts.copiesAvailable());
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private CirculationEventDTO mapToDTO(CirculationEvent event) {
+        boolean loan = event.type() != CirculationEventType.COPIES_ADJUSTED;
+        return new CirculationEventDTO(
+                event.sequence(),
+                Instant.ofEpochMilli(event.timestampMillis()),
+                event.type(),
+                event.bookId(),
+                loan ? event.userId() : null,
+                loan ? event.borrowId() : null,
+                event.copiesAvailable() < 0 ? null : event.copiesAvailable()
+        );
+    }
+
+    private Map<String, Long> perMonth(CirculationSnapshot snapshot, CirculationAggregation.Totals totals) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        int firstMonth = snapshot.minMonth();
+        for (int i = 0; i < totals.perMonth.length; i++) {
+            if (totals.perMonth[i] > 0) {
+                int month = firstMonth + i;
+                result.put(String.format("%04d-%02d", month / 12, month % 12 + 1), totals.perMonth[i]);
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Long> perDecade(CirculationSnapshot snapshot, CirculationAggregation.Totals totals) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < totals.perDecade.length; i++) {
+            if (totals.perDecade[i] > 0) {
+                result.put((snapshot.minDecade() + i * 10) + "s", totals.perDecade[i]);
+            }
+        }
+        return result;
+    }
+
+    private List<AuthorBorrowCountDTO> topAuthors(CirculationSnapshot snapshot, CirculationAggregation.Totals totals,
+                                                  int limit) {
+        List<AuthorBorrowCountDTO> authors = new ArrayList<>();
+        for (int i = 0; i < totals.perAuthor.length; i++) {
+            if (totals.perAuthor[i] > 0) {
+                authors.add(new AuthorBorrowCountDTO(snapshot.authorName(i), totals.perAuthor[i]));
+            }
+        }
+        authors.sort(Comparator.comparingLong(AuthorBorrowCountDTO::getBorrows).reversed());
+        return authors.size() > limit ? new ArrayList<>(authors.subList(0, limit)) : authors;
+    }
+}
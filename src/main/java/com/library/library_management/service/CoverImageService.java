@@ -0,0 +1,139 @@
+package com.library.library_management.service;
+
+import com.library.library_management.cache.ByteLruCache;
+import com.library.library_management.dto.book.BookResponseDTO;
+import com.library.library_management.exception.BusinessException;
+import com.library.library_management.storage.CoverSize;
+import com.library.library_management.storage.CoverStore;
+import com.library.library_management.storage.FileResponseWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Cover uploads and serving.
+ *
+ * Upload: store the image (content-addressed, thumbnails generated once) and point the book's
+ * coverImageUrl at OUR endpoint — pages no longer wait on whatever third-party host was typed in.
+ *
+ * Serving: originals go straight from disk via sendfile; thumbnails are small and requested
+ * constantly, so the hot ones are also kept in a bounded in-memory LRU. A thumbnail that isn't in
+ * the LRU is streamed from disk like an original — the request never waits on a full read of it.
+ */
+@Service
+public class CoverImageService {
+
+    public static final String COVERS_PATH = "/api/v1/covers/";
+
+    // A thumbnail bigger than this isn't worth keeping in memory
+    private static final int MAX_CACHED_THUMBNAIL_BYTES = 128 * 1024;
+
+    private final CoverStore coverStore;
+    private final BookService bookService;
+    private final ByteLruCache hotThumbnails;
+
+    public CoverImageService(CoverStore coverStore, BookService bookService,
+                             @Value("${library.covers.thumbnail-cache-bytes:33554432}") long thumbnailCacheBytes) {
+        this.coverStore = coverStore;
+        this.bookService = bookService;
+        this.hotThumbnails = new ByteLruCache(thumbnailCacheBytes, MAX_CACHED_THUMBNAIL_BYTES);
+    }
+
+    /**
+     * Stores an uploaded cover and attaches it to the book.
+     *
+     * @param bookId the book's primary key
+     * @param file   the uploaded image
+     * @return the updated book (coverImageUrl now points at /api/v1/covers/...)
+     * @throws BusinessException if the file is empty or not a supported image
+     * @throws com.library.library_management.exception.ResourceNotFoundException if book not found
+     */
+    public BookResponseDTO uploadCover(Long bookId, MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessException("Cover image file is required");
+        }
+        bookService.getBookById(bookId); // fail fast with a 404 before doing any image work
+        byte[] bytes;
+        try {
+            bytes = file.getBytes();
+        } catch (IOException e) {
+            throw new BusinessException("Cover image could not be read");
+        }
+        CoverStore.StoredCover cover = coverStore.store(bytes);
+        return bookService.updateCoverImageUrl(bookId, COVERS_PATH + cover.fileName());
+    }
+
+    /**
+     * Writes an original image ("hash.ext") to the response.
+     */
+    public void serveOriginal(String fileName, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = coverStore.resolveOriginal(fileName);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String format = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        String hash = fileName.substring(0, fileName.lastIndexOf('.'));
+        FileResponseWriter.writeFile(request, response, file, contentType(format), "\"" + hash + "\"");
+    }
+
+    /**
+     * Writes a thumbnail to the response — from memory if it's hot, from disk otherwise.
+     */
+    public void serveThumbnail(String hash, String sizeName, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        CoverSize size = CoverSize.fromPath(sizeName);
+        Path file = size == null ? null : coverStore.resolveThumbnail(hash, size);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String etag = "\"" + hash + "-" + size.getWidth() + "\"";
+        String key = hash + "/" + size.getWidth();
+
+        byte[] cached = hotThumbnails.get(key);
+        if (cached != null) {
+            FileResponseWriter.writeBytes(request, response, cached, "image/jpeg", etag);
+            return;
+        }
+        long length;
+        try {
+            length = Files.size(file);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        FileResponseWriter.writeFile(request, response, file, "image/jpeg", etag);
+        if (length <= MAX_CACHED_THUMBNAIL_BYTES) {
+            warmUp(key, file);
+        }
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    // Puts a thumbnail that was just streamed into the LRU, so the next request is served from memory
+    private void warmUp(String key, Path file) {
+        try {
+            hotThumbnails.put(key, Files.readAllBytes(file)); // small, and in the OS page cache by now
+        } catch (IOException e) {
+            // not cached this time — the next miss streams it again
+        }
+    }
+
+    private static String contentType(String format) {
+        return switch (format) {
+            case "png" -> "image/png";
+            case "gif" -> "image/gif";
+            case "bmp" -> "image/bmp";
+            default -> "image/jpeg";
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.library.library_management.service;
+
+import com.library.library_management.dto.hold.HoldResponseDTO;
+import com.library.library_management.invalidation.EntityType;
+import com.library.library_management.invalidation.InvalidationBus;
+import com.library.library_management.invalidation.InvalidationListener;
+import com.library.library_management.invalidation.InvalidationMessage;
+import com.library.library_management.model.HoldStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Long-poll support for holds: GET /holds/{id}/wait parks the request here (no thread is held —
+ * it's a DeferredResult) and it is answered as soon as the hold changes status.
+ *
+ * Status changes arrive as HOLD messages on the InvalidationBus, so a patron waiting on node B
+ * hears about a copy returned on node A. On a bus gap every waiter is re-checked.
+ */
+@Component
+public class HoldNotifier implements InvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldNotifier.class);
+
+    private final HoldService holdService;
+    // hold id → parked requests (each with the email it was asked for)
+    private final Map<Long, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+
+    public HoldNotifier(HoldService holdService, InvalidationBus invalidationBus) {
+        this.holdService = holdService;
+        invalidationBus.subscribe(EntityType.HOLD, this);
+    }
+
+    /**
+     * Answers with the hold as soon as it stops WAITING, or with its current state after the timeout.
+     *
+     * @throws com.library.library_management.exception.ResourceNotFoundException if the hold isn't the user's
+     */
+    public DeferredResult<ResponseEntity<HoldResponseDTO>> await(Long holdId, String email, long timeoutMillis) {
+        DeferredResult<ResponseEntity<HoldResponseDTO>> result = new DeferredResult<>(timeoutMillis);
+        Waiter waiter = new Waiter(email, result);
+
+        // Register BEFORE reading the hold, so a change in between can't slip past us
+        waiters.computeIfAbsent(holdId, id -> ConcurrentHashMap.newKeySet()).add(waiter);
+        result.onCompletion(() -> remove(holdId, waiter));
+        result.onTimeout(() -> complete(holdId, waiter));
+
+        HoldResponseDTO current;
+        try {
+            current = holdService.getHold(holdId, email);
+        } catch (RuntimeException e) {
+            remove(holdId, waiter); // never handed to Spring, so onCompletion won't run
+            throw e;
+        }
+        if (current.getStatus() != HoldStatus.WAITING) {
+            result.setResult(ResponseEntity.ok(current));
+        }
+        return result;
+    }
+
+    @Override
+    public void invalidate(InvalidationMessage message) {
+        Long holdId = Long.valueOf(message.id());
+        Set<Waiter> parked = waiters.get(holdId);
+        if (parked != null) {
+            parked.forEach(waiter -> complete(holdId, waiter));
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        waiters.forEach((holdId, parked) -> parked.forEach(waiter -> complete(holdId, waiter)));
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private void complete(Long holdId, Waiter waiter) {
+        try {
+            waiter.result.setResult(ResponseEntity.ok(holdService.getHold(holdId, waiter.email)));
+        } catch (RuntimeException e) {
+            log.debug("Could not answer hold waiter for {}: {}", holdId, e.getMessage());
+            waiter.result.setErrorResult(e); // goes through GlobalExceptionHandler like any other error
+        }
+    }
+
+    private void remove(Long holdId, Waiter waiter) {
+        waiters.computeIfPresent(holdId, (id, parked) -> {
+            parked.remove(waiter);
+            return parked.isEmpty() ? null : parked;
+        });
+    }
+
+    private record Waiter(String email, DeferredResult<ResponseEntity<HoldResponseDTO>> result) {
+    }
+}
@@ -0,0 +1,356 @@
+package com.library.library_management.service;
+
+import com.library.library_management.dto.hold.HoldResponseDTO;
+import com.library.library_management.eventlog.CirculationEventLog;
+import com.library.library_management.eventlog.CirculationEventType;
+import com.library.library_management.exception.BusinessException;
+import com.library.library_management.exception.ResourceNotFoundException;
+import com.library.library_management.invalidation.EntityType;
+import com.library.library_management.invalidation.InvalidationBus;
+import com.library.library_management.model.Book;
+import com.library.library_management.model.BranchInventory;
+import com.library.library_management.model.Hold;
+import com.library.library_management.model.HoldStatus;
+import com.library.library_management.model.User;
+import com.library.library_management.repository.BookRepository;
+import com.library.library_management.repository.HoldRepository;
+import com.library.library_management.repository.HoldRepository.HoldKeys;
+import com.library.library_management.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Waitlist for books with no copies left — first come, first served, per book.
+ *
+ * Lifecycle of a hold:
+ *   WAITING → a copy is returned → READY (copy set aside until expiresAt) → patron borrows → FULFILLED
+ *                                         └─ not picked up in time → EXPIRED, copy goes to the next in line
+ *
+ * A set-aside copy is NOT put back on its branch's shelf (it stays with the hold), so nobody else can borrow it.
+ *
+ * Locking: every change that decides who gets a copy runs while holding that BOOK's row lock
+ * (SELECT ... FOR UPDATE). Plain borrows and returns no longer take it — they only lock a branch row
+ * (InventoryService) and come here only when a hold is involved. Branch rows are locked before the book
+ * row, never after. Placing a hold locks all of the book's branch rows, so no returned copy can slip back
+ * onto a shelf unseen while someone joins the line. Queues for different books never block each other;
+ * there is no global lock anywhere. A hold that is about to change is (re-)read only once those locks are
+ * held, so every decision is made on its current status, never on a copy read before waiting for a lock.
+ * Picking up a READY hold decides nothing (the copy is already that patron's): it only flips the hold's own
+ * row from READY to FULFILLED, so a borrow never holds the book row when it goes on to lock branch rows.
+ *
+ * Instead of polling GET /books/{id}, patrons can long-poll GET /holds/{id}/wait — HoldNotifier
+ * answers the moment this hold changes status, on whichever node the patron is connected to.
+ */
+@Service
+public class HoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldService.class);
+    private static final Set<HoldStatus> OPEN = EnumSet.of(HoldStatus.WAITING, HoldStatus.READY);
+
+    private final HoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final InvalidationBus invalidationBus;
+    private final InventoryService inventoryService;
+    private final CirculationEventLog eventLog;
+    private final TransactionTemplate transaction;
+    private final Duration pickupWindow;
+
+    public HoldService(HoldRepository holdRepository, BookRepository bookRepository, UserRepository userRepository,
+                       InvalidationBus invalidationBus, InventoryService inventoryService, CirculationEventLog eventLog,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${library.holds.pickup-window-hours:48}") long pickupWindowHours) {
+        this.holdRepository = holdRepository;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.invalidationBus = invalidationBus;
+        this.inventoryService = inventoryService;
+        this.eventLog = eventLog;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.pickupWindow = Duration.ofHours(pickupWindowHours);
+    }
+
+    /**
+     * Puts the current user in line for a book.
+     *
+     * @throws ResourceNotFoundException if the book doesn't exist
+     * @throws BusinessException if a copy is available right now (at any branch), or the user is already in line
+     */
+    @Transactional
+    public HoldResponseDTO placeHold(Long bookId, String email) {
+        User user = findUser(email);
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", bookId));
+        if (inventoryService.lockAllForHold(bookId)) {
+            throw new BusinessException("A copy is available — borrow it directly");
+        }
+        if (holdRepository.findFirstByUserIdAndBookIdAndStatusIn(user.getId(), bookId, OPEN).isPresent()) {
+            throw new BusinessException("You already have a hold on this book");
+        }
+        Hold hold = new Hold();
+        hold.setUser(user);
+        hold.setBook(book);
+        return mapToDTO(holdRepository.save(hold));
+    }
+
+    /**
+     * Leaves the line. Cancelling a READY hold passes the set-aside copy to the next patron.
+     *
+     * @throws ResourceNotFoundException if the hold doesn't exist or isn't the user's
+     * @throws BusinessException if the hold is already closed
+     */
+    public HoldResponseDTO cancelHold(Long holdId, String email) {
+        while (true) {
+            HoldResponseDTO cancelled = transaction.execute(status -> tryCancel(holdId, email, status));
+            if (cancelled != null) {
+                return cancelled;
+            }
+            // It was promoted to READY between the first look and the locks — go again, now with its branch row.
+            // READY only ever turns into a closed status, so the second attempt is the last.
+        }
+    }
+
+    /**
+     * @return the user's open holds (WAITING or READY) with their position in line
+     */
+    @Transactional(readOnly = true)
+    public List<HoldResponseDTO> getMyHolds(String email) {
+        return holdRepository.findByUserIdAndStatusIn(findUser(email).getId(), OPEN)
+                .stream()
+                .map(this::mapToDTO)
+                .toList();
+    }
+
+    /**
+     * @throws ResourceNotFoundException if the hold doesn't exist or isn't the user's
+     */
+    @Transactional(readOnly = true)
+    public HoldResponseDTO getHold(Long holdId, String email) {
+        return mapToDTO(findOwnHold(holdId, email));
+    }
+
+    // ======================== CALLED FROM BORROW / RETURN ========================
+
+    /**
+     * A copy of this book just came back to a branch. If someone is waiting, the copy is set aside for
+     * them there; otherwise it goes back on that branch's shelf.
+     * Caller must hold the slot's lock (InventoryService.lockSlot) and be inside a transaction.
+     *
+     * @return true if the copy went back on the shelf, false if it was set aside for a hold
+     */
+    public boolean releaseCopy(Long bookId, BranchInventory slot) {
+        // Nobody can join the line while we hold the slot (placeHold locks every branch row) — so when
+        // this says "no one waiting", the common return never touches the book row
+        if (!holdRepository.existsByBookIdAndStatus(bookId, HoldStatus.WAITING)) {
+            inventoryService.putBack(slot);
+            return true;
+        }
+        bookRepository.findByIdForUpdate(bookId); // hand-offs to the line go one at a time per book
+        Hold next = holdRepository.findFirstByBookIdAndStatusOrderByIdAsc(bookId, HoldStatus.WAITING).orElse(null);
+        if (next == null) {
+            inventoryService.putBack(slot); // another copy came back first and went to the last one waiting
+            return true;
+        }
+        setAside(next, slot);
+        return false;
+    }
+
+    /**
+     * Copies were just put on a branch's shelf by hand (PUT /books/{id}, stock-taking). Like a returned
+     * copy, each goes to the line first — oldest WAITING hold first, set aside at that branch — and only
+     * what's left stays on the shelf. Without this, a patron walking in could take a copy the line was owed.
+     * Caller must hold the slot's lock and be inside a transaction.
+     */
+    public void handOutCopies(Long bookId, BranchInventory slot) {
+        if (slot.getCopiesAvailable() <= 0 || !holdRepository.existsByBookIdAndStatus(bookId, HoldStatus.WAITING)) {
+            return;
+        }
+        bookRepository.findByIdForUpdate(bookId);
+        for (Hold next : holdRepository.findByBookIdAndStatusOrderByIdAsc(bookId, HoldStatus.WAITING,
+                Limit.of(slot.getCopiesAvailable()))) {
+            inventoryService.takeFrom(slot);
+            setAside(next, slot);
+        }
+    }
+
+    /**
+     * The user is borrowing this book: if a copy is set aside for them, closes their READY hold.
+     * Takes no branch or book row lock — only the hold's own row, and only if it is fulfilled. If the hold
+     * expired a moment ago the caller goes on to take a copy from a shelf, which locks branch rows; with the
+     * book row already locked here that would break the lock order and could deadlock with a return.
+     * Caller must be inside a transaction.
+     *
+     * @return the closed hold (its branch is where the copy is), or null if nothing was set aside —
+     *         then take a copy from a shelf
+     */
+    public Hold fulfillReadyHold(User user, Long bookId) {
+        Long holdId = holdRepository.findReadyId(user.getId(), bookId).orElse(null);
+        if (holdId == null || holdRepository.fulfillIfReady(holdId) == 0) {
+            return null;
+        }
+        notifyAfterCommit(holdId);
+        return holdRepository.findById(holdId).orElseThrow(); // loaded only now, so it reads FULFILLED
+    }
+
+    /**
+     * The user just got a copy from a shelf: closes their WAITING hold on the book, if any.
+     * Caller must be inside a transaction (the branch row lock it holds comes before the book's).
+     */
+    public void fulfillWaitingHold(User user, Long bookId) {
+        if (!holdRepository.existsByUserIdAndBookIdAndStatus(user.getId(), bookId, HoldStatus.WAITING)) {
+            return;
+        }
+        bookRepository.findByIdForUpdate(bookId);
+        holdRepository.findFirstByUserIdAndBookIdAndStatusIn(user.getId(), bookId, OPEN)
+                .filter(hold -> hold.getStatus() == HoldStatus.WAITING)
+                .ifPresent(hold -> close(hold, HoldStatus.FULFILLED));
+    }
+
+    /**
+     * Expires READY holds past their pickup deadline and hands each copy to the next in line.
+     * One short transaction per hold, so a long queue of expiries never holds many book locks at once.
+     */
+    @Scheduled(initialDelayString = "${library.holds.expiry-check-ms:60000}",
+            fixedDelayString = "${library.holds.expiry-check-ms:60000}")
+    public void expireHolds() {
+        try {
+            for (Long holdId : holdRepository.findExpiredReadyIds(LocalDateTime.now())) {
+                transaction.executeWithoutResult(status -> expire(holdId));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Hold expiry run failed: {}", e.getMessage());
+        }
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    /**
+     * Locks first, hold second: branch row, book row, THEN the hold is read (FOR UPDATE). Read any earlier,
+     * it could be a borrow or a cancel behind — expiring a FULFILLED hold would hand its copy out twice.
+     */
+    private void expire(Long holdId) {
+        HoldKeys keys = holdRepository.findKeysById(holdId).orElse(null);
+        if (keys == null || keys.getStatus() != HoldStatus.READY) {
+            return;
+        }
+        Long bookId = keys.getBookId();
+        // A READY hold keeps its branch until it closes, so this is the right slot if it's still READY below
+        BranchInventory slot = inventoryService.lockSlot(bookId, keys.getBranchId());
+        if (bookRepository.findByIdForUpdate(bookId).isEmpty()) {
+            return;
+        }
+        Hold hold = holdRepository.findByIdForUpdate(holdId).orElse(null);
+        if (hold == null || hold.getStatus() != HoldStatus.READY || hold.getExpiresAt().isAfter(LocalDateTime.now())) {
+            return; // borrowed or cancelled meanwhile
+        }
+        close(hold, HoldStatus.EXPIRED);
+        releaseToShelf(bookId, slot);
+    }
+
+    /**
+     * One attempt at cancelHold, with the same order as expire(): locks, then the hold.
+     *
+     * @return the cancelled hold, or null (rolled back) if it turned READY before its branch row was locked
+     */
+    private HoldResponseDTO tryCancel(Long holdId, String email, TransactionStatus status) {
+        HoldKeys keys = holdRepository.findKeysById(holdId)
+                .filter(found -> found.getEmail().equals(email)) // don't reveal other users' holds
+                .orElseThrow(() -> new ResourceNotFoundException("Hold", holdId));
+        Long bookId = keys.getBookId();
+        // Branch row first, then the book row (see class comment)
+        BranchInventory slot = keys.getStatus() == HoldStatus.READY ? inventoryService.lockSlot(bookId, keys.getBranchId()) : null;
+        bookRepository.findByIdForUpdate(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", bookId));
+        Hold hold = holdRepository.findByIdForUpdate(holdId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hold", holdId));
+        if (!OPEN.contains(hold.getStatus())) {
+            throw new BusinessException("Hold is already " + hold.getStatus().name().toLowerCase());
+        }
+        if (hold.getStatus() == HoldStatus.READY && slot == null) {
+            status.setRollbackOnly(); // its copy's branch row must be locked before the book row — start over
+            return null;
+        }
+        close(hold, HoldStatus.CANCELLED);
+        if (slot != null) {
+            releaseToShelf(bookId, slot);
+        }
+        return mapToDTO(hold);
+    }
+
+    // A set-aside copy that goes back on a shelf changes copiesAvailable — log it like any other adjustment
+    // (without the new total, like borrows and returns: not worth a SUM inside the locked transaction)
+    private void releaseToShelf(Long bookId, BranchInventory slot) {
+        if (releaseCopy(bookId, slot)) {
+            eventLog.appendAfterCommit(CirculationEventType.COPIES_ADJUSTED, bookId, 0, 0, -1);
+        }
+    }
+
+    private void setAside(Hold next, BranchInventory slot) {
+        LocalDateTime now = LocalDateTime.now();
+        next.setStatus(HoldStatus.READY);
+        next.setReadyAt(now);
+        next.setExpiresAt(now.plus(pickupWindow));
+        next.setBranch(slot.getBranch());
+        notifyAfterCommit(next.getId());
+    }
+
+    // null for holds that became READY before branches existed → InventoryService picks the main branch
+    private static Long branchIdOf(Hold hold) {
+        return hold.getBranch() != null ? hold.getBranch().getId() : null;
+    }
+
+    private void close(Hold hold, HoldStatus status) {
+        hold.setStatus(status);
+        hold.setExpiresAt(null);
+        notifyAfterCommit(hold.getId());
+    }
+
+    // Waiters re-read the hold when notified, so only tell them once the change is committed
+    private void notifyAfterCommit(Long holdId) {
+        invalidationBus.publishAfterCommit(EntityType.HOLD, holdId);
+    }
+
+    private Hold findOwnHold(Long holdId, String email) {
+        Hold hold = holdRepository.findById(holdId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hold", holdId));
+        if (!hold.getUser().getEmail().equals(email)) {
+            throw new ResourceNotFoundException("Hold", holdId); // don't reveal other users' holds
+        }
+        return hold;
+    }
+
+    private User findUser(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new BusinessException("User not found: " + email));
+    }
+
+    private HoldResponseDTO mapToDTO(Hold hold) {
+        long position = hold.getStatus() == HoldStatus.WAITING
+                ? holdRepository.countByBookIdAndStatusAndIdLessThan(hold.getBook().getId(), HoldStatus.WAITING, hold.getId()) + 1
+                : 0;
+        return new HoldResponseDTO(
+                hold.getId(),
+                hold.getBook().getId(),
+                hold.getBook().getTitle(),
+                hold.getStatus(),
+                position,
+                hold.getCreatedAt(),
+                hold.getExpiresAt(),
+                hold.getStatus() == HoldStatus.READY ? branchIdOf(hold) : null
+        );
+    }
+}
@@ -0,0 +1,309 @@
+package com.library.library_management.service;
+
+import com.library.library_management.dto.branch.BranchCreateDTO;
+import com.library.library_management.dto.branch.BranchResponseDTO;
+import com.library.library_management.dto.branch.BranchStockDTO;
+import com.library.library_management.exception.BusinessException;
+import com.library.library_management.exception.ResourceNotFoundException;
+import com.library.library_management.inventory.BookAvailabilityAggregator;
+import com.library.library_management.model.Book;
+import com.library.library_management.model.Branch;
+import com.library.library_management.model.BranchInventory;
+import com.library.library_management.repository.BookRepository;
+import com.library.library_management.repository.BranchInventoryRepository;
+import com.library.library_management.repository.BranchRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Branches and per-branch copy counts (BranchInventory).
+ *
+ * Who locks what:
+ *   borrow   → takeCopy(): ONE branch row, the best-stocked one nobody else holds (SKIP LOCKED)
+ *   return   → lockSlot(): the row of the branch the copy came from
+ *   new hold → lockAllForHold(): every branch row of the book, so no copy can come back unseen meanwhile
+ * Branch rows are always locked BEFORE the book row (HoldService takes that one), never after —
+ * so these paths can't deadlock each other.
+ *
+ * Every change marks the book in BookAvailabilityAggregator, which refreshes books.copies_available
+ * after commit. That total is what listings show; nothing here reads it.
+ */
+@Service
+public class InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+    // Advisory lock key for the startup seed — any constant no other code uses ("INVS")
+    private static final long SEED_LOCK = 0x494E5653L;
+
+    private final BranchRepository branchRepository;
+    private final BranchInventoryRepository inventoryRepository;
+    private final BookRepository bookRepository;
+    private final BookAvailabilityAggregator aggregator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final String mainBranchName;
+
+    private volatile Long mainBranchId;
+
+    /**
+     * EntityManagerFactory is injected only so start() runs AFTER Hibernate has created/updated the schema.
+     */
+    public InventoryService(BranchRepository branchRepository, BranchInventoryRepository inventoryRepository,
+                            BookRepository bookRepository, BookAvailabilityAggregator aggregator,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+                            @Value("${library.inventory.main-branch:Main}") String mainBranchName) {
+        this.branchRepository = branchRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.bookRepository = bookRepository;
+        this.aggregator = aggregator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.mainBranchName = mainBranchName;
+    }
+
+    /**
+     * Creates the main branch if there is none, and moves the copies of every book that has no
+     * branch rows yet (books from before branches existed) to it.
+     *
+     * Every replica runs this at startup, often at the same moment — so it runs under a Postgres advisory
+     * lock (released at commit): the second replica waits, then finds the branch and the rows the first
+     * one created. ON CONFLICT DO NOTHING covers anything that slips past that (e.g. rows added by hand).
+     */
+    @PostConstruct
+    void start() {
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.execute("select pg_advisory_xact_lock(" + SEED_LOCK + ")");
+            Branch main = branchRepository.findFirstByOrderByIdAsc().orElseGet(() -> {
+                Branch branch = new Branch();
+                branch.setName(mainBranchName);
+                return branchRepository.save(branch);
+            });
+            mainBranchId = main.getId();
+            int stocked = jdbcTemplate.update("insert into branch_inventory (book_id, branch_id, copies_available)"
+                    + " select b.id, ?, b.copies_available from books b"
+                    + " where not exists (select 1 from branch_inventory i where i.book_id = b.id)"
+                    + " on conflict (book_id, branch_id) do nothing", mainBranchId);
+            if (stocked > 0) {
+                log.info("Stocked {} books at main branch '{}'", stocked, main.getName());
+            }
+        });
+    }
+
+    // ======================== BRANCHES ========================
+
+    public List<BranchResponseDTO> getBranches() {
+        return branchRepository.findAll()
+                .stream()
+                .map(this::mapToDTO)
+                .toList();
+    }
+
+    /**
+     * @throws BusinessException if a branch with that name exists
+     */
+    @Transactional
+    public BranchResponseDTO createBranch(BranchCreateDTO dto) {
+        String name = dto.getName().trim();
+        if (branchRepository.existsByNameIgnoreCase(name)) {
+            throw new BusinessException("A branch named '" + name + "' already exists");
+        }
+        Branch branch = new Branch();
+        branch.setName(name);
+        return mapToDTO(branchRepository.save(branch));
+    }
+
+    // ======================== STOCK (ADMIN) ========================
+
+    /**
+     * @return copies on the shelf per branch that stocks this book
+     * @throws ResourceNotFoundException if the book doesn't exist
+     */
+    @Transactional(readOnly = true)
+    public List<BranchStockDTO> getStock(Long bookId) {
+        if (!bookRepository.existsById(bookId)) {
+            throw new ResourceNotFoundException("Book", bookId);
+        }
+        return inventoryRepository.findAllByBookIdWithBranch(bookId)
+                .stream()
+                .map(row -> new BranchStockDTO(row.getBranch().getId(), row.getBranch().getName(), row.getCopiesAvailable()))
+                .toList();
+    }
+
+    /**
+     * Sets how many copies of a book are on the shelf at one branch (stock-taking, new copies, transfers).
+     * Caller must be inside a transaction — see BookService.setStock, which hands added copies to holds.
+     *
+     * @return the branch's row, still locked
+     * @throws ResourceNotFoundException if the book or branch doesn't exist
+     */
+    public BranchInventory setStock(Long bookId, Long branchId, int copies) {
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", bookId));
+        Branch branch = branchRepository.findById(branchId)
+                .orElseThrow(() -> new ResourceNotFoundException("Branch", branchId));
+        BranchInventory row = inventoryRepository.findForUpdate(bookId, branchId)
+                .orElseGet(() -> inventoryRepository.save(newRow(book, branch)));
+        row.setCopiesAvailable(copies);
+        aggregator.markChanged(bookId);
+        return row;
+    }
+
+    // ======================== CALLED FROM BOOK / BORROW / HOLD SERVICES ========================
+
+    /**
+     * A new book: all its copies go to the main branch.
+     */
+    public void stockNewBook(Book book, int copies) {
+        BranchInventory row = newRow(book, branchRepository.getReferenceById(mainBranchId));
+        row.setCopiesAvailable(copies);
+        inventoryRepository.save(row);
+    }
+
+    /**
+     * Old-style "this book has N copies" (PUT /books/{id} with copiesAvailable): the main branch absorbs
+     * the difference, the other branches keep theirs.
+     *
+     * @return the main branch's row, still locked — hand its copies to waiting holds (HoldService.handOutCopies)
+     * @throws BusinessException if the other branches alone already hold more than total
+     */
+    public BranchInventory setTotal(Book book, int total) {
+        // Every row of the book, locked BEFORE summing — otherwise a borrow or return at another branch
+        // could change `elsewhere` between the sum and the write, and the total would come out wrong
+        List<BranchInventory> rows = inventoryRepository.findAllByBookIdForUpdate(book.getId());
+        BranchInventory main = rows.stream()
+                .filter(row -> row.getBranch().getId().equals(mainBranchId))
+                .findFirst()
+                .orElseGet(() -> lockSlot(book.getId(), null));
+        int elsewhere = rows.stream()
+                .filter(row -> row != main)
+                .mapToInt(BranchInventory::getCopiesAvailable)
+                .sum();
+        if (total < elsewhere) {
+            throw new BusinessException("Other branches hold " + elsewhere + " copies — change their stock"
+                    + " with PUT /api/v1/books/" + book.getId() + "/branches/{branchId}");
+        }
+        main.setCopiesAvailable(total - elsewhere);
+        aggregator.markChanged(book.getId());
+        return main;
+    }
+
+    /**
+     * Takes one copy off a shelf for a borrow. Caller must be inside a transaction.
+     *
+     * Without a branch: the best-stocked branch row not locked by another borrow right now. Only if every
+     * stocked row is busy does it wait — then for all of them, since any may still have a copy once
+     * its borrow commits (or rolls back).
+     *
+     * @param branchId the branch the patron asked for, or null for any
+     * @return the (locked, already decremented) branch row, or null if there is no copy
+     * @throws ResourceNotFoundException if branchId is given and doesn't exist
+     */
+    public BranchInventory takeCopy(Long bookId, Long branchId) {
+        BranchInventory row;
+        if (branchId != null) {
+            row = inventoryRepository.findForUpdate(bookId, branchId).orElse(null);
+            if (row == null && !branchRepository.existsById(branchId)) {
+                throw new ResourceNotFoundException("Branch", branchId);
+            }
+        } else {
+            row = inventoryRepository.findStockedSkipLocked(bookId, Limit.of(1)).stream().findFirst()
+                    .orElseGet(() -> firstStocked(inventoryRepository.findAllByBookIdForUpdate(bookId)));
+        }
+        if (row == null || row.getCopiesAvailable() <= 0) {
+            return null;
+        }
+        row.setCopiesAvailable(row.getCopiesAvailable() - 1);
+        aggregator.markChanged(bookId);
+        return row;
+    }
+
+    /**
+     * Locks the row a returned (or released) copy goes back to. Caller must be inside a transaction.
+     *
+     * @param branchId the copy's branch, or null for the main branch (loans from before branches)
+     */
+    public BranchInventory lockSlot(Long bookId, Long branchId) {
+        long target = branchId != null ? branchId : mainBranchId;
+        return inventoryRepository.findForUpdate(bookId, target)
+                .orElseGet(() -> inventoryRepository.save(newRow(bookRepository.getReferenceById(bookId),
+                        branchRepository.getReferenceById(target))));
+    }
+
+    /**
+     * Puts a copy back on the shelf of a row locked by lockSlot().
+     */
+    public void putBack(BranchInventory row) {
+        row.setCopiesAvailable(row.getCopiesAvailable() + 1);
+        aggregator.markChanged(row.getBook().getId());
+    }
+
+    /**
+     * Takes a copy off the shelf of a row locked by lockSlot() (it's being set aside for a hold).
+     */
+    public void takeFrom(BranchInventory row) {
+        row.setCopiesAvailable(row.getCopiesAvailable() - 1);
+        aggregator.markChanged(row.getBook().getId());
+    }
+
+    /**
+     * Locks every branch row of the book and tells whether any has a copy. Held until commit, so no
+     * return can put a copy on a shelf while a hold is being placed. Caller must be inside a transaction.
+     */
+    public boolean lockAllForHold(Long bookId) {
+        return firstStocked(inventoryRepository.findAllByBookIdForUpdate(bookId)) != null;
+    }
+
+    /**
+     * @return copies on the shelf over all branches, as this transaction sees them (admin stock changes —
+     *         one SUM over the branch rows, so not for borrows and returns)
+     */
+    public int totalAvailable(Long bookId) {
+        return (int) inventoryRepository.sumCopiesAvailable(bookId);
+    }
+
+    /**
+     * Removes a book's branch rows (before the book itself is deleted).
+     */
+    public void deleteStock(Long bookId) {
+        inventoryRepository.deleteAllByBookId(bookId);
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private static BranchInventory firstStocked(List<BranchInventory> rows) {
+        for (BranchInventory row : rows) {
+            if (row.getCopiesAvailable() > 0) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    private static BranchInventory newRow(Book book, Branch branch) {
+        BranchInventory row = new BranchInventory();
+        row.setBook(book);
+        row.setBranch(branch);
+        return row;
+    }
+
+    private BranchResponseDTO mapToDTO(Branch branch) {
+        return new BranchResponseDTO(
+                branch.getId(),
+                branch.getName(),
+                branch.getId().equals(mainBranchId),
+                branch.getCreatedAt()
+        );
+    }
+}
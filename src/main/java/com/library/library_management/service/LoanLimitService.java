@@ -0,0 +1,180 @@
+package com.library.library_management.service;
+
+import com.library.library_management.archive.BorrowPartitionManager;
+import com.library.library_management.collection.LongIntHashMap;
+import com.library.library_management.exception.BusinessException;
+import com.library.library_management.invalidation.EntityType;
+import com.library.library_management.invalidation.InvalidationBus;
+import com.library.library_management.invalidation.InvalidationListener;
+import com.library.library_management.invalidation.InvalidationMessage;
+import com.library.library_management.loan.ActiveLoanCounters;
+import com.library.library_management.loan.UserLoanCount;
+import com.library.library_management.model.Role;
+import com.library.library_management.model.User;
+import com.library.library_management.repository.BorrowRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * How many books a patron may have out at once, per Role (library.loans.max-active.*).
+ *
+ * Why not COUNT(*) their active loans on every borrow? → That's one more query on the busiest write path.
+ * Instead every user's active loans are counted in memory (ActiveLoanCounters):
+ *   startup          → one grouped count over the active partitions seeds them
+ *   borrow           → reserve(): check-and-take in memory, BEFORE a copy is taken; a rollback gives it back
+ *   return           → returning(): one loan less once the return commits
+ *   every reconcile-ms → the grouped count again; counters that drifted (e.g. a crash between commit and
+ *                        the in-memory update) are corrected
+ * Two concurrent borrows by the same user can't both take the last slot — the check and the take happen
+ * under one lock.
+ *
+ * Other replicas: after each commit a LOANS message goes over the InvalidationBus; every other node
+ * re-counts that one user off the request path (the invalidation thread). Borrows racing on two nodes
+ * within that delay can still go one over the limit.
+ */
+@Service
+public class LoanLimitService implements InvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LoanLimitService.class);
+
+    private final BorrowRepository borrowRepository;
+    private final BorrowPartitionManager partitionManager;
+    private final InvalidationBus invalidationBus;
+    private final Map<Role, Integer> limits = new EnumMap<>(Role.class);
+    private final ActiveLoanCounters counters = new ActiveLoanCounters();
+    // Users whose LOANS message this node sent itself — its echo needs no re-count (if another node's
+    // message about the same user got coalesced with it, the next reconcile catches that change)
+    private final Set<Long> ownMessages = ConcurrentHashMap.newKeySet();
+
+    public LoanLimitService(BorrowRepository borrowRepository, BorrowPartitionManager partitionManager,
+                            InvalidationBus invalidationBus,
+                            @Value("${library.loans.max-active.user:3}") int userLimit,
+                            @Value("${library.loans.max-active.admin:10}") int adminLimit) {
+        this.borrowRepository = borrowRepository;
+        this.partitionManager = partitionManager;
+        this.invalidationBus = invalidationBus;
+        limits.put(Role.USER, userLimit);
+        limits.put(Role.ADMIN, adminLimit);
+        invalidationBus.subscribe(EntityType.LOANS, this);
+    }
+
+    /**
+     * Seeds the counters before the first request (BorrowPartitionManager has set the horizon by now).
+     */
+    @PostConstruct
+    void seed() {
+        int users = counters.reconcile(activeLoansPerUser(), counters.stamp());
+        log.info("Loan limits: seeded active-loan counters for {} users", users);
+    }
+
+    /**
+     * Takes one loan slot for the user. Caller must be inside the borrow's transaction: the slot is
+     * kept if it commits and given back if it rolls back.
+     *
+     * @throws BusinessException if the user already has their role's maximum of books out
+     */
+    public void reserve(User user) {
+        long userId = user.getId();
+        int limit = limitFor(user.getRole());
+        if (!counters.tryBorrow(userId, limit)) {
+            throw new BusinessException("Loan limit reached — you already have " + limit
+                    + " books out, return one to borrow another");
+        }
+        onCompletion(userId, committed -> counters.borrowCompleted(userId, committed));
+    }
+
+    /**
+     * The user is returning a loan. Caller must be inside the return's transaction.
+     */
+    public void returning(long userId) {
+        counters.returnStarted(userId);
+        onCompletion(userId, committed -> counters.returnCompleted(userId, committed));
+    }
+
+    /**
+     * Re-counts every user's active loans in the database and corrects drifted counters.
+     */
+    @Scheduled(initialDelayString = "${library.loans.reconcile-ms:300000}",
+            fixedDelayString = "${library.loans.reconcile-ms:300000}")
+    public void reconcile() {
+        try {
+            int[] stamp = counters.stamp();
+            int corrected = counters.reconcile(activeLoansPerUser(), stamp);
+            if (corrected > 0) {
+                log.warn("Loan limits: corrected {} drifted active-loan counters", corrected);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Loan counter reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A user borrowed or returned on some node — re-count them, unless this node sent the message.
+     */
+    @Override
+    public void invalidate(InvalidationMessage message) {
+        long userId = Long.parseLong(message.id());
+        if (ownMessages.remove(userId)) {
+            return;
+        }
+        int[] stamp = counters.stamp();
+        long count = borrowRepository.countActiveByUserId(userId, partitionManager.activeHorizon());
+        counters.reconcileUser(userId, (int) count, stamp);
+    }
+
+    // Messages were lost — any user may have changed elsewhere
+    @Override
+    public void invalidateAll() {
+        reconcile();
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private int limitFor(Role role) {
+        return limits.get(role != null ? role : Role.USER);
+    }
+
+    private LongIntHashMap activeLoansPerUser() {
+        LongIntHashMap counts = new LongIntHashMap(1024);
+        for (UserLoanCount row : borrowRepository.countActiveByUser(partitionManager.activeHorizon())) {
+            counts.addTo(row.userId(), row.count().intValue());
+        }
+        return counts;
+    }
+
+    // Runs the callback once the transaction ends (true = committed), then tells the other nodes
+    private void onCompletion(long userId, Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(true);
+            announce(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED;
+                callback.accept(committed);
+                if (committed) {
+                    announce(userId);
+                }
+            }
+        });
+    }
+
+    private void announce(long userId) {
+        ownMessages.add(userId);
+        invalidationBus.publish(EntityType.LOANS, userId);
+    }
+}
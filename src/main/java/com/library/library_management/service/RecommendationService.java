@@ -0,0 +1,192 @@
+package com.library.library_management.service;
+
+import com.library.library_management.archive.BorrowArchiveStore;
+import com.library.library_management.dto.book.RecommendationDTO;
+import com.library.library_management.invalidation.EntityType;
+import com.library.library_management.invalidation.InvalidationBus;
+import com.library.library_management.invalidation.InvalidationListener;
+import com.library.library_management.invalidation.InvalidationMessage;
+import com.library.library_management.recommendation.BorrowPair;
+import com.library.library_management.recommendation.CoOccurrenceIndex;
+import com.library.library_management.recommendation.Neighbours;
+import com.library.library_management.repository.BorrowRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * "Patrons who borrowed this also borrowed" for a book, answered from memory (CoOccurrenceIndex).
+ *
+ * Lifecycle:
+ *   1. app ready → a background thread builds a fresh index from the borrow history — startup isn't
+ *      slowed down, recommendations are just empty until it's done
+ *   2. from then on every LOANS message on the invalidation bus (a patron borrowed or returned, on ANY
+ *      node — including this one's own echo) adds that patron's borrows of the last day to the index
+ *   3. if the bus reports lost messages, the index is rebuilt from scratch in the background
+ *
+ * The build reads the archive files, then the table (one repeatable-read snapshot), then any archive
+ * file written meanwhile. A loan archived during the build left the table only after its file was
+ * written, so it's in one of the two archive passes — never in neither. Seeing one twice is harmless:
+ * the index ignores borrows it already has. LOANS messages that arrive during a build are kept and
+ * applied to the new index before it takes over.
+ *
+ * No self-join on borrows, ever: a request is one in-memory lookup.
+ */
+@Service
+public class RecommendationService implements InvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+
+    private final BorrowRepository borrowRepository;
+    private final BorrowArchiveStore archiveStore;
+    private final TransactionTemplate snapshotTransaction;
+    private final int topN;
+    private final int maxCandidates;
+    private final int maxBooksPerUser;
+    private final AtomicBoolean buildRunning = new AtomicBoolean();
+
+    // Guarded by this: the index the bus thread writes to (null while the first build runs), and the
+    // patrons it was told about while a build was running
+    private CoOccurrenceIndex writerIndex;
+    private Set<Long> missedUsers;
+    // What requests read — null until the first build finished
+    private volatile CoOccurrenceIndex index;
+
+    public RecommendationService(BorrowRepository borrowRepository, BorrowArchiveStore archiveStore,
+                                 InvalidationBus invalidationBus, PlatformTransactionManager transactionManager,
+                                 @Value("${library.recommendations.top-n:20}") int topN,
+                                 @Value("${library.recommendations.max-candidates:200}") int maxCandidates,
+                                 @Value("${library.recommendations.max-books-per-user:200}") int maxBooksPerUser) {
+        this.borrowRepository = borrowRepository;
+        this.archiveStore = archiveStore;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.topN = topN;
+        this.maxCandidates = maxCandidates;
+        this.maxBooksPerUser = maxBooksPerUser;
+        invalidationBus.subscribe(EntityType.LOANS, this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        if (buildRunning.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("recommendation-build").start(this::buildUntilDone);
+        }
+    }
+
+    /**
+     * @param bookId the book being viewed
+     * @param limit  how many to return (capped at library.recommendations.top-n)
+     * @return other books its borrowers also borrowed, strongest first (empty if unknown or still building)
+     */
+    public List<RecommendationDTO> getRecommendations(long bookId, int limit) {
+        CoOccurrenceIndex current = index;
+        if (current == null || limit <= 0) {
+            return List.of();
+        }
+        Neighbours neighbours = current.neighbours(bookId);
+        int size = Math.min(limit, neighbours.size());
+        List<RecommendationDTO> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new RecommendationDTO(neighbours.bookIds()[i], neighbours.counts()[i]));
+        }
+        return result;
+    }
+
+    /**
+     * A patron borrowed or returned somewhere — add their recent borrows (on the bus thread).
+     */
+    @Override
+    public synchronized void invalidate(InvalidationMessage message) {
+        long userId = Long.parseLong(message.id());
+        if (missedUsers != null) {
+            missedUsers.add(userId); // a build is running — it applies these before it takes over
+        } else if (writerIndex != null) {
+            addRecentBorrows(writerIndex, userId);
+        }
+    }
+
+    // Messages were lost — any patron may have borrowed elsewhere
+    @Override
+    public void invalidateAll() {
+        buildInBackground();
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private void buildUntilDone() {
+        try {
+            while (true) {
+                try {
+                    build();
+                    return;
+                } catch (RuntimeException e) {
+                    synchronized (this) {
+                        missedUsers = null;
+                    }
+                    log.warn("Recommendation index build failed, retrying in a minute: {}", e.getMessage());
+                }
+                try {
+                    TimeUnit.MINUTES.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        } finally {
+            buildRunning.set(false);
+        }
+    }
+
+    private void build() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            missedUsers = new LinkedHashSet<>(); // from now on, LOANS messages wait for the new index
+        }
+        CoOccurrenceIndex fresh = new CoOccurrenceIndex(topN, maxCandidates, maxBooksPerUser);
+
+        // Oldest first, so a patron's first books are the ones that count when they have too many
+        Set<Path> archived = archiveStore.forEachExcept(Set.of(), borrow -> fresh.load(borrow.userId(), borrow.bookId()));
+        snapshotTransaction.executeWithoutResult(status -> {
+            try (Stream<BorrowPair> pairs = borrowRepository.streamBorrowPairs()) {
+                pairs.forEach(pair -> fresh.load(pair.userId(), pair.bookId()));
+            }
+        });
+        archiveStore.forEachExcept(archived, borrow -> fresh.load(borrow.userId(), borrow.bookId()));
+        fresh.countLoadedPairs();
+
+        synchronized (this) {
+            for (long userId : missedUsers) {
+                addRecentBorrows(fresh, userId);
+            }
+            missedUsers = null;
+            writerIndex = fresh;
+            index = fresh;
+        }
+        log.info("Recommendation index built: {} books, {} patrons in {} ms",
+                fresh.bookCount(), fresh.userCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // A LOANS message arrives seconds after the commit — a day back is plenty, and keeps the query small
+    private void addRecentBorrows(CoOccurrenceIndex target, long userId) {
+        for (long bookId : borrowRepository.findBookIdsBorrowedSince(userId, LocalDate.now().minusDays(1))) {
+            target.addBorrow(userId, bookId);
+        }
+    }
+}
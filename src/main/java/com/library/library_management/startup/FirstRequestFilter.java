@@ -0,0 +1,44 @@
+package com.library.library_management.startup;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Times the very first request this instance serves (cold code paths, lazy init, empty pools)
+ * for StartupTimingReport. Outermost filter, so the whole chain is included. After that it's a no-op.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FirstRequestFilter extends OncePerRequestFilter {
+
+    private final StartupTimingReport report;
+
+    public FirstRequestFilter(StartupTimingReport report) {
+        this.report = report;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return report.isFirstRequestLogged();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            report.firstRequestServed(request.getRequestURI(), Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+}
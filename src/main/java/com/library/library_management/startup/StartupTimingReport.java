@@ -0,0 +1,149 @@
+package com.library.library_management.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Prints where boot time goes, once the app is ready — and again when the first request is served.
+ *
+ * Why? → New instances only help during a spike once they answer requests. This breaks
+ * "container start → first response" into phases so we know what to optimise:
+ *
+ *   JVM start → main()        JVM + class loading (CDS helps here)
+ *   main() → context refresh  environment, config files, auto-configuration
+ *   context refresh           bean creation, of which:
+ *     JPA bootstrap           entityManagerFactory (entity scanning, schema checks — see the fast-start profile)
+ *     repositories            Spring Data repository proxies
+ *     security filter chain   SecurityConfig + springSecurityFilterChain
+ *   refresh → ready           web server start, runners
+ *   first request             time until the first response was sent (FirstRequestFilter)
+ *
+ * Step durations come from Spring's BufferingApplicationStartup, set up in LibraryManagementApplication.
+ */
+@Component
+public class StartupTimingReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimingReport.class);
+    private static final Set<String> SECURITY_BEANS = Set.of("securityFilterChain", "springSecurityFilterChain");
+
+    private static volatile long mainStartedMillis;
+
+    private final AtomicBoolean firstRequestLogged = new AtomicBoolean();
+    private volatile Instant readyAt;
+
+    /**
+     * Called first thing in main().
+     */
+    public static void markMainStarted() {
+        mainStartedMillis = System.currentTimeMillis();
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        readyAt = Instant.now();
+        Instant jvmStart = Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime());
+        Instant mainStart = mainStartedMillis > 0 ? Instant.ofEpochMilli(mainStartedMillis) : jvmStart;
+
+        StringBuilder report = new StringBuilder("Startup timing (ms):");
+        line(report, "JVM start → main()", between(jvmStart, mainStart));
+
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (startup instanceof BufferingApplicationStartup buffering) {
+            List<StartupTimeline.TimelineEvent> steps = buffering.getBufferedTimeline().getEvents();
+            StartupTimeline.TimelineEvent refresh = find(steps, "spring.context.refresh");
+            if (refresh != null) {
+                line(report, "main() → context refresh", between(mainStart, refresh.getStartTime()));
+                line(report, "context refresh", refresh.getDuration());
+                line(report, "  JPA bootstrap", span(steps, "spring.beans.instantiate", Set.of("entityManagerFactory")));
+                line(report, "  repositories", sum(steps, "spring.data.repository.init"));
+                line(report, "  security filter chain", span(steps, "spring.beans.instantiate", SECURITY_BEANS));
+                line(report, "refresh → ready", between(refresh.getEndTime(), readyAt));
+            }
+        }
+        line(report, "JVM start → ready", between(jvmStart, readyAt));
+        log.info(report.toString());
+    }
+
+    /**
+     * Called by FirstRequestFilter after the first response; logs only once.
+     */
+    void firstRequestServed(String uri, Duration took) {
+        if (!firstRequestLogged.compareAndSet(false, true)) {
+            return;
+        }
+        Instant jvmStart = Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime());
+        Instant now = Instant.now();
+        log.info("Startup timing: first request {} took {} ms, served {} ms after JVM start ({} ms after ready)",
+                uri, took.toMillis(), between(jvmStart, now).toMillis(),
+                readyAt == null ? -1 : between(readyAt, now).toMillis());
+    }
+
+    boolean isFirstRequestLogged() {
+        return firstRequestLogged.get();
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private static void line(StringBuilder report, String phase, Duration duration) {
+        report.append(String.format("%n  %-26s %7d", phase, duration == null ? -1 : duration.toMillis()));
+    }
+
+    private static Duration between(Instant from, Instant to) {
+        return Duration.between(from, to);
+    }
+
+    private static StartupTimeline.TimelineEvent find(List<StartupTimeline.TimelineEvent> steps, String name) {
+        for (StartupTimeline.TimelineEvent step : steps) {
+            if (step.getStartupStep().getName().equals(name)) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    private static Duration sum(List<StartupTimeline.TimelineEvent> steps, String name) {
+        Duration total = Duration.ZERO;
+        for (StartupTimeline.TimelineEvent step : steps) {
+            if (step.getStartupStep().getName().equals(name)) {
+                total = total.plus(step.getDuration());
+            }
+        }
+        return total;
+    }
+
+    // From the first of these beans starting to the last one finished (they usually nest)
+    private static Duration span(List<StartupTimeline.TimelineEvent> steps, String name, Set<String> beanNames) {
+        Instant first = null;
+        Instant last = null;
+        for (StartupTimeline.TimelineEvent step : steps) {
+            if (step.getStartupStep().getName().equals(name) && beanNames.contains(beanName(step.getStartupStep()))) {
+                first = first == null || step.getStartTime().isBefore(first) ? step.getStartTime() : first;
+                last = last == null || step.getEndTime().isAfter(last) ? step.getEndTime() : last;
+            }
+        }
+        return first == null ? null : Duration.between(first, last);
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.library.library_management.storage;
+
+/**
+ * Thumbnail sizes generated once at upload time. Width in pixels, height keeps the aspect ratio.
+ */
+public enum CoverSize {
+    SMALL(96),   // list rows
+    MEDIUM(240), // grid cards
+    LARGE(480);  // detail page
+
+    private final int width;
+
+    CoverSize(int width) {
+        this.width = width;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the size for a URL segment like "small", or null if there is none
+     */
+    public static CoverSize fromPath(String value) {
+        for (CoverSize size : values()) {
+            if (size.name().equalsIgnoreCase(value)) {
+                return size;
+            }
+        }
+        return null;
+    }
+}
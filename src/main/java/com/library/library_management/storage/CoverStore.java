@@ -0,0 +1,251 @@
+package com.library.library_management.storage;
+
+import com.library.library_management.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Cover images on local disk, content-addressed — a file's name IS the SHA-256 of its bytes.
+ *
+ * Layout under library.covers.dir:
+ *   originals/ab/ab12…ef.png          ← the uploaded file, untouched
+ *   thumbs/small/ab/ab12…ef.jpg       ← generated once at upload, for every CoverSize
+ *
+ * Why content-addressed?
+ *   - Same image uploaded twice → stored once
+ *   - A URL never changes meaning, so browsers/CDNs can cache it forever
+ *   - The ETag is simply the hash — no need to read the file to answer If-None-Match
+ *
+ * The two-character subdirectory keeps any one directory from growing to millions of files.
+ *
+ * Decompression bombs: a few KB of PNG can declare 50000 x 50000 pixels, and decoding it would need
+ * ~10 GB of heap. The dimensions are read from the image header (ImageReader, nothing decoded yet) and
+ * anything over library.covers.max-pixels is rejected before ImageIO allocates the raster.
+ */
+@Component
+public class CoverStore {
+
+    private static final Set<String> FORMATS = Set.of("jpg", "png", "gif", "bmp");
+
+    private final Path originalsDir;
+    private final Path thumbsDir;
+    private final long maxPixels;
+
+    public CoverStore(@Value("${library.covers.dir}") String coversDir,
+                      @Value("${library.covers.max-pixels:25000000}") long maxPixels) {
+        Path root = Path.of(coversDir).toAbsolutePath().normalize();
+        this.originalsDir = root.resolve("originals");
+        this.thumbsDir = root.resolve("thumbs");
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * Stores an uploaded image and its thumbnails. Re-uploading the same bytes is a cheap no-op.
+     *
+     * @param bytes the uploaded file
+     * @return the stored cover (hash + format)
+     * @throws BusinessException if the bytes are not an image we can read, or it has too many pixels
+     */
+    public StoredCover store(byte[] bytes) {
+        String format = inspect(bytes);
+        String hash = sha256(bytes);
+        StoredCover cover = new StoredCover(hash, format);
+
+        Path original = originalPath(cover);
+        if (!Files.exists(original)) {
+            writeAtomically(original, bytes);
+        }
+
+        BufferedImage image = null;
+        for (CoverSize size : CoverSize.values()) {
+            Path thumb = thumbnailPath(hash, size);
+            if (Files.exists(thumb)) {
+                continue;
+            }
+            if (image == null) {
+                image = decode(bytes);
+            }
+            writeAtomically(thumb, renderThumbnail(image, size));
+        }
+        return cover;
+    }
+
+    /**
+     * @return the original's path, or null if the name isn't a valid "hash.ext"
+     */
+    public Path resolveOriginal(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        String hash = fileName.substring(0, dot);
+        String format = fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        if (!isValidHash(hash) || !FORMATS.contains(format)) {
+            return null; // also what stops "../" tricks — only hex + a known extension gets through
+        }
+        return originalPath(new StoredCover(hash, format));
+    }
+
+    /**
+     * @return the thumbnail's path, or null if the hash isn't valid
+     */
+    public Path resolveThumbnail(String hash, CoverSize size) {
+        return isValidHash(hash) ? thumbnailPath(hash, size) : null;
+    }
+
+    public static boolean isValidHash(String hash) {
+        if (hash.length() != 64) {
+            return false;
+        }
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private Path originalPath(StoredCover cover) {
+        return originalsDir.resolve(cover.hash().substring(0, 2)).resolve(cover.fileName());
+    }
+
+    private Path thumbnailPath(String hash, CoverSize size) {
+        return thumbsDir.resolve(size.name().toLowerCase(Locale.ROOT))
+                .resolve(hash.substring(0, 2))
+                .resolve(hash + ".jpg");
+    }
+
+    // Asks ImageIO what the bytes ARE — never trusts the client's file name or Content-Type — and how big
+    // the image claims to be, from its header only
+    private String inspect(byte[] bytes) {
+        long pixels;
+        String format = null;
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (readers.hasNext()) {
+                ImageReader reader = readers.next();
+                try {
+                    format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                    format = format.equals("jpeg") ? "jpg" : format;
+                    reader.setInput(input, true, true);
+                    pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                } finally {
+                    reader.dispose();
+                }
+            } else {
+                pixels = 0;
+            }
+        } catch (IOException e) {
+            format = null; // unreadable means unsupported
+            pixels = 0;
+        }
+        if (format == null || !FORMATS.contains(format)) {
+            throw new BusinessException("Cover must be a JPEG, PNG, GIF or BMP image");
+        }
+        if (pixels <= 0) {
+            throw new BusinessException("Cover image could not be decoded");
+        }
+        if (pixels > maxPixels) {
+            throw new BusinessException("Cover image is too large — at most " + maxPixels + " pixels");
+        }
+        return format;
+    }
+
+    private BufferedImage decode(byte[] bytes) {
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+            if (image == null) {
+                throw new BusinessException("Cover image could not be decoded");
+            }
+            return image;
+        } catch (IOException e) {
+            throw new BusinessException("Cover image could not be decoded");
+        }
+    }
+
+    private byte[] renderThumbnail(BufferedImage source, CoverSize size) {
+        int width = Math.min(size.getWidth(), source.getWidth());
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+
+        // JPEG has no alpha channel — draw onto an RGB canvas
+        BufferedImage thumb = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = thumb.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, java.awt.Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(thumb, "jpg", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // Write to a temp file first, then rename — readers never see a half-written image
+    private void writeAtomically(Path target, byte[] bytes) {
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+            try {
+                Files.write(temp, bytes);
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store cover image", e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JVM ships SHA-256
+        }
+    }
+
+    /**
+     * A stored original: its content hash and detected format.
+     */
+    public record StoredCover(String hash, String format) {
+
+        public String fileName() {
+            return hash + "." + format;
+        }
+    }
+}
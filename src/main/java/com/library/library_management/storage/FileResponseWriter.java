@@ -0,0 +1,169 @@
+package com.library.library_management.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes immutable files to the HTTP response with conditional (ETag) and partial (Range) support.
+ *
+ * Zero-copy: when Tomcat's sendfile is available we only set request attributes and Tomcat hands
+ * the file to the kernel (sendfile(2)) — the bytes never pass through the JVM heap. Otherwise we
+ * fall back to FileChannel.transferTo straight into the response stream.
+ *
+ * Only single ranges ("bytes=0-1023", "bytes=500-", "bytes=-500") are honoured; multi-range
+ * requests get the full file, which the HTTP spec allows.
+ */
+public final class FileResponseWriter {
+
+    // Tomcat's sendfile contract (same attributes its DefaultServlet uses)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Content-addressed → a URL's bytes never change, cache for a year
+    private static final String CACHE_FOREVER = "public, max-age=31536000, immutable";
+
+    private FileResponseWriter() {
+    }
+
+    /**
+     * Serves a file from disk (404 if it doesn't exist).
+     *
+     * @param etag strong ETag for the file, already quoted
+     */
+    public static void writeFile(HttpServletRequest request, HttpServletResponse response,
+                                 Path file, String contentType, String etag) throws IOException {
+        if (notModified(request, response, etag)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            long[] range = prepare(request, response, length, contentType, etag);
+            if (range == null) {
+                return;
+            }
+            long start = range[0];
+            long count = range[1] - range[0] + 1;
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, start + count);
+                return;
+            }
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            while (count > 0) {
+                long sent = channel.transferTo(start, count, out);
+                start += sent;
+                count -= sent;
+            }
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    /**
+     * Serves bytes already in memory (e.g. a cached thumbnail) with the same header handling.
+     */
+    public static void writeBytes(HttpServletRequest request, HttpServletResponse response,
+                                  byte[] bytes, String contentType, String etag) throws IOException {
+        if (notModified(request, response, etag)) {
+            return;
+        }
+        long[] range = prepare(request, response, bytes.length, contentType, etag);
+        if (range != null) {
+            response.getOutputStream().write(bytes, (int) range[0], (int) (range[1] - range[0] + 1));
+        }
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private static boolean notModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(etag))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader("ETag", etag);
+            response.setHeader("Cache-Control", CACHE_FOREVER);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sets status + headers and works out which bytes to send.
+     *
+     * @return {first, last} byte positions (inclusive), or null if nothing should be sent (416)
+     */
+    private static long[] prepare(HttpServletRequest request, HttpServletResponse response,
+                                  long length, String contentType, String etag) throws IOException {
+        response.setContentType(contentType);
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", CACHE_FOREVER);
+        response.setHeader("Accept-Ranges", "bytes");
+
+        long[] range = parseRange(request, length, etag);
+        if (range == null) {
+            response.setContentLengthLong(length);
+            return new long[]{0, length - 1};
+        }
+        if (range.length == 0) {
+            response.setHeader("Content-Range", "bytes */" + length);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return null;
+        }
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader("Content-Range", "bytes " + range[0] + "-" + range[1] + "/" + length);
+        response.setContentLengthLong(range[1] - range[0] + 1);
+        return range;
+    }
+
+    /**
+     * @return null → send the whole file, empty array → unsatisfiable, otherwise {first, last}
+     */
+    private static long[] parseRange(HttpServletRequest request, long length, String etag) {
+        String header = request.getHeader("Range");
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        // If-Range: only honour the range if the client's copy is still the current one
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            long first;
+            long last;
+            if (dash == 0) { // "-500" → the last 500 bytes
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    return new long[0];
+                }
+                first = Math.max(0, length - suffix);
+                last = length - 1;
+            } else {
+                first = Long.parseLong(spec.substring(0, dash));
+                last = dash == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+            }
+            if (first >= length || first > last) {
+                return new long[0];
+            }
+            return new long[]{first, last};
+        } catch (NumberFormatException e) {
+            return null; // malformed Range headers are ignored, per the spec
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.library.library_management.analytics;
+
+import com.library.library_management.model.BorrowStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CirculationAggregationTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2023, 1, 1);
+
+    @Test
+    void parallelRunMatchesASingleScan() {
+        int size = 200_000; // well over one chunk, so the fork/join path runs
+        Random random = new Random(42);
+        CirculationSnapshotBuilder builder = new CirculationSnapshotBuilder();
+        long[] perAuthor = new long[500];
+        long borrows = 0, returned = 0, late = 0, loanDays = 0;
+        LocalDate from = FIRST_DAY.plusDays(100);
+        LocalDate to = FIRST_DAY.plusDays(800);
+        for (int i = 0; i < size; i++) {
+            LocalDate borrowed = FIRST_DAY.plusDays(random.nextInt(1_000));
+            LocalDate due = borrowed.plusDays(14);
+            LocalDate back = random.nextInt(4) == 0 ? null : borrowed.plusDays(random.nextInt(30));
+            int author = random.nextInt(perAuthor.length);
+            builder.add(borrowed, due, back, back == null ? BorrowStatus.ACTIVE : BorrowStatus.RETURNED,
+                    "author-" + author, 1900 + random.nextInt(120));
+            if (borrowed.isBefore(from) || borrowed.isAfter(to)) {
+                continue;
+            }
+            borrows++;
+            perAuthor[author]++;
+            if (back != null) {
+                returned++;
+                loanDays += back.toEpochDay() - borrowed.toEpochDay();
+                late += back.isAfter(due) ? 1 : 0;
+            }
+        }
+        CirculationSnapshot snapshot = builder.build();
+
+        CirculationAggregation.Totals totals = CirculationAggregation.run(snapshot, (int) from.toEpochDay(),
+                (int) to.toEpochDay());
+
+        assertEquals(borrows, totals.borrows);
+        assertEquals(returned, totals.returned);
+        assertEquals(late, totals.returnedLate);
+        assertEquals(loanDays, totals.loanDays);
+        long[] byName = new long[perAuthor.length];
+        for (int id = 0; id < totals.perAuthor.length; id++) {
+            byName[Integer.parseInt(snapshot.authorName(id).substring("author-".length()))] = totals.perAuthor[id];
+        }
+        assertArrayEquals(perAuthor, byName);
+    }
+
+    @Test
+    void archivedSummaryRowsCountAsTheLoansTheyStandFor() {
+        CirculationSnapshotBuilder builder = new CirculationSnapshotBuilder();
+        builder.add(FIRST_DAY, FIRST_DAY.plusDays(14), null, BorrowStatus.ACTIVE, "Le Guin", 1969);
+        builder.addArchived(FIRST_DAY, "Le Guin", 1969, 5, 2, 60);
+
+        CirculationAggregation.Totals totals = CirculationAggregation.run(builder.build(), Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+        assertEquals(6, totals.borrows);
+        assertEquals(5, totals.returned);
+        assertEquals(2, totals.returnedLate);
+        assertEquals(60, totals.loanDays);
+        assertArrayEquals(new long[]{6}, totals.perAuthor);
+        assertArrayEquals(new long[]{6}, totals.perDecade);
+    }
+}
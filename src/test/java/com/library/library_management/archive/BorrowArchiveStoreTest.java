@@ -0,0 +1,87 @@
+package com.library.library_management.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BorrowArchiveStoreTest {
+
+    private static final LocalDate BORROWED = LocalDate.of(2024, 3, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void historyReadsOnlyThatUsersLoansOldestFirst() {
+        BorrowArchiveStore store = open();
+        store.write(List.of(loan(1, 7), loan(2, 8), loan(3, 7)));
+        store.write(List.of(loan(10, 9), loan(11, 7)));
+
+        assertEquals(List.of(1L, 3L, 11L), ids(store.findByUser(7)));
+        assertEquals(List.of(), store.findByUser(42));
+        ArchivedBorrow first = store.findByUser(8).get(0);
+        assertEquals("Book 2", first.bookTitle());
+        assertEquals(BORROWED.plusDays(14), first.dueDate());
+    }
+
+    @Test
+    void containsLooksOnlyAtArchivedIds() {
+        BorrowArchiveStore store = open();
+        store.write(List.of(loan(5, 1), loan(9, 1)));
+
+        assertTrue(store.contains(5));
+        assertTrue(store.contains(9));
+        assertFalse(store.contains(7)); // inside the file's id range, but never archived (still active)
+        assertFalse(store.contains(10));
+    }
+
+    @Test
+    void loanArchivedTwiceAfterACrashShowsUpOnce() {
+        BorrowArchiveStore store = open();
+        store.write(List.of(loan(1, 7), loan(2, 7)));
+        // Crash before the rows were deleted: the next run archives them again, plus a newer one
+        store.write(List.of(loan(1, 7), loan(2, 7), loan(3, 7)));
+
+        assertEquals(List.of(1L, 2L, 3L), ids(store.findByUser(7)));
+        assertEquals(5, store.recordCount()); // never less than the distinct loans
+        // The same batch again → same file name → replaced, not indexed twice
+        store.write(List.of(loan(1, 7), loan(2, 7)));
+        assertEquals(2, store.fileCount());
+    }
+
+    @Test
+    void filesWrittenByAnotherNodeAreFoundOnTheNextLookup() {
+        BorrowArchiveStore archiver = open();
+        BorrowArchiveStore otherNode = open(); // same shared directory, index loaded before the archive ran
+
+        archiver.write(List.of(loan(1, 7), loan(2, 8)));
+
+        assertTrue(otherNode.contains(2));
+        assertEquals(List.of(1L), ids(otherNode.findByUser(7)));
+        assertEquals(2, otherNode.recordCount());
+        assertEquals(1, open().fileCount()); // and a node starting later reads it at startup
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private BorrowArchiveStore open() {
+        BorrowArchiveStore store = new BorrowArchiveStore(directory.toString());
+        store.loadIndex();
+        return store;
+    }
+
+    private static ArchivedBorrow loan(long id, long userId) {
+        return new ArchivedBorrow(id, userId, id * 100, "Book " + id, BORROWED, BORROWED.plusDays(14), BORROWED.plusDays(10));
+    }
+
+    private static List<Long> ids(List<ArchivedBorrow> borrows) {
+        return borrows.stream().map(ArchivedBorrow::id).toList();
+    }
+}
@@ -0,0 +1,30 @@
+package com.library.library_management.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NegativeLookupCacheTest {
+
+    private final NegativeLookupCache cache = new NegativeLookupCache(64, 60_000);
+
+    @Test
+    void remembersAMissUntilTheIdIsCreated() {
+        cache.markMissing(42, cache.stamp());
+        assertTrue(cache.isKnownMissing(42));
+        assertFalse(cache.isKnownMissing(43));
+
+        cache.forget(42);
+        assertFalse(cache.isKnownMissing(42));
+    }
+
+    @Test
+    void missThatRacedWithACreateIsNotRemembered() {
+        long stamp = cache.stamp(); // reader: about to look id 7 up, finds nothing...
+        cache.forget(7);            // ...meanwhile book 7 is created and committed
+        cache.markMissing(7, stamp);
+
+        assertFalse(cache.isKnownMissing(7));
+    }
+}
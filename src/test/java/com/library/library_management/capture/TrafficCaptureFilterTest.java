@@ -0,0 +1,64 @@
+package com.library.library_management.capture;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class TrafficCaptureFilterTest {
+
+    private static final int MAX_BODY_BYTES = 64;
+
+    private final TrafficRecorder recorder = mock(TrafficRecorder.class);
+    private final TrafficCaptureFilter filter = new TrafficCaptureFilter(recorder, true, 1.0, MAX_BODY_BYTES);
+
+    @Test
+    void completeBodyIsKeptScrubbed() throws Exception {
+        CapturedRequest captured = capture("{\"email\":\"ann@example.com\",\"password\":\"hunter22\"}");
+
+        assertTrue(captured.bodyComplete());
+        assertEquals("{\"email\":\"ann@example.com\",\"password\":\"***\"}",
+                new String(captured.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void bodyCutOffInsideAPasswordIsNotKept() throws Exception {
+        // The limit falls inside the password value — its closing quote never makes it into the capture
+        String body = "{\"email\":\"ann@example.com\",\"note\":\"" + "x".repeat(10) + "\",\"password\":\"hunter22-and-more\"}";
+
+        CapturedRequest captured = capture(body);
+
+        assertFalse(captured.bodyComplete());
+        assertEquals(0, captured.body().length);
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private CapturedRequest capture(String json) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/login");
+        request.setContentType("application/json");
+        request.setContent(json.getBytes(StandardCharsets.UTF_8));
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                req.getInputStream().readAllBytes(); // the endpoint reads the whole body
+            }
+        }));
+        ArgumentCaptor<CapturedRequest> captured = ArgumentCaptor.forClass(CapturedRequest.class);
+        verify(recorder).record(captured.capture());
+        return captured.getValue();
+    }
+}
@@ -0,0 +1,304 @@
+package com.library.library_management.capture;
+
+import com.library.library_management.model.Role;
+
+import java.io.BufferedWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replays captured production traffic (TrafficCaptureFilter) against a test instance, and compares
+ * the latency of two replays — e.g. the current release vs a branch.
+ *
+ *   replay  <captureDir> <baseUrl> <speed> <results.tsv>   sends every captured request again
+ *   compare <baseline.tsv> <candidate.tsv>                  per-endpoint p50 / p90 / p99 / max, side by side
+ *
+ * Replay keeps the original timing: request i is sent (start_i - start_0) / speed after the first one,
+ * each on its own virtual thread, whether or not earlier ones have answered (open loop). Requests that
+ * overlapped in production overlap again, so the original concurrency comes back with them — speed 2
+ * is the same traffic at twice the rate. Latency is measured from the moment a request was DUE, not
+ * when it was actually sent, so a slow server can't hide its queueing (no coordinated omission).
+ * The same capture always produces the same requests in the same order.
+ *
+ * Captures hold no tokens: each role logs in once with the account given as -Duser=email:password /
+ * -Dadmin=email:password and its token is used for all of that role's requests (without the account,
+ * that role's requests are skipped). Captured logins and registrations are sent with the scrubbed
+ * password replaced (-Dpassword, default Replay-Passw0rd; logins use the -Duser account). Logout and
+ * revoke calls are skipped — they'd revoke the shared tokens — as are requests whose body wasn't captured.
+ *
+ * Not a JUnit test (surefire skips *Benchmark classes). Run it by hand, e.g. 10% sample at 10x:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Duser=u@test.dev:Secret123 -Dadmin=a@test.dev:Secret123 \
+ *       -Dexec.mainClass=com.library.library_management.capture.TrafficReplayBenchmark \
+ *       -Dexec.args="replay data/capture http://localhost:8081 10 target/replay-main.tsv"
+ *   ... -Dexec.args="compare target/replay-main.tsv target/replay-branch.tsv"
+ */
+public class TrafficReplayBenchmark {
+
+    private static final String PASSWORD = System.getProperty("password", "Replay-Passw0rd");
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 5 && args[0].equals("replay")) {
+            replay(Path.of(args[1]), args[2], Double.parseDouble(args[3]), Path.of(args[4]));
+        } else if (args.length == 3 && args[0].equals("compare")) {
+            compare(Path.of(args[1]), Path.of(args[2]));
+        } else {
+            System.err.println("usage: replay <captureDir> <baseUrl> <speed> <results.tsv> | compare <baseline.tsv> <candidate.tsv>");
+            System.exit(2);
+        }
+    }
+
+    // ======================== REPLAY ========================
+
+    private static void replay(Path captureDir, String baseUrl, double speed, Path resultsFile) throws Exception {
+        List<CapturedRequest> captured = new ArrayList<>();
+        TrafficRecorder.read(captureDir, captured::add);
+        captured.sort(Comparator.comparingLong(CapturedRequest::startMicros)); // files are in completion order
+        if (captured.isEmpty()) {
+            System.out.println("No captured requests in " + captureDir);
+            return;
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1) // like browsers/apps do against the API — no h2c upgrade dance
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Map<Role, String> tokens = login(client, baseUrl);
+
+        Queue<Result> results = new ConcurrentLinkedQueue<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        int skipped = 0;
+        long first = captured.get(0).startMicros();
+        long t0 = System.nanoTime() + 200_000_000L; // a moment to get the scheduler going
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (CapturedRequest request : captured) {
+                HttpRequest http = toHttp(request, baseUrl, tokens);
+                if (http == null) {
+                    skipped++;
+                    continue;
+                }
+                long due = t0 + (long) ((request.startMicros() - first) * 1000 / speed);
+                for (long wait; (wait = due - System.nanoTime()) > 0; ) {
+                    LockSupport.parkNanos(wait);
+                }
+                senders.submit(() -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    int status;
+                    try {
+                        status = client.send(http, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = 0; // connection refused, timeout, ...
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                    results.add(new Result(request.method() + " " + template(request.uri()), status,
+                            (System.nanoTime() - due) / 1000, request.status(), request.durationMicros()));
+                });
+            }
+        } // waits for every request to finish
+
+        writeResults(results, resultsFile);
+        int statusChanged = 0;
+        for (Result result : results) {
+            if (result.status() != result.capturedStatus()) {
+                statusChanged++;
+            }
+        }
+        double seconds = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("Replayed %d requests in %.1f s at %.1fx (%d skipped), max %d in flight, %d with a different status than captured%n",
+                results.size(), seconds, speed, skipped, maxInFlight.get(), statusChanged);
+        System.out.printf("Results written to %s%n%n", resultsFile);
+        printTable(groupLatencies(List.copyOf(results), true), groupLatencies(List.copyOf(results), false),
+                "server-side", "replayed");
+    }
+
+    // One login per role we have an account for
+    private static Map<Role, String> login(HttpClient client, String baseUrl) throws Exception {
+        Map<Role, String> tokens = new EnumMap<>(Role.class);
+        for (Role role : Role.values()) {
+            String account = System.getProperty(role.name().toLowerCase());
+            if (account == null) {
+                System.out.println("No -D" + role.name().toLowerCase() + "=email:password, skipping " + role + " requests");
+                continue;
+            }
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(loginBody(account)))
+                    .timeout(TIMEOUT)
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = TOKEN.matcher(response.body());
+            if (response.statusCode() != 200 || !matcher.find()) {
+                throw new IllegalStateException("Login as " + role + " failed: " + response.statusCode() + " " + response.body());
+            }
+            tokens.put(role, matcher.group(1));
+        }
+        return tokens;
+    }
+
+    private static HttpRequest toHttp(CapturedRequest request, String baseUrl, Map<Role, String> tokens) {
+        String path = request.uri();
+        if (!request.bodyComplete() || path.startsWith("/api/v1/auth/logout") || path.startsWith("/api/v1/auth/users/")) {
+            return null;
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+        if (request.role() != null) {
+            String token = tokens.get(request.role());
+            if (token == null) {
+                return null;
+            }
+            builder.header("Authorization", "Bearer " + token);
+        }
+        byte[] body = request.body();
+        if (path.startsWith("/api/v1/auth/login")) {
+            String account = System.getProperty("user");
+            if (account == null) {
+                return null;
+            }
+            body = loginBody(account).getBytes(StandardCharsets.UTF_8);
+        } else if (body.length > 0) {
+            body = new String(body, StandardCharsets.UTF_8)
+                    .replace('"' + TrafficScrubber.REDACTED + '"', '"' + PASSWORD + '"')
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+        if (request.contentType() != null) {
+            builder.header("Content-Type", request.contentType());
+        }
+        return builder.method(request.method(), body.length == 0
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(body)).build();
+    }
+
+    private static String loginBody(String account) {
+        int colon = account.indexOf(':');
+        return "{\"email\":\"" + account.substring(0, colon) + "\",\"password\":\"" + account.substring(colon + 1) + "\"}";
+    }
+
+    // /api/v1/books/42/detail?x=1 → /api/v1/books/{id}/detail, so latencies group per endpoint
+    private static String template(String uri) {
+        int query = uri.indexOf('?');
+        return ID_SEGMENT.matcher(query < 0 ? uri : uri.substring(0, query)).replaceAll("/{id}");
+    }
+
+    // ======================== COMPARE ========================
+
+    private static void compare(Path baselineFile, Path candidateFile) throws Exception {
+        List<Result> baseline = readResults(baselineFile);
+        List<Result> candidate = readResults(candidateFile);
+        System.out.printf("baseline  %s: %d requests, %d errors%n", baselineFile, baseline.size(), errors(baseline));
+        System.out.printf("candidate %s: %d requests, %d errors%n%n", candidateFile, candidate.size(), errors(candidate));
+        printTable(groupLatencies(baseline, false), groupLatencies(candidate, false), "baseline", "candidate");
+    }
+
+    // Endpoint → sorted latencies (µs), biggest endpoints first, plus "ALL"
+    private static Map<String, long[]> groupLatencies(List<Result> results, boolean captured) {
+        Map<String, List<Long>> grouped = new TreeMap<>();
+        List<Long> all = new ArrayList<>();
+        for (Result result : results) {
+            long micros = captured ? result.capturedMicros() : result.latencyMicros();
+            grouped.computeIfAbsent(result.endpoint(), key -> new ArrayList<>()).add(micros);
+            all.add(micros);
+        }
+        Map<String, long[]> sorted = new LinkedHashMap<>();
+        sorted.put("ALL", toSortedArray(all));
+        grouped.entrySet().stream()
+                .sorted((a, b) -> Integer.compare(b.getValue().size(), a.getValue().size()))
+                .forEach(entry -> sorted.put(entry.getKey(), toSortedArray(entry.getValue())));
+        return sorted;
+    }
+
+    private static void printTable(Map<String, long[]> before, Map<String, long[]> after, String beforeName, String afterName) {
+        System.out.printf("%-45s %7s   %-31s   %-31s   %8s %8s%n", "endpoint (latency in ms)", "n",
+                beforeName + " p50/p90/p99/max", afterName + " p50/p90/p99/max", "chg p50", "chg p99");
+        for (Map.Entry<String, long[]> entry : before.entrySet()) {
+            long[] a = entry.getValue();
+            long[] b = after.get(entry.getKey());
+            if (b == null) {
+                System.out.printf("%-45s %7d   %-31s   %-31s%n", entry.getKey(), a.length, percentiles(a), "(not in " + afterName + ")");
+                continue;
+            }
+            System.out.printf("%-45s %7d   %-31s   %-31s   %+7.1f%% %+7.1f%%%n", entry.getKey(), a.length,
+                    percentiles(a), percentiles(b), change(at(a, 0.5), at(b, 0.5)), change(at(a, 0.99), at(b, 0.99)));
+        }
+        for (String endpoint : after.keySet()) {
+            if (!before.containsKey(endpoint)) {
+                System.out.printf("%-45s %7d   %-31s   %-31s%n", endpoint, after.get(endpoint).length,
+                        "(not in " + beforeName + ")", percentiles(after.get(endpoint)));
+            }
+        }
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private static String percentiles(long[] sorted) {
+        return String.format("%7.1f %7.1f %7.1f %7.1f", at(sorted, 0.5) / 1000.0, at(sorted, 0.9) / 1000.0,
+                at(sorted, 0.99) / 1000.0, sorted[sorted.length - 1] / 1000.0);
+    }
+
+    private static long at(long[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static double change(long before, long after) {
+        return before == 0 ? 0 : (after - before) * 100.0 / before;
+    }
+
+    private static long[] toSortedArray(List<Long> values) {
+        return values.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static long errors(List<Result> results) {
+        return results.stream().filter(result -> result.status() == 0 || result.status() >= 500).count();
+    }
+
+    private static void writeResults(Iterable<Result> results, Path file) throws Exception {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("endpoint\tstatus\tlatency_us\tcaptured_status\tcaptured_us\n");
+            for (Result result : results) {
+                out.write(result.endpoint() + '\t' + result.status() + '\t' + result.latencyMicros() + '\t'
+                        + result.capturedStatus() + '\t' + result.capturedMicros() + '\n');
+            }
+        }
+    }
+
+    private static List<Result> readResults(Path file) throws Exception {
+        List<Result> results = new ArrayList<>();
+        List<String> lines = Files.readAllLines(file);
+        for (String line : lines.subList(1, lines.size())) { // skip the header
+            String[] fields = line.split("\t");
+            results.add(new Result(fields[0], Integer.parseInt(fields[1]), Long.parseLong(fields[2]),
+                    Integer.parseInt(fields[3]), Long.parseLong(fields[4])));
+        }
+        return results;
+    }
+
+    private record Result(String endpoint, int status, long latencyMicros, int capturedStatus, long capturedMicros) {
+    }
+}
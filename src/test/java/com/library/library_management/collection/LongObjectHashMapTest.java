@@ -0,0 +1,57 @@
+package com.library.library_management.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LongObjectHashMapTest {
+
+    @Test
+    void computeIfAbsentCreatesTheValueOnce() {
+        LongObjectHashMap<StringBuilder> map = new LongObjectHashMap<>();
+        AtomicInteger created = new AtomicInteger();
+
+        StringBuilder first = map.computeIfAbsent(42, key -> { created.incrementAndGet(); return new StringBuilder(); });
+        StringBuilder second = map.computeIfAbsent(42, key -> { created.incrementAndGet(); return new StringBuilder(); });
+
+        assertSame(first, second);
+        assertSame(first, map.get(42));
+        assertEquals(1, created.get());
+        assertEquals(1, map.size());
+        assertNull(map.get(43));
+    }
+
+    @Test
+    void keepsEveryEntryThroughRehashes() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+        Map<Long, String> expected = new HashMap<>();
+        for (long key = -5_000; key <= 5_000; key += 7) {
+            if (key != 0) {
+                map.computeIfAbsent(key, Long::toString);
+                expected.put(key, Long.toString(key));
+            }
+        }
+
+        Map<Long, String> seen = new HashMap<>();
+        map.forEach(seen::put);
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, seen);
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+    }
+
+    @Test
+    void zeroIsReserved() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+
+        assertThrows(IllegalArgumentException.class, () -> map.computeIfAbsent(0, Long::toString));
+        assertNull(map.get(0));
+    }
+}
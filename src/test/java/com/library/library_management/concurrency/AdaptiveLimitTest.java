@@ -0,0 +1,102 @@
+package com.library.library_management.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimitTest {
+
+    private static final long FAST = 1_000_000;     // 1 ms
+    private static final long SLOW = 20_000_000;    // 20 ms — well past the 2x tolerance
+
+    @Test
+    void rejectsOnceTheLimitIsInFlight() {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(1, limit.getRejected());
+
+        limit.release(FAST, true);
+        assertEquals(1, limit.getInFlight());
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void growsWhileBusyAndLatencyStaysFlat() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 100);
+
+        runAtFullLimit(limit, FAST, 50);
+
+        assertTrue(limit.getLimit() > 10, "limit should probe upwards, was " + limit.getLimit());
+    }
+
+    @Test
+    void doesNotGrowWhileMostlyIdle() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 100);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(FAST, true);
+        }
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void shrinksTowardsTheMinimumWhenLatencyClimbs() {
+        AdaptiveLimit limit = new AdaptiveLimit(20, 4, 100);
+        runAtFullLimit(limit, FAST, 5);
+        int healthy = limit.getLimit();
+
+        runAtFullLimit(limit, SLOW, 10);
+
+        assertTrue(limit.getLimit() < healthy, "limit should back off, was " + limit.getLimit());
+        assertTrue(limit.getLimit() >= 4);
+    }
+
+    @Test
+    void baselineCatchesUpWithAPermanentSlowdown() {
+        AdaptiveLimit limit = new AdaptiveLimit(20, 4, 100);
+        runAtFullLimit(limit, FAST, 5);
+        runAtFullLimit(limit, SLOW, 10);
+        int backedOff = limit.getLimit();
+
+        runAtFullLimit(limit, SLOW, 2_000); // the slower latency is the new normal
+
+        assertTrue(limit.getLimit() > backedOff, "limit should recover, was " + limit.getLimit());
+    }
+
+    @Test
+    void unsampledReleasesDoNotMoveTheLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 100);
+        runAtFullLimit(limit, FAST, 5);
+        int before = limit.getLimit();
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(SLOW, false);
+        }
+
+        assertEquals(before, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    // Fills every slot, then releases them all with the same latency — a busy system
+    private static void runAtFullLimit(AdaptiveLimit limit, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(rttNanos, true);
+            }
+        }
+    }
+}
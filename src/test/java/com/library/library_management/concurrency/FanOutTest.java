@@ -0,0 +1,119 @@
+package com.library.library_management.concurrency;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FanOutTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void abandonedTaskCountsAgainstTheLimitUntilItReallyEnds() throws Exception {
+        FanOut.AbandonLimit limit = new FanOut.AbandonLimit(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (FanOut fanOut = new FanOut(executor, limit)) {
+            FanOut.Part<String> stuck = fanOut.forkOptional(() -> {
+                started.countDown();
+                awaitIgnoringInterrupts(release); // like a JDBC call: cancel() doesn't stop it
+                return "late";
+            }, Duration.ofMillis(50));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertNull(stuck.joinOrNull());
+        } // cancelled, still running
+
+        assertEquals(1, limit.abandoned());
+        AtomicBoolean optionalRan = new AtomicBoolean();
+        try (FanOut fanOut = new FanOut(executor, limit)) {
+            FanOut.Part<String> optional = fanOut.forkOptional(() -> {
+                optionalRan.set(true);
+                return "never ran";
+            }, Duration.ofSeconds(5));
+            FanOut.Part<String> required = fanOut.fork(() -> "book", Duration.ofSeconds(5));
+            assertThrows(TimeoutException.class, optional::join); // at once, not after 5 s
+            assertEquals("book", required.join()); // required parts always run
+        }
+        assertFalse(optionalRan.get());
+
+        release.countDown();
+        assertTrue(eventually(() -> limit.abandoned() == 0));
+        try (FanOut fanOut = new FanOut(executor, limit)) {
+            assertEquals("ok", fanOut.forkOptional(() -> "ok", Duration.ofSeconds(5)).join());
+        }
+    }
+
+    @Test
+    void tasksThatFinishInTimeAreNeverLimited() throws Exception {
+        FanOut.AbandonLimit limit = new FanOut.AbandonLimit(1);
+        int pages = 50;
+        CountDownLatch allStarted = new CountDownLatch(pages * 2);
+        List<FanOut> open = new ArrayList<>();
+        List<FanOut.Part<Integer>> parts = new ArrayList<>();
+        for (int page = 0; page < pages; page++) {
+            FanOut fanOut = new FanOut(executor, limit);
+            open.add(fanOut);
+            for (int lookup = 0; lookup < 2; lookup++) {
+                int value = page;
+                // Every part waits until all 100 are running — would hang if any were capped
+                parts.add(fanOut.forkOptional(() -> {
+                    allStarted.countDown();
+                    allStarted.await();
+                    return value;
+                }, Duration.ofSeconds(5)));
+            }
+        }
+
+        for (FanOut.Part<Integer> part : parts) {
+            part.join();
+        }
+        open.forEach(FanOut::close);
+        assertEquals(0, limit.abandoned());
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private static void awaitIgnoringInterrupts(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException e) {
+                // keep going
+            }
+        }
+    }
+
+    private static boolean eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
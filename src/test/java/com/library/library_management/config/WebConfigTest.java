@@ -0,0 +1,45 @@
+package com.library.library_management.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jackson.autoconfigure.JacksonProperties;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.cfg.DateTimeFeature;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebConfigTest {
+
+    record Sample(String bookTitle, LocalDate dueDate) {}
+
+    @Test
+    void smileMapperAppliesSpringJacksonSettings() {
+        JacksonProperties properties = new JacksonProperties();
+        properties.setPropertyNamingStrategy("SNAKE_CASE");
+        properties.getDatatype().getDatetime().put(DateTimeFeature.WRITE_DATES_AS_TIMESTAMPS, true);
+
+        JsonNode node = roundTrip(WebConfig.smileMapper(properties, List.of()));
+
+        assertEquals("Dune", node.get("book_title").asString());
+        assertTrue(node.get("due_date").isArray(), "dates written as timestamps, like spring.jackson asked");
+    }
+
+    @Test
+    void smileMapperWritesIsoDatesByDefault() {
+        JsonNode node = roundTrip(WebConfig.smileMapper(new JacksonProperties(), List.of()));
+
+        assertEquals("Dune", node.get("bookTitle").asString());
+        assertEquals("2026-03-01", node.get("dueDate").asString());
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private static JsonNode roundTrip(SmileMapper mapper) {
+        byte[] smile = mapper.writeValueAsBytes(new Sample("Dune", LocalDate.of(2026, 3, 1)));
+        return mapper.readTree(smile);
+    }
+}
@@ -0,0 +1,81 @@
+package com.library.library_management.controller;
+
+import com.library.library_management.service.BookChangeFeed;
+import com.library.library_management.service.BookDetailService;
+import com.library.library_management.service.BookService;
+import com.library.library_management.service.CoverImageService;
+import com.library.library_management.service.InventoryService;
+import com.library.library_management.service.RecommendationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BookControllerTest {
+
+    private static final String CBOR = "application/cbor";
+
+    private final BookService bookService = mock(BookService.class);
+    private final MockMvc mvc = MockMvcBuilders
+            .standaloneSetup(new BookController(bookService, mock(CoverImageService.class), mock(BookChangeFeed.class),
+                    mock(RecommendationService.class), mock(InventoryService.class), mock(BookDetailService.class)))
+            // Same order as the application: JSON first, then CBOR and Smile (WebConfig)
+            .setMessageConverters(new ByteArrayHttpMessageConverter(), new JacksonJsonHttpMessageConverter(),
+                    new JacksonCborHttpMessageConverter(), new JacksonSmileHttpMessageConverter())
+            .build();
+
+    @Test
+    void fieldsAreEncodedInCborWhenTheClientAsksForIt() throws Exception {
+        when(bookService.getAllBooksAsMaps(any())).thenReturn(List.of(book(1, "Dune"), book(2, "Emma")));
+
+        MvcResult result = mvc.perform(get("/api/v1/books").param("fields", "id,title").header("Accept", CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CBOR))
+                .andReturn();
+
+        List<?> books = new CBORMapper().readValue(result.getResponse().getContentAsByteArray(), List.class);
+        assertEquals(List.of(Map.of("id", 1, "title", "Dune"), Map.of("id", 2, "title", "Emma")), books);
+    }
+
+    @Test
+    void oneBookWithFieldsFollowsTheAcceptQualities() throws Exception {
+        when(bookService.getBookByIdAsMap(eq(1L), any())).thenReturn(book(1, "Dune"));
+        when(bookService.getBookById(eq(1L), any())).thenReturn("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+
+        mvc.perform(get("/api/v1/books/1").param("fields", "id").header("Accept", "application/json;q=0.5, " + CBOR))
+                .andExpect(content().contentType(CBOR));
+        mvc.perform(get("/api/v1/books/1").param("fields", "id").header("Accept", "*/*"))
+                .andExpect(content().contentType("application/json"))
+                .andExpect(content().string("{\"id\":1}"));
+        mvc.perform(get("/api/v1/books/1").param("fields", "id"))
+                .andExpect(content().contentType("application/json"));
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private static Map<String, Object> book(long id, String title) {
+        Map<String, Object> book = new LinkedHashMap<>();
+        book.put("id", id);
+        book.put("title", title);
+        return book;
+    }
+}
@@ -0,0 +1,66 @@
+package com.library.library_management.dto.book;
+
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encoded size and encode/decode time of a catalog page in JSON, CBOR and Smile — what an internal
+ * consumer gains by sending Accept: application/cbor or application/x-jackson-smile (see WebConfig).
+ *
+ * Not a JUnit test (surefire skips *Benchmark classes). Run it by hand:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.library.library_management.dto.book.BookEncodingBenchmark
+ */
+public class BookEncodingBenchmark {
+
+    private static final int PAGE_SIZE = 500;
+    private static final int WARMUP = 3_000;
+    private static final int ITERATIONS = 10_000;
+    private static final TypeReference<List<BookResponseDTO>> PAGE = new TypeReference<>() {
+    };
+
+    public static void main(String[] args) {
+        List<BookResponseDTO> page = new ArrayList<>(PAGE_SIZE);
+        LocalDateTime created = LocalDateTime.of(2026, 2, 21, 10, 30, 15, 123_456_000);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(new BookResponseDTO((long) i + 1, "The Library Book Volume " + i, "Author Number " + (i % 97),
+                    "978000000" + (1000 + i), 1990 + i % 30, i % 5,
+                    "/api/v1/covers/" + "ab".repeat(32) + ".jpg", created.plusMinutes(i)));
+        }
+
+        System.out.printf("page of %d books%n", PAGE_SIZE);
+        System.out.printf("%-6s %9s %12s %12s%n", "format", "bytes", "encode ns", "decode ns");
+        run("JSON", JsonMapper.builder().build(), page);
+        run("CBOR", CBORMapper.builder().build(), page);
+        run("Smile", SmileMapper.builder().build(), page);
+    }
+
+    private static void run(String name, ObjectMapper mapper, List<BookResponseDTO> page) {
+        byte[] encoded = mapper.writeValueAsBytes(page);
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += mapper.writeValueAsBytes(page).length + mapper.readValue(encoded, PAGE).size();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += mapper.writeValueAsBytes(page).length;
+        }
+        long encodeNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += mapper.readValue(encoded, PAGE).size();
+        }
+        long decodeNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        System.out.printf("%-6s %9d %12d %12d   (checksum %d)%n", name, encoded.length, encodeNanos, decodeNanos, sink);
+    }
+}
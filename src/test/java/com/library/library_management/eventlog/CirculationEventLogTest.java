@@ -0,0 +1,157 @@
+package com.library.library_management.eventlog;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CirculationEventLogTest {
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_BYTES = 53;
+    private static final int RECORDS_PER_SEGMENT = (SEGMENT_BYTES - HEADER_BYTES) / RECORD_BYTES;
+
+    @TempDir
+    Path directory;
+
+    private CirculationEventLog eventLog;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (eventLog != null) {
+            eventLog.close();
+        }
+    }
+
+    @Test
+    void failedBatchGivesItsSequenceNumbersToTheNextOne() throws Exception {
+        eventLog = open();
+        for (int i = 1; i <= RECORDS_PER_SEGMENT; i++) {
+            append(i);
+        }
+        // The next record needs a new segment file — make creating it fail
+        Path moved = Files.move(directory, directory.resolveSibling(directory.getFileName() + "-moved"));
+
+        assertThrows(ExecutionException.class,
+                () -> eventLog.append(CirculationEventType.BORROWED, 1, 1, 0, -1).get(5, TimeUnit.SECONDS));
+
+        assertEquals(RECORDS_PER_SEGMENT, eventLog.lastSequence());
+        assertEquals(1, eventLog.failedCount());
+        Files.move(moved, directory);
+        assertEquals(RECORDS_PER_SEGMENT + 1, append(42));
+        List<CirculationEvent> tail = eventLog.read(RECORDS_PER_SEGMENT, 10);
+        assertEquals(List.of((long) RECORDS_PER_SEGMENT, RECORDS_PER_SEGMENT + 1L),
+                tail.stream().map(CirculationEvent::sequence).toList());
+        assertEquals(42, tail.get(1).bookId());
+    }
+
+    @Test
+    void reopenDropsATornLastRecordAndResumesAtItsSequence() throws Exception {
+        eventLog = open();
+        for (int i = 1; i <= 10; i++) {
+            append(i);
+        }
+        eventLog.close();
+        eventLog = null;
+        // A crash in the middle of writing record 10: its CRC no longer matches the body
+        flipCrcByte(10);
+
+        eventLog = open();
+
+        assertEquals(9, eventLog.lastSequence());
+        assertEquals(10, append(100));
+        List<CirculationEvent> replayed = new CopyOnWriteArrayList<>();
+        eventLog.subscribe(1, replayed::add);
+        assertEquals(LongStream.rangeClosed(1, 10).boxed().toList(),
+                replayed.stream().map(CirculationEvent::sequence).toList());
+        assertEquals(100, replayed.get(9).bookId());
+
+        assertEquals(11, append(101)); // subscribers keep getting new events after the replay
+        assertEquals(11, replayed.size());
+    }
+
+    @Test
+    void concurrentAppendsGetContiguousSequenceNumbers() throws Exception {
+        eventLog = open();
+        int threads = 8;
+        int perThread = RECORDS_PER_SEGMENT / threads + 1; // just enough to roll over into a second segment
+        Set<Long> sequences = ConcurrentHashMap.newKeySet();
+        ExecutorService callers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(callers.submit(() -> {
+                    List<CompletableFuture<Long>> pending = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) {
+                        pending.add(eventLog.append(CirculationEventType.RETURNED, i, 1, i, -1));
+                    }
+                    for (CompletableFuture<Long> sequence : pending) {
+                        sequences.add(sequence.get(10, TimeUnit.SECONDS));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        long total = (long) threads * perThread;
+        assertEquals(total, sequences.size());
+        assertEquals(LongStream.rangeClosed(1, total).boxed().collect(Collectors.toSet()), sequences);
+        assertEquals(total, eventLog.lastSequence());
+        assertEquals(2, eventLog.segmentCount());
+        assertEquals(total, eventLog.read(1, Integer.MAX_VALUE).size());
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private CirculationEventLog open() {
+        CirculationEventLog opened = new CirculationEventLog(new SimpleMeterRegistry(), directory.toString(), SEGMENT_BYTES, false);
+        opened.open();
+        return opened;
+    }
+
+    private long append(long bookId) throws Exception {
+        CompletableFuture<Long> sequence = eventLog.append(CirculationEventType.BORROWED, bookId, 1, bookId, -1);
+        return sequence.get(5, TimeUnit.SECONDS);
+    }
+
+    // Record n of the first segment: length (4 bytes), then its CRC
+    private void flipCrcByte(long n) throws Exception {
+        Path segment = directory.resolve(String.format("%020d.log", 1));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long offset = HEADER_BYTES + (n - 1) * RECORD_BYTES + 4;
+            ByteBuffer crc = ByteBuffer.allocate(1);
+            channel.read(crc, offset);
+            crc.flip();
+            byte flipped = (byte) ~crc.get();
+            channel.write(ByteBuffer.wrap(new byte[]{flipped}), offset);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.library.library_management.exception;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+
+/**
+ * Measures bytes allocated per 404 — the old path vs the current one.
+ *
+ * Not a JUnit test (surefire skips *Benchmark classes). Run it by hand:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.library.library_management.exception.ErrorPathBenchmark
+ *
+ * Old path: exception WITH stack trace + message concatenation + error object + Jackson.
+ * New path: stackless exception + ErrorBodyEncoder.
+ */
+public class ErrorPathBenchmark {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    public static void main(String[] args) {
+        JsonMapper mapper = JsonMapper.builder().build();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += oldPath(mapper, i).length + newPath(i).length;
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += oldPath(mapper, i).length;
+        }
+        long oldNanos = System.nanoTime() - start;
+        long oldBytes = threads.getCurrentThreadAllocatedBytes() - before;
+
+        before = threads.getCurrentThreadAllocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += newPath(i).length;
+        }
+        long newNanos = System.nanoTime() - start;
+        long newBytes = threads.getCurrentThreadAllocatedBytes() - before;
+
+        System.out.printf("old 404 path: %6d bytes/op  %6d ns/op%n", oldBytes / ITERATIONS, oldNanos / ITERATIONS);
+        System.out.printf("new 404 path: %6d bytes/op  %6d ns/op%n", newBytes / ITERATIONS, newNanos / ITERATIONS);
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static byte[] oldPath(JsonMapper mapper, long id) {
+        try {
+            throw new RuntimeException("Book not found with id: " + id); // stack trace filled in
+        } catch (RuntimeException ex) {
+            return mapper.writeValueAsBytes(new LegacyErrorBody(404, ex.getMessage(), LocalDateTime.now()));
+        }
+    }
+
+    private static byte[] newPath(long id) {
+        try {
+            throw new ResourceNotFoundException("Book", id);
+        } catch (ResourceNotFoundException ex) {
+            return ErrorBodyEncoder.encodeNotFound(ex.getResource(), ex.getResourceId());
+        }
+    }
+
+    // What the handler used to serialize
+    public record LegacyErrorBody(int status, String message,
+                                  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+                                  LocalDateTime timestamp) {
+    }
+}
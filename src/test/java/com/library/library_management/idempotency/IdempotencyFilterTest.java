@@ -0,0 +1,89 @@
+package com.library.library_management.idempotency;
+
+import com.library.library_management.repository.IdempotencyRecordRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+
+class IdempotencyFilterTest {
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(
+            new IdempotencyStore(mock(IdempotencyRecordRepository.class), 60_000, 100, false), 1_000, 65_536, 64);
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void retryIsReplayedWithoutRunningTheEndpointAgain() throws Exception {
+        assertEquals(201, send(post("k1", "/api/v1/borrows", null, "{}"), 201).getStatus());
+        MockHttpServletResponse retry = send(post("k1", "/api/v1/borrows", null, "{}"), 201);
+
+        assertEquals(201, retry.getStatus());
+        assertEquals("true", retry.getHeader("Idempotent-Replayed"));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void differentQueryStringOrAcceptIsAnotherRequest() throws Exception {
+        send(post("k2", "/api/v1/books", "notify=true", "{}"), 201);
+
+        assertEquals(422, send(post("k2", "/api/v1/books", "notify=false", "{}"), 201).getStatus());
+        MockHttpServletRequest cbor = post("k2", "/api/v1/books", "notify=true", "{}");
+        cbor.addHeader("Accept", "application/cbor");
+        assertEquals(422, send(cbor, 201).getStatus());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void forbiddenResponseIsNotStored() throws Exception {
+        assertEquals(403, send(post("k3", "/api/v1/books", null, "{}"), 403).getStatus());
+        assertEquals(201, send(post("k3", "/api/v1/books", null, "{}"), 201).getStatus());
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void oversizedBodyIsRefused() throws Exception {
+        MockHttpServletResponse response = send(post("k4", "/api/v1/books", null, "x".repeat(65)), 201);
+
+        assertEquals(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, response.getStatus());
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void scopedKeyFitsTheColumnForTheLongestEmailAndKey() {
+        String longest = IdempotencyFilter.scopedKey("u".repeat(64) + "@" + "d".repeat(189), "k".repeat(255));
+
+        assertEquals(64, longest.length());
+        assertNotEquals(IdempotencyFilter.scopedKey("alice@example.com", "k5"),
+                IdempotencyFilter.scopedKey("bob@example.com", "k5"));
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private MockHttpServletResponse send(MockHttpServletRequest request, int status) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain endpoint = (req, res) -> {
+            runs.incrementAndGet();
+            req.getInputStream().readAllBytes();
+            ((HttpServletResponse) res).setStatus(status);
+            res.getOutputStream().write("{}".getBytes());
+        };
+        filter.doFilter(request, response, endpoint);
+        return response;
+    }
+
+    private static MockHttpServletRequest post(String key, String uri, String query, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setQueryString(query);
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes());
+        return request;
+    }
+}
@@ -0,0 +1,42 @@
+package com.library.library_management.idempotency;
+
+import com.library.library_management.model.IdempotencyRecord;
+import com.library.library_management.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyStoreTest {
+
+    private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+    private final IdempotencyStore store = new IdempotencyStore(repository, 60_000, 2, true);
+
+    @Test
+    void entriesLoadedFromTheDatabaseCountTowardsTheCap() {
+        when(repository.findById(anyString())).thenAnswer(call -> Optional.of(record(call.getArgument(0))));
+
+        assertEquals(IdempotencyStore.Claim.Kind.REPLAY, store.claim("a").kind());
+        store.claim("b");
+        store.claim("c"); // over the cap of 2 — "a" is the oldest and goes
+
+        store.claim("b");
+        verify(repository, times(1)).findById("b"); // still in memory
+        store.claim("a");
+        verify(repository, times(2)).findById("a"); // evicted, loaded again
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private static IdempotencyRecord record(String key) {
+        return new IdempotencyRecord(key, "f".repeat(64), 201, "application/json", null, "{}".getBytes(),
+                LocalDateTime.now());
+    }
+}
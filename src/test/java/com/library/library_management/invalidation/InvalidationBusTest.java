@@ -0,0 +1,160 @@
+package com.library.library_management.invalidation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvalidationBusTest {
+
+    private final List<InvalidationBus> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(InvalidationBus::stop);
+    }
+
+    @Test
+    void everyNodeHearsEveryChangeFromConcurrentWriters() throws Exception {
+        InMemoryInvalidationTransport network = new InMemoryInvalidationTransport();
+        InvalidationBus nodeA = node(network);
+        InvalidationBus nodeB = node(network);
+        Set<String> seenByA = ConcurrentHashMap.newKeySet();
+        Set<String> seenByB = ConcurrentHashMap.newKeySet();
+        nodeA.subscribe(EntityType.BOOK, message -> seenByA.add(message.id()));
+        nodeB.subscribe(EntityType.BOOK, message -> seenByB.add(message.id()));
+
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService writers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = t * perThread;
+                InvalidationBus publisher = t % 2 == 0 ? nodeA : nodeB;
+                tasks.add(writers.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        publisher.publish(EntityType.BOOK, first + i);
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+
+        assertTrue(eventually(() -> seenByA.size() == threads * perThread && seenByB.size() == threads * perThread));
+    }
+
+    @Test
+    void burstOfUpdatesEndsOnTheNewestVersion() throws Exception {
+        InvalidationBus bus = node(new InMemoryInvalidationTransport());
+        AtomicLong lastVersion = new AtomicLong();
+        AtomicInteger calls = new AtomicInteger();
+        bus.subscribe(EntityType.BOOK, message -> {
+            calls.incrementAndGet();
+            lastVersion.set(message.version());
+        });
+
+        for (int version = 1; version <= 1_000; version++) {
+            bus.publish(EntityType.BOOK, 42, version);
+        }
+
+        assertTrue(eventually(() -> lastVersion.get() == 1_000));
+        assertTrue(calls.get() <= 1_000);
+    }
+
+    @Test
+    void gapFlushesEveryListenerAndAFailingOneDoesNotStopTheRest() throws Exception {
+        GapTransport transport = new GapTransport();
+        InvalidationBus bus = node(transport);
+        CountDownLatch flushed = new CountDownLatch(2);
+        bus.subscribe(EntityType.BOOK, new InvalidationListener() {
+            @Override
+            public void invalidate(InvalidationMessage message) {
+            }
+
+            @Override
+            public void invalidateAll() {
+                flushed.countDown();
+                throw new IllegalStateException("listener bug");
+            }
+        });
+        bus.subscribe(EntityType.HOLD, new InvalidationListener() {
+            @Override
+            public void invalidate(InvalidationMessage message) {
+            }
+
+            @Override
+            public void invalidateAll() {
+                flushed.countDown();
+            }
+        });
+
+        transport.onGap.run();
+
+        assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        AtomicInteger heard = new AtomicInteger();
+        bus.subscribe(EntityType.USER, message -> heard.incrementAndGet());
+        transport.sink.accept(new InvalidationMessage(EntityType.USER, "1", 1).encode());
+        assertTrue(eventually(() -> heard.get() == 1));
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private InvalidationBus node(InvalidationTransport transport) {
+        InvalidationBus bus = new InvalidationBus(transport);
+        bus.start();
+        nodes.add(bus);
+        return bus;
+    }
+
+    private static boolean eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return condition.getAsBoolean();
+    }
+
+    // Lets the test report lost messages, like the Postgres transport does after a reconnect
+    private static final class GapTransport implements InvalidationTransport {
+
+        private Consumer<String> sink;
+        private Runnable onGap;
+
+        @Override
+        public void publish(String payload) {
+            sink.accept(payload);
+        }
+
+        @Override
+        public void subscribe(Consumer<String> sink, Runnable onGap) {
+            this.sink = sink;
+            this.onGap = onGap;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.library.library_management.loan;
+
+import com.library.library_management.collection.LongIntHashMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActiveLoanCountersTest {
+
+    private final ActiveLoanCounters counters = new ActiveLoanCounters();
+
+    @Test
+    void concurrentBorrowsNeverExceedTheLimit() throws Exception {
+        int threads = 32;
+        int limit = 3;
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                tasks.add(pool.submit(() -> {
+                    go.await();
+                    if (counters.tryBorrow(7, limit)) {
+                        granted.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> task : tasks) {
+                task.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(limit, granted.get());
+        for (int i = 0; i < limit; i++) {
+            counters.borrowCompleted(7, true);
+        }
+        assertEquals(limit, counters.active(7));
+        assertFalse(counters.tryBorrow(7, limit));
+    }
+
+    @Test
+    void borrowsAndReturnsFromManyThreadsAddUp() throws Exception {
+        int threads = 16;
+        int rounds = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long userId = t % 4 + 1; // four users, four threads each
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < rounds; i++) {
+                        assertTrue(counters.tryBorrow(userId, 0));
+                        counters.borrowCompleted(userId, i % 10 != 5); // every tenth borrow rolls back
+                        if (i % 2 == 0) {
+                            counters.returnStarted(userId);
+                            counters.returnCompleted(userId, true);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // per thread: 1800 committed borrows, 1000 returns — each return follows a committed borrow, so none is dropped at 0
+        for (long userId = 1; userId <= 4; userId++) {
+            assertEquals(4 * (1_800 - 1_000), counters.active(userId));
+        }
+    }
+
+    @Test
+    void reconcileLeavesUsersThatChangedAfterTheStampAlone() {
+        counters.tryBorrow(1, 0);
+        counters.borrowCompleted(1, true);
+        int[] stamp = counters.stamp();
+        LongIntHashMap actual = new LongIntHashMap();
+        actual.addTo(1, 5);
+        actual.addTo(2, 4);
+
+        // User 1 borrows after the database was read — its count there is already stale
+        counters.tryBorrow(1, 0);
+        counters.borrowCompleted(1, true);
+        counters.reconcile(actual, stamp);
+
+        assertEquals(2, counters.active(1));
+        assertEquals(4, counters.active(2));
+    }
+
+    @Test
+    void reconcileSkipsUsersWithABorrowInFlight() {
+        int[] stamp = counters.stamp();
+        counters.tryBorrow(3, 0); // not committed yet
+
+        assertFalse(counters.reconcileUser(3, 9, stamp));
+        counters.borrowCompleted(3, true);
+        assertTrue(counters.reconcileUser(3, 9, counters.stamp()));
+        assertEquals(9, counters.active(3));
+    }
+}
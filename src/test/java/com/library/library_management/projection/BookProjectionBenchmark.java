@@ -0,0 +1,68 @@
+package com.library.library_management.projection;
+
+import com.library.library_management.dto.book.BookResponseDTO;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payload size and serialization time for a catalog page — full DTOs through Jackson vs
+ * ?fields=id,title,author through BookProjection.
+ *
+ * Not a JUnit test (surefire skips *Benchmark classes). Run it by hand:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.library.library_management.projection.BookProjectionBenchmark
+ *
+ * Only measures the JVM side; the narrower SELECT saves database and network time on top of this.
+ */
+public class BookProjectionBenchmark {
+
+    private static final int PAGE_SIZE = 500;
+    private static final int WARMUP = 5_000;
+    private static final int ITERATIONS = 20_000;
+
+    public static void main(String[] args) {
+        JsonMapper mapper = JsonMapper.builder().build();
+        BookProjection projection = BookProjection.parse("id,title,author");
+
+        List<BookResponseDTO> dtos = new ArrayList<>(PAGE_SIZE);
+        List<Object[]> rows = new ArrayList<>(PAGE_SIZE);
+        LocalDateTime created = LocalDateTime.of(2026, 2, 21, 10, 30, 15, 123_456_000);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            long id = i + 1;
+            String title = "The Library Book Volume " + i;
+            String author = "Author Number " + (i % 97);
+            dtos.add(new BookResponseDTO(id, title, author, "978000000" + (1000 + i), 1990 + i % 30, i % 5,
+                    "/api/v1/covers/" + "ab".repeat(32) + ".jpg", created));
+            rows.add(new Object[]{id, title, author});
+        }
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += mapper.writeValueAsBytes(dtos).length + projection.writeList(rows).length;
+        }
+
+        long start = System.nanoTime();
+        int fullBytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            fullBytes = mapper.writeValueAsBytes(dtos).length;
+            sink += fullBytes;
+        }
+        long fullNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        int sparseBytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sparseBytes = projection.writeList(rows).length;
+            sink += sparseBytes;
+        }
+        long sparseNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        System.out.printf("page of %d books%n", PAGE_SIZE);
+        System.out.printf("full DTO (Jackson):          %7d bytes  %8d ns%n", fullBytes, fullNanos);
+        System.out.printf("fields=id,title,author:      %7d bytes  %8d ns%n", sparseBytes, sparseNanos);
+        System.out.println("(checksum " + sink + ")");
+    }
+}
@@ -0,0 +1,61 @@
+package com.library.library_management.recommendation;
+
+import java.util.Random;
+
+/**
+ * Build time of the co-borrow index from a synthetic history, incremental update cost per borrow,
+ * and lookup latency — what GET /books/{id}/recommendations costs (see RecommendationService).
+ *
+ * History: 50k patrons, 20k books, 8 borrows per patron on average, popularity skewed
+ * (a few books are borrowed a lot, most rarely).
+ *
+ * Not a JUnit test (surefire skips *Benchmark classes). Run it by hand:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.library.library_management.recommendation.CoOccurrenceBenchmark
+ */
+public class CoOccurrenceBenchmark {
+
+    private static final int USERS = 50_000;
+    private static final int BOOKS = 20_000;
+    private static final int BORROWS_PER_USER = 8;
+    private static final int INCREMENTAL = 200_000;
+    private static final int LOOKUPS = 5_000_000;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        CoOccurrenceIndex index = new CoOccurrenceIndex(20, 200, 200);
+
+        long start = System.nanoTime();
+        for (int user = 1; user <= USERS; user++) {
+            int borrows = 1 + random.nextInt(BORROWS_PER_USER * 2);
+            for (int i = 0; i < borrows; i++) {
+                index.load(user, skewedBook(random));
+            }
+        }
+        index.countLoadedPairs();
+        System.out.printf("bulk build:   %d patrons, %d books in %d ms%n",
+                index.userCount(), index.bookCount(), (System.nanoTime() - start) / 1_000_000);
+
+        start = System.nanoTime();
+        for (int i = 0; i < INCREMENTAL; i++) {
+            index.addBorrow(1 + random.nextInt(USERS), skewedBook(random));
+        }
+        System.out.printf("addBorrow:    %d ns per borrow%n", (System.nanoTime() - start) / INCREMENTAL);
+
+        long sink = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            sink += index.neighbours(skewedBook(random)).size(); // warm-up
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            sink += index.neighbours(1 + (i % BOOKS)).size();
+        }
+        System.out.printf("neighbours(): %d ns per lookup%n", (System.nanoTime() - start) / LOOKUPS);
+        System.out.println("top of book 1: " + index.neighbours(1) + " (sink " + sink + ")");
+    }
+
+    // Roughly Zipf: low ids are much more popular
+    private static long skewedBook(Random random) {
+        return 1 + (long) (BOOKS * Math.pow(random.nextDouble(), 3));
+    }
+}
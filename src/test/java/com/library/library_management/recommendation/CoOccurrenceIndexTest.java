@@ -0,0 +1,75 @@
+package com.library.library_management.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoOccurrenceIndexTest {
+
+    @Test
+    void neighboursAreRankedBySharedPatronsThenId() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex(3, 10, 50);
+        borrow(index, 1, 100, 200, 300);
+        borrow(index, 2, 100, 300, 400);
+        borrow(index, 3, 100, 300);
+
+        Neighbours neighbours = index.neighbours(100);
+
+        assertArrayEquals(new long[] {300, 200, 400}, neighbours.bookIds());
+        assertArrayEquals(new int[] {3, 1, 1}, neighbours.counts());
+        assertEquals(Neighbours.EMPTY, index.neighbours(999));
+    }
+
+    @Test
+    void sameBorrowTwiceCountsOnce() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex(3, 10, 50);
+        borrow(index, 1, 100, 200);
+
+        assertFalse(index.addBorrow(1, 200));
+        assertTrue(index.addBorrow(2, 200));
+
+        assertArrayEquals(new int[] {1}, index.neighbours(100).counts());
+        assertEquals(2, index.userCount());
+    }
+
+    @Test
+    void onlyThePatronsFirstBooksFormPairs() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex(5, 10, 2);
+        borrow(index, 1, 100, 200, 300);
+
+        assertArrayEquals(new long[] {200}, index.neighbours(100).bookIds());
+        assertEquals(Neighbours.EMPTY, index.neighbours(300));
+    }
+
+    @Test
+    void bulkBuildMatchesIncrementalUpdates() {
+        CoOccurrenceIndex bulk = new CoOccurrenceIndex(5, 1_000, 20);
+        CoOccurrenceIndex incremental = new CoOccurrenceIndex(5, 1_000, 20);
+        Random random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+            long userId = 1 + random.nextInt(100);
+            long bookId = 1 + random.nextInt(60);
+            bulk.load(userId, bookId);
+            incremental.addBorrow(userId, bookId);
+        }
+        bulk.countLoadedPairs();
+
+        assertEquals(incremental.bookCount(), bulk.bookCount());
+        for (long bookId = 1; bookId <= 60; bookId++) {
+            assertEquals(incremental.neighbours(bookId), bulk.neighbours(bookId), "book " + bookId);
+        }
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private static void borrow(CoOccurrenceIndex index, long userId, long... bookIds) {
+        for (long bookId : bookIds) {
+            index.addBorrow(userId, bookId);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.library.library_management.security;
+
+import com.library.library_management.invalidation.InMemoryInvalidationTransport;
+import com.library.library_management.invalidation.InvalidationBus;
+import com.library.library_management.model.RevokedToken;
+import com.library.library_management.model.User;
+import com.library.library_management.repository.RevokedTokenRepository;
+import com.library.library_management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TokenRevocationService revocations = new TokenRevocationService(
+            HOUR, new InvalidationBus(new InMemoryInvalidationTransport()), revokedTokenRepository, userRepository);
+
+    @Test
+    void forceRevokeComparesIssueTimesToTheMillisecond() {
+        long cutoff = System.currentTimeMillis() / 1000 * 1000 + 500;
+        long before = cutoff - 200;
+        long after = cutoff + 300;
+        revocations.revokeAllForUser("ann@example.com", cutoff);
+
+        // Same wall-clock second as the revoke, on either side of it
+        assertTrue(revocations.isRevoked("ann@example.com", "a", before, after + HOUR));
+        assertFalse(revocations.isRevoked("ann@example.com", "b", after + 1, after + HOUR));
+        assertFalse(revocations.isRevoked("bob@example.com", "c", before, after + HOUR));
+    }
+
+    @Test
+    void logoutRevokesOnlyThatToken() {
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        revocations.revokeToken("jti-1", expiresAt);
+
+        assertTrue(revocations.isRevoked("ann@example.com", "jti-1", 0, expiresAt));
+        assertFalse(revocations.isRevoked("ann@example.com", "jti-2", 0, expiresAt));
+    }
+
+    @Test
+    void gapReloadsRevocationsMadeOnOtherNodes() {
+        long now = System.currentTimeMillis();
+        User ann = new User();
+        ann.setEmail("ann@example.com");
+        ann.setTokensRevokedAt(now);
+        when(userRepository.findByTokensRevokedAtGreaterThan(anyLong())).thenReturn(List.of(ann));
+        when(revokedTokenRepository.findByExpiresAtGreaterThan(anyLong()))
+                .thenReturn(List.of(new RevokedToken("jti-9", now + HOUR)));
+
+        revocations.invalidateAll();
+
+        assertTrue(revocations.isRevoked("ann@example.com", null, now - 1, now + HOUR));
+        assertTrue(revocations.isRevoked("bob@example.com", "jti-9", now, now + HOUR));
+    }
+}
@@ -0,0 +1,77 @@
+package com.library.library_management.service;
+
+import com.library.library_management.invalidation.InMemoryInvalidationTransport;
+import com.library.library_management.invalidation.InvalidationBus;
+import com.library.library_management.model.RevokedToken;
+import com.library.library_management.model.User;
+import com.library.library_management.repository.RevokedTokenRepository;
+import com.library.library_management.repository.UserRepository;
+import com.library.library_management.security.JwtUtils;
+import com.library.library_management.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final String ANN = "ann@example.com";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+    private final JwtUtils jwtUtils = mock(JwtUtils.class);
+    private final InvalidationBus invalidationBus = new InvalidationBus(new InMemoryInvalidationTransport());
+    private final TokenRevocationService revocations =
+            new TokenRevocationService(HOUR, invalidationBus, revokedTokenRepository, userRepository);
+    private final AuthService authService = new AuthService(userRepository, mock(PasswordEncoder.class), jwtUtils,
+            revocations, invalidationBus, revokedTokenRepository);
+
+    @Test
+    void logoutOfATokenWithoutJtiRevokesUpToItsIssueTime() {
+        User ann = new User();
+        ann.setEmail(ANN);
+        when(userRepository.findByEmail(ANN)).thenReturn(Optional.of(ann));
+        long issuedAt = System.currentTimeMillis() / 1000 * 1000; // "iat" only holds whole seconds
+        // Issued before jti and iat_ms were added to our tokens
+        Claims legacy = Jwts.claims().subject(ANN).issuedAt(new Date(issuedAt))
+                .expiration(new Date(issuedAt + HOUR)).build();
+        when(jwtUtils.parseClaims("legacy")).thenReturn(legacy);
+
+        authService.logout("legacy");
+
+        verify(revokedTokenRepository, never()).save(any(RevokedToken.class));
+        verify(userRepository).save(ann);
+        assertEquals(issuedAt, ann.getTokensRevokedAt());
+        assertTrue(revocations.isRevoked(ANN, null, issuedAt, issuedAt + HOUR));
+        // The user's tokens from after it — every token with a jti — still work
+        assertFalse(revocations.isRevoked(ANN, "jti-1", issuedAt + 1_500, issuedAt + 1_500 + HOUR));
+    }
+
+    @Test
+    void logoutRevokesATokenWithJtiByItself() {
+        long now = System.currentTimeMillis();
+        Claims claims = Jwts.claims().id("jti-1").subject(ANN).issuedAt(new Date(now))
+                .expiration(new Date(now + HOUR)).build();
+        when(jwtUtils.parseClaims("current")).thenReturn(claims);
+
+        authService.logout("current");
+
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        verify(userRepository, never()).save(any());
+        assertTrue(revocations.isRevoked(ANN, "jti-1", now, now + HOUR));
+        assertFalse(revocations.isRevoked(ANN, "jti-2", now, now + HOUR));
+    }
+}
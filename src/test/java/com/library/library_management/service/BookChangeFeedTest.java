@@ -0,0 +1,64 @@
+package com.library.library_management.service;
+
+import com.library.library_management.service.BookChangeFeed.Change;
+import com.library.library_management.service.BookChangeFeed.ChangeRing;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookChangeFeedTest {
+
+    @Test
+    void resumeReplaysEverythingAfterTheLastSeenEvent() {
+        ChangeRing ring = ringWith(16, 5);
+
+        assertEquals(List.of(4L, 5L), sequences(ring.after(3)));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sequences(ring.after(0)));
+        assertTrue(ring.after(5).isEmpty(), "client is up to date");
+    }
+
+    @Test
+    void resumeAcrossTheWrapReturnsChangesInOrder() {
+        ChangeRing ring = ringWith(16, 40);
+
+        List<Change> missed = ring.after(30);
+
+        assertEquals(List.of(31L, 32L, 33L, 34L, 35L, 36L, 37L, 38L, 39L, 40L), sequences(missed));
+        assertEquals("book", missed.get(0).name());
+        assertEquals("{\"n\":31}", missed.get(0).json());
+    }
+
+    @Test
+    void resetWhenMissedEventsFellOutOfTheBuffer() {
+        ChangeRing ring = ringWith(16, 40);
+
+        assertEquals(16, ring.after(24).size()); // oldest kept is 25
+        assertNull(ring.after(23));
+    }
+
+    @Test
+    void resetForIdsThisRingNeverHandedOut() {
+        ChangeRing ring = ringWith(16, 5);
+
+        assertNull(ring.after(-1), "another node or an earlier run");
+        assertNull(ring.after(6), "ahead of us — we restarted and the sequence started over");
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private static ChangeRing ringWith(int capacity, int changes) {
+        ChangeRing ring = new ChangeRing(capacity);
+        for (int i = 1; i <= changes; i++) {
+            ring.add(BookChangeFeed.EVENT_BOOK, "{\"n\":" + i + "}");
+        }
+        return ring;
+    }
+
+    private static List<Long> sequences(List<Change> changes) {
+        return changes.stream().map(Change::sequence).toList();
+    }
+}
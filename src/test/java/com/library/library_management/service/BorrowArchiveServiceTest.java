@@ -0,0 +1,54 @@
+package com.library.library_management.service;
+
+import com.library.library_management.archive.ArchivedBorrow;
+import com.library.library_management.archive.BorrowArchiveStore;
+import com.library.library_management.archive.BorrowPartitionManager;
+import com.library.library_management.repository.ArchivedBookLoansRepository;
+import com.library.library_management.repository.ArchivedCirculationRepository;
+import com.library.library_management.repository.BookRepository;
+import com.library.library_management.repository.BorrowRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BorrowArchiveServiceTest {
+
+    private final ArchivedBookLoansRepository archivedBookLoansRepository = mock(ArchivedBookLoansRepository.class);
+
+    @TempDir
+    Path shared;
+
+    @TempDir
+    Path local;
+
+    @Test
+    void nodeThatCannotSeeTheSharedArchiveRefusesToStart() {
+        BorrowArchiveStore archiver = new BorrowArchiveStore(shared.toString());
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        archiver.write(List.of(new ArchivedBorrow(1, 7, 100, "Dune", day, day.plusDays(14), day.plusDays(3)),
+                new ArchivedBorrow(2, 8, 100, "Dune", day, day.plusDays(14), day.plusDays(5))));
+        when(archivedBookLoansRepository.sumBorrows()).thenReturn(2L);
+
+        assertDoesNotThrow(() -> service(shared).checkArchiveDirectory());
+        assertThrows(IllegalStateException.class, () -> service(local).checkArchiveDirectory());
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private BorrowArchiveService service(Path archiveDir) {
+        BorrowArchiveStore store = new BorrowArchiveStore(archiveDir.toString()); // lookups index it on first use
+        return new BorrowArchiveService(mock(BorrowRepository.class), mock(ArchivedCirculationRepository.class),
+                archivedBookLoansRepository, mock(BookRepository.class), store, mock(BorrowPartitionManager.class),
+                mock(JdbcTemplate.class), mock(PlatformTransactionManager.class), 365, 1000);
+    }
+}
@@ -0,0 +1,252 @@
+package com.library.library_management.service;
+
+import com.library.library_management.eventlog.CirculationEventLog;
+import com.library.library_management.eventlog.CirculationEventType;
+import com.library.library_management.exception.BusinessException;
+import com.library.library_management.invalidation.InMemoryInvalidationTransport;
+import com.library.library_management.invalidation.InvalidationBus;
+import com.library.library_management.model.Book;
+import com.library.library_management.model.Branch;
+import com.library.library_management.model.BranchInventory;
+import com.library.library_management.model.Hold;
+import com.library.library_management.model.HoldStatus;
+import com.library.library_management.model.User;
+import com.library.library_management.repository.BookRepository;
+import com.library.library_management.repository.HoldRepository;
+import com.library.library_management.repository.HoldRepository.HoldKeys;
+import com.library.library_management.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The races between a hold's own transitions, replayed step by step: each test lets the other side
+ * commit between the first look at the hold and the locks, which is what the locked re-read is for.
+ */
+class HoldServiceTest {
+
+    private static final long BOOK = 10L;
+    private static final long BRANCH = 7L;
+    private static final long HOLD = 1L;
+    private static final String ANN = "ann@example.com";
+
+    private final HoldRepository holdRepository = mock(HoldRepository.class);
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final InventoryService inventoryService = mock(InventoryService.class);
+    private final CirculationEventLog eventLog = mock(CirculationEventLog.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final List<SimpleTransactionStatus> transactions = new ArrayList<>();
+    private final HoldService holds = new HoldService(holdRepository, bookRepository, mock(UserRepository.class),
+            new InvalidationBus(new InMemoryInvalidationTransport()), inventoryService, eventLog, transactionManager, 48);
+
+    private final Book book = new Book();
+    private final Branch branch = new Branch();
+    private final BranchInventory slot = new BranchInventory();
+
+    @BeforeEach
+    void setUp() {
+        book.setId(BOOK);
+        book.setTitle("Dune");
+        branch.setId(BRANCH);
+        slot.setBook(book);
+        slot.setBranch(branch);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            SimpleTransactionStatus status = new SimpleTransactionStatus();
+            transactions.add(status);
+            return status;
+        });
+        when(bookRepository.findByIdForUpdate(BOOK)).thenReturn(Optional.of(book));
+        when(inventoryService.lockSlot(BOOK, BRANCH)).thenReturn(slot);
+    }
+
+    @Test
+    void expiryLosesToABorrowThatGotTheLocksFirst() {
+        when(holdRepository.findExpiredReadyIds(any())).thenReturn(List.of(HOLD));
+        when(holdRepository.findKeysById(HOLD)).thenReturn(Optional.of(keys(HoldStatus.READY, BRANCH)));
+        // The patron borrowed the set-aside copy while the expiry waited for the book row
+        Hold hold = hold(HoldStatus.FULFILLED);
+        when(holdRepository.findByIdForUpdate(HOLD)).thenReturn(Optional.of(hold));
+
+        holds.expireHolds();
+
+        assertEquals(HoldStatus.FULFILLED, hold.getStatus());
+        verify(inventoryService, never()).putBack(any());
+        verify(holdRepository, never()).findFirstByBookIdAndStatusOrderByIdAsc(anyLong(), any());
+    }
+
+    @Test
+    void expiryReleasesTheCopyOfAHoldStillReadyUnderTheLocks() {
+        when(holdRepository.findExpiredReadyIds(any())).thenReturn(List.of(HOLD));
+        when(holdRepository.findKeysById(HOLD)).thenReturn(Optional.of(keys(HoldStatus.READY, BRANCH)));
+        Hold hold = hold(HoldStatus.READY);
+        hold.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(holdRepository.findByIdForUpdate(HOLD)).thenReturn(Optional.of(hold));
+
+        holds.expireHolds();
+
+        assertEquals(HoldStatus.EXPIRED, hold.getStatus());
+        verify(inventoryService).putBack(slot); // nobody waiting → back on its branch's shelf
+        verify(eventLog).appendAfterCommit(CirculationEventType.COPIES_ADJUSTED, BOOK, 0, 0, -1);
+    }
+
+    @Test
+    void cancelOfAHoldPromotedMeanwhileStartsOverWithItsBranchLocked() {
+        // First look: still WAITING. A return promotes it before cancel gets the book row.
+        when(holdRepository.findKeysById(HOLD))
+                .thenReturn(Optional.of(keys(HoldStatus.WAITING, null)))
+                .thenReturn(Optional.of(keys(HoldStatus.READY, BRANCH)));
+        Hold hold = hold(HoldStatus.READY);
+        when(holdRepository.findByIdForUpdate(HOLD)).thenReturn(Optional.of(hold));
+
+        assertEquals(HoldStatus.CANCELLED, holds.cancelHold(HOLD, ANN).getStatus());
+
+        assertEquals(2, transactions.size());
+        assertTrue(transactions.get(0).isRollbackOnly());
+        assertFalse(transactions.get(1).isRollbackOnly());
+        verify(inventoryService, times(1)).lockSlot(BOOK, BRANCH);
+        verify(inventoryService).putBack(slot); // the set-aside copy isn't lost
+    }
+
+    @Test
+    void cancelOfAHoldThatExpiredMeanwhileChangesNothing() {
+        when(holdRepository.findKeysById(HOLD)).thenReturn(Optional.of(keys(HoldStatus.READY, BRANCH)));
+        Hold hold = hold(HoldStatus.EXPIRED);
+        when(holdRepository.findByIdForUpdate(HOLD)).thenReturn(Optional.of(hold));
+
+        assertThrows(BusinessException.class, () -> holds.cancelHold(HOLD, ANN));
+
+        assertEquals(HoldStatus.EXPIRED, hold.getStatus());
+        verify(inventoryService, never()).putBack(any());
+    }
+
+    @Test
+    void addedCopiesGoToTheLineInOrderBeforeTheShelf() {
+        slot.setCopiesAvailable(3);
+        Hold first = hold(HoldStatus.WAITING);
+        Hold second = hold(HoldStatus.WAITING);
+        second.setId(2L);
+        when(holdRepository.existsByBookIdAndStatus(BOOK, HoldStatus.WAITING)).thenReturn(true);
+        when(holdRepository.findByBookIdAndStatusOrderByIdAsc(BOOK, HoldStatus.WAITING, Limit.of(3)))
+                .thenReturn(List.of(first, second));
+
+        holds.handOutCopies(BOOK, slot);
+
+        assertEquals(HoldStatus.READY, first.getStatus());
+        assertEquals(HoldStatus.READY, second.getStatus());
+        assertEquals(branch, second.getBranch());
+        verify(inventoryService, times(2)).takeFrom(slot);
+    }
+
+    @Test
+    void returnedCopyGoesToTheOldestWaitingHold() {
+        Hold oldest = hold(HoldStatus.WAITING);
+        when(holdRepository.existsByBookIdAndStatus(BOOK, HoldStatus.WAITING)).thenReturn(true);
+        when(holdRepository.findFirstByBookIdAndStatusOrderByIdAsc(BOOK, HoldStatus.WAITING))
+                .thenReturn(Optional.of(oldest));
+
+        assertFalse(holds.releaseCopy(BOOK, slot));
+
+        assertEquals(HoldStatus.READY, oldest.getStatus());
+        assertEquals(branch, oldest.getBranch());
+        assertTrue(oldest.getExpiresAt().isAfter(LocalDateTime.now().plusHours(47)));
+        verify(bookRepository).findByIdForUpdate(BOOK);
+        verify(inventoryService, never()).putBack(any());
+    }
+
+    @Test
+    void returnedCopyGoesBackOnTheShelfWhenTheLineEmptiedMeanwhile() {
+        when(holdRepository.existsByBookIdAndStatus(BOOK, HoldStatus.WAITING)).thenReturn(true);
+        when(holdRepository.findFirstByBookIdAndStatusOrderByIdAsc(BOOK, HoldStatus.WAITING))
+                .thenReturn(Optional.empty());
+
+        assertTrue(holds.releaseCopy(BOOK, slot));
+
+        verify(inventoryService).putBack(slot);
+    }
+
+    @Test
+    void borrowWhoseHoldExpiredMeanwhileLocksNothingBeforeTakingACopy() {
+        User ann = hold(HoldStatus.READY).getUser();
+        ann.setId(5L);
+        when(holdRepository.findReadyId(5L, BOOK)).thenReturn(Optional.of(HOLD));
+        when(holdRepository.fulfillIfReady(HOLD)).thenReturn(0); // the expiry committed first
+
+        assertNull(holds.fulfillReadyHold(ann, BOOK));
+
+        // The caller locks branch rows next — holding the book row now could deadlock with a return
+        verify(bookRepository, never()).findByIdForUpdate(anyLong());
+        verify(inventoryService, never()).lockSlot(anyLong(), any());
+    }
+
+    @Test
+    void borrowPicksUpTheCopySetAsideForItsHold() {
+        User ann = hold(HoldStatus.READY).getUser();
+        ann.setId(5L);
+        Hold fulfilled = hold(HoldStatus.FULFILLED);
+        when(holdRepository.findReadyId(5L, BOOK)).thenReturn(Optional.of(HOLD));
+        when(holdRepository.fulfillIfReady(HOLD)).thenReturn(1);
+        when(holdRepository.findById(HOLD)).thenReturn(Optional.of(fulfilled));
+
+        assertEquals(branch, holds.fulfillReadyHold(ann, BOOK).getBranch());
+
+        verify(bookRepository, never()).findByIdForUpdate(anyLong());
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private Hold hold(HoldStatus status) {
+        User user = new User();
+        user.setEmail(ANN);
+        Hold hold = new Hold();
+        hold.setId(HOLD);
+        hold.setUser(user);
+        hold.setBook(book);
+        hold.setStatus(status);
+        hold.setBranch(status == HoldStatus.WAITING ? null : branch);
+        return hold;
+    }
+
+    private static HoldKeys keys(HoldStatus status, Long branchId) {
+        return new HoldKeys() {
+            @Override
+            public Long getBookId() {
+                return BOOK;
+            }
+
+            @Override
+            public Long getBranchId() {
+                return branchId;
+            }
+
+            @Override
+            public HoldStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public String getEmail() {
+                return ANN;
+            }
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.library.library_management.service;
+
+import com.library.library_management.exception.ResourceNotFoundException;
+import com.library.library_management.inventory.BookAvailabilityAggregator;
+import com.library.library_management.model.BranchInventory;
+import com.library.library_management.repository.BookRepository;
+import com.library.library_management.repository.BranchInventoryRepository;
+import com.library.library_management.repository.BranchRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryServiceTest {
+
+    private static final long BOOK = 7L;
+
+    private final BranchRepository branchRepository = mock(BranchRepository.class);
+    private final BranchInventoryRepository inventoryRepository = mock(BranchInventoryRepository.class);
+    private final BookAvailabilityAggregator aggregator = mock(BookAvailabilityAggregator.class);
+    private final InventoryService inventoryService = new InventoryService(branchRepository, inventoryRepository,
+            mock(BookRepository.class), aggregator, mock(JdbcTemplate.class), mock(PlatformTransactionManager.class),
+            mock(EntityManagerFactory.class), "Main");
+
+    @Test
+    void takesTheRowSkipLockedHandsOut() {
+        BranchInventory stocked = row(1L, 3);
+        when(inventoryRepository.findStockedSkipLocked(BOOK, Limit.of(1))).thenReturn(List.of(stocked));
+
+        assertSame(stocked, inventoryService.takeCopy(BOOK, null));
+
+        assertEquals(2, stocked.getCopiesAvailable());
+        verify(aggregator).markChanged(BOOK);
+        verify(inventoryRepository, never()).findAllByBookIdForUpdate(anyLong());
+    }
+
+    @Test
+    void waitsForLockedRowsWhenEveryStockedRowIsTaken() {
+        BranchInventory emptied = row(1L, 0);
+        BranchInventory stocked = row(2L, 1);
+        when(inventoryRepository.findStockedSkipLocked(any(), any())).thenReturn(List.of());
+        when(inventoryRepository.findAllByBookIdForUpdate(BOOK)).thenReturn(List.of(emptied, stocked));
+
+        assertSame(stocked, inventoryService.takeCopy(BOOK, null));
+
+        assertEquals(0, stocked.getCopiesAvailable());
+        assertEquals(0, emptied.getCopiesAvailable());
+    }
+
+    @Test
+    void outOfStockEverywhereTakesNothing() {
+        when(inventoryRepository.findStockedSkipLocked(any(), any())).thenReturn(List.of());
+        when(inventoryRepository.findAllByBookIdForUpdate(BOOK)).thenReturn(List.of(row(1L, 0), row(2L, 0)));
+
+        assertNull(inventoryService.takeCopy(BOOK, null));
+
+        verify(aggregator, never()).markChanged(anyLong());
+    }
+
+    @Test
+    void requestedBranchIsUsedEvenIfOthersHaveStock() {
+        BranchInventory branchRow = row(5L, 0);
+        when(inventoryRepository.findForUpdate(BOOK, 5L)).thenReturn(Optional.of(branchRow));
+
+        assertNull(inventoryService.takeCopy(BOOK, 5L));
+
+        verify(inventoryRepository, never()).findStockedSkipLocked(any(), any());
+        verify(aggregator, never()).markChanged(anyLong());
+    }
+
+    @Test
+    void unknownBranchIsNotFound() {
+        when(inventoryRepository.findForUpdate(BOOK, 9L)).thenReturn(Optional.empty());
+        when(branchRepository.existsById(9L)).thenReturn(false);
+        when(branchRepository.existsById(8L)).thenReturn(true);
+
+        assertThrows(ResourceNotFoundException.class, () -> inventoryService.takeCopy(BOOK, 9L));
+        assertNull(inventoryService.takeCopy(BOOK, 8L)); // branch exists, just never stocked this book
+    }
+
+    // ======================== HELPER METHODS ========================
+
+    private static BranchInventory row(Long id, int copiesAvailable) {
+        BranchInventory row = new BranchInventory();
+        row.setId(id);
+        row.setCopiesAvailable(copiesAvailable);
+        return row;
+    }
+}
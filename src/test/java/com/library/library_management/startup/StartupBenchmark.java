@@ -0,0 +1,164 @@
+package com.library.library_management.startup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time from process start to the first served request, for each startup mode:
+ *   default     java -jar app.jar
+ *   fast-start  + --spring.profiles.active=fast-start (no schema mutation, see application-fast-start.properties)
+ *   aot         + -Dspring.aot.enabled=true (needs a jar built with mvn -Pstartup package)
+ *   cds         + a class-data-sharing archive (created on first use under target/cds)
+ *
+ * Each mode is started `runs` times, round-robin (so drift on the machine hits every mode alike);
+ * prints min / median / max and the app's own StartupTimingReport of the last run.
+ * Needs the app's normal environment (database, JWT_SECRET, ...) — it starts the real jar.
+ *
+ * Not a JUnit test (surefire skips *Benchmark classes). Run it by hand:
+ *   mvn -Pstartup -DskipTests package && mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.library.library_management.startup.StartupBenchmark -Dexec.args="5 default,fast-start,aot,cds"
+ */
+public class StartupBenchmark {
+
+    private static final int PORT = Integer.getInteger("port", 18081);
+    private static final String PATH = System.getProperty("path", "/actuator/health");
+    private static final Duration GIVE_UP = Duration.ofMinutes(2);
+    private static final Path CDS_DIR = Path.of("target", "cds");
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        List<String> modes = Arrays.asList((args.length > 1 ? args[1] : "default,fast-start,aot,cds").split(","));
+        Path jar = findJar(Path.of("target"));
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        Map<String, List<Long>> results = new LinkedHashMap<>();
+        Map<String, Path> lastLogs = new LinkedHashMap<>();
+        for (String mode : modes) {
+            results.put(mode, new ArrayList<>());
+        }
+        for (int run = 1; run <= runs; run++) {
+            for (String mode : modes) {
+                Path log = Files.createTempFile("startup-" + mode + "-", ".log");
+                long millis = startAndTime(command(java, jar, mode), log);
+                results.get(mode).add(millis);
+                lastLogs.put(mode, log);
+                System.out.printf("run %d %-10s %6d ms%n", run, mode, millis);
+            }
+        }
+
+        System.out.printf("%n%-10s %8s %8s %8s   (ms to first response from %s)%n", "mode", "min", "median", "max", PATH);
+        for (Map.Entry<String, List<Long>> entry : results.entrySet()) {
+            long[] sorted = entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%-10s %8d %8d %8d%n", entry.getKey(), sorted[0], sorted[sorted.length / 2], sorted[sorted.length - 1]);
+        }
+        for (Map.Entry<String, Path> entry : lastLogs.entrySet()) {
+            System.out.printf("%n--- %s, last run ---%n", entry.getKey());
+            printReport(entry.getValue());
+        }
+    }
+
+    private static List<String> command(String java, Path jar, String mode) throws Exception {
+        List<String> command = new ArrayList<>(List.of(java));
+        switch (mode) {
+            case "default" -> command.addAll(List.of("-jar", jar.toString()));
+            case "fast-start" -> command.addAll(List.of("-jar", jar.toString(), "--spring.profiles.active=fast-start"));
+            case "aot" -> command.addAll(List.of("-Dspring.aot.enabled=true", "-jar", jar.toString(),
+                    "--spring.profiles.active=fast-start"));
+            case "cds" -> {
+                Path archive = prepareCds(java, jar);
+                command.addAll(List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true",
+                        "-jar", findJar(CDS_DIR).toString(), "--spring.profiles.active=fast-start"));
+            }
+            default -> throw new IllegalArgumentException("Unknown mode " + mode + " (default, fast-start, aot, cds)");
+        }
+        command.add("--server.port=" + PORT);
+        return command;
+    }
+
+    // Extracts the jar (CDS needs a plain classpath, not nested jars), then a training run that
+    // stops right after the context refresh and dumps the loaded classes into the archive.
+    private static Path prepareCds(String java, Path jar) throws Exception {
+        Path archive = CDS_DIR.resolve("application.jsa");
+        if (Files.exists(archive)) {
+            return archive;
+        }
+        run(List.of(java, "-Djarmode=tools", "-jar", jar.toString(), "extract", "--force", "--destination", CDS_DIR.toString()));
+        run(List.of(java, "-XX:ArchiveClassesAtExit=" + archive, "-Dspring.context.exit=onRefresh",
+                "-Dspring.aot.enabled=true", "-jar", findJar(CDS_DIR).toString(), "--spring.profiles.active=fast-start"));
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException("CDS training run produced no archive");
+        }
+        return archive;
+    }
+
+    private static long startAndTime(List<String> command, Path log) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + PORT + PATH))
+                .timeout(Duration.ofSeconds(5)).build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            while (System.nanoTime() - start < GIVE_UP.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("App exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No response within " + GIVE_UP + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void run(List<String> command) throws Exception {
+        int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+        if (exit != 0) {
+            throw new IllegalStateException(String.join(" ", command) + " exited with " + exit);
+        }
+    }
+
+    private static void printReport(Path log) throws IOException {
+        boolean inReport = false;
+        for (String line : Files.readAllLines(log)) {
+            if (line.contains("Startup timing")) {
+                inReport = true;
+                System.out.println(line.substring(line.indexOf("Startup timing")));
+            } else if (inReport && line.startsWith("  ")) {
+                System.out.println(line);
+            } else {
+                inReport = false;
+            }
+        }
+    }
+
+    private static Path findJar(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".jar") && !file.toString().endsWith("-plain.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No jar in " + directory + " — run mvn package first"));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.library.library_management.storage;
+
+import com.library.library_management.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoverStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void storesTheOriginalAndEveryThumbnail() throws IOException {
+        CoverStore store = new CoverStore(dir.toString(), 1_000);
+
+        CoverStore.StoredCover cover = store.store(png(20, 30));
+
+        assertEquals("png", cover.format());
+        assertTrue(Files.exists(store.resolveOriginal(cover.fileName())));
+        for (CoverSize size : CoverSize.values()) {
+            assertTrue(Files.exists(store.resolveThumbnail(cover.hash(), size)));
+        }
+    }
+
+    @Test
+    void rejectsImagesWithTooManyPixelsBeforeDecodingThem() throws IOException {
+        CoverStore store = new CoverStore(dir.toString(), 1_000);
+
+        assertThrows(BusinessException.class, () -> store.store(png(40, 40)));
+        assertFalse(Files.exists(dir.resolve("thumbs")));
+    }
+
+    @Test
+    void rejectsBytesThatAreNotAnImage() {
+        CoverStore store = new CoverStore(dir.toString(), 1_000);
+
+        assertThrows(BusinessException.class, () -> store.store("<svg/>".getBytes()));
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}